@@ -0,0 +1,123 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.model.Signal;
+import com.aem.ai.scanner.model.TradeModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TriggerIndex} against the linear hitTarget/hitStop scan it replaced, for one symbol with
+ * {@code trades} open trades.
+ *
+ * quietTick*: a price inside every trade's stop/target band, the common case of a live tick.
+ * buildIndex: sorting the ladders, paid once per resync.
+ * replay*: build from the open trades, then a 1024-tick random walk that fires some of them
+ * (building is part of the cost, as the tick monitor rebuilds on every resync).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriggerIndexBenchmark {
+
+    private static final String SYMBOL = "INFY";
+
+    @Param({"10", "100", "1000", "10000"})
+    public int trades;
+
+    private List<TradeModel> open;
+    private TriggerIndex quietIndex;
+    private double[] walk;
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        InstrumentSymbol symbol = new InstrumentSymbol(SYMBOL, "NSE_EQ|INE009A01021");
+        open = new ArrayList<>(trades);
+        for (int i = 0; i < trades; i++) {
+            boolean buy = rnd.nextBoolean();
+            double entry = 1000 + rnd.nextGaussian() * 20;
+            double stopGap = 5 + rnd.nextDouble() * 40;
+            double targetGap = 5 + rnd.nextDouble() * 60;
+            TradeModel t = new TradeModel(symbol, buy ? Signal.Side.BUY : Signal.Side.SELL, entry,
+                    buy ? entry - stopGap : entry + stopGap,
+                    buy ? entry + targetGap : entry - targetGap, 1);
+            t.setTradeId("T" + i);
+            open.add(t);
+        }
+        quietIndex = new TriggerIndex(open);
+
+        walk = new double[1024];
+        double price = 1000;
+        for (int i = 0; i < walk.length; i++) {
+            price += rnd.nextGaussian() * 2;
+            walk[i] = price;
+        }
+    }
+
+    @Benchmark
+    public List<TradeModel> quietTickIndex() {
+        return quietIndex.crossed(SYMBOL, 1000);
+    }
+
+    @Benchmark
+    public List<TradeModel> quietTickLinear() {
+        return linearCrossed(open, 1000, false);
+    }
+
+    @Benchmark
+    public TriggerIndex buildIndex() {
+        return new TriggerIndex(open);
+    }
+
+    @Benchmark
+    public void replayIndex(Blackhole bh) {
+        TriggerIndex index = new TriggerIndex(open);
+        for (double price : walk) {
+            bh.consume(index.crossed(SYMBOL, price));
+        }
+    }
+
+    @Benchmark
+    public void replayLinear(Blackhole bh) {
+        List<TradeModel> live = new ArrayList<>(open);
+        for (double price : walk) {
+            bh.consume(linearCrossed(live, price, true));
+        }
+    }
+
+    /** The scan TriggerIndex replaced: check both levels of every open trade on every price. */
+    private static List<TradeModel> linearCrossed(List<TradeModel> live, double ltp, boolean remove) {
+        List<TradeModel> hit = new ArrayList<>(1);
+        for (Iterator<TradeModel> it = live.iterator(); it.hasNext(); ) {
+            TradeModel t = it.next();
+            boolean buy = t.getSide() == Signal.Side.BUY;
+            boolean hitTarget = buy ? ltp >= t.getTarget() : ltp <= t.getTarget();
+            boolean hitStop = buy ? ltp <= t.getStopLoss() : ltp >= t.getStopLoss();
+            if (hitTarget || hitStop) {
+                hit.add(t);
+                if (remove) it.remove();
+            }
+        }
+        return hit;
+    }
+}
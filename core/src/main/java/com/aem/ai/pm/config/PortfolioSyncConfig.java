@@ -8,8 +8,10 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 public @interface PortfolioSyncConfig {
     @AttributeDefinition(name = "Enabled") boolean enabled() default true;
     @AttributeDefinition(name = "Cron (Quartz)") String cron() default "0 0/5 * * * ?"; // every 5 min
-    @AttributeDefinition(name = "Max Parallel Accounts") int parallelism() default 4;
+    @AttributeDefinition(name = "Max Parallel Accounts", description = "Per broker when concurrent sync is on: each broker gets its own pool of up to this many threads") int parallelism() default 4;
     @AttributeDefinition(name = "HTTP Timeout ms") int httpTimeoutMs() default 15000;
     @AttributeDefinition(name = "Max Retries") int maxRetries() default 3;
     @AttributeDefinition(name = "Initial Backoff ms") int backoffMs() default 500;
+    @AttributeDefinition(name = "Concurrent sync") boolean concurrent() default true;
+    @AttributeDefinition(name = "Run Deadline seconds") int runDeadlineSeconds() default 240; // below the cron interval
 }
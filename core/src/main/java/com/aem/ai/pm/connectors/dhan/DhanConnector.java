@@ -15,11 +15,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.net.http.HttpResponse;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Component(service = BrokerConnector.class, immediate = true)
 public class DhanConnector implements BrokerConnector {
@@ -75,18 +77,26 @@ public class DhanConnector implements BrokerConnector {
             String positionsEndpoint = cfg.positionsEndpoint() != null ? cfg.positionsEndpoint() : "/positions";
             String fundsEndpoint = cfg.fundsEndpoint() != null ? cfg.fundsEndpoint() : "/fundlimit";
 
+            // Holdings, positions and funds in parallel
+            CompletableFuture<HttpResponse<String>> holdingsCall =
+                    http.getAsync(brokerCode(), "portfolio", cfg.baseUrl() + holdingsEndpoint, headers, cfg.timeoutMs());
+            CompletableFuture<HttpResponse<String>> positionsCall =
+                    http.getAsync(brokerCode(), "portfolio", cfg.baseUrl() + positionsEndpoint, headers, cfg.timeoutMs());
+            CompletableFuture<HttpResponse<String>> fundsCall =
+                    http.getAsync(brokerCode(), "portfolio", cfg.baseUrl() + fundsEndpoint, headers, cfg.timeoutMs());
+
             // 1) Holdings
-            String holdingsJson = http.get(cfg.baseUrl() + holdingsEndpoint, headers, cfg.timeoutMs());
+            String holdingsJson = HttpClientService.await(holdingsCall).body();
             List<HoldingItem> holdings = mapDhanHoldings(holdingsJson);
             log.info(GREEN + "✅ Holdings fetched: {} instruments" + RESET, holdings.size());
 
             // 2) Positions
-            String positionsJson = http.get(cfg.baseUrl() + positionsEndpoint, headers, cfg.timeoutMs());
+            String positionsJson = HttpClientService.await(positionsCall).body();
             List<PositionItem> positions = mapDhanPositions(positionsJson);
             log.info(GREEN + "✅ Positions fetched: {} items" + RESET, positions.size());
 
             // 3) Funds
-            String fundsJson = http.get(cfg.baseUrl() + fundsEndpoint, headers, cfg.timeoutMs());
+            String fundsJson = HttpClientService.await(fundsCall).body();
             CashSummary cash = mapDhanFunds(fundsJson);
             log.info(GREEN + "✅ Cash summary fetched. Available={} Used={}" + RESET, cash.available, cash.used);
 
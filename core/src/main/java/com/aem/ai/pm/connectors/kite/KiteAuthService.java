@@ -2,7 +2,27 @@ package com.aem.ai.pm.connectors.kite;
 
 import com.aem.ai.pm.dto.UserBrokerAccount;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
 public interface KiteAuthService {
+
+    /** Kite access tokens stay valid until the next 06:00 in Asia/Kolkata. */
+    ZoneId KITE_ZONE = ZoneId.of("Asia/Kolkata");
+    LocalTime KITE_TOKEN_RESET = LocalTime.of(6, 0);
+
+    /** Expiry (local JVM time, like the other broker_token timestamps) of a token valid at {@code at}. */
+    static LocalDateTime tokenExpiry(ZonedDateTime at) {
+        ZonedDateTime ist = at.withZoneSameInstant(KITE_ZONE);
+        LocalDate day = ist.toLocalTime().isBefore(KITE_TOKEN_RESET) ? ist.toLocalDate() : ist.toLocalDate().plusDays(1);
+        return ZonedDateTime.of(day, KITE_TOKEN_RESET, KITE_ZONE)
+                .withZoneSameInstant(ZoneId.systemDefault())
+                .toLocalDateTime();
+    }
+
     /**
      * Exchanges the request_token for an access_token and stores in DB
      *
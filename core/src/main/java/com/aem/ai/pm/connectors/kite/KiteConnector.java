@@ -5,6 +5,7 @@ import com.aem.ai.pm.connectors.BrokerConnector;
 import com.aem.ai.pm.dto.*;
 import com.aem.ai.pm.net.HttpClientService;
 import com.aem.ai.pm.services.AccountRegistryService;
+import com.aem.ai.pm.services.BrokerTokenCache;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
@@ -18,10 +19,12 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.net.http.HttpResponse;
 import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Component(service = BrokerConnector.class, immediate = true)
 public class KiteConnector implements BrokerConnector {
@@ -43,6 +46,9 @@ public class KiteConnector implements BrokerConnector {
     @Reference
     private KiteAuthService kiteAuthService;
 
+    @Reference
+    private BrokerTokenCache tokenCache;
+
     private volatile KiteConfig cfg;
     private final ObjectMapper om = new ObjectMapper();
 
@@ -69,39 +75,51 @@ public class KiteConnector implements BrokerConnector {
         log.info(YELLOW + "📥 Fetching portfolio for accountId={}..." + RESET, acc.userBrokerAccountId);
 
         try {
-            // 1️⃣ Exchange request_token for access_token via KiteAuthService
-            String accessToken = kiteAuthService.getAccessTokenAndStoreToken(
-                    acc.requestToken,
-                    null,
-                    acc.getBrokerAccountRef(),
-                    acc.getApiKey(),
-                    acc.getApiSecrete(),
-                    "ZERODHA"
-            );
+            // 1️⃣ Access token from the cache; the single-use request_token is exchanged only on a miss,
+            // never ahead of expiry (a Kite token cannot be renewed without a new login)
+            String accessToken = tokenCache.accessToken(brokerCode(), acc.getBrokerAccountRef(), () -> {
+                BrokerToken token = new BrokerToken();
+                token.setAccessToken(kiteAuthService.getAccessTokenAndStoreToken(
+                        acc.requestToken,
+                        null,
+                        acc.getBrokerAccountRef(),
+                        acc.getApiKey(),
+                        acc.getApiSecrete(),
+                        "ZERODHA"
+                ));
+                token.setTokenExpiry(KiteAuthService.tokenExpiry(ZonedDateTime.now()));
+                return token;
+            }, false);
 
             if (StringUtils.isEmpty(accessToken)) {
                 log.error(RED + "❌ Failed to fetch access token for accountId={}" + RESET, acc.userBrokerAccountId);
                 throw new BrokerException("Failed to fetch access token for accountId=" + acc.userBrokerAccountId, -1, null);
             }
 
-            log.info(GREEN + "✅ Access token fetched successfully for accountId={}" + RESET, acc.userBrokerAccountId);
+            log.debug(GREEN + "✅ Access token ready for accountId={}" + RESET, acc.userBrokerAccountId);
 
-            // 2️⃣ Fetch holdings via REST
+            // 2️⃣ Headers for the portfolio REST calls
             Map<String, String> headers = new HashMap<>();
             headers.put("X-Kite-Version", "3");
             headers.put("Authorization", "token " + acc.getApiKey() + ":" + accessToken);
 
-            String holdingsJson = http.get(cfg.baseUrl() + "/portfolio/holdings", headers,1000);
+            // 3️⃣ Holdings, positions and margins/funds in parallel
+            CompletableFuture<HttpResponse<String>> holdingsCall =
+                    http.getAsync(brokerCode(), "portfolio", cfg.baseUrl() + "/portfolio/holdings", headers, 1000);
+            CompletableFuture<HttpResponse<String>> positionsCall =
+                    http.getAsync(brokerCode(), "portfolio", cfg.baseUrl() + "/portfolio/positions", headers, 1000);
+            CompletableFuture<HttpResponse<String>> marginCall =
+                    http.getAsync(brokerCode(), "portfolio", cfg.baseUrl() + "/portfolio/margins/equity", headers, 1000);
+
+            String holdingsJson = body(HttpClientService.await(holdingsCall), acc, accessToken, "holdings");
             List<HoldingItem> holdings = mapKiteHoldings(holdingsJson);
             log.info(GREEN + "✅ Holdings fetched: {} instruments" + RESET, holdings.size());
 
-// 3️⃣ Fetch positions via REST
-            String positionsJson = http.get(cfg.baseUrl() + "/portfolio/positions", headers,1000);
+            String positionsJson = body(HttpClientService.await(positionsCall), acc, accessToken, "positions");
             List<PositionItem> positions = mapKitePositions(positionsJson);
             log.info(GREEN + "✅ Positions fetched: {} items" + RESET, positions.size());
 
-// 4️⃣ Fetch margins/funds via REST
-            String marginJson = http.get(cfg.baseUrl() + "/portfolio/margins/equity", headers,1000);
+            String marginJson = body(HttpClientService.await(marginCall), acc, accessToken, "margin");
             CashSummary cash = mapKiteFunds(marginJson);
             log.info(GREEN + "✅ Cash summary fetched. Available={} Used={}" + RESET, cash.available, cash.used);
 
@@ -110,6 +128,8 @@ public class KiteConnector implements BrokerConnector {
             portfolioSnapshot.setPositionsJson(positionsJson);
             return portfolioSnapshot;
 
+        } catch (BrokerException be) {
+            throw be;
         } catch (Exception e) {
             log.error(RED + "❌ Error fetching portfolio: {}" + RESET, e.getMessage(), e);
             throw new BrokerException("Kite fetch failed: " + e.getMessage(), -1, e);
@@ -117,6 +137,16 @@ public class KiteConnector implements BrokerConnector {
     }
 
 
+    /** A 403 means Kite rejected the token (expired early or logged out): drop it and refuse its stored copy. */
+    private String body(HttpResponse<String> r, BrokerAccountRef acc, String accessToken, String ctx) throws BrokerException {
+        if (r.statusCode() == 403) {
+            tokenCache.invalidate(brokerCode(), acc.getBrokerAccountRef(), accessToken);
+            log.warn(RED + "⚠️ Kite {} rejected the access token for accountId={}" + RESET, ctx, acc.userBrokerAccountId);
+            throw new BrokerException("Kite " + ctx + " HTTP 403: " + r.body(), 403, null);
+        }
+        return r.body();
+    }
+
     private String kiteInferInstr(String product, String optionType, String expiry){
         if (StringUtils.isNotEmpty(optionType)) return "OPT";
         if (StringUtils.isNotEmpty(expiry) || "FUT".equalsIgnoreCase(product)) return "FUT";
@@ -17,6 +17,9 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -64,7 +67,7 @@ public class KiteAuthServiceImpl implements KiteAuthService {
             JsonNode userNode = om.readTree(responseJson).path("data");
             String accessToken = userNode.path("access_token").asText();
             String publicToken = userNode.path("public_token").asText();
-            long tokenExpiry = 24 * 60 * 60;
+            LocalDateTime tokenExpiry = KiteAuthService.tokenExpiry(ZonedDateTime.now());
 
             Long brokerAccountId = userBrokerAccount == null ?  getBrokerAccountId(userNode.path("user_id").asText(), brokerAccountRef) :userBrokerAccount.getAccountId();
             if (brokerAccountId == null) {
@@ -74,7 +77,7 @@ public class KiteAuthServiceImpl implements KiteAuthService {
             }
             // 3️⃣ Save new token in DB
             upsertBrokerToken(brokerAccountId, userBrokerAccount.getUserId(), brokerName,
-                    accessToken, publicToken, String.valueOf(tokenExpiry),brokerAccountRef);
+                    accessToken, publicToken, Timestamp.valueOf(tokenExpiry),brokerAccountRef);
 
             log.info("✅ New access token stored successfully for broker={} / account={}", userBrokerAccount, brokerAccountRef);
             return accessToken;
@@ -134,7 +137,7 @@ public class KiteAuthServiceImpl implements KiteAuthService {
 
 
     private void upsertBrokerToken(Long brokerAccountId, long userId, String brokerName,
-                                   String accessToken, String refreshToken, String tokenExpiry, String brokerAccountRef) {
+                                   String accessToken, String refreshToken, Timestamp tokenExpiry, String brokerAccountRef) {
         try (Connection con = getDataSource().getConnection()) {
             // Create table if not exists
             String createTableSQL = "CREATE TABLE IF NOT EXISTS broker_token (" +
@@ -145,7 +148,7 @@ public class KiteAuthServiceImpl implements KiteAuthService {
                     "broker_name VARCHAR(50)," +
                     "access_token VARCHAR(512)," +
                     "refresh_token VARCHAR(512)," +
-                    "token_expiry VARCHAR(128)," +
+                    "token_expiry DATETIME NULL," +
                     "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
                     "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP," +
                     "UNIQUE KEY uq_broker_account (broker_account_id)" +
@@ -171,7 +174,7 @@ public class KiteAuthServiceImpl implements KiteAuthService {
                 ps.setString(4, brokerName);
                 ps.setString(5, accessToken);
                 ps.setString(6, refreshToken);
-                ps.setString(7, tokenExpiry);
+                ps.setTimestamp(7, tokenExpiry);
                 ps.executeUpdate();
                 log.info("Broker token upserted for broker_account_id {}", brokerAccountId);
                 con.commit();
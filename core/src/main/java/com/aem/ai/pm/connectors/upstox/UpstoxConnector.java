@@ -20,6 +20,7 @@ import java.net.http.HttpResponse;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Component(service = BrokerConnector.class, immediate = true)
 public class UpstoxConnector implements BrokerConnector {
@@ -61,20 +62,25 @@ public class UpstoxConnector implements BrokerConnector {
         try {
             String auth = "Bearer " + acc.accessToken;
 
-            HttpResponse<String> h = Retry.exec(3, 300, () ->
-                    unchecked(() -> http.get(cfg.baseUrl()+ cfg.holdingsEndpoint(), auth, 15000)));
+            // holdings, positions and funds go out together; a failed call falls back to the blocking retry
+            CompletableFuture<HttpResponse<String>> holdingsCall =
+                    http.getAsync(brokerCode(), "portfolio", cfg.baseUrl() + cfg.holdingsEndpoint(), auth, 15000);
+            CompletableFuture<HttpResponse<String>> positionsCall =
+                    http.getAsync(brokerCode(), "portfolio", cfg.baseUrl() + cfg.positionsEndpoint(), auth, 15000);
+            CompletableFuture<HttpResponse<String>> fundsCall =
+                    http.getAsync(brokerCode(), "portfolio", cfg.baseUrl() + cfg.fundsEndpoint(), auth, 15000);
+
+            HttpResponse<String> h = awaitOrRetry(holdingsCall, cfg.holdingsEndpoint(), auth);
             ensure2xx(h, "holdings");
             List<HoldingItem> holdings = mapHoldings(h.body());
             log.info(GREEN + "✅ Holdings fetched: {} items" + RESET, holdings.size());
 
-            HttpResponse<String> p = Retry.exec(3, 300, () ->
-                    unchecked(() -> http.get(cfg.baseUrl()+ cfg.positionsEndpoint(), auth, 15000)));
+            HttpResponse<String> p = awaitOrRetry(positionsCall, cfg.positionsEndpoint(), auth);
             ensure2xx(p, "positions");
             List<PositionItem> positions = mapPositions(p.body());
             log.info(GREEN + "✅ Positions fetched: {} items" + RESET, positions.size());
 
-            HttpResponse<String> f = Retry.exec(3, 300, () ->
-                    unchecked(() -> http.get(cfg.baseUrl()+ cfg.fundsEndpoint(), auth, 15000)));
+            HttpResponse<String> f = awaitOrRetry(fundsCall, cfg.fundsEndpoint(), auth);
             ensure2xx(f, "funds");
             CashSummary cash = mapFunds(f.body());
             log.info(GREEN + "✅ Cash summary fetched: available={} used={}" + RESET, cash.available, cash.used);
@@ -89,6 +95,19 @@ public class UpstoxConnector implements BrokerConnector {
         }
     }
 
+    /** The async attempt, then up to two more blocking attempts (three in total, as before). */
+    private HttpResponse<String> awaitOrRetry(CompletableFuture<HttpResponse<String>> call, String endpoint, String auth) throws Exception {
+        try {
+            return HttpClientService.await(call);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn(YELLOW + "⚠️ Upstox {} failed ({}), retrying" + RESET, endpoint, e.getMessage());
+            return Retry.exec(2, 300, () ->
+                    unchecked(() -> http.get(brokerCode(), "portfolio", cfg.baseUrl() + endpoint, auth, 15000)));
+        }
+    }
+
     private static <T> T unchecked(CallableEx<T> c){ try { return c.call(); } catch(Exception e){ throw new RuntimeException(e); } }
     @FunctionalInterface private interface CallableEx<T>{ T call() throws Exception; }
 
@@ -12,5 +12,12 @@ public interface PortfolioDao {
     List<UserBrokerAccount> fetchActiveAccounts();
     void updateUserBrokerAccountJson(Connection c, BrokerAccountRef acc, PortfolioSnapshot snap);
     void upsertAccountSnapshot(Connection c, BrokerAccountRef acc, PortfolioSnapshot snap);
+
+    /**
+     * The two writes above only touch what changed since the last committed sync of the account;
+     * call this once their transaction is committed or rolled back, so the next sync diffs
+     * against what actually reached the database.
+     */
+    void transactionEnded(BrokerAccountRef acc, boolean committed);
 }
 
@@ -12,9 +12,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component(service = PortfolioDao.class, immediate = true)
 public class PortfolioDaoImpl implements PortfolioDao {
@@ -33,6 +43,11 @@ public class PortfolioDaoImpl implements PortfolioDao {
     @Reference
     private DataSourcePoolProviderService dataSourcePoolProviderService;
 
+    /** Last committed state per user_broker_account id; empty after a restart, so the first sync writes everything. */
+    private final Map<Long, Persisted> persisted = new ConcurrentHashMap<>();
+    /** State written inside a not yet committed sync transaction. */
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
     @Override
     public List<UserBrokerAccount> fetchActiveAccounts() {
        DataSource dataSource = dataSourcePoolProviderService.getDataSourceByName(GenericeConstants.MYSQL_PORTFOLIO_MGMT);
@@ -81,6 +96,13 @@ public class PortfolioDaoImpl implements PortfolioDao {
                     YELLOW, acc.userBrokerAccountId, RESET);
             return;
         }
+        Persisted base = staged(c, acc);
+        String jsonHash = sha256(StringUtils.defaultString(holdingJson) + '\u0000' + StringUtils.defaultString(positionJson));
+        if (jsonHash.equals(base.jsonHash)) {
+            log.debug("{}⏭️ Portfolio JSON unchanged for ubaId={}, skipping update{}",
+                    CYAN, acc.userBrokerAccountId, RESET);
+            return;
+        }
         try (PreparedStatement ps = c.prepareStatement(
                 "UPDATE user_broker_account " +
                         "SET portfolio_holding_json = ?, " +
@@ -95,6 +117,7 @@ public class PortfolioDaoImpl implements PortfolioDao {
             int rows = ps.executeUpdate();
             log.info("{}📥 Updated user_broker_account JSON for ubaId={}, rows={}{}",
                     GREEN, acc.userBrokerAccountId, rows, RESET);
+            stage(c, acc, base.withJson(jsonHash));
 
         } catch (Exception e) {
             log.error("{}❌ Failed to update user_broker_account JSON for ubaId={} : {}{}",
@@ -108,40 +131,63 @@ public class PortfolioDaoImpl implements PortfolioDao {
         log.info("{}📊 Upserting portfolio snapshot for brokerAccountId={} asOf={}{}",
                 CYAN, acc.userBrokerAccountId, snap.asOf, RESET);
 
-        try {
-            // 1) HOLDINGS
-            try (PreparedStatement ps = c.prepareStatement(
-                    "INSERT INTO holding(user_broker_account_id, instrument_id, quantity, avg_cost, updated_at) " +
-                            "VALUES(?,?,?,?,NOW()) " +
-                            "ON DUPLICATE KEY UPDATE quantity=VALUES(quantity), avg_cost=VALUES(avg_cost), updated_at=NOW()")) {
+        Persisted base = staged(c, acc);
+        Map<String, String> holdings = holdingRows(snap.holdings);
+        Map<String, String> positions = positionRows(snap.positions);
+        String cash = snap.cash == null ? null : num(snap.cash.available) + "|" + num(snap.cash.used);
+        String rowsHash = rowsHash(holdings, positions, cash);
+        if (rowsHash.equals(base.rowsHash)) {
+            log.info("{}⏭️ Portfolio unchanged for accountId={}, nothing to write{}",
+                    CYAN, acc.userBrokerAccountId, RESET);
+            return;
+        }
 
+        try {
+            // 1) HOLDINGS (only rows that differ from the last persisted state)
+            List<HoldingItem> changedHoldings = new ArrayList<>();
+            if (snap.holdings != null) {
                 for (HoldingItem h : snap.holdings) {
-                    long iid = resolver.resolveForHolding(h);
-                    ps.setLong(1, acc.userBrokerAccountId);
-                    ps.setLong(2, iid);
-                    ps.setBigDecimal(3, h.quantity);
-                    ps.setBigDecimal(4, h.avgCost);
-                    ps.addBatch();
-                    log.debug("{}➕ Holding upsert queued: accountId={}, instrumentId={}, qty={}, cost={}{}",
-                            GREEN, acc.userBrokerAccountId, iid, h.quantity, h.avgCost, RESET);
+                    if (!holdings.get(holdingKey(h)).equals(base.holdings.get(holdingKey(h)))) changedHoldings.add(h);
                 }
-                log.info("Executed query: {}", ps.toString());
-                int[] results = ps.executeBatch();
-                log.info("{}✅ Holdings upserted, batchSize={} rowsUpdated={}{}",
-                        GREEN, snap.holdings.size(), results.length, RESET);
             }
+            if (!changedHoldings.isEmpty()) {
+                try (PreparedStatement ps = c.prepareStatement(
+                        "INSERT INTO holding(user_broker_account_id, instrument_id, quantity, avg_cost, updated_at) " +
+                                "VALUES(?,?,?,?,NOW()) " +
+                                "ON DUPLICATE KEY UPDATE quantity=VALUES(quantity), avg_cost=VALUES(avg_cost), updated_at=NOW()")) {
 
-            // 2) POSITIONS
-            if (snap.positions != null && !snap.positions.isEmpty()) {
-                log.info("{}⚠️ No positions to upsert for accountId={}{}",
-                        YELLOW, acc.userBrokerAccountId, RESET);
+                    for (HoldingItem h : changedHoldings) {
+                        long iid = resolver.resolveForHolding(c, h);
+                        ps.setLong(1, acc.userBrokerAccountId);
+                        ps.setLong(2, iid);
+                        ps.setBigDecimal(3, h.quantity);
+                        ps.setBigDecimal(4, h.avgCost);
+                        ps.addBatch();
+                        log.debug("{}➕ Holding upsert queued: accountId={}, instrumentId={}, qty={}, cost={}{}",
+                                GREEN, acc.userBrokerAccountId, iid, h.quantity, h.avgCost, RESET);
+                    }
+                    log.info("Executed query: {}", ps.toString());
+                    int[] results = ps.executeBatch();
+                    log.info("{}✅ Holdings upserted, changed={}/{} rowsUpdated={}{}",
+                            GREEN, changedHoldings.size(), holdings.size(), results.length, RESET);
+                }
+            }
+
+            // 2) POSITIONS (only rows that differ from the last persisted state)
+            List<PositionItem> changedPositions = new ArrayList<>();
+            if (snap.positions != null) {
+                for (PositionItem p : snap.positions) {
+                    if (!positions.get(positionKey(p)).equals(base.positions.get(positionKey(p)))) changedPositions.add(p);
+                }
+            }
+            if (!changedPositions.isEmpty()) {
                 try (PreparedStatement ps = c.prepareStatement(
                         "INSERT INTO position(user_broker_account_id, instrument_id, side, quantity, avg_price, pnl_realized, updated_at) " +
                                 "VALUES(?,?,?,?,?,?,NOW()) " +
                                 "ON DUPLICATE KEY UPDATE side=VALUES(side), quantity=VALUES(quantity), avg_price=VALUES(avg_price), pnl_realized=VALUES(pnl_realized), updated_at=NOW()")) {
 
-                    for (PositionItem p : snap.positions) {
-                        long iid = resolver.resolveForPosition(p);
+                    for (PositionItem p : changedPositions) {
+                        long iid = resolver.resolveForPosition(c, p);
                         ps.setLong(1, acc.userBrokerAccountId);
                         ps.setLong(2, iid);
                         ps.setString(3, p.side);
@@ -154,25 +200,29 @@ public class PortfolioDaoImpl implements PortfolioDao {
                     }
                     log.info("Executed query for positions: {}", ps.toString());
                     int[] results = ps.executeBatch();
-                    log.info("{}✅ Positions upserted, batchSize={} rowsUpdated={}{}",
-                            GREEN, snap.positions.size(), results.length, RESET);
+                    log.info("{}✅ Positions upserted, changed={}/{} rowsUpdated={}{}",
+                            GREEN, changedPositions.size(), positions.size(), results.length, RESET);
                 }
             }
 
 
-            // 3) CASH
-            try (PreparedStatement ps = c.prepareStatement(
-                    "INSERT INTO cash_snapshot(user_broker_account_id, as_of, available, used, created_at) VALUES(?,?,?,?,NOW())")) {
-                ps.setLong(1, acc.userBrokerAccountId);
-                ps.setTimestamp(2, Timestamp.from(snap.asOf));
-                ps.setBigDecimal(3, snap.cash.available);
-                ps.setBigDecimal(4, snap.cash.used);
-                log.info("Executed query: {}", ps.toString());
-                int rows = ps.executeUpdate();
-                log.info("{}💰 Cash snapshot inserted: accountId={}, asOf={}, available={}, used={}, rows={}{}",
-                        GREEN, acc.userBrokerAccountId, snap.asOf, snap.cash.available, snap.cash.used, rows, RESET);
+            // 3) CASH (a new snapshot row only when available/used moved)
+            if (cash != null && !cash.equals(base.cash)) {
+                try (PreparedStatement ps = c.prepareStatement(
+                        "INSERT INTO cash_snapshot(user_broker_account_id, as_of, available, used, created_at) VALUES(?,?,?,?,NOW())")) {
+                    ps.setLong(1, acc.userBrokerAccountId);
+                    ps.setTimestamp(2, Timestamp.from(snap.asOf));
+                    ps.setBigDecimal(3, snap.cash.available);
+                    ps.setBigDecimal(4, snap.cash.used);
+                    log.info("Executed query: {}", ps.toString());
+                    int rows = ps.executeUpdate();
+                    log.info("{}💰 Cash snapshot inserted: accountId={}, asOf={}, available={}, used={}, rows={}{}",
+                            GREEN, acc.userBrokerAccountId, snap.asOf, snap.cash.available, snap.cash.used, rows, RESET);
+                }
             }
 
+            stage(c, acc, base.withRows(rowsHash, holdings, positions, cash));
+
         } catch (SQLException e) {
             log.error("{}❌ Portfolio upsert failed for accountId={} : {}{}",
                     RED, acc.userBrokerAccountId, e.getMessage(), RESET, e);
@@ -180,4 +230,120 @@ public class PortfolioDaoImpl implements PortfolioDao {
         }
     }
 
+    @Override
+    public void transactionEnded(BrokerAccountRef acc, boolean committed) {
+        Pending p = pending.remove(acc.userBrokerAccountId);
+        if (p != null && committed) persisted.put(acc.userBrokerAccountId, p.state);
+    }
+
+    /** State to diff against: what this connection's transaction already staged, else the last commit. */
+    private Persisted staged(Connection c, BrokerAccountRef acc) {
+        Pending p = pending.get(acc.userBrokerAccountId);
+        if (p != null && p.connection == c) return p.state;
+        return persisted.getOrDefault(acc.userBrokerAccountId, Persisted.EMPTY);
+    }
+
+    private void stage(Connection c, BrokerAccountRef acc, Persisted state) {
+        pending.put(acc.userBrokerAccountId, new Pending(c, state));
+    }
+
+    /** Same identity the resolver uses: ISIN first, else exchange + symbol. */
+    private static String holdingKey(HoldingItem h) {
+        return StringUtils.isNotEmpty(h.isin) ? h.isin : h.exchange + ":" + h.symbol;
+    }
+
+    private static String positionKey(PositionItem p) {
+        return p.exchange + ":" + p.symbol + ":" + p.expiry + ":" + num(p.strike) + ":" + p.optionType;
+    }
+
+    /** Persisted columns per holding, normalized; the last duplicate wins like the upsert does. */
+    private static Map<String, String> holdingRows(List<HoldingItem> items) {
+        Map<String, String> rows = new LinkedHashMap<>();
+        if (items != null) {
+            for (HoldingItem h : items) rows.put(holdingKey(h), num(h.quantity) + "|" + num(h.avgCost));
+        }
+        return rows;
+    }
+
+    private static Map<String, String> positionRows(List<PositionItem> items) {
+        Map<String, String> rows = new LinkedHashMap<>();
+        if (items != null) {
+            for (PositionItem p : items) {
+                rows.put(positionKey(p), p.side + "|" + num(p.quantity) + "|" + num(p.avgPrice) + "|"
+                        + num(p.pnlRealized == null ? BigDecimal.ZERO : p.pnlRealized));
+            }
+        }
+        return rows;
+    }
+
+    /** Order-independent hash of everything upsertAccountSnapshot writes. */
+    private static String rowsHash(Map<String, String> holdings, Map<String, String> positions, String cash) {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(holdings).forEach((k, v) -> sb.append("H|").append(k).append('=').append(v).append('\n'));
+        new TreeMap<>(positions).forEach((k, v) -> sb.append("P|").append(k).append('=').append(v).append('\n'));
+        sb.append("C|").append(cash);
+        return sha256(sb.toString());
+    }
+
+    /** 100.50000000 from the DB and 100.5 from the broker are the same value. */
+    private static String num(BigDecimal v) {
+        return v == null ? "" : v.stripTrailingZeros().toPlainString();
+    }
+
+    private static String sha256(String s) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : md.digest(s.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** What was last written for an account: hashes plus the normalized rows. */
+    private static final class Persisted {
+        static final Persisted EMPTY = new Persisted(null, null, Collections.emptyMap(), Collections.emptyMap(), null);
+
+        final String jsonHash;
+        final String rowsHash;
+        final Map<String, String> holdings;
+        final Map<String, String> positions;
+        final String cash;
+
+        Persisted(String jsonHash, String rowsHash, Map<String, String> holdings,
+                  Map<String, String> positions, String cash) {
+            this.jsonHash = jsonHash;
+            this.rowsHash = rowsHash;
+            this.holdings = holdings;
+            this.positions = positions;
+            this.cash = cash;
+        }
+
+        Persisted withJson(String hash) {
+            return new Persisted(hash, rowsHash, holdings, positions, cash);
+        }
+
+        /** Rows missing from the new snapshot stay in the table, so they stay in the state too. */
+        Persisted withRows(String hash, Map<String, String> h, Map<String, String> p, String c) {
+            Map<String, String> hs = new HashMap<>(holdings);
+            hs.putAll(h);
+            Map<String, String> ps = new HashMap<>(positions);
+            ps.putAll(p);
+            return new Persisted(jsonHash, hash, hs, ps, c == null ? cash : c);
+        }
+    }
+
+    private static final class Pending {
+        final Connection connection;
+        final Persisted state;
+
+        Pending(Connection connection, Persisted state) {
+            this.connection = connection;
+            this.state = state;
+        }
+    }
 }
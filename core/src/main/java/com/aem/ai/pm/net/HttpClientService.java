@@ -1,16 +1,30 @@
 package com.aem.ai.pm.net;
 
+import com.aem.ai.scanner.services.RateLimitService;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Component(service = HttpClientService.class, immediate = true)
 public class HttpClientService {
@@ -24,8 +38,21 @@ public class HttpClientService {
     private static final String RED = "\u001B[31m";
     private static final String YELLOW = "\u001B[33m";
 
+    /** Attempts for a call the broker answered with 429/503; the limiter pause does the waiting. */
+    private static final int THROTTLE_ATTEMPTS = 3;
+
     private HttpClient http;
 
+    /** Waits out a throttled bucket before an async retry, off the HTTP client's own threads. */
+    private final ExecutorService throttleRetries = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "http-throttle-retry");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile RateLimitService rateLimiter;
+
     @Activate
     protected void activate() {
         http = HttpClient.newBuilder()
@@ -35,6 +62,12 @@ public class HttpClientService {
         log.info(GREEN + "✅ HttpClientService activated with HTTP/2 and 10s connect timeout." + RESET);
     }
 
+    @Deactivate
+    protected void deactivate() {
+        throttleRetries.shutdownNow();
+        log.info(YELLOW + "🛑 HttpClientService deactivated, throttled retries cancelled." + RESET);
+    }
+
     public HttpResponse<String> get(String url, String authHeader, int timeoutMs) throws Exception {
         log.info(BLUE + "🌐 Sending HTTP GET Request: " + RESET + url +
                 (authHeader != null ? " " + YELLOW + "[Auth Header Present]" + RESET : " " + RED + "[No Auth]" + RESET));
@@ -57,8 +90,106 @@ public class HttpClientService {
         return res;
     }
     public String get(String url, Map<String, String> headers, int timeoutMs) throws Exception {
-        log.info(BLUE + "🌐 Sending HTTP GET Request: " + RESET + url);
+        return getResponse(url, headers, timeoutMs).body();
+    }
+
+    /** {@link #get(String, String, int)} paced by the broker's rate-limit bucket. */
+    public HttpResponse<String> get(String broker, String endpoint, String url, String authHeader, int timeoutMs) throws Exception {
+        return rateLimited(broker, endpoint, () -> get(url, authHeader, timeoutMs));
+    }
+
+    /** {@link #get(String, Map, int)} paced by the broker's rate-limit bucket. */
+    public String get(String broker, String endpoint, String url, Map<String, String> headers, int timeoutMs) throws Exception {
+        return rateLimited(broker, endpoint, () -> getResponse(url, headers, timeoutMs)).body();
+    }
+
+    /**
+     * Take a permit for {@code broker:endpoint} before each attempt; on 429/503 pause the bucket
+     * for the response's Retry-After and try again. Without a RateLimitService the call goes straight through.
+     */
+    private HttpResponse<String> rateLimited(String broker, String endpoint,
+                                             Callable<HttpResponse<String>> call) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            RateLimitService limiter = rateLimiter;
+            if (limiter != null) {
+                limiter.acquire(broker, endpoint);
+            }
+            HttpResponse<String> res = call.call();
+            int status = res.statusCode();
+            if (limiter == null || (status != 429 && status != 503) || attempt >= THROTTLE_ATTEMPTS) {
+                return res;
+            }
+            limiter.onThrottled(broker, endpoint, res.headers().firstValue("Retry-After").orElse(null));
+        }
+    }
+
+    /**
+     * Non-blocking {@link #get(String, String, String, Map, int)}: the rate-limit permit is taken
+     * on the calling thread, the request goes out via {@code sendAsync}, and a 429/503 is retried
+     * like the blocking variant (waiting for the paused bucket on a separate thread).
+     */
+    public CompletableFuture<HttpResponse<String>> getAsync(String broker, String endpoint, String url,
+                                                            Map<String, String> headers, int timeoutMs) {
+        return rateLimitedAsync(broker, endpoint, () -> sendAsync(request(url, headers, timeoutMs), url), 1);
+    }
+
+    /** Non-blocking {@link #get(String, String, String, String, int)}, see {@link #getAsync(String, String, String, Map, int)}. */
+    public CompletableFuture<HttpResponse<String>> getAsync(String broker, String endpoint, String url,
+                                                            String authHeader, int timeoutMs) {
+        Map<String, String> headers = Map.of(
+                "Authorization", authHeader == null ? "" : authHeader,
+                "Accept", "application/json");
+        return getAsync(broker, endpoint, url, headers, timeoutMs);
+    }
 
+    /**
+     * Wait for an async call; interrupting the waiting thread cancels it. Failures are rethrown
+     * unwrapped (the IOException/HttpTimeoutException of the request, not an ExecutionException).
+     */
+    public static <T> T await(CompletableFuture<T> pending) throws Exception {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            pending.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw e;
+        } catch (CancellationException e) {
+            throw new InterruptedException("Request cancelled");
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> rateLimitedAsync(
+            String broker, String endpoint,
+            Callable<CompletableFuture<HttpResponse<String>>> send, int attempt) {
+        RateLimitService limiter = rateLimiter;
+        try {
+            if (limiter != null) {
+                limiter.acquire(broker, endpoint);
+            }
+            return send.call().thenCompose(res -> {
+                int status = res.statusCode();
+                if (limiter == null || (status != 429 && status != 503) || attempt >= THROTTLE_ATTEMPTS) {
+                    return CompletableFuture.completedFuture(res);
+                }
+                limiter.onThrottled(broker, endpoint, res.headers().firstValue("Retry-After").orElse(null));
+                return CompletableFuture.supplyAsync(() -> rateLimitedAsync(broker, endpoint, send, attempt + 1), throttleRetries)
+                        .thenCompose(next -> next);
+            });
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest req, String url) {
+        log.info(BLUE + "🌐 Sending async HTTP GET Request: " + RESET + url);
+        return http.sendAsync(req, HttpResponse.BodyHandlers.ofString()).thenApply(res -> logResponse(res, url));
+    }
+
+    private HttpRequest request(String url, Map<String, String> headers, int timeoutMs) {
         HttpRequest.Builder reqBuilder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .timeout(Duration.ofMillis(timeoutMs))
@@ -67,20 +198,44 @@ public class HttpClientService {
         if (headers != null) {
             headers.forEach((k, v) -> reqBuilder.header(k, v));
         }
+        return reqBuilder.build();
+    }
 
-        HttpRequest req = reqBuilder.build();
-
-        HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
-
+    private HttpResponse<String> logResponse(HttpResponse<String> res, String url) {
         if (res.statusCode() / 100 == 2) {
             log.info(GREEN + "✅ Response " + res.statusCode() + " received successfully for: " + RESET + url);
         } else {
             log.warn(RED + "⚠️ Response " + res.statusCode() + " for: " + RESET + url +
                     " | Body: " + res.body());
         }
+        return res;
+    }
+
+    private HttpResponse<String> getResponse(String url, Map<String, String> headers, int timeoutMs) throws Exception {
+        log.info(BLUE + "🌐 Sending HTTP GET Request: " + RESET + url);
 
+        HttpResponse<String> res = http.send(request(url, headers, timeoutMs), HttpResponse.BodyHandlers.ofString());
+
+        return logResponse(res, url);
+    }
+    /**
+     * GET with the body as a stream, for downloads too large to hold as a String; the caller
+     * closes it. Non-2xx responses are drained and thrown as IOException.
+     */
+    public InputStream getStream(String url, Map<String, String> headers, int timeoutMs) throws Exception {
+        log.info(BLUE + "🌐 Sending HTTP GET (stream) Request: " + RESET + url);
+        HttpResponse<InputStream> res = http.send(request(url, headers, timeoutMs), HttpResponse.BodyHandlers.ofInputStream());
+        if (res.statusCode() / 100 != 2) {
+            try (InputStream body = res.body()) {
+                String text = new String(body.readNBytes(512), StandardCharsets.UTF_8);
+                log.warn(RED + "⚠️ Response " + res.statusCode() + " for: " + RESET + url + " | Body: " + text);
+            }
+            throw new IOException("HTTP " + res.statusCode() + " for " + url);
+        }
+        log.info(GREEN + "✅ Response " + res.statusCode() + " streaming from: " + RESET + url);
         return res.body();
     }
+
     public String post(String url, Map<String, String> headers, String body, int timeoutMs) throws Exception {
         HttpRequest.Builder reqBuilder = HttpRequest.newBuilder(URI.create(url))
                 .timeout(Duration.ofMillis(timeoutMs))
@@ -0,0 +1,77 @@
+package com.aem.ai.pm.scheduler;
+
+import com.aem.ai.pm.services.InstrumentMasterService;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Designate(ocd = InstrumentMasterScheduler.Config.class)
+@Component(service = Runnable.class, immediate = true)
+public class InstrumentMasterScheduler implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(InstrumentMasterScheduler.class);
+
+    @Reference
+    private InstrumentMasterService instrumentMaster;
+
+    private Config config;
+
+    @ObjectClassDefinition(
+            name = "BSK Instrument Master Scheduler",
+            description = "Imports the broker instrument dumps before market open"
+    )
+    public @interface Config {
+        @AttributeDefinition(
+                name = "Enable scheduler",
+                description = "Enable or disable the instrument master import"
+        )
+        boolean enable() default true;
+
+        @AttributeDefinition(
+                name = "Cron expression",
+                description = "CRON expression for when to run (default: 08:15 on weekdays, before the 09:15 open)"
+        )
+        String scheduler_expression() default "0 15 8 ? * MON-FRI";
+
+        @AttributeDefinition(
+                name = "Allow concurrent execution",
+                description = "Whether job can run in parallel"
+        )
+        boolean scheduler_concurrent() default false;
+    }
+
+    @Activate
+    protected void activate(Config config) {
+        this.config = config;
+        log.info("✅ InstrumentMasterScheduler activated with cron={}, enabled={}",
+                config.scheduler_expression(), config.enable());
+    }
+
+    @Modified
+    protected void modified(Config config) {
+        this.config = config;
+        log.info("🔄 InstrumentMasterScheduler config modified: cron={}, enabled={}",
+                config.scheduler_expression(), config.enable());
+    }
+
+    @Override
+    public void run() {
+        if (!config.enable()) {
+            log.debug("⚠️ InstrumentMasterScheduler disabled. Skipping run.");
+            return;
+        }
+        try {
+            log.info("▶️ Running instrument master import...");
+            int n = instrumentMaster.importAll();
+            log.info("✅ Instrument master import completed: {} instruments upserted.", n);
+        } catch (Exception e) {
+            log.error("❌ Error during instrument master import: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.aem.ai.pm.services;
+
+import com.aem.ai.pm.dto.BrokerToken;
+
+import java.util.concurrent.Callable;
+
+/**
+ * In-memory access tokens per broker account, in front of {@link BrokerTokenService}.
+ * A cached token is handed out without any DB or auth call until it gets close to its expiry;
+ * inside the refresh window it is still returned while one background load replaces it, and
+ * concurrent misses for the same account share a single load.
+ */
+public interface BrokerTokenCache {
+
+    /**
+     * Access token for {@code broker}/{@code accountRef}. On a miss the stored token is used if
+     * its expiry is far enough away; otherwise {@code loader} obtains (and persists) a fresh one.
+     * The loader must set {@link BrokerToken#getTokenExpiry()}.
+     */
+    String accessToken(String broker, String accountRef, Callable<BrokerToken> loader) throws Exception;
+
+    /**
+     * Same as {@link #accessToken(String, String, Callable)}; with {@code refreshAhead} false a
+     * token is used until it expires and {@code loader} only runs on a miss. For loaders that
+     * cannot mint a token early, e.g. Kite's single-use request_token exchange.
+     */
+    String accessToken(String broker, String accountRef, Callable<BrokerToken> loader, boolean refreshAhead) throws Exception;
+
+    /** Cache a token that was just issued (e.g. by a login callback). */
+    void put(String broker, String accountRef, BrokerToken token);
+
+    /**
+     * Drop a token the broker rejected, so the next call loads a new one. The stored copy of
+     * {@code rejectedToken} is no longer taken on a miss (its expiry says nothing once the broker
+     * refused it), and a loader handing it back fails instead of caching it again.
+     */
+    void invalidate(String broker, String accountRef, String rejectedToken);
+}
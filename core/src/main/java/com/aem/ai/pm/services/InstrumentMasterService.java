@@ -0,0 +1,24 @@
+package com.aem.ai.pm.services;
+
+import java.io.InputStream;
+
+/**
+ * Bulk import of the brokers' instrument master dumps into {@code instrument} and
+ * {@code instrument_identifier}, so {@link InstrumentResolver} finds every tradable instrument
+ * in its index instead of inserting stubs while portfolios sync.
+ */
+public interface InstrumentMasterService {
+
+    /**
+     * Download and import every configured dump (Upstox JSON, Kite CSV), then reload the
+     * resolver index once. @return instruments upserted
+     */
+    int importAll();
+
+    /**
+     * Import one dump for {@code broker} (UPSTOX or ZERODHA) and reload the resolver index.
+     * Gzip and JSON/CSV are detected from the content; the stream is read once and not closed.
+     * @return instruments upserted
+     */
+    int importDump(String broker, InputStream in) throws Exception;
+}
@@ -4,7 +4,24 @@ package com.aem.ai.pm.services;
 import com.aem.ai.pm.dto.HoldingItem;
 import com.aem.ai.pm.dto.PositionItem;
 
+import java.sql.Connection;
+
 public interface InstrumentResolver {
     long resolveForHolding(HoldingItem h);   // returns instrument.id
     long resolveForPosition(PositionItem p); // "
+
+    /**
+     * Same as {@link #resolveForHolding(HoldingItem)}, but an index miss is looked up on the
+     * caller's connection instead of a pooled one.
+     */
+    long resolveForHolding(Connection c, HoldingItem h);
+
+    /** Same as {@link #resolveForPosition(PositionItem)} on the caller's connection. */
+    long resolveForPosition(Connection c, PositionItem p);
+
+    /**
+     * Rebuild the in-memory index from the instrument tables and swap it in whole; lookups keep
+     * using the previous index until the new one is complete. @return index entries, -1 on failure
+     */
+    int reload();
 }
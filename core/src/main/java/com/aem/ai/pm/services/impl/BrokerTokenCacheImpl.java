@@ -0,0 +1,225 @@
+package com.aem.ai.pm.services.impl;
+
+import com.aem.ai.pm.dto.BrokerToken;
+import com.aem.ai.pm.services.BrokerTokenCache;
+import com.aem.ai.pm.services.BrokerTokenService;
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Component(service = BrokerTokenCache.class, immediate = true)
+@Designate(ocd = BrokerTokenCacheImpl.Config.class)
+public class BrokerTokenCacheImpl implements BrokerTokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BrokerTokenCacheImpl.class);
+
+    // ANSI Colors
+    private static final String RESET = "\u001B[0m";
+    private static final String GREEN = "\u001B[32m";
+    private static final String YELLOW = "\u001B[33m";
+    private static final String CYAN = "\u001B[36m";
+
+    @ObjectClassDefinition(name = "BSK Broker Token Cache",
+            description = "In-memory broker access tokens with expiry tracking and refresh ahead of expiry")
+    public @interface Config {
+        @AttributeDefinition(name = "Refresh ahead seconds",
+                description = "Start loading a replacement this long before a token expires")
+        int refresh_ahead_seconds() default 1800;
+
+        @AttributeDefinition(name = "Refresh retry seconds",
+                description = "Minimum time between refresh attempts for one account inside the refresh window")
+        int refresh_retry_seconds() default 300;
+
+        @AttributeDefinition(name = "Default TTL seconds",
+                description = "Lifetime assumed for a loaded token that carries no expiry")
+        int default_ttl_seconds() default 3600;
+    }
+
+    @Reference
+    private BrokerTokenService brokerTokenService;
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> inflight = new ConcurrentHashMap<>();
+    /** Last token the broker rejected per account; never served again, even if the DB still holds it. */
+    private final Map<String, String> rejected = new ConcurrentHashMap<>();
+
+    private volatile Config cfg;
+    private ExecutorService refresher;
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        this.cfg = cfg;
+        if (refresher == null) {
+            refresher = Executors.newFixedThreadPool(2, r -> {
+                Thread t = new Thread(r, "broker-token-refresh");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        log.info(CYAN + "BrokerTokenCache activated: refresh ahead={}s retry={}s" + RESET,
+                cfg.refresh_ahead_seconds(), cfg.refresh_retry_seconds());
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        if (refresher != null) refresher.shutdownNow();
+        refresher = null;
+        tokens.clear();
+        inflight.clear();
+        rejected.clear();
+    }
+
+    @Override
+    public String accessToken(String broker, String accountRef, Callable<BrokerToken> loader) throws Exception {
+        return accessToken(broker, accountRef, loader, true);
+    }
+
+    @Override
+    public String accessToken(String broker, String accountRef, Callable<BrokerToken> loader, boolean refreshAhead) throws Exception {
+        String key = key(broker, accountRef);
+        LocalDateTime now = LocalDateTime.now();
+        Entry cached = tokens.get(key);
+        if (cached != null && now.isBefore(cached.expiry)) {
+            if (refreshAhead && !now.isBefore(cached.expiry.minusSeconds(cfg.refresh_ahead_seconds()))
+                    && System.currentTimeMillis() >= cached.nextRefreshAt) {
+                cached.nextRefreshAt = System.currentTimeMillis() + cfg.refresh_retry_seconds() * 1000L;
+                load(key, accountRef, loader, true).whenComplete((fresh, error) -> {
+                    if (error != null) {
+                        log.warn(YELLOW + "⚠️ Refresh ahead of expiry failed for {} (current token valid until {}): {}" + RESET,
+                                key, cached.expiry, error.getMessage());
+                    }
+                });
+            }
+            return cached.token;
+        }
+
+        try {
+            return load(key, accountRef, loader, refreshAhead).get().token;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(String broker, String accountRef, BrokerToken token) {
+        if (token == null || StringUtils.isEmpty(token.getAccessToken())) return;
+        Entry e = entry(token);
+        rejected.remove(key(broker, accountRef), token.getAccessToken());
+        tokens.put(key(broker, accountRef), e);
+        log.info(GREEN + "🔑 Cached new token for {}:{} valid until {}" + RESET, broker, accountRef, e.expiry);
+    }
+
+    @Override
+    public void invalidate(String broker, String accountRef, String rejectedToken) {
+        String key = key(broker, accountRef);
+        if (StringUtils.isNotEmpty(rejectedToken)) {
+            rejected.put(key, rejectedToken);
+            tokens.computeIfPresent(key, (k, e) -> e.token.equals(rejectedToken) ? null : e);
+        } else {
+            tokens.remove(key);
+        }
+        log.info(YELLOW + "🗑️ Dropped rejected token for {}:{}" + RESET, broker, accountRef);
+    }
+
+    /** One load per account at a time; callers arriving meanwhile share its result. */
+    private CompletableFuture<Entry> load(String key, String accountRef, Callable<BrokerToken> loader, boolean refreshAhead) {
+        ExecutorService pool = refresher;
+        if (pool == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("BrokerTokenCache is not active"));
+        }
+        CompletableFuture<Entry> f = inflight.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return fetch(key, accountRef, loader, refreshAhead);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, pool));
+        f.whenComplete((r, t) -> inflight.remove(key, f));
+        return f;
+    }
+
+    /**
+     * The stored token if it is not due for refresh yet (or, without refresh ahead, not expired)
+     * and not the one the broker rejected, else a fresh one from the loader.
+     */
+    private Entry fetch(String key, String accountRef, Callable<BrokerToken> loader, boolean refreshAhead) throws Exception {
+        LocalDateTime refreshFrom = refreshAhead
+                ? LocalDateTime.now().plusSeconds(cfg.refresh_ahead_seconds())
+                : LocalDateTime.now();
+        String refused = rejected.get(key);
+        BrokerToken stored = brokerTokenService.findBrokerTokenByRef(accountRef);
+        if (stored != null && StringUtils.isNotEmpty(stored.getAccessToken())
+                && !stored.getAccessToken().equals(refused)
+                && stored.getTokenExpiry() != null && stored.getTokenExpiry().isAfter(refreshFrom)) {
+            Entry e = entry(stored);
+            store(key, e);
+            log.info(GREEN + "🔑 Using stored token for {} valid until {}" + RESET, key, e.expiry);
+            return e;
+        }
+
+        BrokerToken loaded = loader.call();
+        if (loaded == null || StringUtils.isEmpty(loaded.getAccessToken())) {
+            throw new IllegalStateException("No access token obtained for " + key);
+        }
+        if (loaded.getAccessToken().equals(refused)) {
+            throw new IllegalStateException("Only the rejected access token is available for " + key + "; a new login is needed");
+        }
+        if (refused != null) rejected.remove(key, refused);
+        Entry e = entry(loaded);
+        store(key, e);
+        log.info(GREEN + "🔑 Loaded token for {} valid until {}" + RESET, key, e.expiry);
+        return e;
+    }
+
+    /** A refresh that brought back the same token keeps its retry throttle. */
+    private void store(String key, Entry e) {
+        Entry previous = tokens.put(key, e);
+        if (previous != null && previous.token.equals(e.token)) {
+            e.nextRefreshAt = previous.nextRefreshAt;
+        }
+    }
+
+    private Entry entry(BrokerToken token) {
+        LocalDateTime expiry = token.getTokenExpiry() != null
+                ? token.getTokenExpiry()
+                : LocalDateTime.now().plusSeconds(cfg.default_ttl_seconds());
+        return new Entry(token.getAccessToken(), expiry);
+    }
+
+    private static String key(String broker, String accountRef) {
+        return broker + ":" + accountRef;
+    }
+
+    private static final class Entry {
+        final String token;
+        final LocalDateTime expiry;
+        /** Earliest next refresh attempt inside the refresh window (epoch millis). */
+        volatile long nextRefreshAt;
+
+        Entry(String token, LocalDateTime expiry) {
+            this.token = token;
+            this.expiry = expiry;
+        }
+    }
+}
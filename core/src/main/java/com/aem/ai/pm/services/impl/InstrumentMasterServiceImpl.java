@@ -0,0 +1,466 @@
+package com.aem.ai.pm.services.impl;
+
+import com.GenericeConstants;
+import com.aem.ai.pm.dao.DataSourcePoolProviderService;
+import com.aem.ai.pm.net.HttpClientService;
+import com.aem.ai.pm.services.InstrumentMasterService;
+import com.aem.ai.pm.services.InstrumentResolver;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the instrument dumps row by row (Jackson token stream for Upstox JSON, line reader for
+ * Kite CSV, gzip detected from the magic bytes) and upserts them in JDBC batches of
+ * {@code batch_size}: one batch into {@code instrument}, one id lookup for the batch, one batch
+ * into {@code instrument_identifier}, one commit. Memory stays at one batch whatever the dump
+ * size. Exchange codes follow the portfolio APIs (NSE, BSE, NFO, BFO, MCX, CDS), which is what
+ * holdings and positions are resolved with.
+ */
+@Component(service = InstrumentMasterService.class, immediate = true)
+@Designate(ocd = InstrumentMasterServiceImpl.Config.class)
+public class InstrumentMasterServiceImpl implements InstrumentMasterService {
+
+    private static final Logger log = LoggerFactory.getLogger(InstrumentMasterServiceImpl.class);
+
+    // ANSI Colors
+    private static final String RESET = "\u001B[0m";
+    private static final String GREEN = "\u001B[32m";
+    private static final String RED = "\u001B[31m";
+    private static final String YELLOW = "\u001B[33m";
+    private static final String CYAN = "\u001B[36m";
+
+    private static final String UPSTOX = "UPSTOX";
+    private static final String ZERODHA = "ZERODHA";
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+
+    /** Upstox segment → exchange code used by the portfolio APIs. */
+    private static final Map<String, String> UPSTOX_SEGMENTS = Map.of(
+            "NSE_EQ", "NSE", "BSE_EQ", "BSE", "NSE_FO", "NFO", "BSE_FO", "BFO",
+            "MCX_FO", "MCX", "NCD_FO", "CDS", "BCD_FO", "BCD");
+
+    @ObjectClassDefinition(name = "BSK Instrument Master Import",
+            description = "Bulk import of broker instrument dumps into instrument / instrument_identifier")
+    public @interface Config {
+        @AttributeDefinition(name = "Upstox dump URL", description = "JSON (optionally gzip); empty to skip")
+        String upstox_url() default "https://assets.upstox.com/market-quote/instruments/exchange/complete.json.gz";
+
+        @AttributeDefinition(name = "Kite dump URL", description = "CSV (optionally gzip); empty to skip")
+        String kite_url() default "https://api.kite.trade/instruments";
+
+        @AttributeDefinition(name = "Exchanges", description = "Exchange codes to import (NSE, BSE, NFO, ...); empty for all")
+        String[] exchanges() default {};
+
+        @AttributeDefinition(name = "Batch size", description = "Rows per JDBC batch and commit")
+        int batch_size() default 5000;
+
+        @AttributeDefinition(name = "Download timeout seconds")
+        int download_timeout_seconds() default 300;
+    }
+
+    @Reference
+    private DataSourcePoolProviderService dataSourcePoolProviderService;
+
+    @Reference
+    private HttpClientService http;
+
+    @Reference
+    private InstrumentResolver resolver;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private volatile Config cfg;
+    private volatile Set<String> exchanges;
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        this.cfg = cfg;
+        Set<String> ex = new HashSet<>();
+        for (String e : cfg.exchanges()) {
+            if (StringUtils.isNotBlank(e)) ex.add(e.trim().toUpperCase());
+        }
+        this.exchanges = ex;
+        log.info(CYAN + "InstrumentMasterService activated: batch={} exchanges={}" + RESET,
+                cfg.batch_size(), ex.isEmpty() ? "ALL" : ex);
+    }
+
+    @Override
+    public synchronized int importAll() {
+        int total = 0;
+        total += importUrl(UPSTOX, cfg.upstox_url());
+        total += importUrl(ZERODHA, cfg.kite_url());
+        resolver.reload();
+        return total;
+    }
+
+    @Override
+    public synchronized int importDump(String broker, InputStream in) throws Exception {
+        int n = importStream(broker, in);
+        resolver.reload();
+        return n;
+    }
+
+    private int importUrl(String broker, String url) {
+        if (StringUtils.isBlank(url)) return 0;
+        try (InputStream in = http.getStream(url, null, cfg.download_timeout_seconds() * 1000)) {
+            return importStream(broker, in);
+        } catch (Exception e) {
+            log.error(RED + "❌ Instrument import from {} failed: {}" + RESET, url, e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    private int importStream(String broker, InputStream raw) throws Exception {
+        DataSource ds = dataSourcePoolProviderService.getDataSourceByName(GenericeConstants.MYSQL_PORTFOLIO_MGMT);
+        if (ds == null) {
+            throw new IllegalStateException("DataSource not found for portfolio management");
+        }
+        long start = System.currentTimeMillis();
+        InputStream in = decompressed(raw);
+        try (Connection c = ds.getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try {
+                Writer w = new Writer(c, broker);
+                if (isJson(in)) {
+                    readUpstoxJson(in, w);
+                } else {
+                    readKiteCsv(in, w);
+                }
+                w.flush();
+                log.info(GREEN + "📦 {} instrument master imported in {} ms: {} read, {} upserted, {} skipped" + RESET,
+                        broker, System.currentTimeMillis() - start, w.read, w.upserted, w.skipped);
+                return w.upserted;
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /** Upstox: a JSON array of instrument objects, parsed one object at a time. */
+    private void readUpstoxJson(InputStream in, Writer w) throws Exception {
+        try (JsonParser p = mapper.getFactory().createParser(in)) {
+            if (p.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of instruments");
+            }
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode n = mapper.readTree(p);
+                w.read++;
+                String exchange = UPSTOX_SEGMENTS.get(n.path("segment").asText());
+                String type = n.path("instrument_type").asText();
+                Row r = row(exchange, n.path("trading_symbol").asText(null), type, n.path("instrument_key").asText(null));
+                if (r == null) {
+                    w.skipped++;
+                    continue;
+                }
+                r.isin = StringUtils.trimToNull(n.path("isin").asText(null));
+                if (!"EQUITY".equals(r.instrumentType)) {
+                    JsonNode expiry = n.path("expiry");
+                    r.expiry = expiry.isNumber()
+                            ? Instant.ofEpochMilli(expiry.asLong()).atZone(IST).toLocalDate()
+                            : date(expiry.asText(null));
+                    if ("OPT".equals(r.instrumentType)) {
+                        r.strike = n.path("strike_price").decimalValue();
+                    }
+                }
+                w.add(r);
+            }
+        }
+    }
+
+    /**
+     * Kite: CSV with a header row (instrument_token, exchange_token, tradingsymbol, name,
+     * last_price, expiry, strike, tick_size, lot_size, instrument_type, segment, exchange).
+     */
+    private void readKiteCsv(InputStream in, Writer w) throws Exception {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        String header = reader.readLine();
+        if (header == null) return;
+        Map<String, Integer> col = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) col.put(names.get(i).trim().toLowerCase(), i);
+        for (String required : Arrays.asList("instrument_token", "tradingsymbol", "instrument_type", "exchange")) {
+            if (!col.containsKey(required)) throw new IOException("Kite instrument CSV has no " + required + " column");
+        }
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) continue;
+            w.read++;
+            List<String> f = splitCsv(line);
+            Row r = row(field(f, col, "exchange"), field(f, col, "tradingsymbol"),
+                    field(f, col, "instrument_type"), field(f, col, "instrument_token"));
+            if (r == null) {
+                w.skipped++;
+                continue;
+            }
+            if (!"EQUITY".equals(r.instrumentType)) {
+                r.expiry = date(field(f, col, "expiry"));
+                String strike = field(f, col, "strike");
+                if ("OPT".equals(r.instrumentType) && strike != null) r.strike = new BigDecimal(strike);
+            }
+            w.add(r);
+        }
+    }
+
+    /** Common mapping; null for rows that are not tradable instruments or are filtered out. */
+    private Row row(String exchange, String symbol, String brokerType, String brokerId) {
+        if (exchange == null || StringUtils.isBlank(symbol) || StringUtils.isBlank(brokerId)) return null;
+        exchange = exchange.toUpperCase();
+        if (!exchanges.isEmpty() && !exchanges.contains(exchange)) return null;
+        String type;
+        String optionType = null;
+        switch (brokerType == null ? "" : brokerType.toUpperCase()) {
+            case "EQ":
+            case "EQUITY":
+                type = "EQUITY";
+                break;
+            case "FUT":
+            case "FUTIDX":
+            case "FUTSTK":
+            case "FUTCOM":
+            case "FUTCUR":
+                type = "FUT";
+                break;
+            case "CE":
+            case "PE":
+                type = "OPT";
+                optionType = brokerType.toUpperCase();
+                break;
+            default:
+                return null; // indices and anything not held or traded as a position
+        }
+        Row r = new Row();
+        r.exchange = exchange;
+        r.symbol = symbol.trim();
+        r.instrumentType = type;
+        r.optionType = optionType;
+        r.brokerId = brokerId.trim();
+        return r;
+    }
+
+    private static LocalDate date(String s) {
+        if (StringUtils.isBlank(s)) return null;
+        try {
+            return LocalDate.parse(s.trim().length() > 10 ? s.trim().substring(0, 10) : s.trim());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> col, String name) {
+        Integer i = col.get(name);
+        if (i == null || i >= fields.size()) return null;
+        return StringUtils.trimToNull(fields.get(i));
+    }
+
+    /** Split one CSV line; quoted fields may contain commas and doubled quotes. */
+    private static List<String> splitCsv(String line) {
+        List<String> out = new ArrayList<>(12);
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    sb.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                out.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(ch);
+            }
+        }
+        out.add(sb.toString());
+        return out;
+    }
+
+    /** Gunzips if the stream starts with the gzip magic bytes. Does not close the source. */
+    private static InputStream decompressed(InputStream raw) throws IOException {
+        InputStream in = new BufferedInputStream(new FilterInputStream(raw) {
+            @Override
+            public void close() {
+                // the caller owns the source stream
+            }
+        }, 1 << 16);
+        in.mark(2);
+        int b1 = in.read();
+        int b2 = in.read();
+        in.reset();
+        if (b1 == 0x1f && b2 == 0x8b) {
+            return new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16);
+        }
+        return in;
+    }
+
+    /** JSON if the first non-blank byte opens an array or object. */
+    private static boolean isJson(InputStream in) throws IOException {
+        in.mark(1024);
+        try {
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '[' || b == '{') return true;
+                if (!Character.isWhitespace(b) && b != 0xEF && b != 0xBB && b != 0xBF) return false;
+            }
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+
+    private static final class Row {
+        String exchange;
+        String symbol;
+        String instrumentType;
+        String isin;
+        LocalDate expiry;
+        BigDecimal strike;
+        String optionType;
+        String brokerId;
+    }
+
+    /** Buffers one batch of rows and writes it: instruments, their ids, identifiers, commit. */
+    private final class Writer {
+        final Connection c;
+        final String broker;
+        final Map<String, Row> batch = new LinkedHashMap<>();
+        int read;
+        int skipped;
+        int upserted;
+
+        Writer(Connection c, String broker) {
+            this.c = c;
+            this.broker = broker;
+        }
+
+        void add(Row r) throws SQLException {
+            // a symbol listed twice in one dump: the later row wins, as it would row by row
+            batch.put(r.exchange + "|" + r.symbol.toUpperCase(), r);
+            if (batch.size() >= Math.max(1, cfg.batch_size())) flush();
+        }
+
+        void flush() throws SQLException {
+            if (batch.isEmpty()) return;
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO instrument(instrument_type, exchange_code, tradingsymbol, isin, expiry_date, strike_price, option_type, created_at, updated_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, NOW(), NOW()) " +
+                            "ON DUPLICATE KEY UPDATE instrument_type = VALUES(instrument_type), isin = COALESCE(VALUES(isin), isin), " +
+                            "expiry_date = VALUES(expiry_date), strike_price = VALUES(strike_price), " +
+                            "option_type = VALUES(option_type), updated_at = NOW()")) {
+                for (Row r : batch.values()) {
+                    ps.setString(1, r.instrumentType);
+                    ps.setString(2, r.exchange);
+                    ps.setString(3, r.symbol);
+                    ps.setString(4, r.isin);
+                    if (r.expiry != null) ps.setDate(5, Date.valueOf(r.expiry));
+                    else ps.setNull(5, Types.DATE);
+                    ps.setBigDecimal(6, r.strike);
+                    ps.setString(7, r.optionType);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+
+            Map<String, Long> ids = ids();
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO instrument_identifier(instrument_id, id_type, id_value, exchange_code, symbol) " +
+                            "VALUES (?, ?, ?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE id_value = VALUES(id_value), exchange_code = VALUES(exchange_code), symbol = VALUES(symbol)")) {
+                for (Map.Entry<String, Row> e : batch.entrySet()) {
+                    Long id = ids.get(e.getKey());
+                    if (id == null) continue;
+                    Row r = e.getValue();
+                    ps.setLong(1, id);
+                    ps.setString(2, broker);
+                    ps.setString(3, r.brokerId);
+                    ps.setString(4, r.exchange);
+                    ps.setString(5, r.symbol);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            c.commit();
+            upserted += batch.size();
+            log.debug(CYAN + "{} instruments: {} upserted so far" + RESET, broker, upserted);
+            batch.clear();
+        }
+
+        /** instrument_id of every row in the batch, in one query. */
+        private Map<String, Long> ids() throws SQLException {
+            StringBuilder sql = new StringBuilder(
+                    "SELECT instrument_id, exchange_code, tradingsymbol FROM instrument WHERE (exchange_code, tradingsymbol) IN (");
+            for (int i = 0; i < batch.size(); i++) sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+            sql.append(')');
+            Map<String, Long> ids = new HashMap<>(batch.size() * 2);
+            try (PreparedStatement ps = c.prepareStatement(sql.toString())) {
+                int i = 1;
+                for (Row r : batch.values()) {
+                    ps.setString(i++, r.exchange);
+                    ps.setString(i++, r.symbol);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        ids.put(rs.getString(2).toUpperCase() + "|" + rs.getString(3).toUpperCase(), rs.getLong(1));
+                    }
+                }
+            }
+            if (ids.size() < batch.size()) {
+                log.warn(YELLOW + "⚠️ {} of {} {} instruments not found after upsert" + RESET,
+                        batch.size() - ids.size(), batch.size(), broker);
+            }
+            return ids;
+        }
+    }
+}
@@ -5,13 +5,17 @@ import com.aem.ai.pm.dao.DataSourcePoolProviderService;
 import com.aem.ai.pm.dto.HoldingItem;
 import com.aem.ai.pm.dto.PositionItem;
 import com.aem.ai.pm.services.InstrumentResolver;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component(service = InstrumentResolver.class, immediate = true)
 public class InstrumentResolverImpl implements InstrumentResolver {
@@ -30,39 +34,57 @@ public class InstrumentResolverImpl implements InstrumentResolver {
     private DataSourcePoolProviderService dataSourcePoolProviderService;
 
 
+    /** instrument_id by ISIN, exchange+symbol and derivative key; replaced whole when (re)loaded. */
+    private volatile Index index = new Index();
+
     private DataSource getDataSource() {
         return dataSourcePoolProviderService.getDataSourceByName(GenericeConstants.MYSQL_PORTFOLIO_MGMT);
     }
 
+    @Activate
+    protected void activate() {
+        reload();
+    }
+
     @Override
-    public long resolveForHolding(HoldingItem h) {
-        log.info(BLUE + "🔍 Resolving Holding: " + RESET +
-                "ISIN=" + h.isin + ", Exchange=" + h.exchange + ", Symbol=" + h.symbol);
+    public int reload() {
         DataSource dataSource = getDataSource();
-        if (null == dataSource){
-            log.error(RED + "❌ DataSource not found! Cannot resolve Holding instrument." + RESET);
-            throw new RuntimeException("DataSource not found for portfolio management");
+        if (dataSource == null) {
+            log.warn(YELLOW + "⚠️ DataSource not found, instrument index unchanged ({} ISINs); lookups fill it" + RESET,
+                    index.byIsin.size());
+            return -1;
         }
+        long start = System.currentTimeMillis();
         try (Connection c = dataSource.getConnection()) {
-            Long id = byIsin(c, h.isin);
-            if (id != null) {
-                log.info(GREEN + "✅ Found instrument by ISIN: " + RESET + id);
-                return id;
-            }
-
-            id = bySymbol(c, h.exchange, h.symbol);
-            if (id != null) {
-                log.info(GREEN + "✅ Found instrument by Symbol: " + RESET + id);
-                return id;
-            }
+            Index loaded = load(c);
+            index = loaded;
+            log.info(GREEN + "✅ Instrument index loaded in {} ms: {} ISINs, {} symbols, {} derivatives" + RESET,
+                    System.currentTimeMillis() - start, loaded.byIsin.size(), loaded.bySymbol.size(), loaded.byDeriv.size());
+            return loaded.byIsin.size() + loaded.bySymbol.size() + loaded.byDeriv.size();
+        } catch (SQLException e) {
+            log.error(RED + "❌ Failed to load instrument index, keeping the current one: " + e.getMessage() + RESET, e);
+            return -1;
+        }
+    }
 
-            long newId = insertStub(c, h.exchange, h.symbol, h.instrumentType, h.isin);
-            log.warn(YELLOW + "⚠️ No match found. Inserted new stub instrument with ID=" + newId + RESET);
-            if (newId >0){
-                c.commit();
-            }
-            return newId;
+    @Override
+    public long resolveForHolding(HoldingItem h) {
+        Long id = indexed(h);
+        if (id != null) return id;
+        try (Connection c = openConnection("Holding")) {
+            return resolveHolding(c, h, false);
+        } catch (SQLException e) {
+            log.error(RED + "❌ Error resolving Holding instrument: " + e.getMessage() + RESET, e);
+            throw new RuntimeException(e);
+        }
+    }
 
+    @Override
+    public long resolveForHolding(Connection c, HoldingItem h) {
+        Long id = indexed(h);
+        if (id != null) return id;
+        try {
+            return resolveHolding(c, h, true);
         } catch (SQLException e) {
             log.error(RED + "❌ Error resolving Holding instrument: " + e.getMessage() + RESET, e);
             throw new RuntimeException(e);
@@ -71,35 +93,169 @@ public class InstrumentResolverImpl implements InstrumentResolver {
 
     @Override
     public long resolveForPosition(PositionItem p) {
+        Long id = indexed(p);
+        if (id != null) return id;
+        try (Connection c = openConnection("Position")) {
+            return resolvePosition(c, p, false);
+        } catch (SQLException e) {
+            log.error(RED + "❌ Error resolving Position instrument: " + e.getMessage() + RESET, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public long resolveForPosition(Connection c, PositionItem p) {
+        Long id = indexed(p);
+        if (id != null) return id;
+        try {
+            return resolvePosition(c, p, true);
+        } catch (SQLException e) {
+            log.error(RED + "❌ Error resolving Position instrument: " + e.getMessage() + RESET, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Index lookup in the same order as the SQL fallback: ISIN, then exchange + symbol. */
+    private Long indexed(HoldingItem h) {
+        Index idx = index;
+        Long id = h.isin == null ? null : idx.byIsin.get(h.isin.toUpperCase());
+        if (id == null) id = idx.bySymbol.get(symbolKey(h.exchange, h.symbol));
+        if (id != null) log.debug(GREEN + "✅ Holding {}:{} resolved from index: {}" + RESET, h.exchange, h.symbol, id);
+        return id;
+    }
+
+    private Long indexed(PositionItem p) {
+        Index idx = index;
+        String deriv = derivKey(p.exchange, p.symbol, p.expiry, p.strike, p.optionType);
+        Long id = deriv == null ? null : idx.byDeriv.get(deriv);
+        if (id == null) id = idx.bySymbol.get(symbolKey(p.exchange, p.symbol));
+        if (id != null) log.debug(GREEN + "✅ Position {}:{} resolved from index: {}" + RESET, p.exchange, p.symbol, id);
+        return id;
+    }
+
+    /** Index miss: the original SQL lookups, remembering whatever they find or insert. */
+    private long resolveHolding(Connection c, HoldingItem h, boolean callerTx) throws SQLException {
+        log.info(BLUE + "🔍 Resolving Holding: " + RESET +
+                "ISIN=" + h.isin + ", Exchange=" + h.exchange + ", Symbol=" + h.symbol);
+        Index idx = index;
+        Long id = byIsin(c, h.isin);
+        if (id != null) {
+            log.info(GREEN + "✅ Found instrument by ISIN: " + RESET + id);
+            idx.byIsin.put(h.isin.toUpperCase(), id);
+            return id;
+        }
+
+        id = bySymbol(c, h.exchange, h.symbol);
+        if (id != null) {
+            log.info(GREEN + "✅ Found instrument by Symbol: " + RESET + id);
+            idx.bySymbol.put(symbolKey(h.exchange, h.symbol), id);
+            return id;
+        }
+
+        long newId = stub(c, callerTx, h.exchange, h.symbol, h.instrumentType, h.isin);
+        if (h.isin != null) idx.byIsin.put(h.isin.toUpperCase(), newId);
+        idx.bySymbol.put(symbolKey(h.exchange, h.symbol), newId);
+        return newId;
+    }
+
+    private long resolvePosition(Connection c, PositionItem p, boolean callerTx) throws SQLException {
         log.info(BLUE + "🔍 Resolving Position: " + RESET +
                 "Exchange=" + p.exchange + ", Symbol=" + p.symbol +
                 ", Expiry=" + p.expiry + ", Strike=" + p.strike + ", OptType=" + p.optionType);
+        Index idx = index;
+        String deriv = derivKey(p.exchange, p.symbol, p.expiry, p.strike, p.optionType);
+        Long id = deriv == null ? null : byDerivKey(c, p.exchange, p.symbol, p.expiry, p.strike, p.optionType);
+        if (id != null) {
+            log.info(GREEN + "✅ Found derivative instrument: " + RESET + id);
+            idx.byDeriv.put(deriv, id);
+            return id;
+        }
+
+        id = bySymbol(c, p.exchange, p.symbol);
+        if (id != null) {
+            log.info(GREEN + "✅ Found underlying instrument: " + RESET + id);
+            idx.bySymbol.put(symbolKey(p.exchange, p.symbol), id);
+            return id;
+        }
+
+        long newId = stub(c, callerTx, p.exchange, p.symbol, p.instrumentType, null);
+        idx.bySymbol.put(symbolKey(p.exchange, p.symbol), newId);
+        return newId;
+    }
+
+    /**
+     * Stubs are reference data: inside a caller's transaction they go through a separate
+     * connection committed on its own, so a portfolio rollback cannot leave a cached id without
+     * its row. Either way the insert is committed before the id reaches the index.
+     */
+    private long stub(Connection c, boolean callerTx, String exch, String sym, String type, String isin) throws SQLException {
+        long newId;
+        if (callerTx) {
+            try (Connection own = openConnection("stub")) {
+                newId = insertCommitted(own, exch, sym, type, isin);
+            }
+        } else {
+            newId = insertCommitted(c, exch, sym, type, isin);
+        }
+        log.warn(YELLOW + "⚠️ No match found. Inserted new stub instrument with ID=" + newId + RESET);
+        return newId;
+    }
+
+    private Connection openConnection(String what) throws SQLException {
         DataSource dataSource = getDataSource();
-        if (dataSource == null ){
-            log.error(RED + "❌ DataSource not found! Cannot resolve Position instrument." + RESET);
+        if (dataSource == null) {
+            log.error(RED + "❌ DataSource not found! Cannot resolve " + what + " instrument." + RESET);
             throw new RuntimeException("DataSource not found for portfolio management");
         }
-        try (Connection c = dataSource.getConnection()) {
-            Long id = byDerivKey(c, p.exchange, p.symbol, p.expiry, p.strike, p.optionType);
-            if (id != null) {
-                log.info(GREEN + "✅ Found derivative instrument: " + RESET + id);
-                return id;
-            }
+        return dataSource.getConnection();
+    }
 
-            id = bySymbol(c, p.exchange, p.symbol);
-            if (id != null) {
-                log.info(GREEN + "✅ Found underlying instrument: " + RESET + id);
-                return id;
+    private Index load(Connection c) throws SQLException {
+        Index idx = new Index();
+        try (PreparedStatement ps = c.prepareStatement(
+                "SELECT instrument_id, isin FROM instrument WHERE isin IS NOT NULL");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                idx.byIsin.putIfAbsent(rs.getString(2).toUpperCase(), rs.getLong(1));
             }
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "SELECT i.instrument_id, ii.exchange_code, ii.symbol FROM instrument i " +
+                        "JOIN instrument_identifier ii ON ii.instrument_id=i.instrument_id");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                idx.bySymbol.putIfAbsent(symbolKey(rs.getString(2), rs.getString(3)), rs.getLong(1));
+            }
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "SELECT instrument_id, exchange_code, tradingsymbol, expiry_date, strike_price, option_type " +
+                        "FROM instrument WHERE expiry_date IS NOT NULL AND option_type IS NOT NULL");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String key = derivKey(rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getBigDecimal(5), rs.getString(6));
+                if (key != null) idx.byDeriv.putIfAbsent(key, rs.getLong(1));
+            }
+        }
+        return idx;
+    }
 
-            long newId = insertStub(c, p.exchange, p.symbol, p.instrumentType, null);
-            log.warn(YELLOW + "⚠️ No match found. Inserted new stub instrument with ID=" + newId + RESET);
-            return newId;
+    /** Upper-cased like the case-insensitive collation the SQL lookups compare with. */
+    private static String symbolKey(String exch, String sym) {
+        return (exch == null ? "" : exch.toUpperCase()) + "|" + (sym == null ? "" : sym.toUpperCase());
+    }
 
-        } catch (SQLException e) {
-            log.error(RED + "❌ Error resolving Position instrument: " + e.getMessage() + RESET, e);
-            throw new RuntimeException(e);
-        }
+    /** Null when the SQL lookup could not match either (NULL expiry/option type never compare equal). */
+    private static String derivKey(String exch, String sym, String expiry, BigDecimal strike, String opt) {
+        if (expiry == null || opt == null) return null;
+        BigDecimal k = strike == null ? BigDecimal.ZERO : strike;
+        return symbolKey(exch, sym) + "|" + expiry + "|" + k.stripTrailingZeros().toPlainString() + "|" + opt.toUpperCase();
+    }
+
+    private static final class Index {
+        final Map<String, Long> byIsin = new ConcurrentHashMap<>();
+        final Map<String, Long> bySymbol = new ConcurrentHashMap<>();
+        final Map<String, Long> byDeriv = new ConcurrentHashMap<>();
     }
 
     private Long byIsin(Connection c, String isin) throws SQLException {
@@ -139,11 +295,29 @@ public class InstrumentResolverImpl implements InstrumentResolver {
         }
     }
 
+    private long insertCommitted(Connection c, String exch, String sym, String type, String isin) throws SQLException {
+        try {
+            long id = insertStub(c, exch, sym, type, isin);
+            if (!c.getAutoCommit()) c.commit();
+            return id;
+        } catch (SQLException e) {
+            if (!c.getAutoCommit()) {
+                try {
+                    c.rollback();
+                } catch (SQLException re) {
+                    e.addSuppressed(re);
+                }
+            }
+            throw e;
+        }
+    }
+
     private long insertStub(Connection c, String exch, String sym, String type, String isin) throws SQLException {
         try (PreparedStatement ps = c.prepareStatement(
                 "INSERT INTO instrument(instrument_type, exchange_code, tradingsymbol, isin, created_at, updated_at)" +
                         "VALUES (?, ?, ?, ?, NOW(), NOW())" +
                         "ON DUPLICATE KEY UPDATE" +
+                        "  instrument_id = LAST_INSERT_ID(instrument_id)," +
                         "  updated_at = NOW()," +
                         "  isin = VALUES(isin)", Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, type);
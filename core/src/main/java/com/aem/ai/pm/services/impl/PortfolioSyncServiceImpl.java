@@ -14,7 +14,15 @@ import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Component(service = PortfolioSyncService.class, immediate = true)
 public class PortfolioSyncServiceImpl implements PortfolioSyncService {
@@ -61,7 +69,13 @@ public class PortfolioSyncServiceImpl implements PortfolioSyncService {
             return;
         }
 
-        log.info(CYAN + "Starting portfolio sync with {} connectors..." + RESET, connectors.size());
+        log.info(CYAN + "Starting portfolio sync with {} connectors (concurrent={})..." + RESET,
+                connectors.size(), cfg.concurrent());
+
+        if (cfg.concurrent()) {
+            syncConcurrently();
+            return;
+        }
 
         for (BrokerConnector bc : connectors) {
             try {
@@ -79,19 +93,104 @@ public class PortfolioSyncServiceImpl implements PortfolioSyncService {
         }
     }
 
-    private void syncAccount(BrokerConnector bc, BrokerAccountRef acc) {
+    /**
+     * Accounts of each broker fan out over that broker's own pool of up to {@code parallelism}
+     * threads (so a slow broker cannot starve the others, and per-broker load stays bounded);
+     * every account shares one run deadline, after which unfinished syncs are cancelled.
+     */
+    private void syncConcurrently() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(Math.max(1, cfg.runDeadlineSeconds()));
+        List<ExecutorService> pools = new ArrayList<>();
+        List<AccountSync> pending = new ArrayList<>();
+
+        for (BrokerConnector bc : connectors) {
+            try {
+                List<BrokerAccountRef> accounts = bc.discoverAccounts();
+                log.info(GREEN + "Discovered {} accounts for broker={}" + RESET,
+                        accounts.size(), bc.brokerCode());
+                if (accounts.isEmpty()) continue;
+
+                int threads = Math.max(1, Math.min(cfg.parallelism(), accounts.size()));
+                ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+                    Thread t = new Thread(r, "portfolio-sync-" + bc.brokerCode());
+                    t.setDaemon(true);
+                    return t;
+                });
+                pools.add(pool);
+                for (BrokerAccountRef acc : accounts) {
+                    pending.add(new AccountSync(bc, acc, pool.submit(() -> syncAccount(bc, acc))));
+                }
+                pool.shutdown();
+            } catch (Exception e) {
+                log.error(RED + "Error discovering accounts for broker={}: {}" + RESET,
+                        bc.brokerCode(), e.getMessage(), e);
+            }
+        }
+
+        int synced = 0;
+        int failed = 0;
+        int timedOut = 0;
+        try {
+            for (AccountSync s : pending) {
+                try {
+                    if (s.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        synced++;
+                    } else {
+                        failed++;
+                    }
+                } catch (TimeoutException e) {
+                    s.result.cancel(true);
+                    timedOut++;
+                    log.warn(YELLOW + "Sync deadline passed for broker={} uba={}, cancelled" + RESET,
+                            s.broker.brokerCode(), s.account.userBrokerAccountId);
+                } catch (ExecutionException | CancellationException e) {
+                    failed++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn(YELLOW + "Portfolio sync interrupted" + RESET);
+        } finally {
+            pools.forEach(ExecutorService::shutdownNow);
+        }
+
+        log.info(CYAN + "Portfolio sync finished in {} ms: {} synced, {} failed, {} timed out across {} brokers" + RESET,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), synced, failed, timedOut, pools.size());
+    }
+
+    private static final class AccountSync {
+        final BrokerConnector broker;
+        final BrokerAccountRef account;
+        final Future<Boolean> result;
+
+        AccountSync(BrokerConnector broker, BrokerAccountRef account, Future<Boolean> result) {
+            this.broker = broker;
+            this.account = account;
+            this.result = result;
+        }
+    }
+
+    /** @return true if the snapshot was fetched and committed */
+    private boolean syncAccount(BrokerConnector bc, BrokerAccountRef acc) {
+        boolean committed = false;
         try (Connection c = dataSource.getConnection()) {
             c.setAutoCommit(false);
             PortfolioSnapshot snap = bc.fetchPortfolio(acc);
             dao.updateUserBrokerAccountJson(c, acc, snap);
             dao.upsertAccountSnapshot(c, acc, snap);
             c.commit();
+            committed = true;
 
             log.info(GREEN + "Synced broker={} account={} (UBA:{})" + RESET,
                     bc.brokerCode(), acc.externalAccountId, acc.userBrokerAccountId);
+            return true;
         } catch (Exception e) {
             log.error(RED + "Sync failed for broker={} uba={} : {}" + RESET,
                     bc.brokerCode(), acc.userBrokerAccountId, e.getMessage(), e);
+            return false;
+        } finally {
+            dao.transactionEnded(acc, committed);
         }
     }
 }
@@ -1,7 +1,9 @@
 package com.aem.ai.pm.servlet;
 
 import com.aem.ai.pm.connectors.kite.KiteAuthService;
+import com.aem.ai.pm.dto.BrokerToken;
 import com.aem.ai.pm.dto.UserBrokerAccount;
+import com.aem.ai.pm.services.BrokerTokenCache;
 import com.aem.ai.pm.services.BrokerTokenService;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
@@ -13,6 +15,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.servlet.Servlet;
 import java.io.IOException;
+import java.time.ZonedDateTime;
 
 @Component(
         service = Servlet.class, immediate = true,
@@ -31,6 +34,9 @@ public class KiteCallbackServlet extends SlingAllMethodsServlet {
     @Reference
     private BrokerTokenService brokerTokenService;
 
+    @Reference
+    private BrokerTokenCache tokenCache;
+
     @Override
     protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response) throws IOException {
         // Extract request_token and account identifiers
@@ -73,6 +79,13 @@ public class KiteCallbackServlet extends SlingAllMethodsServlet {
                 "ZERODHA"// pass null if KiteAuthService handles fetching from DB
         );
 
+        if (success != null && !success.isEmpty()) {
+            BrokerToken token = new BrokerToken();
+            token.setAccessToken(success);
+            token.setTokenExpiry(KiteAuthService.tokenExpiry(ZonedDateTime.now()));
+            tokenCache.put("ZERODHA", brokerAccountRef, token);
+        }
+
         // Respond
         response.getWriter().write("{\"status\":\"success\",\"message\":\"Token updated\"}");
     }
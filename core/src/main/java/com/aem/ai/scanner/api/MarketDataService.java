@@ -2,7 +2,9 @@ package com.aem.ai.scanner.api;
 
 import com.aem.ai.scanner.model.Candle;
 import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.utils.Timeframes;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface MarketDataService {
@@ -19,8 +21,23 @@ public interface MarketDataService {
      */
     List<Candle> fetchCandles(InstrumentSymbol symbol, String timeframe, int count, boolean historical) throws Exception;
 
-    /** Sleep/throttle between calls as needed. */
+    /**
+     * Fetch the candles from {@code since} (inclusive) up to now for incremental updates, however
+     * far back {@code since} is, so a store that missed updates can be backfilled. Brokers that
+     * cannot filter by time fall back to a normal fetch of {@code count} bars, so callers must
+     * tolerate bars they already have.
+     */
+    default List<Candle> fetchCandlesSince(InstrumentSymbol symbol, String timeframe, Instant since, int count) throws Exception {
+        return fetchCandles(symbol, timeframe, count, Timeframes.isHistoricalBucket(timeframe));
+    }
+
+    /**
+     * Pacing hook between calls. Broker calls are paced by the shared RateLimitService
+     * (permits/sec per broker and endpoint, Retry-After aware), so this is a no-op by default.
+     *
+     * @deprecated kept for implementations that still need a fixed pause; callers should not rely on it
+     */
+    @Deprecated
     default void interCallDelay() {
-        try { Thread.sleep(10_000); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
     }
 }
@@ -0,0 +1,34 @@
+package com.aem.ai.scanner.api;
+
+import com.aem.ai.scanner.model.InstrumentSymbol;
+
+import java.util.Collection;
+
+/**
+ * Streaming last-traded-price feed of a broker (market data WebSocket or a local replay).
+ */
+public interface PriceFeed {
+    /** Short code of the broker, e.g., UPSTOX, DELTA. */
+    String brokerCode();
+
+    boolean enabled();
+
+    /**
+     * Stream ticks for exactly these instruments to {@code listener}, replacing the previous
+     * subscription. Connects on first use and reconnects by itself until {@link #unsubscribeAll()}.
+     */
+    void subscribe(Collection<InstrumentSymbol> symbols, TickListener listener);
+
+    void unsubscribeAll();
+
+    @FunctionalInterface
+    interface TickListener {
+        /**
+         * Called on the feed's I/O thread, so implementations must not block.
+         *
+         * @param symbol      {@link InstrumentSymbol#getSymbol()} of the instrument
+         * @param epochMillis exchange time of the trade, or receive time if the feed has none
+         */
+        void onTick(String symbol, double ltp, long epochMillis);
+    }
+}
@@ -0,0 +1,106 @@
+package com.aem.ai.scanner.backtest;
+
+
+import com.aem.ai.scanner.model.StrategyConfig;
+import com.aem.ai.scanner.model.StrategyResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exhaustive grid search. When the grid is larger than the budget, a coarser grid is evaluated
+ * instead: each dimension keeps an evenly spaced subset of its values (first and last included
+ * once it has two), sized so the product fits the budget. Every dimension still moves, which a
+ * stride over the flat index does not guarantee (a stride sharing a factor with the fastest
+ * dimension's radix pins that dimension to one value).
+ */
+public class GridSearch implements ParameterSearch {
+
+    private static final Logger log = LoggerFactory.getLogger(GridSearch.class);
+
+    @Override
+    public List<StrategyResult> search(StrategyConfig template, ParameterSpace space, int maxCandidates, Evaluator evaluator) {
+        List<ParameterSpace.Dimension> dims = space.dimensions();
+        int[][] picks = new int[dims.size()][];
+        if (space.size() > maxCandidates) {
+            int[] counts = counts(dims, Math.max(1, maxCandidates));
+            for (int i = 0; i < picks.length; i++) {
+                picks[i] = spread(dims.get(i).values.length, counts[i]);
+            }
+            log.warn("⚠️ Grid for {} has {} points, budget {}: evaluating {} values per dimension",
+                    template.getName(), space.size(), maxCandidates, Arrays.toString(counts));
+        } else {
+            for (int i = 0; i < picks.length; i++) {
+                picks[i] = spread(dims.get(i).values.length, dims.get(i).values.length);
+            }
+        }
+
+        List<StrategyConfig> candidates = new ArrayList<>();
+        int[] at = new int[picks.length];
+        int[] point = new int[picks.length];
+        while (true) {
+            for (int i = 0; i < point.length; i++) {
+                point[i] = picks[i][at[i]];
+            }
+            StrategyConfig cfg = space.apply(template, point);
+            if (cfg != null) {
+                candidates.add(cfg);
+            }
+            // odometer over the picked values, last dimension fastest like ParameterSpace.index
+            int i = at.length - 1;
+            while (i >= 0 && ++at[i] == picks[i].length) {
+                at[i--] = 0;
+            }
+            if (i < 0) break;
+        }
+        return evaluator.evaluate(candidates, 1.0);
+    }
+
+    /**
+     * Values per dimension whose product stays within {@code budget}: repeatedly grow the
+     * dimension with the fewest values so far (among ties the least covered relative to its
+     * size), while the product still fits, so every dimension moves before any gets a third value.
+     */
+    static int[] counts(List<ParameterSpace.Dimension> dims, int budget) {
+        int[] counts = new int[dims.size()];
+        Arrays.fill(counts, 1);
+        boolean[] full = new boolean[counts.length];
+        long product = 1;
+        while (true) {
+            int best = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (full[i]) continue;
+                int radix = dims.get(i).values.length;
+                if (counts[i] >= radix) {
+                    full[i] = true;
+                    continue;
+                }
+                if (best < 0 || counts[i] < counts[best] || (counts[i] == counts[best]
+                        && (double) counts[i] / radix < (double) counts[best] / dims.get(best).values.length)) {
+                    best = i;
+                }
+            }
+            if (best < 0) return counts;
+            long grown = product / counts[best] * (counts[best] + 1);
+            if (grown > budget) {
+                full[best] = true;
+                continue;
+            }
+            product = grown;
+            counts[best]++;
+        }
+    }
+
+    /** {@code k} evenly spaced value indices out of {@code radix}; the middle one when {@code k} is 1. */
+    static int[] spread(int radix, int k) {
+        if (k <= 1) return new int[]{radix / 2};
+        int[] out = new int[k];
+        for (int j = 0; j < k; j++) {
+            out[j] = (int) Math.round((double) j * (radix - 1) / (k - 1));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,47 @@
+package com.aem.ai.scanner.backtest;
+
+
+import com.aem.ai.scanner.model.StrategyConfig;
+import com.aem.ai.scanner.model.StrategyResult;
+
+import java.util.List;
+
+/**
+ * Strategy for exploring a template's {@link ParameterSpace} within a candidate budget.
+ */
+public interface ParameterSearch {
+
+    /**
+     * Scores candidates on the most recent {@code fraction} (0..1] of the series. Cheaper,
+     * lower-fidelity evaluations use a smaller fraction.
+     */
+    interface Evaluator {
+        List<StrategyResult> evaluate(List<StrategyConfig> candidates, double fraction);
+    }
+
+    /**
+     * Explore the space and return the results of the candidates evaluated on the full series.
+     *
+     * @param template      strategy the space belongs to
+     * @param space         parameter space of the template
+     * @param maxCandidates upper bound on distinct configurations to try
+     * @param evaluator     backtest function
+     */
+    List<StrategyResult> search(StrategyConfig template, ParameterSpace space, int maxCandidates, Evaluator evaluator);
+
+    /**
+     * @param mode grid, random or halving (successive halving); unknown modes fall back to grid
+     */
+    static ParameterSearch forMode(String mode, long seed, int eta) {
+        if (mode == null) return new GridSearch();
+        switch (mode.trim().toLowerCase()) {
+            case "random":
+                return new RandomSearch(seed);
+            case "halving":
+            case "successive_halving":
+                return new SuccessiveHalvingSearch(seed, eta);
+            default:
+                return new GridSearch();
+        }
+    }
+}
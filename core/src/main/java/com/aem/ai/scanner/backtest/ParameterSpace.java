@@ -0,0 +1,184 @@
+package com.aem.ai.scanner.backtest;
+
+
+import com.aem.ai.scanner.model.Condition;
+import com.aem.ai.scanner.model.ParameterRange;
+import com.aem.ai.scanner.model.StrategyConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cartesian parameter space of a strategy template.
+ *
+ * Dimensions come from the template's declared {@code parameters}; when none are declared the
+ * built-in grids are used per condition (EMA period, EMA_CROSS fast, RSI period, MACD
+ * fast/slow/signal). A point is one value index per dimension, and {@link #index(long)} decodes a
+ * flat grid index into a point so grid and random search can address the space without
+ * materialising it.
+ */
+public class ParameterSpace {
+
+    public static final class Dimension {
+        public final int rule;
+        public final int condition;
+        public final String param;
+        public final int[] values;
+
+        Dimension(int rule, int condition, String param, int[] values) {
+            this.rule = rule;
+            this.condition = condition;
+            this.param = param;
+            this.values = values;
+        }
+    }
+
+    private final List<Dimension> dimensions;
+
+    private ParameterSpace(List<Dimension> dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    public static ParameterSpace of(StrategyConfig template) {
+        List<ParameterRange> ranges = template.getParameters();
+        if (ranges == null || ranges.isEmpty()) {
+            ranges = defaultRanges(template);
+        }
+        List<Dimension> dims = new ArrayList<>();
+        for (ParameterRange r : ranges) {
+            Condition cond = conditionAt(template, r.getRule(), r.getCondition());
+            List<Integer> values = r.expand();
+            if (cond == null || values.isEmpty() || !isKnownParam(r.getParam())) {
+                throw new IllegalArgumentException("Invalid parameter range for " + template.getName()
+                        + ": rule=" + r.getRule() + " condition=" + r.getCondition() + " param=" + r.getParam());
+            }
+            dims.add(new Dimension(r.getRule(), r.getCondition(), r.getParam().toLowerCase(),
+                    values.stream().mapToInt(Integer::intValue).toArray()));
+        }
+        return new ParameterSpace(dims);
+    }
+
+    /** The grids the backtester used before ranges became configurable, applied per condition. */
+    private static List<ParameterRange> defaultRanges(StrategyConfig template) {
+        List<ParameterRange> out = new ArrayList<>();
+        List<StrategyConfig.RuleConfig> rules = template.getRules();
+        if (rules == null) return out;
+        for (int r = 0; r < rules.size(); r++) {
+            List<Condition> conds = rules.get(r).getConditions();
+            if (conds == null) continue;
+            for (int c = 0; c < conds.size(); c++) {
+                String ind = conds.get(c).indicator == null ? "" : conds.get(c).indicator.toUpperCase();
+                switch (ind) {
+                    case "EMA":
+                        out.add(new ParameterRange(r, c, "period", List.of(5, 9, 12, 21, 26, 50)));
+                        break;
+                    case "EMA_CROSS":
+                        out.add(new ParameterRange(r, c, "fast", List.of(5, 9, 12)));
+                        break;
+                    case "RSI":
+                        out.add(new ParameterRange(r, c, "period", List.of(7, 14, 21)));
+                        break;
+                    case "MACD":
+                        out.add(new ParameterRange(r, c, "fast", List.of(10, 12, 15)));
+                        out.add(new ParameterRange(r, c, "slow", List.of(20, 26, 30)));
+                        out.add(new ParameterRange(r, c, "signal", List.of(7, 9, 12)));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return out;
+    }
+
+    public List<Dimension> dimensions() {
+        return dimensions;
+    }
+
+    /** Number of grid points (1 for a template without tunable parameters). */
+    public long size() {
+        long n = 1;
+        for (Dimension d : dimensions) {
+            n = Math.multiplyExact(n, d.values.length);
+        }
+        return n;
+    }
+
+    /** Decode a flat grid index into one value index per dimension (mixed radix, last dimension fastest). */
+    public int[] index(long flat) {
+        int[] point = new int[dimensions.size()];
+        for (int i = dimensions.size() - 1; i >= 0; i--) {
+            int radix = dimensions.get(i).values.length;
+            point[i] = (int) (flat % radix);
+            flat /= radix;
+        }
+        return point;
+    }
+
+    public int[] randomPoint(Random rnd) {
+        int[] point = new int[dimensions.size()];
+        for (int i = 0; i < point.length; i++) {
+            point[i] = rnd.nextInt(dimensions.get(i).values.length);
+        }
+        return point;
+    }
+
+    /**
+     * Clone the template with the point's values applied. Returns {@code null} when the point is
+     * not a sensible configuration (a condition with fast >= slow).
+     */
+    public StrategyConfig apply(StrategyConfig template, int[] point) {
+        StrategyConfig clone = template.copy();
+        StringBuilder name = new StringBuilder(template.getName());
+        for (int i = 0; i < point.length; i++) {
+            Dimension d = dimensions.get(i);
+            int v = d.values[point[i]];
+            Condition cond = conditionAt(clone, d.rule, d.condition);
+            switch (d.param) {
+                case "period": cond.period = v; break;
+                case "fast":   cond.fast = v; break;
+                case "slow":   cond.slow = v; break;
+                case "signal": cond.signal = v; break;
+                default: throw new IllegalArgumentException("Unknown parameter: " + d.param);
+            }
+            name.append('_').append(cond.indicator).append('_').append(d.param).append(v);
+        }
+        for (StrategyConfig.RuleConfig rc : clone.getRules()) {
+            for (Condition c : rc.getConditions()) {
+                if (c.fast != null && c.slow != null && c.fast >= c.slow) {
+                    return null;
+                }
+            }
+        }
+        clone.setName(name.toString());
+        return clone;
+    }
+
+    /** Stable key of a point, for de-duplicating sampled candidates. */
+    static String key(int[] point) {
+        return Arrays.toString(point);
+    }
+
+    private static boolean isKnownParam(String p) {
+        if (p == null) return false;
+        switch (p.toLowerCase()) {
+            case "period":
+            case "fast":
+            case "slow":
+            case "signal":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static Condition conditionAt(StrategyConfig cfg, int rule, int condition) {
+        List<StrategyConfig.RuleConfig> rules = cfg.getRules();
+        if (rules == null || rule < 0 || rule >= rules.size()) return null;
+        List<Condition> conds = rules.get(rule).getConditions();
+        if (conds == null || condition < 0 || condition >= conds.size()) return null;
+        return conds.get(condition);
+    }
+}
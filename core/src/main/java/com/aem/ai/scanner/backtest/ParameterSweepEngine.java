@@ -0,0 +1,180 @@
+package com.aem.ai.scanner.backtest;
+
+
+import com.aem.ai.scanner.factory.StrategyFactoryService;
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
+import com.aem.ai.scanner.model.StrategyConfig;
+import com.aem.ai.scanner.model.StrategyResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Strategy;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.backtest.BarSeriesManager;
+import org.ta4j.core.criteria.MaximumDrawdownCriterion;
+import org.ta4j.core.criteria.pnl.ReturnCriterion;
+import org.ta4j.core.num.Num;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Runs strategy variations against one series on a ForkJoinPool.
+ *
+ * Strategies are built up front against the series' {@link IndicatorRegistry} and the registry is
+ * warmed up before the parallel phase, so every variation reads the same precomputed indicator
+ * values and nothing mutable is shared between worker threads.
+ */
+public class ParameterSweepEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ParameterSweepEngine.class);
+
+    private final StrategyFactoryService strategyFactory;
+    private final ForkJoinPool pool;
+
+    public ParameterSweepEngine(StrategyFactoryService strategyFactory, int parallelism) {
+        this.strategyFactory = strategyFactory;
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    /**
+     * Backtest every variation on the registry's series.
+     *
+     * @param registry   indicator registry of the (immutable during the sweep) series
+     * @param variations strategy variations to score
+     */
+    public SweepResult sweep(IndicatorRegistry registry, List<StrategyConfig> variations) {
+        BarSeries series = registry.series();
+        RangeSweep m = sweepRanges(registry, variations,
+                List.of(new int[]{series.getBeginIndex(), series.getEndIndex()}));
+        List<StrategyResult> results = new ArrayList<>();
+        for (StrategyResult r : m.results[0]) {
+            if (r != null) results.add(r);
+        }
+        return new SweepResult(results, variations.size(), variations.size() - results.size(), m.elapsedMs);
+    }
+
+    /**
+     * Backtest every variation on every index range {@code [start, end]} of the registry's series.
+     * Ranges are windows of the same series, so indicators are computed once for all of them and
+     * each window still sees the bars before it as indicator warm-up.
+     *
+     * @return results[range][variation], {@code null} where a variation could not be built or run
+     */
+    public RangeSweep sweepRanges(IndicatorRegistry registry, List<StrategyConfig> variations, List<int[]> ranges) {
+        long start = System.nanoTime();
+        BarSeries series = registry.series();
+
+        // Phase 1 (caller thread): build rules and fill the shared indicator cache
+        Strategy[] strategies = new Strategy[variations.size()];
+        for (int i = 0; i < strategies.length; i++) {
+            StrategyConfig cfg = variations.get(i);
+            try {
+                strategies[i] = strategyFactory.buildStrategy(cfg, registry);
+            } catch (Exception e) {
+                log.error("❌ Error building strategy {}: {}", cfg.getName(), e.getMessage());
+            }
+        }
+        registry.warmUp();
+
+        // Phase 2 (pool): one task per (range, variation)
+        StrategyResult[][] results = new StrategyResult[ranges.size()][variations.size()];
+        int tasks = ranges.size() * variations.size();
+        try {
+            pool.submit(() -> IntStream.range(0, tasks).parallel().forEach(t -> {
+                int r = t / variations.size();
+                int v = t % variations.size();
+                if (strategies[v] != null) {
+                    int[] range = ranges.get(r);
+                    results[r][v] = evaluate(series, variations.get(v), strategies[v], range[0], range[1]);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Parameter sweep on {} interrupted", series.getName());
+        } catch (ExecutionException e) {
+            log.error("❌ Parameter sweep on {} failed: {}", series.getName(), e.getCause().getMessage(), e.getCause());
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        return new RangeSweep(results, tasks, elapsedMs);
+    }
+
+    private StrategyResult evaluate(BarSeries series, StrategyConfig cfg, Strategy strategy, int from, int to) {
+        try {
+            TradingRecord record = new BarSeriesManager(series).run(strategy, from, to);
+
+            double winRate = computeWinRate(series, record);
+            double pnl     = new ReturnCriterion().calculate(series, record).doubleValue();
+            double dd      = new MaximumDrawdownCriterion().calculate(series, record).doubleValue();
+
+            log.debug("📊 Strategy {} [{}..{}] -> WinRate={} PnL={} MaxDD={}", cfg.getName(), from, to, winRate, pnl, dd);
+            return new StrategyResult(cfg, winRate, pnl, dd);
+        } catch (Exception e) {
+            log.error("❌ Error evaluating strategy {}: {}", cfg.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    static double computeWinRate(BarSeries series, TradingRecord record) {
+        if (record == null || record.getTrades().isEmpty()) return 0.0;
+        int wins = 0;
+        for (Trade trade : record.getTrades()) {
+            int entryIndex = trade.getIndex();
+            Num entryPrice = trade.getPricePerAsset(series);
+            int exitIndex = Math.min(series.getEndIndex(), entryIndex + 1);
+            Num exitPrice = series.getBar(exitIndex).getClosePrice();
+
+            boolean profitable = trade.isBuy()
+                    ? exitPrice.isGreaterThan(entryPrice)
+                    : exitPrice.isLessThan(entryPrice);
+            if (profitable) wins++;
+        }
+        return (double) wins / record.getTrades().size();
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public static class RangeSweep {
+        public final StrategyResult[][] results;
+        public final int evaluations;
+        public final long elapsedMs;
+
+        RangeSweep(StrategyResult[][] results, int evaluations, long elapsedMs) {
+            this.results = results;
+            this.evaluations = evaluations;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+
+    public static class SweepResult {
+        public final List<StrategyResult> results;
+        public final int variations;
+        public final int failed;
+        public final long elapsedMs;
+
+        SweepResult(List<StrategyResult> results, int variations, int failed, long elapsedMs) {
+            this.results = results;
+            this.variations = variations;
+            this.failed = failed;
+            this.elapsedMs = elapsedMs;
+        }
+
+        /** Variations evaluated per second of wall-clock time. */
+        public double throughput() {
+            return variations * 1000.0 / Math.max(1, elapsedMs);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("SweepResult{variations=%d, failed=%d, elapsedMs=%d, throughput=%.1f/s}",
+                    variations, failed, elapsedMs, throughput());
+        }
+    }
+}
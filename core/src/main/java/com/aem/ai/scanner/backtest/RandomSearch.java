@@ -0,0 +1,52 @@
+package com.aem.ai.scanner.backtest;
+
+
+import com.aem.ai.scanner.model.StrategyConfig;
+import com.aem.ai.scanner.model.StrategyResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Uniform random sampling of distinct points. Covers large spaces far better than a strided grid
+ * for the same budget when only a few parameters matter.
+ */
+public class RandomSearch implements ParameterSearch {
+
+    private final long seed;
+
+    public RandomSearch(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public List<StrategyResult> search(StrategyConfig template, ParameterSpace space, int maxCandidates, Evaluator evaluator) {
+        return evaluator.evaluate(sample(template, space, maxCandidates, new Random(seed)), 1.0);
+    }
+
+    /** Up to {@code n} distinct valid configurations; the whole grid when it is smaller than {@code n}. */
+    public static List<StrategyConfig> sample(StrategyConfig template, ParameterSpace space, int n, Random rnd) {
+        List<StrategyConfig> out = new ArrayList<>();
+        long size = space.size();
+        if (size <= n) {
+            for (long i = 0; i < size; i++) {
+                StrategyConfig cfg = space.apply(template, space.index(i));
+                if (cfg != null) out.add(cfg);
+            }
+            return out;
+        }
+
+        Set<String> seen = new HashSet<>();
+        int attempts = n * 10;
+        while (out.size() < n && attempts-- > 0) {
+            int[] point = space.randomPoint(rnd);
+            if (!seen.add(ParameterSpace.key(point))) continue;
+            StrategyConfig cfg = space.apply(template, point);
+            if (cfg != null) out.add(cfg);
+        }
+        return out;
+    }
+}
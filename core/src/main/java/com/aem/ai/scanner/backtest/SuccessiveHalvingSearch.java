@@ -0,0 +1,61 @@
+package com.aem.ai.scanner.backtest;
+
+
+import com.aem.ai.scanner.model.StrategyConfig;
+import com.aem.ai.scanner.model.StrategyResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Successive halving: sample the budget of candidates, score them all on a short recent slice of
+ * history, keep the best 1/eta, and repeat on an eta-times longer slice until the survivors are
+ * scored on the full series. Bad candidates are dropped after a cheap evaluation, so far more
+ * configurations fit in the compute a full grid would use.
+ */
+public class SuccessiveHalvingSearch implements ParameterSearch {
+
+    private static final Logger log = LoggerFactory.getLogger(SuccessiveHalvingSearch.class);
+
+    private final long seed;
+    private final int eta;
+
+    public SuccessiveHalvingSearch(long seed, int eta) {
+        this.seed = seed;
+        this.eta = Math.max(2, eta);
+    }
+
+    @Override
+    public List<StrategyResult> search(StrategyConfig template, ParameterSpace space, int maxCandidates, Evaluator evaluator) {
+        List<StrategyConfig> survivors = RandomSearch.sample(template, space, maxCandidates, new Random(seed));
+
+        // rungs so that the last one leaves about one survivor per eta candidates of the first
+        int rungs = 1;
+        for (long n = survivors.size(); n > eta; n /= eta) {
+            rungs++;
+        }
+        double fraction = Math.pow(eta, -(rungs - 1));
+
+        for (int rung = 0; rung < rungs - 1; rung++) {
+            List<StrategyResult> scored = evaluator.evaluate(survivors, fraction);
+            int keep = Math.max(1, scored.size() / eta);
+            Set<String> kept = scored.stream()
+                    .sorted(Comparator.comparingDouble(StrategyResult::getPnl).reversed())
+                    .limit(keep)
+                    .map(StrategyResult::getName)
+                    .collect(Collectors.toSet());
+            survivors = survivors.stream()
+                    .filter(c -> kept.contains(c.getName()))
+                    .collect(Collectors.toList());
+            log.debug("{} halving rung {}: {} scored on {}% of bars, {} kept",
+                    template.getName(), rung, scored.size(), Math.round(fraction * 100), survivors.size());
+            fraction = Math.min(1.0, fraction * eta);
+        }
+        return evaluator.evaluate(survivors, 1.0);
+    }
+}
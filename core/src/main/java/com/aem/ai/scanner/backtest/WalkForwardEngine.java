@@ -0,0 +1,168 @@
+package com.aem.ai.scanner.backtest;
+
+
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
+import com.aem.ai.scanner.model.StrategyConfig;
+import com.aem.ai.scanner.model.StrategyResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Walk-forward (out-of-sample) ranking of strategy candidates.
+ *
+ * The history is split into rolling folds: each fold picks the best candidate on its train window
+ * and scores that pick on the test window that follows it. A template is ranked by its combined
+ * test-window performance, so parameters are never judged on the bars they were chosen on.
+ *
+ * All folds are index windows of one series sharing one {@link IndicatorRegistry}: indicators are
+ * computed once for the overlapping windows, and every (window, candidate) backtest of a template
+ * runs as a single parallel batch on the sweep engine.
+ */
+public class WalkForwardEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(WalkForwardEngine.class);
+
+    /** Fold layouts kept per bar count; series lengths vary little, so a few entries cover a run. */
+    private static final int MAX_PLANS = 64;
+
+    private final ParameterSweepEngine sweepEngine;
+    private final int folds;
+    private final double trainRatio;
+    /** Fold layouts by bar count (folds and train ratio are fixed per engine), least recently used evicted. */
+    private final Map<Integer, List<Fold>> plans = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Fold>> eldest) {
+            return size() > MAX_PLANS;
+        }
+    };
+
+    public WalkForwardEngine(ParameterSweepEngine sweepEngine, int folds, double trainRatio) {
+        this.sweepEngine = sweepEngine;
+        this.folds = Math.max(1, folds);
+        this.trainRatio = Math.min(0.95, Math.max(0.1, trainRatio));
+    }
+
+    /** Train/test windows as inclusive bar indices. */
+    public static final class Fold {
+        public final int trainStart;
+        public final int trainEnd;
+        public final int testStart;
+        public final int testEnd;
+
+        Fold(int trainStart, int trainEnd, int testStart, int testEnd) {
+            this.trainStart = trainStart;
+            this.trainEnd = trainEnd;
+            this.testStart = testStart;
+            this.testEnd = testEnd;
+        }
+
+        @Override
+        public String toString() {
+            return "train[" + trainStart + ".." + trainEnd + "] test[" + testStart + ".." + testEnd + "]";
+        }
+    }
+
+    /**
+     * Rolling folds over {@code bars} bars: the test windows tile the last
+     * {@code (1 - trainRatio)} of the history and each train window is the fixed-length block
+     * right before its test window. Empty when the history is too short to split.
+     */
+    public static List<Fold> plan(int bars, int folds, double trainRatio) {
+        int test = (int) Math.floor(bars * (1.0 - trainRatio) / folds);
+        int train = bars - folds * test;
+        if (test < 2 || train < 2) {
+            return Collections.emptyList();
+        }
+        List<Fold> out = new ArrayList<>(folds);
+        for (int i = 0; i < folds; i++) {
+            int trainStart = i * test;
+            int testStart = trainStart + train;
+            out.add(new Fold(trainStart, testStart - 1, testStart, testStart + test - 1));
+        }
+        return Collections.unmodifiableList(out);
+    }
+
+    /** {@link #plan(int, int, double)} with this engine's folds and train ratio, memoized. */
+    public List<Fold> plan(int bars) {
+        synchronized (plans) {
+            return plans.computeIfAbsent(bars, b -> plan(b, folds, trainRatio));
+        }
+    }
+
+    /**
+     * Bars before the first test window: the history candidates may be pre-selected on without
+     * seeing any out-of-sample bar. 0 when the history is too short to split.
+     */
+    public int inSampleBars(int bars) {
+        List<Fold> plan = plan(bars);
+        return plan.isEmpty() ? 0 : plan.get(0).testStart;
+    }
+
+    /**
+     * Rank the candidates of one template out of sample.
+     *
+     * @return the candidate picked on the most recent train window, carrying the combined
+     * out-of-sample metrics (compounded return, mean win rate, worst drawdown); {@code null} if
+     * the history is too short or no fold produced a result
+     */
+    public StrategyResult evaluate(IndicatorRegistry registry, StrategyConfig template, List<StrategyConfig> candidates) {
+        int begin = registry.series().getBeginIndex();
+        List<Fold> plan = plan(registry.series().getBarCount());
+        if (plan.isEmpty() || candidates.isEmpty()) {
+            log.warn("⚠️ Walk-forward skipped for {}: {} bars, {} candidates",
+                    template.getName(), registry.series().getBarCount(), candidates.size());
+            return null;
+        }
+
+        // ranges 0..n-1 are train windows, n..2n-1 the matching test windows
+        List<int[]> ranges = new ArrayList<>(plan.size() * 2);
+        for (Fold f : plan) ranges.add(new int[]{begin + f.trainStart, begin + f.trainEnd});
+        for (Fold f : plan) ranges.add(new int[]{begin + f.testStart, begin + f.testEnd});
+        ParameterSweepEngine.RangeSweep sweep = sweepEngine.sweepRanges(registry, candidates, ranges);
+
+        double compounded = 1.0;
+        double winRateSum = 0.0;
+        double worstDrawdown = 0.0;
+        int scoredFolds = 0;
+        StrategyConfig latestPick = null;
+
+        for (int i = 0; i < plan.size(); i++) {
+            int best = bestIndex(sweep.results[i]);
+            if (best < 0) continue;
+            StrategyResult oos = sweep.results[plan.size() + i][best];
+            if (oos == null) continue;
+
+            compounded *= oos.getPnl();
+            winRateSum += oos.getWinRate();
+            worstDrawdown = Math.max(worstDrawdown, oos.getDrawdown());
+            scoredFolds++;
+            latestPick = candidates.get(best);
+            log.debug("{} fold {} {}: picked {} train={} test={}", template.getName(), i, plan.get(i),
+                    latestPick.getName(), sweep.results[i][best].getPnl(), oos.getPnl());
+        }
+
+        if (scoredFolds == 0) {
+            return null;
+        }
+        log.info("📈 Walk-forward {}: {} folds, {} evaluations in {} ms, OOS return={} pick={}",
+                template.getName(), scoredFolds, sweep.evaluations, sweep.elapsedMs,
+                String.format("%.4f", compounded), latestPick.getName());
+        return new StrategyResult(latestPick, winRateSum / scoredFolds, compounded, worstDrawdown);
+    }
+
+    private static int bestIndex(StrategyResult[] row) {
+        int best = -1;
+        for (int v = 0; v < row.length; v++) {
+            if (row[v] != null && (best < 0 || row[v].getPnl() > row[best].getPnl())) {
+                best = v;
+            }
+        }
+        return best;
+    }
+}
@@ -1,16 +1,52 @@
 package com.aem.ai.scanner.brokers;
 
 import com.aem.ai.scanner.api.MarketDataService;
+import com.aem.ai.scanner.services.RateLimitService;
 import com.aem.ai.scanner.utils.Backoff;
+import com.aem.ai.scanner.utils.HttpStatusException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Callable;
 import java.util.function.Supplier;
 
 public abstract class BaseService implements MarketDataService {
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
+    /** Throttled (429/503) calls are retried at least this often; the limiter pause does the waiting. */
+    private static final int MIN_THROTTLE_ATTEMPTS = 3;
+
     protected <T> T withRetry(int attempts, long backoffMs, Supplier<T> call) {
         return Backoff.retry(attempts, backoffMs, call);
     }
+
+    /**
+     * Run {@code call} after taking a permit from the broker's rate-limit bucket. A throttled
+     * answer pauses the bucket for its Retry-After and the call is retried once permits flow again;
+     * other failures are retried with exponential backoff.
+     */
+    protected <T> T withRateLimit(RateLimitService limiter, String endpoint, int attempts, long backoffMs,
+                                  Callable<T> call) throws Exception {
+        long back = backoffMs;
+        int maxAttempts = Math.max(1, attempts);
+        for (int attempt = 1; ; attempt++) {
+            if (limiter != null) {
+                limiter.acquire(brokerCode(), endpoint);
+            }
+            try {
+                return call.call();
+            } catch (HttpStatusException e) {
+                if (e.isThrottled() && limiter != null) {
+                    if (attempt >= Math.max(maxAttempts, MIN_THROTTLE_ATTEMPTS)) throw e;
+                    limiter.onThrottled(brokerCode(), endpoint, e.getRetryAfter());
+                    continue;
+                }
+                if (attempt >= maxAttempts) throw e;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) throw e;
+            }
+            Thread.sleep(back);
+            back *= 2;
+        }
+    }
 }
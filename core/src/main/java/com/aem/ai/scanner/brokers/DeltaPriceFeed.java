@@ -0,0 +1,118 @@
+package com.aem.ai.scanner.brokers;
+
+import com.aem.ai.scanner.api.PriceFeed;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import java.net.URI;
+import java.net.http.WebSocket;
+import java.util.Collection;
+
+/**
+ * Delta Exchange public WebSocket. The default {@code all_trades} channel pushes every trade
+ * ({@code price}, {@code timestamp} in µs); {@code v2/ticker} ({@code close}/{@code mark_price})
+ * is lighter but throttled.
+ */
+@Component(service = PriceFeed.class, immediate = true)
+@Designate(ocd = DeltaPriceFeed.Config.class)
+public class DeltaPriceFeed extends WebSocketPriceFeed {
+
+    private static final ObjectMapper om = new ObjectMapper();
+
+    @ObjectClassDefinition(name = "BSK Delta Exchange Price Feed")
+    public @interface Config {
+        @AttributeDefinition(name = "Enable")
+        boolean enable() default true;
+
+        @AttributeDefinition(name = "WebSocket URL")
+        String ws_url() default "wss://socket.india.delta.exchange";
+
+        @AttributeDefinition(name = "Channel", description = "all_trades or v2/ticker")
+        String channel() default "all_trades";
+    }
+
+    private Config cfg;
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        this.cfg = cfg;
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        shutdown();
+    }
+
+    @Override
+    public String brokerCode() {
+        return "DELTA";
+    }
+
+    @Override
+    public boolean enabled() {
+        return cfg.enable();
+    }
+
+    @Override
+    protected URI endpoint() {
+        return URI.create(cfg.ws_url());
+    }
+
+    @Override
+    protected String feedKey(InstrumentSymbol symbol) {
+        return symbol.getSymbol();
+    }
+
+    @Override
+    protected void sendSubscribe(WebSocket ws, Collection<String> keys) {
+        sendText(ws, request("subscribe", keys));
+    }
+
+    @Override
+    protected void sendUnsubscribe(WebSocket ws, Collection<String> keys) {
+        sendText(ws, request("unsubscribe", keys));
+    }
+
+    private String request(String type, Collection<String> keys) {
+        ObjectNode req = om.createObjectNode();
+        req.put("type", type);
+        ObjectNode channel = req.putObject("payload").putArray("channels").addObject();
+        channel.put("name", cfg.channel());
+        ArrayNode symbols = channel.putArray("symbols");
+        keys.forEach(symbols::add);
+        return req.toString();
+    }
+
+    @Override
+    protected void onText(String message) {
+        JsonNode n;
+        try {
+            n = om.readTree(message);
+        } catch (Exception e) {
+            log.debug("Delta feed: unreadable message {}", message);
+            return;
+        }
+        String type = n.path("type").asText();
+        if (!type.equals(cfg.channel())) {
+            if ("error".equals(type)) log.warn("Delta feed error: {}", message);
+            return;
+        }
+        // numbers arrive as strings on some channels
+        double price = n.has("price") ? n.path("price").asDouble()
+                : n.has("close") ? n.path("close").asDouble()
+                : n.path("mark_price").asDouble();
+        long micros = n.path("timestamp").asLong(0);
+        emit(n.path("symbol").asText(), price, micros > 0 ? micros / 1000 : System.currentTimeMillis());
+    }
+}
@@ -4,6 +4,7 @@ import com.aem.ai.scanner.api.MarketDataService;
 import com.aem.ai.scanner.model.Candle;
 import com.aem.ai.scanner.model.InstrumentSymbol;
 import com.aem.ai.scanner.services.HttpService;
+import com.aem.ai.scanner.services.RateLimitService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.osgi.service.component.annotations.Activate;
@@ -24,6 +25,8 @@ import java.util.List;
 public class DeltaService extends BaseService {
 
     private static final ObjectMapper om = new ObjectMapper();
+    /** Delta returns at most this many candles per history request; longer ranges are paged. */
+    private static final int MAX_CANDLES_PER_REQUEST = 2000;
 
     @ObjectClassDefinition(name="BSK Delta Exchange MarketData Service")
     public @interface Config {
@@ -45,6 +48,9 @@ public class DeltaService extends BaseService {
     @Reference
     private HttpService httpService;
 
+    @Reference
+    private RateLimitService rateLimiter;
+
     @Activate @Modified
     protected void activate(Config cfg) { this.cfg = cfg; }
 
@@ -66,13 +72,35 @@ public class DeltaService extends BaseService {
         long secondsPer = secondsFor(timeframe);
         long end = Instant.now().getEpochSecond();
         long start = end - (secondsPer * count);
+        return fetchRange(symbol, timeframe, start, end);
+    }
+
+    @Override
+    public List<Candle> fetchCandlesSince(InstrumentSymbol symbol, String timeframe, Instant since, int count) throws Exception {
+        if (!cfg.enable()){
+            log.warn("DeltaService disabled in config");
+            return null;
+        }
+        // the whole gap since the newest stored bar, however long the store went without a top-up
+        long end = Instant.now().getEpochSecond();
+        long page = secondsFor(timeframe) * MAX_CANDLES_PER_REQUEST;
+        List<Candle> out = new ArrayList<>();
+        for (long start = since.getEpochSecond(); start < end; start += page) {
+            List<Candle> chunk = fetchRange(symbol, timeframe, start, Math.min(end, start + page));
+            for (Candle c : chunk) {
+                // page bounds are inclusive on both sides; skip the bar repeated at a boundary
+                if (out.isEmpty() || c.getTime().isAfter(out.get(out.size() - 1).getTime())) out.add(c);
+            }
+        }
+        return out;
+    }
+
+    private List<Candle> fetchRange(InstrumentSymbol symbol, String timeframe, long start, long end) throws Exception {
         String url = String.format("%s/v2/history/candles?resolution=%s&symbol=%s&start=%d&end=%d",
                 cfg.base_url(), timeframe, symbol.getSymbol(), start, end);
 
-        String body = withRetry(cfg.retries(), cfg.backoff_ms(), () -> {
-            try { return httpService.get(url, null); }
-            catch (Exception e) { throw new RuntimeException(e); }
-        });
+        String body = withRateLimit(rateLimiter, "history", cfg.retries(), cfg.backoff_ms(),
+                () -> httpService.get(url, null));
 
         List<Candle> out = new ArrayList<>();
         JsonNode root = om.readTree(body);
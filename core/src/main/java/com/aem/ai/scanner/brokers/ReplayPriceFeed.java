@@ -0,0 +1,143 @@
+package com.aem.ai.scanner.brokers;
+
+import com.aem.ai.scanner.api.PriceFeed;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Local stand-in for a broker feed: replays {@code symbol,epochMillis,ltp} lines from a CSV file
+ * (in file order, paced by the recorded timestamps divided by {@code speed}). Set
+ * {@code broker_code} to UPSTOX or DELTA to drive the tick monitor of that broker's trades table
+ * without a live connection.
+ */
+@Component(service = PriceFeed.class, immediate = true)
+@Designate(ocd = ReplayPriceFeed.Config.class)
+public class ReplayPriceFeed implements PriceFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayPriceFeed.class);
+
+    @ObjectClassDefinition(name = "BSK Replay Price Feed",
+            description = "Replays recorded ticks from a CSV file instead of a broker WebSocket")
+    public @interface Config {
+        @AttributeDefinition(name = "Enable")
+        boolean enable() default false;
+
+        @AttributeDefinition(name = "Broker code", description = "Broker whose feed this replaces")
+        String broker_code() default "REPLAY";
+
+        @AttributeDefinition(name = "Ticks file", description = "CSV symbol,epochMillis,ltp; relative to the JVM working directory")
+        String file() default "feed-replay/ticks.csv";
+
+        @AttributeDefinition(name = "Speed", description = "1 = recorded pace, 10 = ten times faster, 0 = no pauses")
+        double speed() default 1.0;
+
+        @AttributeDefinition(name = "Loop")
+        boolean loop() default false;
+    }
+
+    private volatile Config cfg;
+    private volatile TickListener listener;
+    private Thread player;
+    private Set<String> playing = new HashSet<>();
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        this.cfg = cfg;
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        unsubscribeAll();
+    }
+
+    @Override
+    public String brokerCode() {
+        return cfg.broker_code();
+    }
+
+    @Override
+    public boolean enabled() {
+        return cfg.enable();
+    }
+
+    @Override
+    public synchronized void subscribe(Collection<InstrumentSymbol> symbols, TickListener listener) {
+        Set<String> wanted = new HashSet<>();
+        symbols.forEach(s -> wanted.add(s.getSymbol()));
+        this.listener = listener;
+        if (wanted.equals(playing) && player != null) {
+            return; // same instruments: keep the replay position (or stay finished)
+        }
+        unsubscribeAll();
+        if (wanted.isEmpty()) return;
+        playing = wanted;
+        player = new Thread(() -> play(wanted), "replay-price-feed");
+        player.setDaemon(true);
+        player.start();
+    }
+
+    @Override
+    public synchronized void unsubscribeAll() {
+        if (player != null) {
+            player.interrupt();
+            player = null;
+        }
+        playing = new HashSet<>();
+    }
+
+    private void play(Set<String> wanted) {
+        Config c = cfg;
+        int ticks = 0;
+        try {
+            do {
+                long prevTs = -1;
+                try (BufferedReader r = Files.newBufferedReader(Paths.get(c.file()), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = r.readLine()) != null && !Thread.currentThread().isInterrupted()) {
+                        String[] f = line.split(",");
+                        if (f.length < 3 || line.startsWith("#")) continue;
+                        long ts;
+                        double ltp;
+                        try {
+                            ts = Long.parseLong(f[1].trim());
+                            ltp = Double.parseDouble(f[2].trim());
+                        } catch (NumberFormatException e) {
+                            continue; // header
+                        }
+                        String symbol = f[0].trim();
+                        if (!wanted.contains(symbol)) continue;
+                        if (prevTs >= 0 && c.speed() > 0 && ts > prevTs) {
+                            Thread.sleep((long) ((ts - prevTs) / c.speed()));
+                        }
+                        prevTs = ts;
+                        listener.onTick(symbol, ltp, ts);
+                        ticks++;
+                    }
+                }
+            } while (c.loop() && !Thread.currentThread().isInterrupted());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Replay feed could not read {}: {}", c.file(), e.getMessage());
+        }
+        log.info("Replay feed {} stopped after {} ticks", c.broker_code(), ticks);
+    }
+}
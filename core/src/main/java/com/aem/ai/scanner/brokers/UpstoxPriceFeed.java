@@ -0,0 +1,164 @@
+package com.aem.ai.scanner.brokers;
+
+import com.aem.ai.scanner.api.PriceFeed;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.services.HttpService;
+import com.aem.ai.scanner.utils.ProtoReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import java.net.URI;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Upstox market-data-feed v3 in {@code ltpc} mode. The socket URL comes from the authorize
+ * endpoint; subscriptions are JSON sent as binary frames and ticks are protobuf
+ * {@code FeedResponse{feeds: map<instrumentKey, Feed{ltpc: LTPC{ltp, ltt}}>}}.
+ */
+@Component(service = PriceFeed.class, immediate = true)
+@Designate(ocd = UpstoxPriceFeed.Config.class)
+public class UpstoxPriceFeed extends WebSocketPriceFeed {
+
+    private static final ObjectMapper om = new ObjectMapper();
+
+    @ObjectClassDefinition(name = "BSK Upstox Price Feed")
+    public @interface Config {
+        @AttributeDefinition(name = "Enable")
+        boolean enable() default true;
+
+        @AttributeDefinition(name = "Authorize URL")
+        String authorize_url() default "https://api.upstox.com/v3/feed/market-data-feed/authorize";
+
+        @AttributeDefinition(name = "Auth Header (Bearer ...)")
+        String auth_header() default "";
+    }
+
+    @Reference
+    private HttpService httpService;
+
+    private Config cfg;
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        this.cfg = cfg;
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        shutdown();
+    }
+
+    @Override
+    public String brokerCode() {
+        return "UPSTOX";
+    }
+
+    @Override
+    public boolean enabled() {
+        return cfg.enable();
+    }
+
+    @Override
+    protected URI endpoint() throws Exception {
+        String body = httpService.get(cfg.authorize_url(),
+                Map.of("Authorization", cfg.auth_header(), "Accept", "application/json"));
+        JsonNode data = om.readTree(body).path("data");
+        String uri = data.path("authorized_redirect_uri").asText(data.path("authorizedRedirectUri").asText(""));
+        if (uri.isEmpty()) {
+            throw new IllegalStateException("Upstox feed authorize returned no socket URL");
+        }
+        return URI.create(uri);
+    }
+
+    @Override
+    protected String feedKey(InstrumentSymbol symbol) {
+        return symbol.getInstrumentKey();
+    }
+
+    @Override
+    protected void sendSubscribe(WebSocket ws, Collection<String> keys) {
+        sendBinary(ws, request("sub", keys));
+    }
+
+    @Override
+    protected void sendUnsubscribe(WebSocket ws, Collection<String> keys) {
+        sendBinary(ws, request("unsub", keys));
+    }
+
+    private static ByteBuffer request(String method, Collection<String> keys) {
+        ObjectNode req = om.createObjectNode();
+        req.put("guid", UUID.randomUUID().toString());
+        req.put("method", method);
+        ObjectNode data = req.putObject("data");
+        data.put("mode", "ltpc");
+        keys.forEach(data.putArray("instrumentKeys")::add);
+        return ByteBuffer.wrap(req.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    protected void onBinary(ByteBuffer message) {
+        ProtoReader response = new ProtoReader(message);
+        while (response.hasRemaining()) {
+            int tag = response.readTag();
+            if (ProtoReader.field(tag) == 2 && ProtoReader.wireType(tag) == ProtoReader.LENGTH_DELIMITED) {
+                readFeedEntry(response.readMessage());
+            } else {
+                response.skip(ProtoReader.wireType(tag));
+            }
+        }
+    }
+
+    /** map entry {key = 1: instrument key, value = 2: Feed} */
+    private void readFeedEntry(ProtoReader entry) {
+        String key = null;
+        double ltp = 0;
+        long ltt = 0;
+        while (entry.hasRemaining()) {
+            int tag = entry.readTag();
+            if (ProtoReader.field(tag) == 1 && ProtoReader.wireType(tag) == ProtoReader.LENGTH_DELIMITED) {
+                key = entry.readString();
+            } else if (ProtoReader.field(tag) == 2 && ProtoReader.wireType(tag) == ProtoReader.LENGTH_DELIMITED) {
+                ProtoReader feed = entry.readMessage();
+                while (feed.hasRemaining()) {
+                    int ft = feed.readTag();
+                    if (ProtoReader.field(ft) == 1 && ProtoReader.wireType(ft) == ProtoReader.LENGTH_DELIMITED) {
+                        // LTPC {ltp = 1 (double), ltt = 2 (int64 epoch ms)}
+                        ProtoReader ltpc = feed.readMessage();
+                        while (ltpc.hasRemaining()) {
+                            int lt = ltpc.readTag();
+                            if (ProtoReader.field(lt) == 1 && ProtoReader.wireType(lt) == ProtoReader.FIXED64) {
+                                ltp = ltpc.readDouble();
+                            } else if (ProtoReader.field(lt) == 2 && ProtoReader.wireType(lt) == ProtoReader.VARINT) {
+                                ltt = ltpc.readVarint();
+                            } else {
+                                ltpc.skip(ProtoReader.wireType(lt));
+                            }
+                        }
+                    } else {
+                        feed.skip(ProtoReader.wireType(ft));
+                    }
+                }
+            } else {
+                entry.skip(ProtoReader.wireType(tag));
+            }
+        }
+        if (key != null) {
+            emit(key, ltp, ltt > 0 ? ltt : System.currentTimeMillis());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.aem.ai.scanner.api.MarketDataService;
 import com.aem.ai.scanner.model.Candle;
 import com.aem.ai.scanner.model.InstrumentSymbol;
 import com.aem.ai.scanner.services.HttpService;
+import com.aem.ai.scanner.services.RateLimitService;
+import com.aem.ai.scanner.utils.Timeframes;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.osgi.service.component.annotations.Activate;
@@ -17,10 +19,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
+import static com.aem.ai.scanner.model.TradeModel.IST_ZONE;
+
 @Component(service = MarketDataService.class, immediate = true)
 @Designate(ocd = UpstoxService.Config.class)
 public class UpstoxService extends BaseService {
@@ -28,8 +33,13 @@ public class UpstoxService extends BaseService {
     @Reference
     private HttpService httpService;
 
+    @Reference
+    private RateLimitService rateLimiter;
+
     private static final Logger log = LoggerFactory.getLogger(UpstoxService.class);
     private static final ObjectMapper om = new ObjectMapper();
+    /** Days per historical request for minute/hour bars (Upstox caps intraday-unit ranges); day bars go in one. */
+    private static final int BACKFILL_CHUNK_DAYS = 28;
 
     @ObjectClassDefinition(name="BSK Upstox MarketData Service")
     public @interface Config {
@@ -91,14 +101,54 @@ public class UpstoxService extends BaseService {
                     cfg.base_url(), symbolOrKey.getInstrumentKey(), unit, interval);
         }
 
-        String finalUrl = url;
-        String body = withRetry(cfg.retries(), cfg.backoff_ms(), () -> {
-            try {
-                Map<String,String> headers = new HashMap<>();
-                if (!cfg.auth_header().isBlank()) headers.put("Authorization", cfg.auth_header());
-                return httpService.get(finalUrl, headers);
-            } catch (Exception e) { throw new RuntimeException(e); }
-        });
+        List<Candle> out = candles(url, historical ? "historical" : "intraday");
+        if (!out.isEmpty()) {
+            log.debug("Fetched {} candles for {} {}", out.size(), symbolOrKey, timeframe);
+        }
+        return out;
+    }
+
+    /**
+     * The intraday endpoint only serves today's session, so a store that missed a top-up is
+     * backfilled from the historical endpoint for the days between {@code since} and yesterday
+     * (paged), then today's bars are added from the intraday one.
+     */
+    @Override
+    public List<Candle> fetchCandlesSince(InstrumentSymbol symbolOrKey, String timeframe, Instant since, int count) throws Exception {
+        if (!cfg.enable()){
+            log.warn(" UpstoxService disabled in config");
+            return null;
+        }
+        String unit = inferUnit(timeframe);
+        String interval = inferInterval(timeframe);
+        boolean dayBars = Timeframes.isHistoricalBucket(timeframe);
+        LocalDate today = LocalDate.now(IST_ZONE);
+        LocalDate to = dayBars ? today : today.minusDays(1);
+        int chunkDays = dayBars ? Integer.MAX_VALUE : BACKFILL_CHUNK_DAYS;
+
+        List<Candle> out = new ArrayList<>();
+        for (LocalDate from = since.atZone(IST_ZONE).toLocalDate(); !from.isAfter(to); ) {
+            LocalDate chunkTo = from.plusDays(Math.min(chunkDays - 1L, to.toEpochDay() - from.toEpochDay()));
+            out.addAll(candles(String.format("%s/historical-candle/%s/%s/%s/%s/%s",
+                    cfg.base_url(), symbolOrKey.getInstrumentKey(), unit, interval, chunkTo, from), "historical"));
+            from = chunkTo.plusDays(1);
+        }
+        if (!dayBars) {
+            out.addAll(candles(String.format("%s/historical-candle/intraday/%s/%s/%s",
+                    cfg.base_url(), symbolOrKey.getInstrumentKey(), unit, interval), "intraday"));
+        }
+        out.removeIf(c -> c.getTime().isBefore(since));
+        out.sort(Comparator.comparing(Candle::getTime));
+        log.debug("Fetched {} candles since {} for {} {}", out.size(), since, symbolOrKey, timeframe);
+        return out;
+    }
+
+    /** GET one candle URL under the endpoint's rate limit; candles in time order. */
+    private List<Candle> candles(String url, String endpoint) throws Exception {
+        Map<String,String> headers = new HashMap<>();
+        if (!cfg.auth_header().isBlank()) headers.put("Authorization", cfg.auth_header());
+        String body = withRateLimit(rateLimiter, endpoint,
+                cfg.retries(), cfg.backoff_ms(), () -> httpService.get(url, headers));
 
         List<Candle> out = new ArrayList<>();
         JsonNode arr = om.readTree(body).path("data").path("candles");
@@ -112,10 +162,7 @@ public class UpstoxService extends BaseService {
             double v = n.get(5).asDouble();
             out.add(new Candle(t, o, h, l, c, v));
         }
-        if (!out.isEmpty()) {
-            out.sort(Comparator.comparing(Candle::getTime));
-            log.debug("Fetched {} candles for {} {}", out.size(), symbolOrKey, timeframe);
-        }
+        out.sort(Comparator.comparing(Candle::getTime));
         return out;
     }
 
@@ -0,0 +1,246 @@
+package com.aem.ai.scanner.brokers;
+
+import com.aem.ai.scanner.api.PriceFeed;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared plumbing of the broker WebSocket feeds: connect, resubscribe after reconnect (exponential
+ * backoff up to 30s), reassemble fragmented frames and send subscription diffs when the set of
+ * instruments changes. Subclasses only speak the broker's subscribe/tick message formats.
+ */
+public abstract class WebSocketPriceFeed implements PriceFeed {
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+
+    private static final long MAX_RECONNECT_DELAY_MS = 30_000;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ScheduledExecutorService reconnector = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, getClass().getSimpleName() + "-connect");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Subscribed instruments keyed by the broker's feed key. */
+    private volatile Map<String, InstrumentSymbol> subscribed = Collections.emptyMap();
+    private volatile TickListener listener;
+    private WebSocket socket;
+    private boolean connecting;
+    private int attempt;
+    /** Sends must not overlap on a java.net.http WebSocket, so they are chained. */
+    private CompletableFuture<WebSocket> sends = CompletableFuture.completedFuture(null);
+
+    /** WebSocket URL; may call the broker's REST API first (e.g. to authorize). */
+    protected abstract URI endpoint() throws Exception;
+
+    /** Key the broker uses for this instrument in subscriptions and ticks; {@code null} skips it. */
+    protected abstract String feedKey(InstrumentSymbol symbol);
+
+    protected abstract void sendSubscribe(WebSocket ws, Collection<String> keys);
+
+    protected abstract void sendUnsubscribe(WebSocket ws, Collection<String> keys);
+
+    protected void onText(String message) {
+    }
+
+    protected void onBinary(ByteBuffer message) {
+    }
+
+    /** Deliver a tick for a feed key; ticks of instruments no longer subscribed are dropped. */
+    protected final void emit(String feedKey, double ltp, long epochMillis) {
+        InstrumentSymbol symbol = subscribed.get(feedKey);
+        TickListener l = listener;
+        if (symbol != null && l != null && ltp > 0) {
+            l.onTick(symbol.getSymbol(), ltp, epochMillis);
+        }
+    }
+
+    protected final synchronized void sendText(WebSocket ws, String text) {
+        sends = sends.handle((w, e) -> null).thenCompose(x -> ws.sendText(text, true));
+    }
+
+    protected final synchronized void sendBinary(WebSocket ws, ByteBuffer data) {
+        sends = sends.handle((w, e) -> null).thenCompose(x -> ws.sendBinary(data, true));
+    }
+
+    @Override
+    public synchronized void subscribe(Collection<InstrumentSymbol> symbols, TickListener listener) {
+        this.listener = listener;
+        Map<String, InstrumentSymbol> next = new HashMap<>();
+        for (InstrumentSymbol s : symbols) {
+            String key = feedKey(s);
+            if (key != null) next.put(key, s);
+        }
+        Map<String, InstrumentSymbol> prev = subscribed;
+        subscribed = next;
+
+        if (next.isEmpty()) {
+            disconnect();
+            return;
+        }
+        if (socket == null) {
+            // the open handler subscribes whatever is current by then
+            if (!connecting) {
+                connecting = true;
+                reconnector.execute(this::connect);
+            }
+            return;
+        }
+        Set<String> removed = new HashSet<>(prev.keySet());
+        removed.removeAll(next.keySet());
+        Set<String> added = new HashSet<>(next.keySet());
+        added.removeAll(prev.keySet());
+        if (!removed.isEmpty()) sendUnsubscribe(socket, removed);
+        if (!added.isEmpty()) sendSubscribe(socket, added);
+        log.debug("{} feed subscription +{} -{} (now {})", brokerCode(), added.size(), removed.size(), next.size());
+    }
+
+    @Override
+    public synchronized void unsubscribeAll() {
+        subscribed = Collections.emptyMap();
+        disconnect();
+    }
+
+    /** Close the socket and stop reconnecting; call from the component's deactivate. */
+    protected void shutdown() {
+        unsubscribeAll();
+        reconnector.shutdownNow();
+    }
+
+    private synchronized void disconnect() {
+        WebSocket ws = socket;
+        socket = null;
+        if (ws != null) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "unsubscribed").exceptionally(e -> null);
+            log.info("🔌 {} price feed disconnected", brokerCode());
+        }
+    }
+
+    private void connect() {
+        if (subscribed.isEmpty()) {
+            synchronized (this) {
+                connecting = false;
+            }
+            return;
+        }
+        try {
+            URI uri = endpoint();
+            client.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .buildAsync(uri, new FrameListener())
+                    .whenComplete((ws, err) -> {
+                        if (err != null) reconnect(err);
+                    });
+        } catch (Exception e) {
+            reconnect(e);
+        }
+    }
+
+    private synchronized void onConnected(WebSocket ws) {
+        connecting = false;
+        attempt = 0;
+        if (subscribed.isEmpty()) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "unsubscribed").exceptionally(e -> null);
+            return;
+        }
+        socket = ws;
+        sends = CompletableFuture.completedFuture(ws);
+        sendSubscribe(ws, subscribed.keySet());
+        log.info("🔌 {} price feed connected, {} instruments", brokerCode(), subscribed.size());
+    }
+
+    private synchronized void reconnect(Throwable why) {
+        socket = null;
+        if (subscribed.isEmpty() || reconnector.isShutdown()) {
+            connecting = false;
+            return;
+        }
+        connecting = true;
+        long delay = Math.min(MAX_RECONNECT_DELAY_MS, 500L << Math.min(attempt++, 6));
+        log.warn("{} price feed down ({}), reconnecting in {} ms", brokerCode(),
+                why != null ? why.getMessage() : "closed", delay);
+        reconnector.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private final class FrameListener implements WebSocket.Listener {
+        private final StringBuilder text = new StringBuilder();
+        private final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+
+        @Override
+        public void onOpen(WebSocket ws) {
+            onConnected(ws);
+            ws.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            text.append(data);
+            if (last) {
+                String message = text.toString();
+                text.setLength(0);
+                dispatch(() -> WebSocketPriceFeed.this.onText(message));
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket ws, ByteBuffer data, boolean last) {
+            byte[] chunk = new byte[data.remaining()];
+            data.get(chunk);
+            binary.write(chunk, 0, chunk.length);
+            if (last) {
+                ByteBuffer message = ByteBuffer.wrap(binary.toByteArray());
+                binary.reset();
+                dispatch(() -> WebSocketPriceFeed.this.onBinary(message));
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            if (isCurrent(ws)) reconnect(new IllegalStateException("closed " + statusCode + " " + reason));
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            if (isCurrent(ws)) reconnect(error);
+        }
+
+        private void dispatch(Runnable handler) {
+            try {
+                handler.run();
+            } catch (Exception e) {
+                log.warn("{} price feed message skipped: {}", brokerCode(), e.getMessage());
+            }
+        }
+    }
+
+    private synchronized boolean isCurrent(WebSocket ws) {
+        return socket == ws;
+    }
+}
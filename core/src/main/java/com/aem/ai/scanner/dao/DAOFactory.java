@@ -6,6 +6,7 @@ import com.aem.ai.scanner.model.*;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface DAOFactory {
@@ -13,9 +14,16 @@ public interface DAOFactory {
     // Watchlist
     List<InstrumentSymbol> readWatchlistFromDb();
 
-    // Insert trade
+    // Insert trade (sets the generated trade id on t)
     void insertTrade(TradeModel t, TradeAnalysis tradeAnalysis, String tableName) throws SQLException;
 
+    // Fill in the analysis columns of already inserted trades, keyed by trade id (one JDBC batch)
+    int updateTradeAnalysis(Map<String, TradeAnalysis> analysesByTradeId, String tableName) throws SQLException;
+
+    // Gemini analysis cache (gemini_analysis_cache), keyed by Utils.signalHash
+    Optional<CachedAnalysis> findCachedAnalysis(String signalHash, int maxAgeSeconds) throws SQLException;
+    void saveCachedAnalysis(String signalHash, String symbol, String responseJson) throws SQLException;
+
     // Find trade
     Optional<TradeModel> findOpenBySymbolAndSide(InstrumentSymbol symbol, Signal.Side side, String tableName) throws SQLException;
 
@@ -40,6 +48,11 @@ public interface DAOFactory {
     int appendOpenTradeComment(InstrumentSymbol symbol, Signal.Side side, String comment, String tableName) throws SQLException;
     boolean insertTradeIfNoOpen(TradeModel t, TradeAnalysis analysis,String tableName) throws SQLException;
     List<TradeModel> listOpenTradesForSymbol(String symbol,String tableName) throws SQLException;
+    List<TradeModel> listAllOpenTrades(String tableName) throws SQLException;
+    // Deferred open-trade book writes, applied in order in one transaction (runs of the same op type are batched)
+    int applyTradeBookOps(List<TradeBookOp> ops, String tableName) throws SQLException;
+    // Forget comment op ids recorded by applyTradeBookOps more than keepDays ago
+    int pruneAppliedTradeBookOps(int keepDays) throws SQLException;
     List<InstrumentSymbol> readWatchlistFromDb(String tableName);
 
     Optional<TradeModel> getTradeById(String tradeId, String tableName) throws SQLException;
@@ -19,6 +19,7 @@ import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Component(service = DAOFactory.class, immediate = true)
@@ -121,7 +122,7 @@ public class DAOFactoryFactoryImpl implements DAOFactory {
                 "recommended_trade_timeframe, can_take_trade, final_verdict, GeminiAnalysis" +
                 ") VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
 
-        try (Connection c = conn(); PreparedStatement ps = c.prepareStatement(sql)) {
+        try (Connection c = conn(); PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             if (StringUtils.containsIgnoreCase(tableName,"currency_trades")){
                 ps.setString(1, GenericeConstants.CRYPTO);
             }else {
@@ -145,21 +146,13 @@ public class DAOFactoryFactoryImpl implements DAOFactory {
             ps.setString(14, StringUtils.contains(t.getTimeFrame(), "m") ? "MIS" : "CNC");
             ps.setString(15, t.getTimeFrame());
 
-            if (tradeAnalysis != null) {
-                ps.setString(16, String.valueOf(tradeAnalysis.getConfidence_score()));
-                ps.setString(17, tradeAnalysis.getGlobal_news_sentiment());
-                ps.setString(18, tradeAnalysis.getMarket_trend());
-                ps.setString(19, tradeAnalysis.getOpen_interest_build_up());
-                ps.setString(20, tradeAnalysis.getRecommended_trade_timeframe());
-                ps.setString(21, tradeAnalysis.getCan_take_trade());
-                ps.setString(22, tradeAnalysis.getFinal_verdict());
-                ps.setString(23, tradeAnalysis.getResponseJson());
-            } else {
-                for (int i = 16; i <= 23; i++) ps.setNull(i, Types.VARCHAR);
-            }
+            setAnalysis(ps, 16, tradeAnalysis);
 
             int rows = ps.executeUpdate();
-            logger.info("Inserted trade into DB. Rows affected: {}", rows);
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) t.setTradeId(keys.getString(1));
+            }
+            logger.info("Inserted trade into DB. Rows affected: {} tradeId={}", rows, t.getTradeId());
 
         } catch (SQLException e) {
             logger.error("Failed to insert trade: {}", t.getSymbol().getSymbol(), e);
@@ -167,6 +160,70 @@ public class DAOFactoryFactoryImpl implements DAOFactory {
         }
     }
 
+    /** Binds the 8 analysis columns starting at {@code from}; NULLs when the analysis is missing. */
+    private static void setAnalysis(PreparedStatement ps, int from, TradeAnalysis tradeAnalysis) throws SQLException {
+        if (tradeAnalysis != null) {
+            ps.setString(from, String.valueOf(tradeAnalysis.getConfidence_score()));
+            ps.setString(from + 1, tradeAnalysis.getGlobal_news_sentiment());
+            ps.setString(from + 2, tradeAnalysis.getMarket_trend());
+            ps.setString(from + 3, tradeAnalysis.getOpen_interest_build_up());
+            ps.setString(from + 4, tradeAnalysis.getRecommended_trade_timeframe());
+            ps.setString(from + 5, tradeAnalysis.getCan_take_trade());
+            ps.setString(from + 6, tradeAnalysis.getFinal_verdict());
+            ps.setString(from + 7, tradeAnalysis.getResponseJson());
+        } else {
+            for (int i = from; i < from + 8; i++) ps.setNull(i, Types.VARCHAR);
+        }
+    }
+
+    // -------------------- ENRICH TRADE ANALYSIS --------------------
+    public int updateTradeAnalysis(Map<String, TradeAnalysis> analysesByTradeId, String tableName) throws SQLException {
+        if (analysesByTradeId.isEmpty()) return 0;
+        String sql = "UPDATE " + tableName + " SET " +
+                "confidence_score = ?, global_news_sentiment = ?, market_trend = ?, open_interest_build_up = ?, " +
+                "recommended_trade_timeframe = ?, can_take_trade = ?, final_verdict = ?, GeminiAnalysis = ?, " +
+                "last_updated = CURRENT_TIMESTAMP WHERE trade_id = ?";
+        try (Connection c = conn(); PreparedStatement ps = c.prepareStatement(sql)) {
+            for (Map.Entry<String, TradeAnalysis> e : analysesByTradeId.entrySet()) {
+                setAnalysis(ps, 1, e.getValue());
+                ps.setString(9, e.getKey());
+                ps.addBatch();
+            }
+            int updated = 0;
+            for (int n : ps.executeBatch()) {
+                if (n > 0) updated += n;
+            }
+            logger.info("Enriched {} trades in {} with Gemini analysis", updated, tableName);
+            return updated;
+        }
+    }
+
+    // -------------------- GEMINI ANALYSIS CACHE --------------------
+    public Optional<CachedAnalysis> findCachedAnalysis(String signalHash, int maxAgeSeconds) throws SQLException {
+        // age on the database clock, the same one created_at was written with
+        String sql = "SELECT response_json, TIMESTAMPDIFF(SECOND, created_at, CURRENT_TIMESTAMP) FROM gemini_analysis_cache " +
+                "WHERE signal_hash = ? AND created_at >= (CURRENT_TIMESTAMP - INTERVAL ? SECOND)";
+        try (Connection c = conn(); PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, signalHash);
+            ps.setInt(2, maxAgeSeconds);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getString(1) == null) return Optional.empty();
+                return Optional.of(new CachedAnalysis(rs.getString(1), rs.getLong(2)));
+            }
+        }
+    }
+
+    public void saveCachedAnalysis(String signalHash, String symbol, String responseJson) throws SQLException {
+        String sql = "INSERT INTO gemini_analysis_cache (signal_hash, symbol, response_json) VALUES (?,?,?) " +
+                "ON DUPLICATE KEY UPDATE response_json = VALUES(response_json), created_at = CURRENT_TIMESTAMP";
+        try (Connection c = conn(); PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, signalHash);
+            ps.setString(2, symbol);
+            ps.setString(3, responseJson);
+            ps.executeUpdate();
+        }
+    }
+
     // -------------------- FIND OPEN TRADE --------------------
     public Optional<TradeModel> findOpenBySymbolAndSide(InstrumentSymbol symbol, Signal.Side side,String tableName) throws SQLException {
         String sql = "SELECT * FROM "+tableName+" WHERE symbol = ? AND side = ? AND status = 'OPEN' ORDER BY entry_time DESC LIMIT 1";
@@ -417,7 +474,19 @@ public class DAOFactoryFactoryImpl implements DAOFactory {
 
     // -------------------- LIST OPEN TRADES FOR SYMBOL --------------------
     public List<TradeModel> listOpenTradesForSymbol(String symbol,String tableName) throws SQLException {
-        String sql = "SELECT * FROM "+tableName+" WHERE status = 'OPEN' AND symbol = '"+symbol+"'";
+        String sql = "SELECT * FROM "+tableName+" WHERE status = 'OPEN' AND symbol = ?";
+        List<TradeModel> tradeModels = new ArrayList<>();
+        try (Connection c = conn(); PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, symbol);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) tradeModels.add(mapRow(rs));
+            }
+        }
+        return tradeModels;
+    }
+
+    public List<TradeModel> listAllOpenTrades(String tableName) throws SQLException {
+        String sql = "SELECT * FROM " + tableName + " WHERE status = 'OPEN'";
         List<TradeModel> tradeModels = new ArrayList<>();
         try (Connection c = conn(); PreparedStatement ps = c.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
@@ -425,6 +494,100 @@ public class DAOFactoryFactoryImpl implements DAOFactory {
         }
         return tradeModels;
     }
+
+    public int applyTradeBookOps(List<TradeBookOp> ops, String tableName) throws SQLException {
+        if (ops.isEmpty()) return 0;
+        String ltpSql = "UPDATE " + tableName + " SET ltp = ?, pnl = ?, pnl_percentage = ?, last_updated = CURRENT_TIMESTAMP " +
+                "WHERE trade_id = ? AND status = 'OPEN'";
+        String commentSql = "UPDATE " + tableName +
+                " SET comments = CONCAT(COALESCE(comments, ''), CASE WHEN comments IS NULL OR comments = '' THEN '' ELSE '\n' END, ?), " +
+                "last_updated = CURRENT_TIMESTAMP WHERE symbol = ? AND side = ? AND status = 'OPEN'";
+        String closeSql = "UPDATE " + tableName + " SET status = 'CLOSED', exit_price = ?, exit_time = ?, pnl = ?, " +
+                "last_updated = CURRENT_TIMESTAMP WHERE trade_id = ?";
+        // LTP and CLOSE set absolute values; a comment appends, so its op id is recorded in the same
+        // transaction and a replay of an already applied comment is skipped
+        String markSql = "INSERT IGNORE INTO trade_book_applied_op (op_id, table_name) VALUES (?, ?)";
+
+        int updated = 0;
+        try (Connection c = conn();
+             PreparedStatement ltp = c.prepareStatement(ltpSql);
+             PreparedStatement comment = c.prepareStatement(commentSql);
+             PreparedStatement close = c.prepareStatement(closeSql);
+             PreparedStatement mark = c.prepareStatement(markSql)) {
+            c.setAutoCommit(false);
+            try {
+                // ops of one type are batched, but a change of type flushes the batch so order is kept
+                // (a comment must land before the close that follows it)
+                PreparedStatement pending = null;
+                for (TradeBookOp op : ops) {
+                    PreparedStatement ps;
+                    switch (op.getType()) {
+                        case LTP:
+                            ps = ltp;
+                            ps.setDouble(1, op.getLtp());
+                            ps.setDouble(2, op.getPnl());
+                            ps.setDouble(3, op.getPnlPercentage());
+                            ps.setString(4, op.getTradeId());
+                            break;
+                        case COMMENT:
+                            if (op.getOpId() != null) {
+                                mark.setString(1, op.getOpId());
+                                mark.setString(2, tableName);
+                                if (mark.executeUpdate() == 0) continue; // applied by an earlier flush
+                            }
+                            ps = comment;
+                            ps.setString(1, op.getComment());
+                            ps.setString(2, op.getSymbol());
+                            ps.setString(3, op.getSide().name());
+                            break;
+                        default:
+                            ps = close;
+                            ps.setDouble(1, op.getExitPrice());
+                            ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.parse(op.getExitTime())));
+                            ps.setDouble(3, op.getPnl());
+                            ps.setString(4, op.getTradeId());
+                            break;
+                    }
+                    if (pending != null && pending != ps) {
+                        updated += executeBatch(pending);
+                    }
+                    ps.addBatch();
+                    pending = ps;
+                }
+                if (pending != null) {
+                    updated += executeBatch(pending);
+                }
+                c.commit();
+            } catch (Throwable t) {
+                // any failure, not only SQLException: setAutoCommit(true) below would commit the partial batch
+                try {
+                    c.rollback();
+                } catch (SQLException re) {
+                    t.addSuppressed(re);
+                }
+                throw t;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        }
+        return updated;
+    }
+
+    public int pruneAppliedTradeBookOps(int keepDays) throws SQLException {
+        String sql = "DELETE FROM trade_book_applied_op WHERE applied_at < NOW() - INTERVAL ? DAY";
+        try (Connection c = conn(); PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, keepDays);
+            return ps.executeUpdate();
+        }
+    }
+
+    private static int executeBatch(PreparedStatement ps) throws SQLException {
+        int updated = 0;
+        for (int n : ps.executeBatch()) {
+            if (n > 0) updated += n;
+        }
+        return updated;
+    }
     // --- IMPLEMENTATION ---
 
     // WATCHLIST
@@ -1,10 +1,15 @@
 package com.aem.ai.scanner.factory;
 
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
 import com.aem.ai.scanner.model.Condition;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.indicators.CachedIndicator;
 import org.ta4j.core.num.Num;
 
 public interface IndicatorFactoryService {
-    CachedIndicator<Num> buildIndicator(Condition cond, BarSeries series);
+    CachedIndicator<Num> buildIndicator(Condition cond, IndicatorRegistry registry);
+
+    default CachedIndicator<Num> buildIndicator(Condition cond, BarSeries series) {
+        return buildIndicator(cond, new IndicatorRegistry(series));
+    }
 }
@@ -1,10 +1,15 @@
 package com.aem.ai.scanner.factory;
 
 
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
 import com.aem.ai.scanner.model.Condition;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Rule;
 
 public interface RuleFactoryService {
-    Rule buildRule(Condition cond, BarSeries series);
+    Rule buildRule(Condition cond, IndicatorRegistry registry);
+
+    default Rule buildRule(Condition cond, BarSeries series) {
+        return buildRule(cond, new IndicatorRegistry(series));
+    }
 }
@@ -1,10 +1,19 @@
 package com.aem.ai.scanner.factory;
 
 
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
 import com.aem.ai.scanner.model.StrategyConfig;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Strategy;
 
 public interface StrategyFactoryService {
-    Strategy buildStrategy(StrategyConfig config, BarSeries series);
+    /**
+     * Build the strategy with indicators taken from {@code registry}, so strategies built
+     * on the same series share indicator instances and their computed values.
+     */
+    Strategy buildStrategy(StrategyConfig config, IndicatorRegistry registry);
+
+    default Strategy buildStrategy(StrategyConfig config, BarSeries series) {
+        return buildStrategy(config, new IndicatorRegistry(series));
+    }
 }
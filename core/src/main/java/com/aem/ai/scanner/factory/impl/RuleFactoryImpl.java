@@ -3,6 +3,7 @@ package com.aem.ai.scanner.factory.impl;
 
 import com.aem.ai.scanner.factory.IndicatorFactoryService;
 import com.aem.ai.scanner.factory.RuleFactoryService;
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
 import com.aem.ai.scanner.model.Condition;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
@@ -10,7 +11,6 @@ import org.ta4j.core.BarSeries;
 import org.ta4j.core.Rule;
 import org.ta4j.core.indicators.EMAIndicator;
 import org.ta4j.core.indicators.MACDIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 import org.ta4j.core.num.Num;
 import org.ta4j.core.rules.CrossedDownIndicatorRule;
 import org.ta4j.core.rules.CrossedUpIndicatorRule;
@@ -24,8 +24,9 @@ public class RuleFactoryImpl implements RuleFactoryService {
     private IndicatorFactoryService indicatorFactoryService;
 
     @Override
-    public Rule buildRule(Condition cond, BarSeries series) {
-        var ind = indicatorFactoryService.buildIndicator(cond, series);
+    public Rule buildRule(Condition cond, IndicatorRegistry registry) {
+        BarSeries series = registry.series();
+        var ind = indicatorFactoryService.buildIndicator(cond, registry);
 
         String op = cond.operator.toLowerCase();
         switch (op) {
@@ -39,21 +40,21 @@ public class RuleFactoryImpl implements RuleFactoryService {
             }
             case "cross_up": {
                 if ("signal_line".equals(cond.value)) {
-                    MACDIndicator macd = new MACDIndicator(new ClosePriceIndicator(series), cond.fast, cond.slow);
-                    EMAIndicator sig = new EMAIndicator(macd, cond.signal);
+                    MACDIndicator macd = registry.macd(fast(cond), slow(cond));
+                    EMAIndicator sig = registry.macdSignal(fast(cond), slow(cond), signal(cond));
                     return new CrossedUpIndicatorRule(macd, sig);
                 } else {
-                    var other = new ClosePriceIndicator(series);
+                    var other = registry.close();
                     return new CrossedUpIndicatorRule(ind, other);
                 }
             }
             case "cross_down": {
                 if ("signal_line".equals(cond.value)) {
-                    MACDIndicator macd = new MACDIndicator(new ClosePriceIndicator(series), cond.fast, cond.slow);
-                    EMAIndicator sig = new EMAIndicator(macd, cond.signal);
+                    MACDIndicator macd = registry.macd(fast(cond), slow(cond));
+                    EMAIndicator sig = registry.macdSignal(fast(cond), slow(cond), signal(cond));
                     return new CrossedDownIndicatorRule(macd, sig);
                 } else {
-                    var other = new ClosePriceIndicator(series);
+                    var other = registry.close();
                     return new CrossedDownIndicatorRule(ind, other);
                 }
             }
@@ -61,4 +62,17 @@ public class RuleFactoryImpl implements RuleFactoryService {
                 throw new IllegalArgumentException("Unknown operator: " + cond.operator);
         }
     }
+
+    // same MACD defaults as IndicatorFactoryImpl (and the incremental evaluators)
+    private static int fast(Condition c) {
+        return c.fast == null ? 12 : c.fast;
+    }
+
+    private static int slow(Condition c) {
+        return c.slow == null ? 26 : c.slow;
+    }
+
+    private static int signal(Condition c) {
+        return c.signal == null ? 9 : c.signal;
+    }
 }
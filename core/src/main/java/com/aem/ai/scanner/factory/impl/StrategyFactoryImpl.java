@@ -2,11 +2,11 @@ package com.aem.ai.scanner.factory.impl;
 
 import com.aem.ai.scanner.factory.RuleFactoryService;
 import com.aem.ai.scanner.factory.StrategyFactoryService;
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
 import com.aem.ai.scanner.model.Condition;
 import com.aem.ai.scanner.model.StrategyConfig;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
-import org.ta4j.core.BarSeries;
 import org.ta4j.core.BaseStrategy;
 import org.ta4j.core.Rule;
 import org.ta4j.core.Strategy;
@@ -21,7 +21,7 @@ public class StrategyFactoryImpl implements StrategyFactoryService {
     private RuleFactoryService ruleFactoryService;
 
     @Override
-    public Strategy buildStrategy(StrategyConfig config, BarSeries series) {
+    public Strategy buildStrategy(StrategyConfig config, IndicatorRegistry registry) {
         List<StrategyConfig.RuleConfig> rules = config.getRules();
 
         Rule entryRule = null;
@@ -30,7 +30,7 @@ public class StrategyFactoryImpl implements StrategyFactoryService {
         for (StrategyConfig.RuleConfig rc : rules) {
             Rule combined = null;
             for (Condition cond : rc.getConditions()) {
-                Rule r = ruleFactoryService.buildRule(cond, series);
+                Rule r = ruleFactoryService.buildRule(cond, registry);
                 combined = (combined == null) ? r : combined.and(r);
             }
 
@@ -0,0 +1,130 @@
+package com.aem.ai.scanner.indicators;
+
+
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.indicators.ATRIndicator;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.indicators.helpers.HighPriceIndicator;
+import org.ta4j.core.indicators.helpers.HighestValueIndicator;
+import org.ta4j.core.indicators.helpers.LowPriceIndicator;
+import org.ta4j.core.indicators.helpers.LowestValueIndicator;
+import org.ta4j.core.indicators.volume.VWAPIndicator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * IndicatorRegistry
+ *
+ * Memoizes indicator instances for one {@link BarSeries}, keyed by indicator type and parameters.
+ * ta4j indicators are {@code CachedIndicator}s, so sharing the instance also shares every value
+ * already computed: three strategies asking for RSI(14) on the same series compute it once.
+ *
+ * One registry belongs to exactly one series; create it next to the series and drop it with it.
+ * The instances it hands out are ta4j indicators and inherit their threading rules.
+ */
+public class IndicatorRegistry {
+
+    private final BarSeries series;
+    private final Map<String, Object> instances = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public IndicatorRegistry(BarSeries series) {
+        this.series = series;
+    }
+
+    public BarSeries series() {
+        return series;
+    }
+
+    /**
+     * Return the instance registered under {@code key}, creating it on first use.
+     * Keys follow {@code TYPE:param1:param2}, e.g. {@code "EMA:21"} or {@code "MACD:12:26"}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> factory) {
+        Object existing = instances.get(key);
+        if (existing != null) {
+            hits.incrementAndGet();
+            return (T) existing;
+        }
+        misses.incrementAndGet();
+        // not computeIfAbsent: factories call back into the registry (MACD signal -> MACD -> close)
+        T created = factory.get();
+        Object raced = instances.putIfAbsent(key, created);
+        return raced != null ? (T) raced : created;
+    }
+
+    public ClosePriceIndicator close() {
+        return get("CLOSE", () -> new ClosePriceIndicator(series));
+    }
+
+    public RSIIndicator rsi(int period) {
+        return get("RSI:" + period, () -> new RSIIndicator(close(), period));
+    }
+
+    public EMAIndicator ema(int period) {
+        return get("EMA:" + period, () -> new EMAIndicator(close(), period));
+    }
+
+    public MACDIndicator macd(int fast, int slow) {
+        return get("MACD:" + fast + ":" + slow, () -> new MACDIndicator(close(), fast, slow));
+    }
+
+    public MACDSignalIndicator macdSignal(int fast, int slow, int signal) {
+        return get("MACD_SIGNAL:" + fast + ":" + slow + ":" + signal,
+                () -> new MACDSignalIndicator(macd(fast, slow), signal));
+    }
+
+    public ATRIndicator atr(int period) {
+        return get("ATR:" + period, () -> new ATRIndicator(series, period));
+    }
+
+    public VWAPIndicator vwap(int period) {
+        return get("VWAP:" + period, () -> new VWAPIndicator(series, period));
+    }
+
+    public HighestValueIndicator highestHigh(int period) {
+        return get("HIGHEST_HIGH:" + period, () -> new HighestValueIndicator(new HighPriceIndicator(series), period));
+    }
+
+    public LowestValueIndicator lowestLow(int period) {
+        return get("LOWEST_LOW:" + period, () -> new LowestValueIndicator(new LowPriceIndicator(series), period));
+    }
+
+    /**
+     * Compute every registered indicator over the whole series. Afterwards the cached values are
+     * only read, so the instances can be shared by strategies evaluated on other threads.
+     */
+    public void warmUp() {
+        int begin = series.getBeginIndex();
+        int end = series.getEndIndex();
+        for (Object instance : instances.values()) {
+            if (instance instanceof Indicator) {
+                Indicator<?> indicator = (Indicator<?>) instance;
+                for (int i = begin; i <= end; i++) {
+                    indicator.getValue(i);
+                }
+            }
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return instances.size();
+    }
+}
@@ -0,0 +1,288 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Condition;
+import com.aem.ai.scanner.model.StrategyConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A {@link StrategyConfig} compiled once into flat arrays: one opcode, two indicator slots and a
+ * threshold per condition, plus [start, end) ranges per BUY/SELL rule. Evaluating it against an
+ * {@link IncrementalSeries} is a loop over those arrays with no string handling, boxing or
+ * allocation; the slots are resolved to the series' indicators once per series
+ * ({@link IncrementalSeries#bound}).
+ *
+ * Same semantics as {@link IncrementalRules} (and so the ta4j factories): conditions of a rule
+ * are AND-ed, BUY rules OR-ed into entry, SELL rules OR-ed into exit, rules without conditions
+ * never fire.
+ */
+public final class CompiledStrategy {
+
+    private static final byte LT = 0;
+    private static final byte GT = 1;
+    private static final byte CROSS_UP = 2;
+    private static final byte CROSS_DOWN = 3;
+
+    private static final int CLOSE = 0;
+    private static final int EMA = 1;
+    private static final int RSI = 2;
+    private static final int MACD = 3;
+    private static final int MACD_SIGNAL = 4;
+
+    private final String signature;
+
+    // indicator slots
+    private final int[] slotKind;
+    private final int[][] slotParams;
+
+    // conditions
+    private final byte[] op;
+    private final int[] left;
+    private final int[] right;
+    private final double[] threshold;
+
+    // rules as [start, end) condition ranges
+    private final int[] entryStart;
+    private final int[] entryEnd;
+    private final int[] exitStart;
+    private final int[] exitEnd;
+
+    private final Function<IncrementalSeries, IncrementalIndicator[]> resolver = this::resolve;
+
+    private CompiledStrategy(Builder b, String signature) {
+        this.signature = signature;
+        int slots = b.slots.size();
+        this.slotKind = new int[slots];
+        this.slotParams = new int[slots][];
+        int s = 0;
+        for (int[] spec : b.slots) {
+            slotKind[s] = spec[0];
+            slotParams[s] = spec;
+            s++;
+        }
+        int n = b.op.size();
+        this.op = new byte[n];
+        this.left = new int[n];
+        this.right = new int[n];
+        this.threshold = new double[n];
+        for (int i = 0; i < n; i++) {
+            op[i] = b.op.get(i);
+            left[i] = b.left.get(i);
+            right[i] = b.right.get(i);
+            threshold[i] = b.threshold.get(i);
+        }
+        this.entryStart = toArray(b.entryStart);
+        this.entryEnd = toArray(b.entryEnd);
+        this.exitStart = toArray(b.exitStart);
+        this.exitEnd = toArray(b.exitEnd);
+    }
+
+    /**
+     * Compile a strategy.
+     *
+     * @throws IllegalArgumentException for unknown indicators/operators or a non-numeric threshold
+     */
+    public static CompiledStrategy compile(StrategyConfig cfg) {
+        return compile(cfg, signature(cfg));
+    }
+
+    static CompiledStrategy compile(StrategyConfig cfg, String signature) {
+        Builder b = new Builder();
+        if (cfg.getRules() != null) {
+            for (StrategyConfig.RuleConfig rc : cfg.getRules()) {
+                boolean entry = "BUY".equalsIgnoreCase(rc.getAction());
+                boolean exit = "SELL".equalsIgnoreCase(rc.getAction());
+                if ((!entry && !exit) || rc.getConditions() == null || rc.getConditions().isEmpty()) continue;
+                int start = b.op.size();
+                for (Condition cond : rc.getConditions()) {
+                    b.condition(cond);
+                }
+                (entry ? b.entryStart : b.exitStart).add(start);
+                (entry ? b.entryEnd : b.exitEnd).add(b.op.size());
+            }
+        }
+        return new CompiledStrategy(b, signature);
+    }
+
+    /**
+     * Canonical text of everything that affects evaluation (actions, indicators, operators,
+     * parameters, thresholds); equal signatures compile to equal evaluators.
+     */
+    public static String signature(StrategyConfig cfg) {
+        StringBuilder sb = new StringBuilder();
+        if (cfg.getRules() != null) {
+            for (StrategyConfig.RuleConfig rc : cfg.getRules()) {
+                sb.append(rc.getAction()).append('{');
+                if (rc.getConditions() != null) {
+                    for (Condition c : rc.getConditions()) {
+                        sb.append(c.indicator).append('|').append(c.operator).append('|').append(c.value)
+                                .append('|').append(c.period).append('|').append(c.fast)
+                                .append('|').append(c.slow).append('|').append(c.signal).append(';');
+                    }
+                }
+                sb.append('}');
+            }
+        }
+        return sb.toString();
+    }
+
+    public String signature() {
+        return signature;
+    }
+
+    public boolean shouldEnter(IncrementalSeries series) {
+        return any(entryStart, entryEnd, series.bound(this, resolver));
+    }
+
+    public boolean shouldExit(IncrementalSeries series) {
+        return any(exitStart, exitEnd, series.bound(this, resolver));
+    }
+
+    private boolean any(int[] start, int[] end, IncrementalIndicator[] slots) {
+        for (int r = 0; r < start.length; r++) {
+            boolean all = true;
+            for (int c = start[r]; c < end[r]; c++) {
+                if (!holds(c, slots)) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) return true;
+        }
+        return false;
+    }
+
+    private boolean holds(int c, IncrementalIndicator[] slots) {
+        switch (op[c]) {
+            case LT:
+                return slots[left[c]].value() < threshold[c];
+            case GT:
+                return slots[left[c]].value() > threshold[c];
+            case CROSS_UP:
+                return IncrementalRules.crossedUp(slots[left[c]], slots[right[c]]);
+            default:
+                return IncrementalRules.crossedDown(slots[left[c]], slots[right[c]]);
+        }
+    }
+
+    /** Slot index → the series' indicator instance (called once per series). */
+    private IncrementalIndicator[] resolve(IncrementalSeries series) {
+        IncrementalIndicator[] out = new IncrementalIndicator[slotKind.length];
+        for (int s = 0; s < out.length; s++) {
+            int[] p = slotParams[s];
+            switch (slotKind[s]) {
+                case CLOSE:
+                    out[s] = series.close();
+                    break;
+                case EMA:
+                    out[s] = series.ema(p[1]);
+                    break;
+                case RSI:
+                    out[s] = series.rsi(p[1]);
+                    break;
+                case MACD:
+                    out[s] = series.macd(p[1], p[2]);
+                    break;
+                default:
+                    out[s] = series.macdSignal(p[1], p[2], p[3]);
+                    break;
+            }
+        }
+        return out;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] out = new int[list.size()];
+        for (int i = 0; i < out.length; i++) out[i] = list.get(i);
+        return out;
+    }
+
+    private static final class Builder {
+        /** Slot specs {kind, params...}, de-duplicated by key. */
+        final List<int[]> slots = new ArrayList<>();
+        final Map<String, Integer> slotIndex = new HashMap<>();
+        final List<Byte> op = new ArrayList<>();
+        final List<Integer> left = new ArrayList<>();
+        final List<Integer> right = new ArrayList<>();
+        final List<Double> threshold = new ArrayList<>();
+        final List<Integer> entryStart = new ArrayList<>();
+        final List<Integer> entryEnd = new ArrayList<>();
+        final List<Integer> exitStart = new ArrayList<>();
+        final List<Integer> exitEnd = new ArrayList<>();
+
+        void condition(Condition cond) {
+            String operator = cond.operator == null ? "" : cond.operator.toLowerCase();
+            switch (operator) {
+                case "<":
+                case ">":
+                    if (!(cond.value instanceof Number)) {
+                        throw new IllegalArgumentException("Operator " + operator + " needs a numeric value, got " + cond.value);
+                    }
+                    add(operator.equals("<") ? LT : GT, indicator(cond), -1, ((Number) cond.value).doubleValue());
+                    break;
+                case "cross_up":
+                case "cross_down": {
+                    byte code = operator.equals("cross_up") ? CROSS_UP : CROSS_DOWN;
+                    if ("signal_line".equals(cond.value)) {
+                        int fast = orDefault(cond.fast, 12);
+                        int slow = orDefault(cond.slow, 26);
+                        add(code, slot(MACD, fast, slow), slot(MACD_SIGNAL, fast, slow, orDefault(cond.signal, 9)), Double.NaN);
+                    } else {
+                        add(code, indicator(cond), slot(CLOSE), Double.NaN);
+                    }
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown operator: " + cond.operator);
+            }
+        }
+
+        /** Same indicator choice as IndicatorFactoryImpl / IncrementalRules.indicatorFor. */
+        int indicator(Condition cond) {
+            String name = cond.indicator == null ? "" : cond.indicator.toUpperCase();
+            switch (name) {
+                case "RSI":
+                    return slot(RSI, orDefault(cond.period, 14));
+                case "MACD":
+                    if ("signal_line".equals(cond.value) || cond.signal != null) {
+                        return slot(MACD_SIGNAL, orDefault(cond.fast, 12), orDefault(cond.slow, 26), orDefault(cond.signal, 9));
+                    }
+                    return slot(MACD, orDefault(cond.fast, 12), orDefault(cond.slow, 26));
+                case "EMA":
+                    return slot(EMA, orDefault(cond.period, 21));
+                case "EMA_CROSS":
+                    return slot(EMA, orDefault(cond.fast, 9));
+                default:
+                    throw new IllegalArgumentException("Unknown indicator: " + cond.indicator);
+            }
+        }
+
+        int slot(int kind, int... params) {
+            StringBuilder key = new StringBuilder().append(kind);
+            for (int p : params) key.append(':').append(p);
+            Integer existing = slotIndex.get(key.toString());
+            if (existing != null) return existing;
+            int[] spec = new int[params.length + 1];
+            spec[0] = kind;
+            System.arraycopy(params, 0, spec, 1, params.length);
+            slotIndex.put(key.toString(), slots.size());
+            slots.add(spec);
+            return slots.size() - 1;
+        }
+
+        void add(byte code, int l, int r, double thr) {
+            op.add(code);
+            left.add(l);
+            right.add(r);
+            threshold.add(thr);
+        }
+
+        private static int orDefault(Integer v, int def) {
+            return v == null ? def : v;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+/**
+ * Exponential average over a stream of doubles with one-step undo.
+ * Seeded like ta4j: the first output equals the first input.
+ */
+final class EmaState {
+
+    private final double multiplier;
+    private double value = Double.NaN;
+    private double previous = Double.NaN;
+
+    private EmaState(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    /** Standard EMA, multiplier 2 / (period + 1). */
+    static EmaState ema(int period) {
+        return new EmaState(2.0 / (period + 1));
+    }
+
+    /** Wilder's modified moving average (ta4j MMAIndicator), multiplier 1 / period. */
+    static EmaState mma(int period) {
+        return new EmaState(1.0 / period);
+    }
+
+    double push(double x) {
+        previous = value;
+        value = Double.isNaN(value) ? x : value + multiplier * (x - value);
+        return value;
+    }
+
+    void undo() {
+        value = previous;
+    }
+
+    double value() {
+        return value;
+    }
+}
@@ -0,0 +1,32 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Candle;
+
+/** Average true range with Wilder smoothing, as ta4j's ATRIndicator. */
+public class IncrementalATR extends IncrementalIndicator {
+
+    private final EmaState atr;
+    private double prevClose = Double.NaN;
+    private double savedPrevClose = Double.NaN;
+
+    public IncrementalATR(int period) {
+        this.atr = EmaState.mma(period);
+    }
+
+    @Override
+    protected double next(Candle c) {
+        savedPrevClose = prevClose;
+        double tr = Math.abs(c.getHigh() - c.getLow());
+        if (!Double.isNaN(prevClose)) {
+            tr = Math.max(tr, Math.max(Math.abs(c.getHigh() - prevClose), Math.abs(prevClose - c.getLow())));
+        }
+        prevClose = c.getClose();
+        return atr.push(tr);
+    }
+
+    @Override
+    protected void undo() {
+        atr.undo();
+        prevClose = savedPrevClose;
+    }
+}
@@ -0,0 +1,17 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Candle;
+
+/** Close price; kept as an indicator so cross-over checks can use its history. */
+public class IncrementalClose extends IncrementalIndicator {
+
+    @Override
+    protected double next(Candle c) {
+        return c.getClose();
+    }
+
+    @Override
+    protected void undo() {
+        // stateless
+    }
+}
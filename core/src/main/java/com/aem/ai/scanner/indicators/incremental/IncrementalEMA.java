@@ -0,0 +1,23 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Candle;
+
+/** EMA of close, same seeding as ta4j's EMAIndicator. */
+public class IncrementalEMA extends IncrementalIndicator {
+
+    private final EmaState ema;
+
+    public IncrementalEMA(int period) {
+        this.ema = EmaState.ema(period);
+    }
+
+    @Override
+    protected double next(Candle c) {
+        return ema.push(c.getClose());
+    }
+
+    @Override
+    protected void undo() {
+        ema.undo();
+    }
+}
@@ -0,0 +1,52 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Candle;
+
+/**
+ * Highest high / lowest low over the last {@code period} bars, as ta4j's
+ * HighestValueIndicator / LowestValueIndicator. The window is scanned on each bar,
+ * which is O(period) but period is a small swing lookback.
+ */
+public class IncrementalExtreme extends IncrementalIndicator {
+
+    private final boolean highest;
+    private final int period;
+    private final double[] window;
+    private int n;
+    private double savedSlot;
+
+    private IncrementalExtreme(boolean highest, int period) {
+        this.highest = highest;
+        this.period = period;
+        this.window = new double[period];
+    }
+
+    public static IncrementalExtreme highestHigh(int period) {
+        return new IncrementalExtreme(true, period);
+    }
+
+    public static IncrementalExtreme lowestLow(int period) {
+        return new IncrementalExtreme(false, period);
+    }
+
+    @Override
+    protected double next(Candle c) {
+        int slot = n % period;
+        savedSlot = window[slot];
+        window[slot] = highest ? c.getHigh() : c.getLow();
+        n++;
+
+        int size = Math.min(n, period);
+        double best = window[0];
+        for (int i = 1; i < size; i++) {
+            best = highest ? Math.max(best, window[i]) : Math.min(best, window[i]);
+        }
+        return best;
+    }
+
+    @Override
+    protected void undo() {
+        n--;
+        window[n % period] = savedSlot;
+    }
+}
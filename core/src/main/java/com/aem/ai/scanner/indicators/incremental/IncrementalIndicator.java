@@ -0,0 +1,61 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Candle;
+
+/**
+ * Indicator that is updated one bar at a time instead of being recomputed from bar 0.
+ *
+ * Every implementation keeps just enough state to apply the next bar in O(1) and to undo
+ * that last step, so a still-forming bar can be replaced when the broker re-sends it.
+ * The most recent {@value #HISTORY} outputs are retained for cross-over checks.
+ */
+public abstract class IncrementalIndicator {
+
+    public static final int HISTORY = 64;
+
+    private final double[] history = new double[HISTORY];
+    private int count;
+
+    /** Apply a new bar. */
+    public final void append(Candle c) {
+        history[count % HISTORY] = next(c);
+        count++;
+    }
+
+    /** Re-apply the last bar with updated values (e.g. the forming candle was re-sent). */
+    public final void replaceLast(Candle c) {
+        if (count == 0) {
+            append(c);
+            return;
+        }
+        undo();
+        history[(count - 1) % HISTORY] = next(c);
+    }
+
+    /** Value at the latest bar. */
+    public double value() {
+        return value(0);
+    }
+
+    /** Value {@code barsAgo} bars back, or NaN if no longer retained. */
+    public double value(int barsAgo) {
+        if (barsAgo < 0 || barsAgo >= available()) return Double.NaN;
+        return history[(count - 1 - barsAgo) % HISTORY];
+    }
+
+    /** Number of retained outputs (at most {@value #HISTORY}). */
+    public int available() {
+        return Math.min(count, HISTORY);
+    }
+
+    /** Total number of bars applied so far. */
+    public int barCount() {
+        return count;
+    }
+
+    /** Fold the bar into the state and return the new value. */
+    protected abstract double next(Candle c);
+
+    /** Revert the state to what it was before the last {@link #next(Candle)}. */
+    protected abstract void undo();
+}
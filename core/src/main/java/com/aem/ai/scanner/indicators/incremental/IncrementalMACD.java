@@ -0,0 +1,26 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Candle;
+
+/** MACD line (EMA fast - EMA slow of close), as ta4j's MACDIndicator. */
+public class IncrementalMACD extends IncrementalIndicator {
+
+    private final EmaState fast;
+    private final EmaState slow;
+
+    public IncrementalMACD(int fastPeriod, int slowPeriod) {
+        this.fast = EmaState.ema(fastPeriod);
+        this.slow = EmaState.ema(slowPeriod);
+    }
+
+    @Override
+    protected double next(Candle c) {
+        return fast.push(c.getClose()) - slow.push(c.getClose());
+    }
+
+    @Override
+    protected void undo() {
+        fast.undo();
+        slow.undo();
+    }
+}
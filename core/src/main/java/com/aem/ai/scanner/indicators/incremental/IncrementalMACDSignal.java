@@ -0,0 +1,30 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Candle;
+
+/** MACD signal line: EMA of the MACD line, as {@link com.aem.ai.scanner.indicators.MACDSignalIndicator}. */
+public class IncrementalMACDSignal extends IncrementalIndicator {
+
+    private final EmaState fast;
+    private final EmaState slow;
+    private final EmaState signal;
+
+    public IncrementalMACDSignal(int fastPeriod, int slowPeriod, int signalPeriod) {
+        this.fast = EmaState.ema(fastPeriod);
+        this.slow = EmaState.ema(slowPeriod);
+        this.signal = EmaState.ema(signalPeriod);
+    }
+
+    @Override
+    protected double next(Candle c) {
+        double macd = fast.push(c.getClose()) - slow.push(c.getClose());
+        return signal.push(macd);
+    }
+
+    @Override
+    protected void undo() {
+        fast.undo();
+        slow.undo();
+        signal.undo();
+    }
+}
@@ -0,0 +1,38 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Candle;
+
+/** RSI of close using Wilder smoothing, matching ta4j's RSIIndicator. */
+public class IncrementalRSI extends IncrementalIndicator {
+
+    private final EmaState avgGain;
+    private final EmaState avgLoss;
+    private double prevClose = Double.NaN;
+    private double savedPrevClose = Double.NaN;
+
+    public IncrementalRSI(int period) {
+        this.avgGain = EmaState.mma(period);
+        this.avgLoss = EmaState.mma(period);
+    }
+
+    @Override
+    protected double next(Candle c) {
+        savedPrevClose = prevClose;
+        double diff = Double.isNaN(prevClose) ? 0.0 : c.getClose() - prevClose;
+        double gain = avgGain.push(Math.max(diff, 0.0));
+        double loss = avgLoss.push(Math.max(-diff, 0.0));
+        prevClose = c.getClose();
+
+        if (loss == 0.0) {
+            return gain == 0.0 ? 0.0 : 100.0;
+        }
+        return 100.0 - 100.0 / (1.0 + gain / loss);
+    }
+
+    @Override
+    protected void undo() {
+        avgGain.undo();
+        avgLoss.undo();
+        prevClose = savedPrevClose;
+    }
+}
@@ -0,0 +1,114 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Condition;
+import com.aem.ai.scanner.model.StrategyConfig;
+
+/**
+ * Evaluates a {@link StrategyConfig} at the latest bar of an {@link IncrementalSeries}.
+ * Mirrors StrategyFactoryImpl / RuleFactoryImpl / IndicatorFactoryImpl: conditions of a rule
+ * are AND-ed, BUY rules OR-ed into the entry rule and SELL rules OR-ed into the exit rule.
+ */
+public final class IncrementalRules {
+
+    private IncrementalRules() {
+    }
+
+    public static boolean shouldEnter(StrategyConfig cfg, IncrementalSeries series) {
+        return anyRule(cfg, series, "BUY");
+    }
+
+    public static boolean shouldExit(StrategyConfig cfg, IncrementalSeries series) {
+        return anyRule(cfg, series, "SELL");
+    }
+
+    private static boolean anyRule(StrategyConfig cfg, IncrementalSeries series, String action) {
+        if (cfg.getRules() == null) return false;
+        for (StrategyConfig.RuleConfig rc : cfg.getRules()) {
+            if (!action.equalsIgnoreCase(rc.getAction()) || rc.getConditions() == null) continue;
+            boolean all = true;
+            for (Condition cond : rc.getConditions()) {
+                if (!holds(cond, series)) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all && !rc.getConditions().isEmpty()) return true;
+        }
+        return false;
+    }
+
+    static boolean holds(Condition cond, IncrementalSeries series) {
+        String op = cond.operator.toLowerCase();
+        switch (op) {
+            case "<":
+                return indicatorFor(cond, series).value() < ((Number) cond.value).doubleValue();
+            case ">":
+                return indicatorFor(cond, series).value() > ((Number) cond.value).doubleValue();
+            case "cross_up":
+                if ("signal_line".equals(cond.value)) {
+                    return crossedUp(series.macd(fast(cond, 12), slow(cond, 26)),
+                            series.macdSignal(fast(cond, 12), slow(cond, 26), signal(cond, 9)));
+                }
+                return crossedUp(indicatorFor(cond, series), series.close());
+            case "cross_down":
+                if ("signal_line".equals(cond.value)) {
+                    return crossedDown(series.macd(fast(cond, 12), slow(cond, 26)),
+                            series.macdSignal(fast(cond, 12), slow(cond, 26), signal(cond, 9)));
+                }
+                return crossedDown(indicatorFor(cond, series), series.close());
+            default:
+                throw new IllegalArgumentException("Unknown operator: " + cond.operator);
+        }
+    }
+
+    static IncrementalIndicator indicatorFor(Condition cond, IncrementalSeries series) {
+        String name = cond.indicator.toUpperCase();
+        switch (name) {
+            case "RSI":
+                return series.rsi(cond.period == null ? 14 : cond.period);
+            case "MACD":
+                if ("signal_line".equals(cond.value) || cond.signal != null) {
+                    return series.macdSignal(fast(cond, 12), slow(cond, 26), signal(cond, 9));
+                }
+                return series.macd(fast(cond, 12), slow(cond, 26));
+            case "EMA":
+                return series.ema(cond.period == null ? 21 : cond.period);
+            case "EMA_CROSS":
+                return series.ema(fast(cond, 9));
+            default:
+                throw new IllegalArgumentException("Unknown indicator: " + cond.indicator);
+        }
+    }
+
+    /** {@code first} crossed above {@code second} at the latest bar (ta4j CrossedUpIndicatorRule). */
+    public static boolean crossedUp(IncrementalIndicator first, IncrementalIndicator second) {
+        return crossed(second, first);
+    }
+
+    /** {@code first} crossed below {@code second} at the latest bar (ta4j CrossedDownIndicatorRule). */
+    public static boolean crossedDown(IncrementalIndicator first, IncrementalIndicator second) {
+        return crossed(first, second);
+    }
+
+    /** Same walk-back as ta4j's CrossIndicator: {@code up} is now below {@code low} and was above it. */
+    private static boolean crossed(IncrementalIndicator up, IncrementalIndicator low) {
+        int n = Math.min(up.available(), low.available());
+        if (n < 2 || up.value(0) >= low.value(0)) return false;
+        int i = 1;
+        if (up.value(i) > low.value(i)) return true;
+        while (i < n - 1 && up.value(i) == low.value(i)) i++;
+        return i < n - 1 && up.value(i) > low.value(i);
+    }
+
+    private static int fast(Condition c, int def) {
+        return c.fast == null ? def : c.fast;
+    }
+
+    private static int slow(Condition c, int def) {
+        return c.slow == null ? def : c.slow;
+    }
+
+    private static int signal(Condition c, int def) {
+        return c.signal == null ? def : c.signal;
+    }
+}
@@ -0,0 +1,141 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Candle;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Incremental indicator state for one symbol/timeframe, kept across scanner runs.
+ *
+ * {@link #sync(List)} folds only the bars newer than the last one seen (and re-applies the
+ * last bar if the broker re-sent it), so indicators are updated in O(1) per new bar.
+ * Indicators requested for the first time are warmed up by replaying the retained bars.
+ * Not thread-safe: callers lock the instance around sync + reads.
+ */
+public class IncrementalSeries {
+
+    private final int maxBars;
+    private final ArrayDeque<Candle> bars = new ArrayDeque<>();
+    private final Map<String, IncrementalIndicator> indicators = new HashMap<>();
+    /** Indicator slots resolved per compiled strategy; dropped with the indicators on reset. */
+    private final Map<Object, IncrementalIndicator[]> bindings = new WeakHashMap<>();
+
+    public IncrementalSeries(int maxBars) {
+        this.maxBars = Math.max(1, maxBars);
+    }
+
+    /** Bring every registered indicator up to date with the given ascending candle window. */
+    public void sync(List<Candle> candles) {
+        if (candles == null || candles.isEmpty()) return;
+
+        Instant last = lastTime();
+        Instant newest = candles.get(candles.size() - 1).getTime();
+        if (last != null && newest != null && newest.isBefore(last)) {
+            // broker history moved backwards (different window / replay) -> start over
+            reset();
+            last = null;
+        }
+
+        for (Candle c : candles) {
+            if (c == null || c.getTime() == null) continue;
+            if (last == null || c.getTime().isAfter(last)) {
+                bars.addLast(c);
+                if (bars.size() > maxBars) bars.removeFirst();
+                for (IncrementalIndicator ind : indicators.values()) ind.append(c);
+                last = c.getTime();
+            } else if (c.getTime().equals(last)) {
+                bars.pollLast();
+                bars.addLast(c);
+                for (IncrementalIndicator ind : indicators.values()) ind.replaceLast(c);
+            }
+        }
+    }
+
+    /** Registered indicator for {@code key}, creating and warming it up on first use. */
+    public IncrementalIndicator indicator(String key, Supplier<IncrementalIndicator> factory) {
+        IncrementalIndicator ind = indicators.get(key);
+        if (ind == null) {
+            ind = factory.get();
+            for (Candle c : bars) ind.append(c);
+            indicators.put(key, ind);
+        }
+        return ind;
+    }
+
+    /**
+     * Indicators resolved once for {@code owner} (e.g. a {@link CompiledStrategy}'s slots) and
+     * reused until the series is reset, so evaluation skips the by-key lookups.
+     */
+    public IncrementalIndicator[] bound(Object owner, Function<IncrementalSeries, IncrementalIndicator[]> resolver) {
+        IncrementalIndicator[] slots = bindings.get(owner);
+        if (slots == null) {
+            slots = resolver.apply(this);
+            bindings.put(owner, slots);
+        }
+        return slots;
+    }
+
+    public IncrementalIndicator close() {
+        return indicator("CLOSE", IncrementalClose::new);
+    }
+
+    public IncrementalIndicator ema(int period) {
+        return indicator("EMA:" + period, () -> new IncrementalEMA(period));
+    }
+
+    public IncrementalIndicator rsi(int period) {
+        return indicator("RSI:" + period, () -> new IncrementalRSI(period));
+    }
+
+    public IncrementalIndicator macd(int fast, int slow) {
+        return indicator("MACD:" + fast + ":" + slow, () -> new IncrementalMACD(fast, slow));
+    }
+
+    public IncrementalIndicator macdSignal(int fast, int slow, int signal) {
+        return indicator("MACD_SIGNAL:" + fast + ":" + slow + ":" + signal,
+                () -> new IncrementalMACDSignal(fast, slow, signal));
+    }
+
+    public IncrementalIndicator atr(int period) {
+        return indicator("ATR:" + period, () -> new IncrementalATR(period));
+    }
+
+    public IncrementalIndicator vwap(int period) {
+        return indicator("VWAP:" + period, () -> new IncrementalVWAP(period));
+    }
+
+    public IncrementalIndicator highestHigh(int period) {
+        return indicator("HIGHEST:" + period, () -> IncrementalExtreme.highestHigh(period));
+    }
+
+    public IncrementalIndicator lowestLow(int period) {
+        return indicator("LOWEST:" + period, () -> IncrementalExtreme.lowestLow(period));
+    }
+
+    public Candle lastCandle() {
+        return bars.peekLast();
+    }
+
+    /** Bars retained for warm-up (at most maxBars). */
+    public int barCount() {
+        return bars.size();
+    }
+
+    private Instant lastTime() {
+        Candle c = bars.peekLast();
+        return c == null ? null : c.getTime();
+    }
+
+    private void reset() {
+        bars.clear();
+        indicators.clear();
+        bindings.clear();
+    }
+}
@@ -0,0 +1,59 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.model.Candle;
+
+/** Rolling VWAP of typical price over the last {@code period} bars, as ta4j's VWAPIndicator. */
+public class IncrementalVWAP extends IncrementalIndicator {
+
+    private final int period;
+    private final double[] tpv;
+    private final double[] vol;
+    private int n;
+    private double sumTpv;
+    private double sumVol;
+
+    // state needed to undo the last bar
+    private double savedSlotTpv;
+    private double savedSlotVol;
+    private double savedSumTpv;
+    private double savedSumVol;
+
+    public IncrementalVWAP(int period) {
+        this.period = period;
+        this.tpv = new double[period];
+        this.vol = new double[period];
+    }
+
+    @Override
+    protected double next(Candle c) {
+        int slot = n % period;
+        savedSlotTpv = tpv[slot];
+        savedSlotVol = vol[slot];
+        savedSumTpv = sumTpv;
+        savedSumVol = sumVol;
+
+        double typical = (c.getHigh() + c.getLow() + c.getClose()) / 3.0;
+        if (n >= period) {
+            sumTpv -= tpv[slot];
+            sumVol -= vol[slot];
+        }
+        tpv[slot] = typical * c.getVolume();
+        vol[slot] = c.getVolume();
+        sumTpv += tpv[slot];
+        sumVol += vol[slot];
+        n++;
+
+        if (n == 1) return typical;
+        return sumVol == 0.0 ? Double.NaN : sumTpv / sumVol;
+    }
+
+    @Override
+    protected void undo() {
+        n--;
+        int slot = n % period;
+        tpv[slot] = savedSlotTpv;
+        vol[slot] = savedSlotVol;
+        sumTpv = savedSumTpv;
+        sumVol = savedSumVol;
+    }
+}
@@ -0,0 +1,18 @@
+package com.aem.ai.scanner.model;
+
+/**
+ * Row of {@code gemini_analysis_cache}: the stored Gemini response and how old it is, so a
+ * reloaded entry only lives for what is left of its TTL.
+ */
+public class CachedAnalysis {
+    private final String responseJson;
+    private final long ageSeconds;
+
+    public CachedAnalysis(String responseJson, long ageSeconds) {
+        this.responseJson = responseJson;
+        this.ageSeconds = ageSeconds;
+    }
+
+    public String getResponseJson() { return responseJson; }
+    public long getAgeSeconds() { return ageSeconds; }
+}
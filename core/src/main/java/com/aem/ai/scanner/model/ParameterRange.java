@@ -0,0 +1,73 @@
+package com.aem.ai.scanner.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declarative search range for one numeric condition parameter, read from strategies.json_config:
+ * <pre>
+ * "parameters": [
+ *   {"rule": 0, "condition": 0, "param": "period", "min": 7, "max": 21, "step": 7},
+ *   {"rule": 0, "condition": 1, "param": "fast", "values": [9, 12]}
+ * ]
+ * </pre>
+ * {@code param} is one of period, fast, slow, signal. Explicit {@code values} win over min/max/step.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ParameterRange {
+    private int rule;
+    private int condition;
+    private String param;
+    private Integer min;
+    private Integer max;
+    private Integer step;
+    private List<Integer> values;
+
+    public ParameterRange() {}
+
+    public ParameterRange(int rule, int condition, String param, List<Integer> values) {
+        this.rule = rule;
+        this.condition = condition;
+        this.param = param;
+        this.values = values;
+    }
+
+    /** Candidate values of this range, in ascending order of declaration. */
+    public List<Integer> expand() {
+        if (values != null && !values.isEmpty()) {
+            return values;
+        }
+        List<Integer> out = new ArrayList<>();
+        if (min == null || max == null) {
+            return out;
+        }
+        int s = (step == null || step <= 0) ? 1 : step;
+        for (int v = min; v <= max; v += s) {
+            out.add(v);
+        }
+        return out;
+    }
+
+    public int getRule() { return rule; }
+    public void setRule(int rule) { this.rule = rule; }
+
+    public int getCondition() { return condition; }
+    public void setCondition(int condition) { this.condition = condition; }
+
+    public String getParam() { return param; }
+    public void setParam(String param) { this.param = param; }
+
+    public Integer getMin() { return min; }
+    public void setMin(Integer min) { this.min = min; }
+
+    public Integer getMax() { return max; }
+    public void setMax(Integer max) { this.max = max; }
+
+    public Integer getStep() { return step; }
+    public void setStep(Integer step) { this.step = step; }
+
+    public List<Integer> getValues() { return values; }
+    public void setValues(List<Integer> values) { this.values = values; }
+}
@@ -0,0 +1,30 @@
+package com.aem.ai.scanner.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Per-strategy parameter search settings from strategies.json_config, e.g.
+ * {@code "search": {"mode": "halving", "maxCandidates": 300, "eta": 3, "seed": 42}}.
+ * Unset fields fall back to the backtest scheduler configuration.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SearchSpec {
+    /** grid, random or halving */
+    private String mode;
+    private Integer maxCandidates;
+    /** successive halving: keep 1/eta of the candidates per rung */
+    private Integer eta;
+    private Long seed;
+
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+
+    public Integer getMaxCandidates() { return maxCandidates; }
+    public void setMaxCandidates(Integer maxCandidates) { this.maxCandidates = maxCandidates; }
+
+    public Integer getEta() { return eta; }
+    public void setEta(Integer eta) { this.eta = eta; }
+
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+}
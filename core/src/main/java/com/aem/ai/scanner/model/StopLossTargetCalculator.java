@@ -1,8 +1,10 @@
 package com.aem.ai.scanner.model;
 
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.indicators.ATRIndicator;
-import org.ta4j.core.indicators.helpers.*;
+import org.ta4j.core.indicators.helpers.HighestValueIndicator;
+import org.ta4j.core.indicators.helpers.LowestValueIndicator;
 import org.ta4j.core.num.Num;
 
 public class StopLossTargetCalculator {
@@ -18,15 +20,27 @@ public class StopLossTargetCalculator {
                                        double atrBuffer,
                                        double entryPrice,
                                        boolean isBuy) {
-        int lastIndex = series.getEndIndex();
+        return computeSLTP(new IndicatorRegistry(series), atrPeriod, swingPeriod, atrBuffer, entryPrice, isBuy);
+    }
+
+    /**
+     * Same as {@link #computeSLTP(BarSeries, int, int, double, double, boolean)} with ATR and
+     * swing indicators taken from the series' registry.
+     */
+    public static double[] computeSLTP(IndicatorRegistry registry,
+                                       int atrPeriod,
+                                       int swingPeriod,
+                                       double atrBuffer,
+                                       double entryPrice,
+                                       boolean isBuy) {
+        int lastIndex = registry.series().getEndIndex();
         if (lastIndex < swingPeriod) return new double[]{Double.NaN, Double.NaN};
 
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        ATRIndicator atr = new ATRIndicator(series, atrPeriod);
+        ATRIndicator atr = registry.atr(atrPeriod);
 
         // Swing indicators
-        LowestValueIndicator swingLow = new LowestValueIndicator(new LowPriceIndicator(series), swingPeriod);
-        HighestValueIndicator swingHigh = new HighestValueIndicator(new HighPriceIndicator(series), swingPeriod);
+        LowestValueIndicator swingLow = registry.lowestLow(swingPeriod);
+        HighestValueIndicator swingHigh = registry.highestHigh(swingPeriod);
 
         Num atrVal = atr.getValue(lastIndex);
         double atrD = atrVal.doubleValue();
@@ -3,6 +3,7 @@ package com.aem.ai.scanner.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class StrategyConfig {
@@ -14,6 +15,9 @@ public class StrategyConfig {
     private double winRate;
     private double pnl;
     private double drawdown;
+    /** Optional search ranges used by the backtester; not needed for live evaluation. */
+    private List<ParameterRange> parameters;
+    private SearchSpec search;
 
     public double getPnl() {
         return pnl;
@@ -82,12 +86,30 @@ public class StrategyConfig {
         return id;
     }
 
+    public List<ParameterRange> getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(List<ParameterRange> parameters) {
+        this.parameters = parameters;
+    }
+
+    public SearchSpec getSearch() {
+        return search;
+    }
+
+    public void setSearch(SearchSpec search) {
+        this.search = search;
+    }
+
     public StrategyConfig copy() {
         StrategyConfig clone = new StrategyConfig();
         clone.setName(this.name);
         clone.setSymbol(this.symbol);
         clone.setTimeframe(this.timeframe);
         clone.setId(this.id);
+        clone.setParameters(this.parameters);
+        clone.setSearch(this.search);
 
         if (this.rules != null) {
             List<RuleConfig> ruleClones = new ArrayList<>();
@@ -123,6 +145,30 @@ public class StrategyConfig {
         return clone;
     }
 
+    /**
+     * Deep copy, including the backtest stats, whose rule and condition lists cannot be modified.
+     * Handed out to several callers at once, so nobody can change the rules another caller or a
+     * compiled evaluator of this config relies on.
+     */
+    public StrategyConfig readOnlyCopy() {
+        StrategyConfig clone = copy();
+        clone.setWinRate(this.winRate);
+        clone.setPnl(this.pnl);
+        clone.setDrawdown(this.drawdown);
+        if (this.parameters != null) {
+            clone.setParameters(Collections.unmodifiableList(new ArrayList<>(this.parameters)));
+        }
+        if (clone.rules != null) {
+            for (RuleConfig rc : clone.rules) {
+                if (rc.getConditions() != null) {
+                    rc.setConditions(Collections.unmodifiableList(rc.getConditions()));
+                }
+            }
+            clone.setRules(Collections.unmodifiableList(clone.rules));
+        }
+        return clone;
+    }
+
 
     public static class RuleConfig {
         private String action;
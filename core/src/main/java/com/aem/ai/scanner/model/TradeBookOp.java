@@ -0,0 +1,118 @@
+package com.aem.ai.scanner.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One deferred write of the open-trade book (LTP/PnL update, comment or close). Ops are journaled
+ * as JSON lines before they are acknowledged and applied to the trades table in order. The op id
+ * lets the DAO skip a replayed comment that was already appended; {@code attempts} counts failed
+ * applies so a poison op can be dead-lettered instead of blocking its table.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TradeBookOp {
+
+    public enum Type { LTP, COMMENT, CLOSE }
+
+    private String opId;
+    private int attempts;
+    private Type type;
+    private String table;
+    private String tradeId;
+    private String symbol;
+    private Signal.Side side;
+    private double ltp;
+    private double pnl;
+    private double pnlPercentage;
+    private double exitPrice;
+    /** ISO-8601 local date-time, kept as text so the journal needs no extra Jackson module. */
+    private String exitTime;
+    private String comment;
+
+    // ✅ Needed for Jackson
+    public TradeBookOp() {}
+
+    public static TradeBookOp ltp(String table, TradeModel t) {
+        TradeBookOp op = of(Type.LTP, table, t);
+        op.ltp = t.getLtp();
+        op.pnl = t.getPnl();
+        op.pnlPercentage = t.getPnlPercentage();
+        return op;
+    }
+
+    public static TradeBookOp close(String table, TradeModel t, double exitPrice, LocalDateTime exitTime, double pnl) {
+        TradeBookOp op = of(Type.CLOSE, table, t);
+        op.exitPrice = exitPrice;
+        op.exitTime = (exitTime != null ? exitTime : LocalDateTime.now()).toString();
+        op.pnl = pnl;
+        return op;
+    }
+
+    public static TradeBookOp comment(String table, String symbol, Signal.Side side, String comment) {
+        TradeBookOp op = new TradeBookOp();
+        op.opId = UUID.randomUUID().toString();
+        op.type = Type.COMMENT;
+        op.table = table;
+        op.symbol = symbol;
+        op.side = side;
+        op.comment = comment;
+        return op;
+    }
+
+    private static TradeBookOp of(Type type, String table, TradeModel t) {
+        TradeBookOp op = new TradeBookOp();
+        op.opId = UUID.randomUUID().toString();
+        op.type = type;
+        op.table = table;
+        op.tradeId = t.getTradeId();
+        op.symbol = t.getSymbol().getSymbol();
+        op.side = t.getSide();
+        return op;
+    }
+
+    public String getOpId() { return opId; }
+    public void setOpId(String opId) { this.opId = opId; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public String getTable() { return table; }
+    public void setTable(String table) { this.table = table; }
+
+    public String getTradeId() { return tradeId; }
+    public void setTradeId(String tradeId) { this.tradeId = tradeId; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public Signal.Side getSide() { return side; }
+    public void setSide(Signal.Side side) { this.side = side; }
+
+    public double getLtp() { return ltp; }
+    public void setLtp(double ltp) { this.ltp = ltp; }
+
+    public double getPnl() { return pnl; }
+    public void setPnl(double pnl) { this.pnl = pnl; }
+
+    public double getPnlPercentage() { return pnlPercentage; }
+    public void setPnlPercentage(double pnlPercentage) { this.pnlPercentage = pnlPercentage; }
+
+    public double getExitPrice() { return exitPrice; }
+    public void setExitPrice(double exitPrice) { this.exitPrice = exitPrice; }
+
+    public String getExitTime() { return exitTime; }
+    public void setExitTime(String exitTime) { this.exitTime = exitTime; }
+
+    public String getComment() { return comment; }
+    public void setComment(String comment) { this.comment = comment; }
+
+    @Override
+    public String toString() {
+        return type + "{" + table + " " + (tradeId != null ? tradeId : symbol + "/" + side) + "}";
+    }
+}
@@ -6,12 +6,14 @@ import com.aem.ai.scanner.api.MarketDataService;
 import com.aem.ai.scanner.dao.DAOFactory;
 import com.aem.ai.scanner.dao.WatchlistDao;
 import com.aem.ai.scanner.model.*;
+import com.aem.ai.scanner.services.CandleCacheService;
+import com.aem.ai.scanner.services.OpenTradeBook;
 import com.aem.ai.scanner.services.StrategyEngine;
+import com.aem.ai.scanner.services.StrategyRegistry;
 import com.aem.ai.scanner.services.TelegramService;
+import com.aem.ai.scanner.services.TradeMonitorService;
+import com.aem.ai.scanner.utils.ScanPipeline;
 import com.aem.ai.scanner.utils.Timeframes;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JavaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 
 import java.time.LocalDateTime;
@@ -21,15 +23,20 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class AbstractLiveScanner {
 
-    protected final ObjectMapper mapper = new ObjectMapper();
-    protected final Map<String, CachedStrategies> strategyCache = new ConcurrentHashMap<>();
     protected final Map<String, MarketDataService> servicesByBroker = new ConcurrentHashMap<>();
     protected final Map<String, AtomicInteger> consecutiveFailures = new ConcurrentHashMap<>();
 
     protected WatchlistDao watchlistDao;
     protected DAOFactory daoFactory;
     protected StrategyEngine strategyEngine;
+    protected StrategyRegistry strategyRegistry;
     protected TelegramService telegram;
+    protected CandleCacheService candleCache;
+    protected TradeMonitorService tradeMonitor;
+    protected OpenTradeBook tradeBook;
+
+    private volatile ScanPipeline pipeline;
+    private volatile ScanPipeline.Stage<ScanJob> fetchStage;
 
     protected abstract Logger getLogger();
 
@@ -39,12 +46,49 @@ public abstract class AbstractLiveScanner {
     /** Trade table name for this scanner */
     protected abstract String tradesTable();
 
-    /** Symbol list fetcher */
-    protected abstract List<InstrumentSymbol> fetchSymbols();
+    /** Symbol list fetcher; defaults to the broker's watchlist in the strategy registry */
+    protected List<InstrumentSymbol> fetchSymbols() {
+        return strategyRegistry.symbols(brokerCode());
+    }
 
     /** Maximum retries per run */
     protected abstract int maxRetries();
 
+    /** Wall-clock budget of one run; work still queued after it is dropped. */
+    protected long runDeadlineMillis() {
+        return 270_000L;
+    }
+
+    /**
+     * Start the staged scan (fetch → evaluate → signal → persist/notify), each stage with its own
+     * workers and a bounded queue. Call from activate; without it {@link #execute()} scans
+     * sequentially on the calling thread.
+     */
+    protected void startPipeline(int fetchWorkers, int evaluateWorkers, int signalWorkers,
+                                 int persistWorkers, int queueCapacity) {
+        stopPipeline();
+        ScanPipeline p = new ScanPipeline(getClass().getSimpleName());
+        ScanPipeline.Stage<ScanPipeline.Task> persist =
+                p.stage("persist", persistWorkers, queueCapacity, ScanPipeline.Task::run);
+        ScanPipeline.Stage<ScanJob> signal =
+                p.stage("signal", signalWorkers, queueCapacity, job -> {
+                    if (!job.monitor.isClosed()) persist.submit(handleSignal(job));
+                });
+        ScanPipeline.Stage<ScanJob> evaluate =
+                p.stage("evaluate", evaluateWorkers, queueCapacity, job -> evaluate(job, signal::submit, persist::submit));
+        this.fetchStage = p.stage("fetch", fetchWorkers, queueCapacity, job -> {
+            if (fetch(job)) evaluate.submit(job);
+        });
+        this.pipeline = p;
+    }
+
+    /** Call from deactivate. */
+    protected void stopPipeline() {
+        ScanPipeline p = this.pipeline;
+        this.pipeline = null;
+        if (p != null) p.shutdown();
+    }
+
     public void execute() {
         List<InstrumentSymbol> symbols = fetchSymbols();
         if (symbols == null || symbols.isEmpty()) return;
@@ -61,127 +105,136 @@ public abstract class AbstractLiveScanner {
             return;
         }
 
-        for (Map.Entry<String, Integer> tf : tfs.entrySet()) {
+        TradeMonitorService.MonitorRun monitor = tradeMonitor.begin(tradesTable());
+        ScanPipeline p = this.pipeline;
+        ScanPipeline.Stage<ScanJob> fetch = this.fetchStage;
+        if (p == null) {
             for (InstrumentSymbol symbol : symbols) {
-                fetchAndProcess(svc, symbol, tf.getKey(), tf.getValue(), 0);
+                for (Map.Entry<String, Integer> tf : tfs.entrySet()) {
+                    scanInline(new ScanJob(svc, symbol, tf.getKey(), tf.getValue(), monitor));
+                }
             }
+            monitor.close();
+            return;
         }
-    }
-
-    protected abstract String timeframesSpec();
 
-    private void fetchAndProcess(MarketDataService svc, InstrumentSymbol symbol,
-                                 String timeframe, int count, int attempt) {
+        long start = System.currentTimeMillis();
+        long deadline = start + runDeadlineMillis();
+        int submitted = 0;
         try {
-            List<Candle> candles = svc.fetchCandles(symbol, timeframe, count, false);
-            if (candles == null || candles.isEmpty()) {
-                throw new RuntimeException("No candles returned");
+            submit:
+            for (InstrumentSymbol symbol : symbols) {
+                for (Map.Entry<String, Integer> tf : tfs.entrySet()) {
+                    // waits while the fetch queue is full; false past the deadline or once the pipeline is shut down
+                    if (!fetch.submit(new ScanJob(svc, symbol, tf.getKey(), tf.getValue(), monitor), deadline)) break submit;
+                    submitted++;
+                }
             }
-
-            tradesMonitor(symbol, candles);
-
-            List<StrategyConfig> strategies = parseStrategiesCached(symbol);
-            for (StrategyConfig sc : strategies) {
-                Optional<Signal> opt = strategyEngine.evaluate(sc, candles, symbol, timeframe);
-                opt.ifPresent(signal -> {
-                    try {
-                        handleSignal(symbol, timeframe, sc, signal);
-                    } catch (Exception e) {
-                        getLogger().error("Signal handling failed: {}", e.getMessage(), e);
-                    }
-                });
+            if (!p.awaitIdle(deadline - System.currentTimeMillis())) {
+                getLogger().warn("⏱ {} deadline hit: {} queued items dropped", brokerCode(), p.discardQueued());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (p.isClosed()) {
+            getLogger().warn("⏹ Pipeline shut down during the run (reconfigured) after {} jobs", submitted);
+        }
+        monitor.close();
+        getLogger().info("✅ {} scan finished: {} jobs in {} ms", brokerCode(), submitted, System.currentTimeMillis() - start);
+        for (ScanPipeline.StageStats stage : p.stats(true)) {
+            getLogger().info("📊 {} {}", brokerCode(), stage);
+        }
+    }
 
-            getLogger().info("✅ Completed {} {} (candles={}, strategies={})",
-                    symbol.getSymbol(), timeframe, candles.size(), strategies.size());
-
-            consecutiveFailures.remove(svc.brokerCode());
+    protected abstract String timeframesSpec();
 
+    /** All stages on the calling thread (pipeline not started). */
+    private void scanInline(ScanJob job) {
+        if (!fetch(job)) return;
+        try {
+            evaluate(job, j -> handleSignal(j).run(), ScanPipeline.Task::run);
         } catch (Exception e) {
-            int fails = consecutiveFailures.computeIfAbsent(svc.brokerCode(), k -> new AtomicInteger()).incrementAndGet();
-            getLogger().warn("❌ {} {} {} failed (attempt={}): {}", svc.brokerCode(), symbol.getSymbol(), timeframe, attempt + 1, e.getMessage());
-
-            if (attempt < maxRetries()) {
-                fetchAndProcess(svc, symbol, timeframe, count, attempt + 1);
-            } else if (fails > 5) {
-                getLogger().error("Too many consecutive failures for broker {}", svc.brokerCode());
-            }
+            getLogger().error("Scan of {} {} failed: {}", job.symbol.getSymbol(), job.timeframe, e.getMessage(), e);
         }
     }
 
-    private void tradesMonitor(InstrumentSymbol symbol, List<Candle> candles) {
-        try {
-            double ltp = candles.get(candles.size() - 1).getClose();
-            List<TradeModel> openTrades = daoFactory.listOpenTradesForSymbol(symbol.getSymbol(), tradesTable());
-
-            for (TradeModel t : openTrades) {
-                daoFactory.updateLtp(t, ltp, tradesTable());
-
-                boolean hitTarget = (t.getSide() == Signal.Side.BUY && ltp >= t.getTarget())
-                        || (t.getSide() == Signal.Side.SELL && ltp <= t.getTarget());
-                boolean hitStop = (t.getSide() == Signal.Side.BUY && ltp <= t.getStopLoss())
-                        || (t.getSide() == Signal.Side.SELL && ltp >= t.getStopLoss());
-
-                if (hitTarget || hitStop) {
-                    double exitPrice = hitTarget ? t.getTarget() : t.getStopLoss();
-                    t.setExitPrice(exitPrice);
-                    t.setExitTime(LocalDateTime.now());
-                    double pnl = (t.getSide() == Signal.Side.BUY)
-                            ? (exitPrice - t.getEntryPrice()) * t.getQuantity()
-                            : (t.getEntryPrice() - exitPrice) * t.getQuantity();
-                    t.setPnl(pnl);
-
-                    daoFactory.closeTradeWithPnl(t, tradesTable());
-                    telegram.sendMessageDailyStocksAlerts("Closed trade: " + symbol + " pnl=" + pnl);
-
-                    getLogger().info("🔴 Auto-closed trade {} pnl={}", symbol.getSymbol(), pnl);
+    /** Fetch stage: candles with per-run retries. @return false when the job should be dropped */
+    private boolean fetch(ScanJob job) {
+        MarketDataService svc = job.svc;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                List<Candle> candles = candleCache != null
+                        ? candleCache.fetch(svc, job.symbol, job.timeframe, job.count)
+                        : svc.fetchCandles(job.symbol, job.timeframe, job.count, false);
+                if (candles == null || candles.isEmpty()) {
+                    throw new RuntimeException("No candles returned");
+                }
+                job.candles = candles;
+                consecutiveFailures.remove(svc.brokerCode());
+                return true;
+            } catch (Exception e) {
+                int fails = consecutiveFailures.computeIfAbsent(svc.brokerCode(), k -> new AtomicInteger()).incrementAndGet();
+                getLogger().warn("❌ {} {} {} failed (attempt={}): {}", svc.brokerCode(), job.symbol.getSymbol(), job.timeframe, attempt + 1, e.getMessage());
+                if (attempt >= maxRetries()) {
+                    if (fails > 5) getLogger().error("Too many consecutive failures for broker {}", svc.brokerCode());
+                    return false;
                 }
             }
-        } catch (Exception e) {
-            getLogger().warn("Trade monitor failed: {}", e.getMessage());
         }
     }
 
-    private List<StrategyConfig> parseStrategiesCached(InstrumentSymbol symbol) {
-        String json = symbol.getBestStrategy();
-        if (json == null || json.isEmpty()) return Collections.emptyList();
-
-        CachedStrategies cached = strategyCache.get(symbol.getSymbol());
-        if (cached != null && Objects.equals(cached.hash, Integer.toString(json.hashCode()))) {
-            return cached.strategies;
+    /** Evaluate stage: LTP to the trade monitor, then every strategy signal goes downstream. */
+    private void evaluate(ScanJob job, ScanPipeline.Handler<ScanJob> signals,
+                          ScanPipeline.Handler<ScanPipeline.Task> persist) throws Exception {
+        if (job.monitor.isClosed()) {
+            // the run already did its final flush: this LTP would never be persisted
+            getLogger().debug("Dropping late {} {} of a finished run", job.symbol.getSymbol(), job.timeframe);
+            return;
+        }
+        InstrumentSymbol symbol = job.symbol;
+        List<Candle> candles = job.candles;
+        Candle last = candles.get(candles.size() - 1);
+        for (TradeModel closed : job.monitor.onPrice(symbol.getSymbol(), last.getClose(), last.getTime())) {
+            persist.handle(() -> onTradeClosed(closed));
         }
 
-        try {
-            JavaType type = mapper.getTypeFactory().constructCollectionType(List.class, StrategyConfig.class);
-            List<StrategyConfig> strategies = mapper.readValue(json, type);
-            strategyCache.put(symbol.getSymbol(), new CachedStrategies(Integer.toString(json.hashCode()), strategies));
-            return strategies;
-        } catch (Exception e) {
-            getLogger().error("Failed to parse strategies for {}: {}", symbol.getSymbol(), e.getMessage(), e);
-            return Collections.emptyList();
+        List<StrategyConfig> strategies = strategyRegistry.strategies(brokerCode(), symbol);
+        for (StrategyConfig sc : strategies) {
+            Optional<Signal> opt = strategyEngine.evaluate(sc, candles, symbol, job.timeframe);
+            if (opt.isPresent()) {
+                ScanJob hit = new ScanJob(job.svc, symbol, job.timeframe, job.count, job.monitor);
+                hit.candles = candles;
+                hit.strategy = sc;
+                hit.signal = opt.get();
+                signals.handle(hit);
+            }
         }
+
+        getLogger().info("✅ Completed {} {} (candles={}, strategies={})",
+                symbol.getSymbol(), job.timeframe, candles.size(), strategies.size());
     }
 
-    private void handleSignal(InstrumentSymbol symbol, String timeframe, StrategyConfig sc, Signal signal) throws Exception {
-        String msg = strategyEngine.format(signal, sc, symbol, timeframe);
-        telegram.sendMessageDailyStocksAlerts(msg);
+    /** Persist stage: alert for a trade the monitor closed on its target or stop loss. */
+    private void onTradeClosed(TradeModel t) throws Exception {
+        telegram.sendMessageDailyStocksAlerts("Closed trade: " + t.getSymbol() + " pnl=" + t.getPnl());
+        getLogger().info("🔴 Auto-closed trade {} pnl={}", t.getSymbol().getSymbol(), t.getPnl());
+    }
 
-        if (signal.getSide() == Signal.Side.BUY) {
-            onEntrySignal(symbol, timeframe, sc, signal, msg);
-        } else if (signal.getSide() == Signal.Side.SELL) {
-            onExitSignal(symbol, timeframe, sc, signal, msg);
+    /**
+     * Signal stage: runs the entry/exit hooks (analysis and trade bookkeeping).
+     * @return the Telegram notification for the persist/notify stage
+     */
+    private ScanPipeline.Task handleSignal(ScanJob job) throws Exception {
+        String msg = strategyEngine.format(job.signal, job.strategy, job.symbol, job.timeframe);
+
+        if (job.signal.getSide() == Signal.Side.BUY) {
+            onEntrySignal(job.symbol, job.timeframe, job.strategy, job.signal, msg);
+        } else if (job.signal.getSide() == Signal.Side.SELL) {
+            onExitSignal(job.symbol, job.timeframe, job.strategy, job.signal, msg);
         }
+        return () -> telegram.sendMessageDailyStocksAlerts(msg);
     }
 
     protected abstract void onEntrySignal(InstrumentSymbol symbol, String timeframe, StrategyConfig sc, Signal signal, String comment) throws Exception;
     protected abstract void onExitSignal(InstrumentSymbol symbol, String timeframe, StrategyConfig sc, Signal signal, String comment) throws Exception;
-
-    protected static class CachedStrategies {
-        final String hash;
-        final List<StrategyConfig> strategies;
-        CachedStrategies(String hash, List<StrategyConfig> strategies) {
-            this.hash = hash;
-            this.strategies = strategies;
-        }
-    }
 }
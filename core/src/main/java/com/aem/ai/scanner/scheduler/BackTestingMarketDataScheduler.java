@@ -2,11 +2,17 @@ package com.aem.ai.scanner.scheduler;
 
 import com.GenericeConstants;
 import com.aem.ai.scanner.api.MarketDataService;
+import com.aem.ai.scanner.backtest.ParameterSearch;
+import com.aem.ai.scanner.backtest.ParameterSpace;
+import com.aem.ai.scanner.backtest.ParameterSweepEngine;
+import com.aem.ai.scanner.backtest.WalkForwardEngine;
 import com.aem.ai.scanner.dao.DAOFactory;
 import com.aem.ai.scanner.dao.WatchlistDao;
 import com.aem.ai.scanner.factory.StrategyFactoryService;
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
 import com.aem.ai.scanner.model.*;
-import com.aem.ai.scanner.utils.RollingBarSeries;
+import com.aem.ai.scanner.services.CandleStoreService;
+import com.aem.ai.scanner.utils.PrimitiveBarSeries;
 import com.aem.ai.scanner.utils.Timeframes;
 import org.osgi.service.component.annotations.*;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
@@ -14,22 +20,19 @@ import org.osgi.service.metatype.annotations.Designate;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.ta4j.core.*;
-import org.ta4j.core.Bar;
-import org.ta4j.core.backtest.BarSeriesManager;
-import org.ta4j.core.criteria.MaximumDrawdownCriterion;
-import org.ta4j.core.criteria.pnl.ReturnCriterion;
-import org.ta4j.core.num.DecimalNum;
-import org.ta4j.core.num.Num;
+import org.ta4j.core.BarSeries;
 
 import java.time.Duration;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.aem.ai.scanner.model.TradeModel.IST_ZONE;
 
@@ -43,6 +46,9 @@ public class BackTestingMarketDataScheduler implements Runnable {
 
     private static final Logger log = LoggerFactory.getLogger(BackTestingMarketDataScheduler.class);
 
+    /** Shortest history a low-fidelity search rung is scored on. */
+    private static final int MIN_SLICE_BARS = 30;
+
     @ObjectClassDefinition(name="BSK Backtest Market Data Fetch Scheduler")
     public @interface Config {
         @AttributeDefinition(name="Enable")
@@ -57,6 +63,44 @@ public class BackTestingMarketDataScheduler implements Runnable {
         String scheduler_name() default "BackTestingMarketDataScheduler";
         @AttributeDefinition(name="Timeframes e.g. 5m:120,15m:64,1h:48,1d:365")
         String timeframes() default "5m:120,15m:64,1h:48,1d:365";
+
+        @AttributeDefinition(name = "Sweep parallelism",
+                description = "ForkJoin threads used to backtest strategy variations; 0 = all cores")
+        int sweep_parallelism() default 0;
+
+        @AttributeDefinition(name = "Parameter search mode",
+                description = "grid, random or halving (successive halving); strategies may override via json_config.search")
+        String search_mode() default "grid";
+
+        @AttributeDefinition(name = "Max candidates per strategy",
+                description = "Budget of distinct parameter sets tried per strategy template")
+        int search_max_candidates() default 200;
+
+        @AttributeDefinition(name = "Successive halving eta", description = "Keep 1/eta of the candidates per rung")
+        int search_eta() default 3;
+
+        @AttributeDefinition(name = "Search random seed")
+        long search_seed() default 42L;
+
+        @AttributeDefinition(name = "Walk-forward mode",
+                description = "Rank strategies on rolling out-of-sample test windows instead of the window they were tuned on")
+        boolean walk_forward_enabled() default false;
+
+        @AttributeDefinition(name = "Walk-forward folds")
+        int walk_forward_folds() default 4;
+
+        @AttributeDefinition(name = "Walk-forward train ratio",
+                description = "Share of the history used as train window per fold; the rest is tiled into test windows")
+        double walk_forward_train_ratio() default 0.7;
+
+        @AttributeDefinition(name = "Use local candle store",
+                description = "Read history from the local candle store when it holds enough bars; otherwise fetch and store it")
+        boolean use_candle_store() default true;
+
+        @AttributeDefinition(name = "Candle store max lag (minutes)",
+                description = "How far the newest stored bar may trail now, beyond one bar, before history is fetched "
+                        + "from the broker instead (a missed top-up); the default covers an exchange weekend")
+        int candle_store_max_lag_minutes() default 4320;
     }
 
     private volatile Config cfg;
@@ -72,18 +116,42 @@ public class BackTestingMarketDataScheduler implements Runnable {
     @Reference
     private StrategyFactoryService strategyFactoryService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile CandleStoreService candleStore;
+
     private final List<MarketDataService> services = new CopyOnWriteArrayList<>();
 
+    private volatile ParameterSweepEngine sweepEngine;
+    private volatile WalkForwardEngine walkForwardEngine;
+    private final AtomicLong sweptVariations = new AtomicLong();
+    private final AtomicLong sweepMillis = new AtomicLong();
+
     @Activate
     @Modified
     protected void activate(Config cfg) {
         this.cfg = cfg;
-        log.info("✅ BackTestingMarketDataScheduler activated. cron={} enable={} timeframes={}",
-                cfg.scheduler_expression(), cfg.enable(), cfg.timeframes());
+        int parallelism = cfg.sweep_parallelism() > 0
+                ? cfg.sweep_parallelism()
+                : Runtime.getRuntime().availableProcessors();
+        ParameterSweepEngine old = this.sweepEngine;
+        this.sweepEngine = new ParameterSweepEngine(strategyFactoryService, parallelism);
+        this.walkForwardEngine = new WalkForwardEngine(sweepEngine,
+                cfg.walk_forward_folds(), cfg.walk_forward_train_ratio());
+        if (old != null) {
+            old.shutdown();
+        }
+        log.info("✅ BackTestingMarketDataScheduler activated. cron={} enable={} timeframes={} sweepThreads={} walkForward={}",
+                cfg.scheduler_expression(), cfg.enable(), cfg.timeframes(), parallelism, cfg.walk_forward_enabled());
     }
 
     @Deactivate
     protected void deactivate() {
+        ParameterSweepEngine engine = this.sweepEngine;
+        this.sweepEngine = null;
+        this.walkForwardEngine = null;
+        if (engine != null) {
+            engine.shutdown();
+        }
         log.info("🛑 BackTestingMarketDataScheduler deactivated.");
     }
 
@@ -100,6 +168,10 @@ public class BackTestingMarketDataScheduler implements Runnable {
             return;
         }
 
+        sweptVariations.set(0);
+        sweepMillis.set(0);
+        long runStart = System.currentTimeMillis();
+
         for (MarketDataService svc : services) {
             String code = svc.brokerCode();
             boolean brokerEnabled = svc.enabled();
@@ -128,39 +200,71 @@ public class BackTestingMarketDataScheduler implements Runnable {
                 }
             }
         }
+
+        long swept = sweptVariations.get();
+        long ms = sweepMillis.get();
+        log.info("🏁 Backtest run finished in {} ms: {} variations swept in {} ms ({} variations/sec)",
+                System.currentTimeMillis() - runStart, swept, ms,
+                String.format("%.1f", swept * 1000.0 / Math.max(1, ms)));
     }
 
     private void fetchAndEvaluate(MarketDataService svc, InstrumentSymbol symbol,
                                   String timeframe, int count) {
+        String broker = svc.brokerCode();
+        boolean calledBroker = false;
         try {
-            List<Candle> candles = svc.fetchCandles(symbol, timeframe, count, Timeframes.isHistoricalBucket(timeframe));
-            if (candles.isEmpty()) {
+            PrimitiveBarSeries bars;
+            boolean store = useStore();
+            Instant last = store ? candleStore.lastTime(broker, symbol.getSymbol(), timeframe) : null;
+            boolean stale = last != null && isStale(last, timeframe);
+            if (store && !stale && candleStore.size(broker, symbol.getSymbol(), timeframe) >= count) {
+                // history is local; the top-up job keeps it current
+                bars = candleStore.read(broker, symbol.getSymbol(), timeframe, count);
+            } else {
+                calledBroker = true;
+                if (stale) {
+                    log.warn("⚠️ Candle store for {} {} {} ends at {}, using the broker until the top-up backfills it",
+                            broker, symbol, timeframe, last);
+                }
+                List<Candle> candles = svc.fetchCandles(symbol, timeframe, count, Timeframes.isHistoricalBucket(timeframe));
+                // not after a stale tail: the store is append-only, so the missing bars would become a permanent hole
+                if (store && !stale && candles != null) {
+                    candleStore.append(broker, symbol.getSymbol(), timeframe, candles);
+                }
+                bars = PrimitiveBarSeries.of(symbol.getSymbol() + "_" + timeframe, candles);
+            }
+            if (bars.isEmpty()) {
                 log.warn("⚠️ No candles for {} {}", symbol, timeframe);
                 return;
             }
 
-            evaluateStrategies(svc.brokerCode(), candles, symbol, timeframe);
-            log.info("✅ Completed backtest {} {} candles={}", symbol, timeframe, candles.size());
+            evaluateStrategies(broker, bars, symbol, timeframe);
+            log.info("✅ Completed backtest {} {} candles={} source={}", symbol, timeframe, bars.size(),
+                    calledBroker ? "broker" : "store");
 
         } catch (Exception e) {
-            log.error("❌ {} {} {} failed: {}", svc.brokerCode(), symbol, timeframe, e.getMessage(), e);
-        } finally {
-            svc.interCallDelay(); // still honor service pacing
+            log.error("❌ {} {} {} failed: {}", broker, symbol, timeframe, e.getMessage(), e);
         }
     }
 
+    /** The newest stored bar is older than one bar plus the allowed lag. */
+    private boolean isStale(Instant last, String timeframe) {
+        Duration allowed = Timeframes.duration(timeframe).plusMinutes(Math.max(0, cfg.candle_store_max_lag_minutes()));
+        return last.plus(allowed).isBefore(Instant.now());
+    }
+
+    private boolean useStore() {
+        return cfg.use_candle_store() && candleStore != null && candleStore.enabled();
+    }
+
     private void evaluateStrategies(String brokerCode,
-                                    List<Candle> candles,
+                                    PrimitiveBarSeries bars,
                                     InstrumentSymbol symbol,
                                     String timeframe) throws Exception {
         log.info("Evaluating strategies for {} {} with {} candles",
-                symbol, timeframe, candles.size());
+                symbol, timeframe, bars.size());
 
-        RollingBarSeries rolling = new RollingBarSeries(symbol.getSymbol() + "_" + timeframe, candles.size());
-        for (Candle c : candles) {
-            rolling.addBar(toBar(c, timeframe));
-        }
-        BarSeries series = rolling.series();
+        BarSeries series = bars.toBarSeries(mapTimeframe(timeframe), IST_ZONE);
 
         List<StrategyConfig> strategyConfigs = daoFactory.loadActiveStrategies();
         if (strategyConfigs.isEmpty()) {
@@ -168,25 +272,44 @@ public class BackTestingMarketDataScheduler implements Runnable {
             return;
         }
 
+        ParameterSweepEngine engine = this.sweepEngine;
+        if (engine == null) {
+            log.warn("⚠️ Sweep engine not available (deactivated), skipping {} {}", symbol, timeframe);
+            return;
+        }
+
+        Map<Integer, IndicatorRegistry> registries = new HashMap<>();
+        ParameterSearch.Evaluator evaluator = evaluator(engine, bars, series, registries, symbol, timeframe);
+
         List<StrategyResult> results = new ArrayList<>();
+        WalkForwardEngine walkForward = this.walkForwardEngine;
+        ParameterSearch.Evaluator inSample = null;
+        if (cfg.walk_forward_enabled() && walkForward != null) {
+            int n = walkForward.inSampleBars(bars.size());
+            if (n > 0) {
+                PrimitiveBarSeries head = bars.slice(0, n);
+                inSample = evaluator(engine, head, head.toBarSeries(mapTimeframe(timeframe), IST_ZONE),
+                        new HashMap<>(), symbol, timeframe);
+            }
+        }
         for (StrategyConfig strategyTemplate : strategyConfigs) {
-            List<StrategyConfig> variations = generateVariations(strategyTemplate);
-            for (StrategyConfig dynamicStrategy : variations) {
-                try {
-                    Strategy strategy = strategyFactoryService.buildStrategy(dynamicStrategy, series);
-                    BarSeriesManager mgr = new BarSeriesManager(series);
-                    TradingRecord record = mgr.run(strategy);
-
-                    double winRate = computeWinRate(series, record);
-                    double pnl     = new ReturnCriterion().calculate(series, record).doubleValue();
-                    double dd      = new MaximumDrawdownCriterion().calculate(series, record).doubleValue();
-
-                    results.add(new StrategyResult(dynamicStrategy, winRate, pnl, dd));
-                    log.info("📊 Strategy {} -> WinRate={} PnL={} MaxDD={}",
-                            dynamicStrategy.getName(), winRate, pnl, dd);
-                } catch (Exception e) {
-                    log.error("❌ Error evaluating strategy {}: {}", dynamicStrategy.getName(), e.getMessage(), e);
+            try {
+                if (cfg.walk_forward_enabled() && walkForward != null) {
+                    // out-of-sample ranking over the same (full-series) registry for every fold
+                    IndicatorRegistry registry = registries.computeIfAbsent(bars.size(), k -> new IndicatorRegistry(series));
+                    List<StrategyConfig> candidates = inSample == null
+                            ? Collections.emptyList()
+                            : walkForwardCandidates(strategyTemplate, inSample);
+                    StrategyResult oos = walkForward.evaluate(registry, strategyTemplate, candidates);
+                    if (oos != null) {
+                        results.add(oos);
+                    }
+                    continue;
                 }
+                results.addAll(searchFor(strategyTemplate).search(strategyTemplate, ParameterSpace.of(strategyTemplate),
+                        maxCandidates(strategyTemplate), evaluator));
+            } catch (Exception e) {
+                log.error("❌ Parameter search failed for strategy {}: {}", strategyTemplate.getName(), e.getMessage(), e);
             }
         }
 
@@ -217,79 +340,60 @@ public class BackTestingMarketDataScheduler implements Runnable {
         }
     }
 
-    private static Num num(double v) { return DecimalNum.valueOf(Double.toString(v)); }
-
-    private static Bar toBar(Candle c, String timeframe) {
-        ZonedDateTime endTime = c.getTime().atZone(ZoneId.systemDefault()).withZoneSameInstant(IST_ZONE);
-        Num open   = num(c.getOpen());
-        Num high   = num(c.getHigh());
-        Num low    = num(c.getLow());
-        Num close  = num(c.getClose());
-        Num volume = num(c.getVolume());
-        Num amount = volume.multipliedBy(close);
-        return new BaseBar(mapTimeframe(timeframe), endTime, open, high, low, close, volume, amount, 0L);
+    /**
+     * Backtests candidates on the most recent {@code fraction} of {@code bars}. One registry per
+     * evaluated slice (full series, or the recent part for cheap halving rungs); candidates mostly
+     * differ in a single parameter and share the indicators they have in common.
+     */
+    private ParameterSearch.Evaluator evaluator(ParameterSweepEngine engine, PrimitiveBarSeries bars, BarSeries series,
+                                                Map<Integer, IndicatorRegistry> registries,
+                                                InstrumentSymbol symbol, String timeframe) {
+        return (candidates, fraction) -> {
+            int n = fraction >= 1.0
+                    ? bars.size()
+                    : Math.min(bars.size(), Math.max(MIN_SLICE_BARS, (int) Math.ceil(bars.size() * fraction)));
+            IndicatorRegistry registry = registries.computeIfAbsent(n, k -> k == bars.size()
+                    ? new IndicatorRegistry(series)
+                    : new IndicatorRegistry(bars.slice(bars.size() - k, bars.size()).toBarSeries(mapTimeframe(timeframe), IST_ZONE)));
+            ParameterSweepEngine.SweepResult sweep = engine.sweep(registry, candidates);
+            sweptVariations.addAndGet(sweep.variations);
+            sweepMillis.addAndGet(sweep.elapsedMs);
+            log.info("📊 {} {} sweep on {} bars: {}", symbol, timeframe, n, sweep);
+            return sweep.results;
+        };
     }
 
-    private double computeWinRate(BarSeries series, TradingRecord record) {
-        if (record == null || record.getTrades().isEmpty()) return 0.0;
-        int wins = 0;
-        for (Trade trade : record.getTrades()) {
-            int entryIndex = trade.getIndex();
-            Num entryPrice = trade.getPricePerAsset(series);
-            int exitIndex = Math.min(series.getEndIndex(), entryIndex + 1);
-            Num exitPrice = series.getBar(exitIndex).getClosePrice();
-
-            boolean profitable = trade.isBuy()
-                    ? exitPrice.isGreaterThan(entryPrice)
-                    : exitPrice.isLessThan(entryPrice);
-            if (profitable) wins++;
-        }
-        return (double) wins / record.getTrades().size();
+    /**
+     * Candidates for walk-forward ranking, chosen by the template's search mode like the plain
+     * path: grid/random hand over their whole budget, halving its survivors. Halving rungs run on
+     * the bars before the first test window only, so selection never sees out-of-sample bars; the
+     * final full-fidelity pass is left to the walk-forward folds.
+     */
+    private List<StrategyConfig> walkForwardCandidates(StrategyConfig template, ParameterSearch.Evaluator inSample) {
+        AtomicReference<List<StrategyConfig>> finalists = new AtomicReference<>(Collections.emptyList());
+        ParameterSearch.Evaluator selecting = (candidates, fraction) -> {
+            if (fraction >= 1.0) {
+                finalists.set(candidates);
+                return Collections.emptyList();
+            }
+            return inSample.evaluate(candidates, fraction);
+        };
+        searchFor(template).search(template, ParameterSpace.of(template), maxCandidates(template), selecting);
+        return finalists.get();
     }
 
-    private List<StrategyConfig> generateVariations(StrategyConfig cfg) {
-        List<StrategyConfig> list = new ArrayList<>();
-        for (StrategyConfig.RuleConfig rule : cfg.getRules()) {
-            for (Condition cond : rule.getConditions()) {
-                switch (cond.indicator.toUpperCase()) {
-                    case "EMA":
-                        for (int f : new int[]{5, 9, 12}) {
-                            for (int s : new int[]{21, 26, 50}) {
-                                if (f >= s) continue;
-                                StrategyConfig clone = cfg.copy();
-                                clone.setName(cfg.getName() + "_EMA_" + f + "x" + s);
-                                clone.getRules().get(0).getConditions().get(0).fast = f;
-                                clone.getRules().get(0).getConditions().get(0).slow = s;
-                                list.add(clone);
-                            }
-                        }
-                        break;
-                    case "RSI":
-                        for (int p : new int[]{7, 14, 21}) {
-                            StrategyConfig clone = cfg.copy();
-                            clone.setName(cfg.getName() + "_RSI_" + p);
-                            clone.getRules().get(0).getConditions().get(0).period = p;
-                            list.add(clone);
-                        }
-                        break;
-                    case "MACD":
-                        for (int f : new int[]{10, 12, 15})
-                            for (int s : new int[]{20, 26, 30})
-                                for (int sig : new int[]{7, 9, 12}) {
-                                    if (f >= s) continue;
-                                    StrategyConfig clone = cfg.copy();
-                                    clone.setName(cfg.getName() + "_MACD_" + f + "-" + s + "-" + sig);
-                                    Condition c = clone.getRules().get(0).getConditions().get(0);
-                                    c.fast = f; c.slow = s; c.signal = sig;
-                                    list.add(clone);
-                                }
-                        break;
-                    default:
-                        list.add(cfg.copy());
-                }
-            }
-        }
-        return list;
+    private ParameterSearch searchFor(StrategyConfig template) {
+        SearchSpec spec = template.getSearch();
+        String mode = spec != null && spec.getMode() != null ? spec.getMode() : cfg.search_mode();
+        long seed = spec != null && spec.getSeed() != null ? spec.getSeed() : cfg.search_seed();
+        int eta = spec != null && spec.getEta() != null ? spec.getEta() : cfg.search_eta();
+        return ParameterSearch.forMode(mode, seed, eta);
+    }
+
+    private int maxCandidates(StrategyConfig template) {
+        SearchSpec spec = template.getSearch();
+        int max = spec != null && spec.getMaxCandidates() != null ? spec.getMaxCandidates() : cfg.search_max_candidates();
+        return Math.max(1, max);
     }
 
     // DS dynamic bind/unbind
@@ -0,0 +1,134 @@
+package com.aem.ai.scanner.scheduler;
+
+import com.GenericeConstants;
+import com.aem.ai.scanner.api.MarketDataService;
+import com.aem.ai.scanner.dao.WatchlistDao;
+import com.aem.ai.scanner.model.Candle;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.services.CandleStoreService;
+import com.aem.ai.scanner.utils.Timeframes;
+import org.osgi.service.component.annotations.*;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the local candle store current: for every watchlist symbol and configured timeframe it
+ * asks the broker only for bars after the newest stored one (a full history fetch the first time).
+ * The request covers the whole gap, so a missed run is backfilled rather than left as a hole.
+ * Runs off-hours so the backtester can read history from disk.
+ */
+@Designate(ocd = CandleStoreTopUpScheduler.Config.class)
+@Component(service = Runnable.class, immediate = true)
+public class CandleStoreTopUpScheduler implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(CandleStoreTopUpScheduler.class);
+
+    @ObjectClassDefinition(name = "BSK Candle Store Top-Up Scheduler",
+            description = "Incrementally appends new broker candles to the local candle store")
+    public @interface Config {
+        @AttributeDefinition(name = "Enable")
+        boolean enable() default true;
+
+        @AttributeDefinition(name = "Cron expression")
+        String scheduler_expression() default "0 30 16 * * ?";
+
+        @AttributeDefinition(name = "Allow concurrent execution")
+        boolean scheduler_concurrent() default false;
+
+        @AttributeDefinition(name = "Scheduler name")
+        String scheduler_name() default "CandleStoreTopUpScheduler";
+
+        @AttributeDefinition(name = "Timeframes e.g. 5m:120,15m:64,1h:48,1d:365",
+                description = "Bars fetched on the first (full) load per timeframe")
+        String timeframes() default "5m:120,15m:64,1h:48,1d:365";
+    }
+
+    private volatile Config cfg;
+
+    @Reference
+    private WatchlistDao watchlistDao;
+
+    @Reference
+    private CandleStoreService candleStore;
+
+    private final List<MarketDataService> services = new CopyOnWriteArrayList<>();
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        this.cfg = cfg;
+        log.info("✅ CandleStoreTopUpScheduler activated. cron={} enable={} timeframes={}",
+                cfg.scheduler_expression(), cfg.enable(), cfg.timeframes());
+    }
+
+    @Override
+    public void run() {
+        if (!cfg.enable() || !candleStore.enabled()) {
+            log.debug("⚠️ Candle store top-up disabled.");
+            return;
+        }
+        Map<String, Integer> tfs = Timeframes.parse(cfg.timeframes());
+        long start = System.currentTimeMillis();
+        int appended = 0;
+
+        for (MarketDataService svc : services) {
+            if (!svc.enabled()) continue;
+            for (InstrumentSymbol symbol : symbolsFor(svc.brokerCode())) {
+                for (Map.Entry<String, Integer> tf : tfs.entrySet()) {
+                    appended += topUp(svc, symbol, tf.getKey(), tf.getValue());
+                }
+            }
+        }
+        log.info("🏁 Candle store top-up finished in {} ms, {} bars appended",
+                System.currentTimeMillis() - start, appended);
+    }
+
+    private int topUp(MarketDataService svc, InstrumentSymbol symbol, String timeframe, int count) {
+        String broker = svc.brokerCode();
+        try {
+            Instant last = candleStore.lastTime(broker, symbol.getSymbol(), timeframe);
+            List<Candle> candles;
+            if (last == null) {
+                candles = svc.fetchCandles(symbol, timeframe, count, Timeframes.isHistoricalBucket(timeframe));
+            } else {
+                // everything from the newest stored bar on (re-sent, it overwrites a bar that was still forming)
+                candles = svc.fetchCandlesSince(symbol, timeframe, last, count);
+            }
+            if (candles == null) return 0;
+            int n = candleStore.append(broker, symbol.getSymbol(), timeframe, candles);
+            log.debug("Candle store {} {} {}: +{} bars", broker, symbol.getSymbol(), timeframe, n);
+            return n;
+        } catch (Exception e) {
+            log.error("❌ Candle store top-up {} {} {} failed: {}", broker, symbol, timeframe, e.getMessage());
+            return 0;
+        }
+    }
+
+    private List<InstrumentSymbol> symbolsFor(String brokerCode) {
+        if (GenericeConstants.UPSTOX.equalsIgnoreCase(brokerCode)) {
+            return watchlistDao.symbolsForUpstox();
+        } else if (GenericeConstants.DELTA.equalsIgnoreCase(brokerCode)) {
+            return watchlistDao.symbolsForDelta();
+        }
+        return Collections.emptyList();
+    }
+
+    // DS dynamic bind/unbind
+    @Reference(
+            service = MarketDataService.class,
+            cardinality = ReferenceCardinality.MULTIPLE,
+            policy = ReferencePolicy.DYNAMIC
+    )
+    protected void addMarketDataService(MarketDataService s) { services.add(s); }
+
+    protected void removeMarketDataService(MarketDataService s) { services.remove(s); }
+}
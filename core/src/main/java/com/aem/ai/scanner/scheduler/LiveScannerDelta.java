@@ -2,17 +2,17 @@ package com.aem.ai.scanner.scheduler;
 
 import com.GenericeConstants;
 import com.aem.ai.scanner.api.MarketDataService;
-import com.aem.ai.scanner.dao.DAOFactory;
-import com.aem.ai.scanner.dao.WatchlistDao;
 import com.aem.ai.scanner.model.*;
-import com.aem.ai.scanner.services.GeminiService;
+import com.aem.ai.scanner.services.CandleCacheService;
+import com.aem.ai.scanner.services.OpenTradeBook;
 import com.aem.ai.scanner.services.StrategyEngine;
+import com.aem.ai.scanner.services.StrategyRegistry;
 import com.aem.ai.scanner.services.TelegramService;
+import com.aem.ai.scanner.services.TradeAnalysisQueue;
+import com.aem.ai.scanner.services.TradeMonitorService;
+import com.aem.ai.scanner.utils.ScanPipeline;
 import com.aem.ai.scanner.utils.Timeframes;
 import com.aem.ai.scanner.utils.Utils;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JavaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.osgi.service.component.annotations.*;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.Designate;
@@ -56,27 +56,53 @@ public class LiveScannerDelta implements Runnable {
 
         @AttributeDefinition(name = "Trades table name")
         String trades_table() default "currency_trades";
+
+        @AttributeDefinition(name = "Pipelined scan", description = "Run fetch → evaluate → signal → persist as separate stages with their own workers; off scans sequentially on the scheduler thread")
+        boolean pipeline_enabled() default true;
+
+        @AttributeDefinition(name = "Fetch workers", description = "Also the max concurrent candle requests to the broker")
+        int fetch_workers() default 4;
+
+        @AttributeDefinition(name = "Evaluate workers")
+        int evaluate_workers() default 4;
+
+        @AttributeDefinition(name = "Signal workers", description = "Signal handling incl. Gemini analysis")
+        int signal_workers() default 2;
+
+        @AttributeDefinition(name = "Persist workers", description = "DB writes and Telegram notifications")
+        int persist_workers() default 2;
+
+        @AttributeDefinition(name = "Stage queue capacity", description = "A full queue blocks the upstream stage")
+        int stage_queue_capacity() default 64;
+
+        @AttributeDefinition(name = "Run deadline (seconds)", description = "Work still queued after this is dropped; keep it below the cron interval")
+        int run_deadline_seconds() default 270;
     }
 
     private volatile Config config;
+    private volatile ScanPipeline pipeline;
+    private volatile ScanPipeline.Stage<ScanJob> fetchStage;
 
-    private final ObjectMapper mapper = new ObjectMapper();
-    private final Map<String, CachedStrategies> strategyCache = new ConcurrentHashMap<>();
+    @Reference
+    private StrategyRegistry strategyRegistry;
 
     @Reference
-    private WatchlistDao watchlistDao;
+    private StrategyEngine strategyEngine;
 
     @Reference
-    private DAOFactory daoFactory;
+    private TelegramService telegram;
 
     @Reference
-    private StrategyEngine strategyEngine;
+    private TradeAnalysisQueue analysisQueue;
 
     @Reference
-    private TelegramService telegram;
+    private TradeMonitorService tradeMonitor;
+
+    @Reference
+    private OpenTradeBook tradeBook;
 
     @Reference
-    private GeminiService geminiService;
+    private CandleCacheService candleCache;
 
 
     private final Map<String, MarketDataService> servicesByBroker = new ConcurrentHashMap<>();
@@ -106,15 +132,43 @@ public class LiveScannerDelta implements Runnable {
     @Modified
     protected void activate(Config cfg) {
         this.config = cfg;
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        log.info("✅ LiveScannerDelta activated: cron={} retries={}", cfg.scheduler_expression(), cfg.retries());
+
+        ScanPipeline previous = this.pipeline;
+        this.pipeline = null;
+        if (previous != null) previous.shutdown();
+        if (cfg.pipeline_enabled()) buildPipeline(cfg);
+
+        log.info("✅ LiveScannerDelta activated: cron={} retries={} pipeline={} workers(fetch/eval/signal/persist)={}/{}/{}/{}",
+                cfg.scheduler_expression(), cfg.retries(), cfg.pipeline_enabled(),
+                cfg.fetch_workers(), cfg.evaluate_workers(), cfg.signal_workers(), cfg.persist_workers());
     }
 
     @Deactivate
     protected void deactivate() {
+        ScanPipeline p = this.pipeline;
+        this.pipeline = null;
+        if (p != null) p.shutdown();
         log.info("🛑 LiveScannerDelta deactivated.");
     }
 
+    /** Stages are built back to front so each handler can hand off to the next one. */
+    private void buildPipeline(Config cfg) {
+        ScanPipeline p = new ScanPipeline("LiveScannerDelta");
+        int cap = cfg.stage_queue_capacity();
+        ScanPipeline.Stage<ScanPipeline.Task> persist =
+                p.stage("persist", cfg.persist_workers(), cap, ScanPipeline.Task::run);
+        ScanPipeline.Stage<ScanJob> signal =
+                p.stage("signal", cfg.signal_workers(), cap, job -> {
+                    if (!job.monitor.isClosed()) persist.submit(handleSignal(job));
+                });
+        ScanPipeline.Stage<ScanJob> evaluate =
+                p.stage("evaluate", cfg.evaluate_workers(), cap, job -> evaluate(job, signal::submit, persist::submit));
+        this.fetchStage = p.stage("fetch", cfg.fetch_workers(), cap, job -> {
+            if (fetch(job)) evaluate.submit(job);
+        });
+        this.pipeline = p;
+    }
+
     @Override
     public void run() {
         if (config == null || !config.enable()) {
@@ -128,7 +182,7 @@ public class LiveScannerDelta implements Runnable {
             return;
         }
 
-        List<InstrumentSymbol> symbols = watchlistDao.symbolsForDelta();
+        List<InstrumentSymbol> symbols = strategyRegistry.symbols(GenericeConstants.DELTA);
         if (symbols == null || symbols.isEmpty()) {
             log.debug("No symbols in watchlist");
             return;
@@ -140,129 +194,154 @@ public class LiveScannerDelta implements Runnable {
             return;
         }
 
-        for (Map.Entry<String, Integer> tf : tfs.entrySet()) {
+        TradeMonitorService.MonitorRun monitor = tradeMonitor.begin(config.trades_table());
+        ScanPipeline p = this.pipeline;
+        ScanPipeline.Stage<ScanJob> fetch = this.fetchStage;
+        if (p == null) {
             for (InstrumentSymbol symbol : symbols) {
-                fetchAndProcess(svc, symbol, tf.getKey(), tf.getValue(), 0);
+                for (Map.Entry<String, Integer> tf : tfs.entrySet()) {
+                    scanInline(new ScanJob(svc, symbol, tf.getKey(), tf.getValue(), monitor));
+                }
             }
+            monitor.close();
+            return;
         }
-    }
 
-    private void fetchAndProcess(MarketDataService svc, InstrumentSymbol symbol,
-                                 String timeframe, int count, int attempt) {
+        long start = System.currentTimeMillis();
+        long deadline = start + config.run_deadline_seconds() * 1000L;
+        int submitted = 0;
         try {
-            List<Candle> candles = svc.fetchCandles(symbol, timeframe, count, false);
-            if (candles == null || candles.isEmpty()) {
-                throw new RuntimeException("No candles returned");
+            submit:
+            for (InstrumentSymbol symbol : symbols) {
+                for (Map.Entry<String, Integer> tf : tfs.entrySet()) {
+                    // waits while the fetch queue is full; false past the deadline or once the pipeline is shut down
+                    if (!fetch.submit(new ScanJob(svc, symbol, tf.getKey(), tf.getValue(), monitor), deadline)) break submit;
+                    submitted++;
+                }
             }
-
-            tradesMonitor(symbol, candles);
-
-            List<StrategyConfig> strategies = parseStrategiesCached(symbol);
-
-            // ✅ Collect signals for all strategies
-            List<LiveScannerDelta.SignalResult> results = new ArrayList<>();
-            for (StrategyConfig sc : strategies) {
-                Optional<Signal> opt = strategyEngine.evaluate(sc, candles, symbol, timeframe);
-                opt.ifPresent(signal -> results.add(new LiveScannerDelta.SignalResult(sc, signal)));
+            if (!p.awaitIdle(deadline - System.currentTimeMillis())) {
+                log.warn("⏱ LiveScannerDelta deadline hit: {} queued items dropped", p.discardQueued());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (p.isClosed()) {
+            log.warn("⏹ Pipeline shut down during the run (reconfigured) after {} jobs", submitted);
+        }
+        monitor.close();
+        log.info("✅ LiveScannerDelta run finished: {} jobs in {} ms", submitted, System.currentTimeMillis() - start);
+        for (ScanPipeline.StageStats stage : p.stats(true)) {
+            log.info("📊 LiveScannerDelta {}", stage);
+        }
+    }
 
-            // ✅ Pick the best signal (based on your ranking logic)
-            results.stream()
-                    .max(Comparator.comparingDouble(r -> r.signal.getScore())) // Example: highest score
-                    .ifPresent(best -> {
-                        try {
-                            handleSignal(symbol, timeframe, best.strategy, best.signal);
-                            log.info("🏆 Best strategy selected: {}", best.strategy.getName());
-                        } catch (Exception e) {
-                            log.error("Signal handling failed: {}", e.getMessage(), e);
-                        }
-                    });
-
-            log.info("✅ Completed {} {} (candles={}, strategies={})",
-                    symbol.getSymbol(), timeframe, candles.size(), strategies.size());
-
-            consecutiveFailures.remove(svc.brokerCode());
-
-        } catch (Exception e) {
-            int fails = consecutiveFailures.computeIfAbsent(svc.brokerCode(), k -> new AtomicInteger()).incrementAndGet();
-            log.warn("❌ {} {} {} failed (attempt={}): {}", svc.brokerCode(), symbol.getSymbol(), timeframe, attempt + 1, e.getMessage());
-
-            if (attempt < config.retries()) {
-                fetchAndProcess(svc, symbol, timeframe, count, attempt + 1);
-            } else if (fails > 5) {
-                log.error("Too many consecutive failures for broker {}", svc.brokerCode());
+    /** All stages on the calling thread (pipeline disabled). */
+    private void scanInline(ScanJob job) {
+        try {
+            if (fetch(job)) {
+                evaluate(job, j -> handleSignal(j).run(), ScanPipeline.Task::run);
             }
+        } catch (Exception e) {
+            log.error("Scan of {} {} failed: {}", job.symbol.getSymbol(), job.timeframe, e.getMessage(), e);
         }
     }
 
-    private void tradesMonitor(InstrumentSymbol symbol, List<Candle> candles) {
-        try {
-            double ltp = candles.get(candles.size() - 1).getClose();
-            List<TradeModel> openTrades = daoFactory.listOpenTradesForSymbol(symbol.getSymbol(), config.trades_table());
-
-            for (TradeModel t : openTrades) {
-                daoFactory.updateLtp(t, ltp, config.trades_table());
-                boolean hitTarget = (t.getSide() == Signal.Side.BUY && ltp >= t.getTarget())
-                        || (t.getSide() == Signal.Side.SELL && ltp <= t.getTarget());
-                boolean hitStop = (t.getSide() == Signal.Side.BUY && ltp <= t.getStopLoss())
-                        || (t.getSide() == Signal.Side.SELL && ltp >= t.getStopLoss());
-
-                if (hitTarget || hitStop) {
-                    double exitPrice = hitTarget ? t.getTarget() : t.getStopLoss();
-                    t.setExitPrice(exitPrice);
-                    t.setExitTime(LocalDateTime.now());
-                    double pnl = (t.getSide() == Signal.Side.BUY)
-                            ? (exitPrice - t.getEntryPrice()) * t.getQuantity()
-                            : (t.getEntryPrice() - exitPrice) * t.getQuantity();
-                    t.setPnl(pnl);
-
-                    daoFactory.closeTradeWithPnl(t, config.trades_table());
-                    telegram.sendMessageDailyStocksAlerts("Closed trade: " + symbol + " pnl=" + pnl);
-
-                    log.info("🔴 Auto-closed trade {} pnl={}", symbol.getSymbol(), pnl);
+    /** Fetch stage: candles with per-run retries. @return false when the job should be dropped */
+    private boolean fetch(ScanJob job) {
+        MarketDataService svc = job.svc;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                List<Candle> candles = candleCache.fetch(svc, job.symbol, job.timeframe, job.count);
+                if (candles == null || candles.isEmpty()) {
+                    throw new RuntimeException("No candles returned");
+                }
+                job.candles = candles;
+                consecutiveFailures.remove(svc.brokerCode());
+                return true;
+            } catch (Exception e) {
+                int fails = consecutiveFailures.computeIfAbsent(svc.brokerCode(), k -> new AtomicInteger()).incrementAndGet();
+                log.warn("❌ {} {} {} failed (attempt={}): {}", svc.brokerCode(), job.symbol.getSymbol(), job.timeframe, attempt + 1, e.getMessage());
+                if (attempt >= config.retries()) {
+                    if (fails > 5) log.error("Too many consecutive failures for broker {}", svc.brokerCode());
+                    return false;
                 }
             }
-        } catch (Exception e) {
-            log.warn("Trade monitor failed: {}", e.getMessage());
         }
     }
 
-    private List<StrategyConfig> parseStrategiesCached(InstrumentSymbol symbol) {
-        String json = symbol.getBestStrategy();
-        if (json == null || json.isEmpty()) return Collections.emptyList();
+    /** Evaluate stage: LTP to the trade monitor, then the best-scoring strategy signal goes downstream. */
+    private void evaluate(ScanJob job, ScanPipeline.Handler<ScanJob> signals,
+                          ScanPipeline.Handler<ScanPipeline.Task> persist) throws Exception {
+        if (job.monitor.isClosed()) {
+            // the run already did its final flush: this LTP would never be persisted
+            log.debug("Dropping late {} {} of a finished run", job.symbol.getSymbol(), job.timeframe);
+            return;
+        }
+        InstrumentSymbol symbol = job.symbol;
+        List<Candle> candles = job.candles;
+        Candle last = candles.get(candles.size() - 1);
+        for (TradeModel closed : job.monitor.onPrice(symbol.getSymbol(), last.getClose(), last.getTime())) {
+            persist.handle(() -> onTradeClosed(closed));
+        }
+
+        List<StrategyConfig> strategies = strategyRegistry.strategies(GenericeConstants.DELTA, symbol);
 
-        CachedStrategies cached = strategyCache.get(symbol.getSymbol());
-        if (cached != null && Objects.equals(cached.hash, Integer.toString(json.hashCode()))) {
-            return cached.strategies;
+        // ✅ Collect signals for all strategies
+        List<LiveScannerDelta.SignalResult> results = new ArrayList<>();
+        for (StrategyConfig sc : strategies) {
+            Optional<Signal> opt = strategyEngine.evaluate(sc, candles, symbol, job.timeframe);
+            opt.ifPresent(signal -> results.add(new LiveScannerDelta.SignalResult(sc, signal)));
         }
 
-        try {
-            JavaType type = mapper.getTypeFactory().constructCollectionType(List.class, StrategyConfig.class);
-            List<StrategyConfig> strategies = mapper.readValue(json, type);
-            strategyCache.put(symbol.getSymbol(), new CachedStrategies(Integer.toString(json.hashCode()), strategies));
-            return strategies;
-        } catch (Exception e) {
-            log.error("Failed to parse strategies for {}: {}", symbol.getSymbol(), e.getMessage(), e);
-            return Collections.emptyList();
+        // ✅ Pick the best signal (based on your ranking logic)
+        Optional<LiveScannerDelta.SignalResult> best = results.stream()
+                .max(Comparator.comparingDouble(r -> r.signal.getScore())); // Example: highest score
+        if (best.isPresent()) {
+            job.strategy = best.get().strategy;
+            job.signal = best.get().signal;
+            log.info("🏆 Best strategy selected: {}", job.strategy.getName());
+            signals.handle(job);
         }
+
+        log.info("✅ Completed {} {} (candles={}, strategies={})",
+                symbol.getSymbol(), job.timeframe, candles.size(), strategies.size());
     }
 
-    private void handleSignal(InstrumentSymbol symbol, String timeframe, StrategyConfig sc, Signal signal) throws Exception {
+    /** Persist stage: alert for a trade the monitor closed on its target or stop loss. */
+    private void onTradeClosed(TradeModel t) throws Exception {
+        telegram.sendMessageDailyStocksAlerts("Closed trade: " + t.getSymbol() + " pnl=" + t.getPnl());
+        log.info("🔴 Auto-closed trade {} pnl={}", t.getSymbol().getSymbol(), t.getPnl());
+    }
+
+    /**
+     * Signal stage: format the alert and look up open trades; Gemini analysis is queued after the insert.
+     * @return the DB/Telegram side effects for the persist stage
+     */
+    private ScanPipeline.Task handleSignal(ScanJob job) throws Exception {
+        InstrumentSymbol symbol = job.symbol;
+        String timeframe = job.timeframe;
+        StrategyConfig sc = job.strategy;
+        Signal signal = job.signal;
         String msg = strategyEngine.format(signal, sc, symbol, timeframe);
-        telegram.sendMessageDailyStocksAlerts(msg);
 
+        ScanPipeline.Task action;
         if (signal.getSide() == Signal.Side.BUY) {
-            onEntrySignal(symbol, timeframe, sc, signal, msg);
+            action = prepareEntry(symbol, timeframe, sc, signal, msg);
         } else if (signal.getSide() == Signal.Side.SELL) {
-            onExitSignal(symbol, timeframe, sc, signal, msg);
+            action = () -> onExitSignal(symbol, timeframe, sc, signal, msg);
+        } else {
+            action = () -> { };
         }
+        return () -> {
+            telegram.sendMessageDailyStocksAlerts(msg);
+            action.run();
+        };
     }
 
-    private void onEntrySignal(InstrumentSymbol symbol, String timeframe, StrategyConfig sc, Signal signal, String comment) throws Exception {
-        List<TradeModel> openTrades = daoFactory.listOpenTrades(symbol, timeframe, signal, config.trades_table());
+    private ScanPipeline.Task prepareEntry(InstrumentSymbol symbol, String timeframe, StrategyConfig sc, Signal signal, String comment) throws Exception {
+        List<TradeModel> openTrades = tradeBook.openTrades(config.trades_table(), symbol.getSymbol(), timeframe, signal.getSide());
         if (!openTrades.isEmpty()) {
-            daoFactory.appendOpenTradeComment(symbol, signal.getSide(), comment, config.trades_table());
-            return;
+            return () -> tradeBook.appendComment(config.trades_table(), symbol.getSymbol(), signal.getSide(), comment);
         }
 
         TradeModel t = new TradeModel(symbol, signal.getSide(),
@@ -270,38 +349,32 @@ public class LiveScannerDelta implements Runnable {
         t.setEntryTime(LocalDateTime.now());
         t.setStatus(TradeModel.Status.OPEN);
         t.setTimeFrame(timeframe);
-        // Generate trade analysis
-        TradeAnalysis tradeAnalysis = geminiService.tradeSignalAnalysis(
-                Utils.formatTradeSignalMessage(symbol, timeframe, sc, signal, comment)
-        );
-        daoFactory.insertTrade(t, tradeAnalysis, config.trades_table());
-        daoFactory.appendOpenTradeComment(symbol, signal.getSide(), comment, config.trades_table());
+        String formatted = Utils.formatTradeSignalMessage(symbol, timeframe, sc, signal, comment);
+        return () -> {
+            // analysis columns are filled in when Gemini answers
+            tradeBook.open(config.trades_table(), t, null);
+            tradeBook.appendComment(config.trades_table(), symbol.getSymbol(), signal.getSide(), comment);
+            analysisQueue.submit(t, sc.getName(), formatted, config.trades_table());
+        };
     }
 
     private void onExitSignal(InstrumentSymbol symbol, String timeframe, StrategyConfig sc, Signal signal, String comment) throws Exception {
-        List<TradeModel> openTrades = daoFactory.listOpenTrades(symbol, timeframe, signal, config.trades_table());
+        List<TradeModel> openTrades = tradeBook.openTrades(config.trades_table(), symbol.getSymbol(), timeframe, signal.getSide());
         if (openTrades.isEmpty()) return;
 
         TradeModel t = openTrades.get(0);
-        t.setExitPrice(signal.getEntryPrice());
-        t.setExitTime(LocalDateTime.now());
+        double exitPrice = signal.getEntryPrice();
         double pnl = (t.getSide() == Signal.Side.BUY)
-                ? (t.getExitPrice() - t.getEntryPrice())
-                : (t.getEntryPrice() - t.getExitPrice());
-        t.setPnl(pnl);
+                ? (exitPrice - t.getEntryPrice())
+                : (t.getEntryPrice() - exitPrice);
 
-        daoFactory.closeTradeWithPnl(t, config.trades_table());
-        daoFactory.appendOpenTradeComment(symbol, t.getSide(), "[CLOSED] " + comment, config.trades_table());
-    }
-
-    private static class CachedStrategies {
-        final String hash;
-        final List<StrategyConfig> strategies;
-        CachedStrategies(String hash, List<StrategyConfig> strategies) {
-            this.hash = hash;
-            this.strategies = strategies;
+        // the comment goes first: it only applies to rows that are still OPEN
+        tradeBook.appendComment(config.trades_table(), symbol.getSymbol(), t.getSide(), "[CLOSED] " + comment);
+        if (!tradeBook.close(config.trades_table(), t, exitPrice, LocalDateTime.now(), pnl)) {
+            log.info("Trade {} {} was already closed", symbol.getSymbol(), t.getTradeId());
         }
     }
+
     // ✅ Helper class to keep strategy + signal together
     private static class SignalResult {
         StrategyConfig strategy;
@@ -0,0 +1,35 @@
+package com.aem.ai.scanner.scheduler;
+
+import com.aem.ai.scanner.api.MarketDataService;
+import com.aem.ai.scanner.model.Candle;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.model.Signal;
+import com.aem.ai.scanner.model.StrategyConfig;
+import com.aem.ai.scanner.services.TradeMonitorService;
+
+import java.util.List;
+
+/**
+ * One (symbol, timeframe) unit of a live scan as it moves through the pipeline stages:
+ * the fetch stage fills {@link #candles}, the evaluate stage the best {@link #strategy}/{@link #signal}.
+ */
+class ScanJob {
+    final MarketDataService svc;
+    final InstrumentSymbol symbol;
+    final String timeframe;
+    final int count;
+    /** Open trades of this run; the fetched LTP is applied to them. */
+    final TradeMonitorService.MonitorRun monitor;
+
+    List<Candle> candles;
+    StrategyConfig strategy;
+    Signal signal;
+
+    ScanJob(MarketDataService svc, InstrumentSymbol symbol, String timeframe, int count, TradeMonitorService.MonitorRun monitor) {
+        this.svc = svc;
+        this.symbol = symbol;
+        this.timeframe = timeframe;
+        this.count = count;
+        this.monitor = monitor;
+    }
+}
@@ -0,0 +1,25 @@
+package com.aem.ai.scanner.services;
+
+
+import com.aem.ai.scanner.api.MarketDataService;
+import com.aem.ai.scanner.model.Candle;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+
+import java.util.List;
+
+/**
+ * Rolling in-memory candle window per (broker, symbol, timeframe) for the live scanners.
+ */
+public interface CandleCacheService {
+
+    /**
+     * Return the latest {@code count} candles, asking the broker only for bars newer than
+     * the last cached one. The first call (or a call after a long gap) does a full fetch.
+     */
+    List<Candle> fetch(MarketDataService svc, InstrumentSymbol symbol, String timeframe, int count) throws Exception;
+
+    /** Drop the cached window so the next fetch is a full one. */
+    void invalidate(String brokerCode, InstrumentSymbol symbol, String timeframe);
+
+    void clear();
+}
@@ -0,0 +1,37 @@
+package com.aem.ai.scanner.services;
+
+
+import com.aem.ai.scanner.model.Candle;
+import com.aem.ai.scanner.utils.PrimitiveBarSeries;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Local on-disk history of candles per (broker, symbol, timeframe), used by the backtester so
+ * full-universe runs read from disk instead of the broker APIs.
+ */
+public interface CandleStoreService {
+
+    boolean enabled();
+
+    /**
+     * Read the most recent {@code count} bars (all stored bars when fewer are available).
+     * Returns an empty series when nothing is stored.
+     */
+    PrimitiveBarSeries read(String brokerCode, String symbol, String timeframe, int count);
+
+    /**
+     * Append bars newer than the last stored one; a bar with the same time as the last stored one
+     * overwrites it. Older bars are ignored.
+     *
+     * @return number of bars appended
+     */
+    int append(String brokerCode, String symbol, String timeframe, List<Candle> candles);
+
+    /** Time of the newest stored bar, or {@code null} if nothing is stored. */
+    Instant lastTime(String brokerCode, String symbol, String timeframe);
+
+    /** Number of stored bars. */
+    int size(String brokerCode, String symbol, String timeframe);
+}
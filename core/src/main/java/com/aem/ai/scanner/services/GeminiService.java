@@ -3,6 +3,8 @@ package com.aem.ai.scanner.services;
 
 import com.aem.ai.scanner.model.TradeAnalysis;
 
+import java.util.List;
+
 public interface GeminiService {
 
     /**
@@ -12,6 +14,14 @@ public interface GeminiService {
      * @throws Exception if Gemini API call or parsing fails
      */
     TradeAnalysis tradeSignalAnalysis(String signalMsg) throws Exception;
+
+    /**
+     * Analyse several signals with one Gemini request where the response can be split back per
+     * signal; falls back to one request per signal otherwise.
+     *
+     * @return one analysis per message, in order ({@code null} where a single analysis failed)
+     */
+    List<TradeAnalysis> tradeSignalAnalysis(List<String> signalMsgs) throws Exception;
     String todayNewsUpdates() throws Exception;
     String analyzePortfolio(String portfolioJson) throws Exception;
 }
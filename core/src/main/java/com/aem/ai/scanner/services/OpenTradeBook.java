@@ -0,0 +1,49 @@
+package com.aem.ai.scanner.services;
+
+import com.aem.ai.scanner.model.Signal;
+import com.aem.ai.scanner.model.TradeAnalysis;
+import com.aem.ai.scanner.model.TradeModel;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * In-memory book of the OPEN trades of each trades table, so the scan hot path answers
+ * "is there an open trade for this symbol?" without a DB round trip.
+ *
+ * Opening a trade is written through (the generated trade id is needed right away). LTP updates,
+ * comments and closes are write-behind: they are applied to the book, appended to a local journal
+ * and written to the DB by a periodic flush, and replayed from the journal after a restart.
+ * Returned lists are immutable snapshots; the trade models in them are the book's live instances.
+ */
+public interface OpenTradeBook {
+
+    /** Open trades of {@code symbol} with the given timeframe and side. */
+    List<TradeModel> openTrades(String tableName, String symbol, String timeframe, Signal.Side side);
+
+    List<TradeModel> openTrades(String tableName, String symbol);
+
+    List<TradeModel> allOpenTrades(String tableName);
+
+    /** Insert the trade (sets its trade id) and add it to the book. */
+    void open(String tableName, TradeModel trade, TradeAnalysis analysis) throws SQLException;
+
+    /** Append a comment to the open trades of {@code symbol}/{@code side} (write-behind). */
+    void appendComment(String tableName, String symbol, Signal.Side side, String comment);
+
+    /** Persist the LTP, PnL and PnL % currently set on {@code trade} (write-behind). */
+    void updateLtp(String tableName, TradeModel trade);
+
+    /**
+     * Remove the trade from the book and persist the given exit price/time and PnL (write-behind).
+     * The values are set on {@code trade} only by the caller that removed it, so several paths may
+     * race to close the same trade without overwriting the winner's exit.
+     *
+     * @return {@code false} if the trade was no longer open, e.g. already closed by another path
+     */
+    boolean close(String tableName, TradeModel trade, double exitPrice, LocalDateTime exitTime, double pnl);
+
+    /** Write every pending op now. @return ops still pending (non-zero if the DB write failed) */
+    int flush();
+}
@@ -0,0 +1,21 @@
+package com.aem.ai.scanner.services;
+
+
+/**
+ * Shared per-broker (and optionally per-endpoint) request pacing for every outbound broker call:
+ * market data services, backtest/top-up jobs and the portfolio connectors.
+ */
+public interface RateLimitService {
+
+    /**
+     * Block until the (broker, endpoint) bucket hands out a permit.
+     * @throws InterruptedException if interrupted while waiting; the caller must abort the call
+     */
+    void acquire(String broker, String endpoint) throws InterruptedException;
+
+    /**
+     * Report a throttled response (HTTP 429/503). The bucket is paused for the Retry-After
+     * duration (delta-seconds or HTTP-date) or the configured default when absent.
+     */
+    void onThrottled(String broker, String endpoint, String retryAfter);
+}
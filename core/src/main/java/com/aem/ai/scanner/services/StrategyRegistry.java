@@ -0,0 +1,35 @@
+package com.aem.ai.scanner.services;
+
+import com.aem.ai.scanner.indicators.incremental.CompiledStrategy;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.model.StrategyConfig;
+
+import java.util.List;
+
+/**
+ * Watchlist symbols and their BEST_STRATEGY configs, loaded once and kept in memory. Changes are
+ * picked up through the watchlist's version column ({@code UPDATED_AT}) and a checksum of the rows:
+ * only rows at or after the last version are read and re-parsed. Shared by the live scanners instead of each one reading the
+ * watchlist every run and parsing the JSON itself.
+ */
+public interface StrategyRegistry {
+
+    /** Current watchlist of a broker (UPSTOX, DELTA); unmodifiable, refreshed if the table changed. */
+    List<InstrumentSymbol> symbols(String brokerCode);
+
+    /**
+     * Parsed and compiled strategies for a watchlist symbol, as read-only copies
+     * ({@link StrategyConfig#readOnlyCopy()}) shared between callers and kept across runs while
+     * the row is unchanged. Empty if the symbol has none or they do not parse.
+     */
+    List<StrategyConfig> strategies(String brokerCode, InstrumentSymbol symbol);
+
+    /**
+     * Evaluator compiled when {@code cfg} was loaded, or null if {@code cfg} is not one of the
+     * instances returned by {@link #strategies}.
+     */
+    CompiledStrategy compiled(StrategyConfig cfg);
+
+    /** Force a version check of every watchlist. @return rows reloaded */
+    int refresh();
+}
@@ -1,6 +1,7 @@
 package com.aem.ai.scanner.services;
 
 
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
 import com.aem.ai.scanner.model.Candle;
 import org.ta4j.core.BarSeries;
 
@@ -14,6 +15,9 @@ public interface Ta4jService {
 
     IndicatorsSnapshot computeIndicators(BarSeries series);
 
+    /** Snapshot using (and memoized in) the series' registry, so it shares instances with the strategy rules. */
+    IndicatorsSnapshot computeIndicators(IndicatorRegistry registry);
+
     class IndicatorsSnapshot {
         public final double rsi;
         public final double macd;
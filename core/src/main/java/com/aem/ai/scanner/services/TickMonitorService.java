@@ -0,0 +1,12 @@
+package com.aem.ai.scanner.services;
+
+/**
+ * Closes open trades on the first streamed tick that reaches their stop loss or target, instead
+ * of waiting for the next scan's candle close. Trades come from the {@link OpenTradeBook}; ticks
+ * from the {@link com.aem.ai.scanner.api.PriceFeed} of the broker mapped to each trades table.
+ */
+public interface TickMonitorService {
+
+    /** Rebuild the trigger index from the open-trade book and update feed subscriptions. @return trades watched */
+    int resync();
+}
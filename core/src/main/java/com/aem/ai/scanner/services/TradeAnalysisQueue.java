@@ -0,0 +1,23 @@
+package com.aem.ai.scanner.services;
+
+import com.aem.ai.scanner.model.TradeModel;
+
+/**
+ * Gemini trade-signal analysis off the scan hot path: trades are inserted without analysis and
+ * their confidence_score/final_verdict columns are filled in when the (batched) analysis arrives.
+ */
+public interface TradeAnalysisQueue {
+
+    /**
+     * Queue an analysis for an inserted trade. Never blocks; if the queue is full the trade simply
+     * keeps empty analysis columns. Repeats of a recently analysed signal are answered from the
+     * analysis cache without calling Gemini.
+     *
+     * @param trade        trade with its generated trade id
+     * @param strategyName strategy that produced the signal (part of the cache key)
+     * @param signalMsg    formatted signal message sent to Gemini
+     * @param tableName    trades table the trade lives in
+     * @return {@code false} if the analysis was dropped
+     */
+    boolean submit(TradeModel trade, String strategyName, String signalMsg, String tableName);
+}
@@ -0,0 +1,44 @@
+package com.aem.ai.scanner.services;
+
+import com.aem.ai.scanner.model.TradeModel;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Open-trade monitor for the live scanners. A scan run takes the OPEN trades of its trades table
+ * from the {@link OpenTradeBook} once, feeds every fetched LTP into them in memory and hands all
+ * LTP/PnL changes to the book's write-behind at the end of the run.
+ */
+public interface TradeMonitorService {
+
+    /** Snapshot every OPEN trade of {@code tableName} for one scan run. */
+    MonitorRun begin(String tableName);
+
+    interface MonitorRun {
+
+        /**
+         * Apply a price to the symbol's open trades. Prices older than one already applied
+         * (e.g. the daily bar after the 5m bar) are ignored.
+         *
+         * @return trades whose target or stop loss was hit and that this run closed in the
+         * {@link OpenTradeBook} (exit price/time and PnL set); trades another path closed first
+         * are left out. Closed trades leave the run and are not part of {@link #flush()}
+         */
+        List<TradeModel> onPrice(String symbol, double ltp, Instant asOf);
+
+        /** Queue LTP/PnL of every trade that moved since the last flush. @return trades queued */
+        int flush();
+
+        /**
+         * End of the run: a last {@link #flush()}, after which {@link #onPrice} ignores prices and
+         * returns nothing, so jobs still finishing cannot change trades whose LTP is never queued.
+         * @return trades queued by the final flush
+         */
+        int close();
+
+        boolean isClosed();
+
+        int openTrades();
+    }
+}
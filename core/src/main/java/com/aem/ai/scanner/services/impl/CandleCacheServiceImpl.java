@@ -0,0 +1,130 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.api.MarketDataService;
+import com.aem.ai.scanner.model.Candle;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.services.CandleCacheService;
+import com.aem.ai.scanner.utils.Timeframes;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component(service = CandleCacheService.class, immediate = true)
+@Designate(ocd = CandleCacheServiceImpl.Config.class)
+public class CandleCacheServiceImpl implements CandleCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(CandleCacheServiceImpl.class);
+
+    @ObjectClassDefinition(name = "BSK Candle Cache Service",
+            description = "Keeps the rolling candle window per symbol/timeframe and only fetches new bars")
+    public @interface Config {
+        @AttributeDefinition(name = "Enable", description = "When disabled every fetch goes straight to the broker")
+        boolean enable() default true;
+    }
+
+    private volatile Config cfg;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        this.cfg = cfg;
+        windows.clear();
+        log.info("CandleCacheService activated, enabled={}", cfg.enable());
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        windows.clear();
+    }
+
+    @Override
+    public List<Candle> fetch(MarketDataService svc, InstrumentSymbol symbol, String timeframe, int count) throws Exception {
+        if (cfg == null || !cfg.enable()) {
+            return svc.fetchCandles(symbol, timeframe, count, false);
+        }
+
+        Window w = windows.computeIfAbsent(key(svc.brokerCode(), symbol, timeframe), k -> new Window());
+        synchronized (w) {
+            Instant last = w.lastTime();
+            Duration bar = Timeframes.duration(timeframe);
+            boolean stale = last == null
+                    || last.isBefore(Instant.now().minus(bar.multipliedBy(Math.max(1, count))));
+
+            if (stale) {
+                List<Candle> full = svc.fetchCandles(symbol, timeframe, count, false);
+                w.reset(full, count);
+                log.debug("Candle cache full load {} {} -> {} bars", symbol.getSymbol(), timeframe, w.bars.size());
+            } else {
+                // re-request the last cached bar as it may still have been forming
+                List<Candle> fresh = svc.fetchCandlesSince(symbol, timeframe, last, count);
+                int added = w.merge(fresh, count);
+                log.debug("Candle cache top-up {} {} -> +{} bars ({} total)", symbol.getSymbol(), timeframe, added, w.bars.size());
+            }
+            return Collections.unmodifiableList(new ArrayList<>(w.bars));
+        }
+    }
+
+    @Override
+    public void invalidate(String brokerCode, InstrumentSymbol symbol, String timeframe) {
+        windows.remove(key(brokerCode, symbol, timeframe));
+    }
+
+    @Override
+    public void clear() {
+        windows.clear();
+    }
+
+    private static String key(String brokerCode, InstrumentSymbol symbol, String timeframe) {
+        return brokerCode + "|" + symbol.getSymbol() + "|" + timeframe;
+    }
+
+    /** Ascending-by-time candles for one symbol/timeframe. Guarded by its own monitor. */
+    private static class Window {
+        final List<Candle> bars = new ArrayList<>();
+
+        Instant lastTime() {
+            return bars.isEmpty() ? null : bars.get(bars.size() - 1).getTime();
+        }
+
+        void reset(List<Candle> candles, int count) {
+            bars.clear();
+            merge(candles, count);
+        }
+
+        /** Append bars newer than the last one, replace the last one if re-sent, then trim. */
+        int merge(List<Candle> candles, int count) {
+            if (candles == null) return 0;
+            int added = 0;
+            for (Candle c : candles) {
+                if (c == null || c.getTime() == null) continue;
+                Instant last = lastTime();
+                if (last == null || c.getTime().isAfter(last)) {
+                    bars.add(c);
+                    added++;
+                } else if (c.getTime().equals(last)) {
+                    bars.set(bars.size() - 1, c);
+                }
+            }
+            int excess = bars.size() - count;
+            if (excess > 0) {
+                bars.subList(0, excess).clear();
+            }
+            return added;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.model.Candle;
+import com.aem.ai.scanner.services.CandleStoreService;
+import com.aem.ai.scanner.utils.PrimitiveBarSeries;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only candle files, one per broker/symbol/timeframe:
+ * {@code <base_dir>/<broker>/<symbol>/<timeframe>.bars}.
+ *
+ * Each bar is a fixed-width 48-byte little-endian record
+ * {@code long epochMillis, double open, high, low, close, volume}, in ascending time order, so the
+ * last N bars are a single contiguous region that is memory-mapped and copied straight into a
+ * {@link PrimitiveBarSeries}.
+ */
+@Component(service = CandleStoreService.class, immediate = true)
+@Designate(ocd = CandleStoreServiceImpl.Config.class)
+public class CandleStoreServiceImpl implements CandleStoreService {
+
+    private static final Logger log = LoggerFactory.getLogger(CandleStoreServiceImpl.class);
+
+    static final int RECORD_BYTES = Long.BYTES + 5 * Double.BYTES;
+
+    @ObjectClassDefinition(name = "BSK Candle Store Service",
+            description = "Local memory-mapped historical candle store used by the backtester")
+    public @interface Config {
+        @AttributeDefinition(name = "Enable")
+        boolean enable() default true;
+
+        @AttributeDefinition(name = "Base directory", description = "Relative paths resolve against the JVM working directory")
+        String base_dir() default "candle-store";
+    }
+
+    private volatile Config cfg;
+    private volatile Path baseDir;
+    private final Map<Path, ReadWriteLock> locks = new ConcurrentHashMap<>();
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        this.cfg = cfg;
+        this.baseDir = Paths.get(cfg.base_dir()).toAbsolutePath();
+        log.info("CandleStoreService activated, enabled={} dir={}", cfg.enable(), baseDir);
+    }
+
+    @Override
+    public boolean enabled() {
+        return cfg != null && cfg.enable();
+    }
+
+    @Override
+    public PrimitiveBarSeries read(String brokerCode, String symbol, String timeframe, int count) {
+        Path file = file(brokerCode, symbol, timeframe);
+        String name = symbol + "_" + timeframe;
+        ReadWriteLock lock = lock(file);
+        lock.readLock().lock();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long records = ch.size() / RECORD_BYTES;
+            int n = (int) Math.min(records, Math.max(0, count));
+            PrimitiveBarSeries out = new PrimitiveBarSeries(name, n);
+            if (n == 0) {
+                return out;
+            }
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, (records - n) * RECORD_BYTES, (long) n * RECORD_BYTES);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < n; i++) {
+                out.add(map.getLong(), map.getDouble(), map.getDouble(), map.getDouble(), map.getDouble(), map.getDouble());
+            }
+            return out;
+        } catch (NoSuchFileException e) {
+            return new PrimitiveBarSeries(name, 0);
+        } catch (IOException e) {
+            log.error("Candle store read failed for {}: {}", file, e.getMessage());
+            return new PrimitiveBarSeries(name, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int append(String brokerCode, String symbol, String timeframe, List<Candle> candles) {
+        if (candles == null || candles.isEmpty()) return 0;
+        Path file = file(brokerCode, symbol, timeframe);
+        ReadWriteLock lock = lock(file);
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                // drop a torn trailing record from an interrupted write
+                long size = ch.size() - ch.size() % RECORD_BYTES;
+                ch.truncate(size);
+                long last = size == 0 ? Long.MIN_VALUE : readTime(ch, size - RECORD_BYTES);
+
+                ByteBuffer buf = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                int appended = 0;
+                for (Candle c : candles) {
+                    if (c == null || c.getTime() == null) continue;
+                    long t = c.getTime().toEpochMilli();
+                    long pos;
+                    if (t > last) {
+                        pos = size;
+                        size += RECORD_BYTES;
+                        appended++;
+                    } else if (t == last) {
+                        pos = size - RECORD_BYTES; // forming bar re-sent
+                    } else {
+                        continue;
+                    }
+                    buf.clear();
+                    buf.putLong(t).putDouble(c.getOpen()).putDouble(c.getHigh()).putDouble(c.getLow())
+                            .putDouble(c.getClose()).putDouble(c.getVolume());
+                    buf.flip();
+                    while (buf.hasRemaining()) {
+                        ch.write(buf, pos + buf.position());
+                    }
+                    last = t;
+                }
+                return appended;
+            }
+        } catch (IOException e) {
+            log.error("Candle store append failed for {}: {}", file, e.getMessage());
+            return 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Instant lastTime(String brokerCode, String symbol, String timeframe) {
+        Path file = file(brokerCode, symbol, timeframe);
+        ReadWriteLock lock = lock(file);
+        lock.readLock().lock();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size() - ch.size() % RECORD_BYTES;
+            return size == 0 ? null : Instant.ofEpochMilli(readTime(ch, size - RECORD_BYTES));
+        } catch (IOException e) {
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size(String brokerCode, String symbol, String timeframe) {
+        try {
+            return (int) (Files.size(file(brokerCode, symbol, timeframe)) / RECORD_BYTES);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long readTime(FileChannel ch, long pos) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (b.hasRemaining()) {
+            if (ch.read(b, pos + b.position()) < 0) break;
+        }
+        b.flip();
+        return b.getLong();
+    }
+
+    private Path file(String brokerCode, String symbol, String timeframe) {
+        return baseDir.resolve(safe(brokerCode)).resolve(safe(symbol)).resolve(safe(timeframe) + ".bars");
+    }
+
+    private ReadWriteLock lock(Path file) {
+        return locks.computeIfAbsent(file, k -> new ReentrantReadWriteLock());
+    }
+
+    /** Symbols such as "NSE_EQ|INE002A01018" or "M&M" are not valid path segments everywhere. */
+    private static String safe(String s) {
+        return s == null ? "_" : s.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
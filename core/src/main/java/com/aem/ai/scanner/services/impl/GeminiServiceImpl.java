@@ -11,6 +11,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
 import org.apache.sling.commons.osgi.PropertiesUtil;
 import org.jetbrains.annotations.NotNull;
 import org.osgi.service.component.annotations.Activate;
@@ -32,18 +34,28 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component(
-        service = GeminiService.class,
-        immediate = true
+        service = {GeminiService.class, ResourceChangeListener.class},
+        immediate = true,
+        property = {
+                ResourceChangeListener.PATHS + "=" + GeminiServiceImpl.PROMPTS_ROOT
+        }
 )
 @Designate(ocd = GeminiServiceImpl.Config.class)
-public class GeminiServiceImpl implements GeminiService {
+public class GeminiServiceImpl implements GeminiService, ResourceChangeListener {
 
     private static final Logger log = LoggerFactory.getLogger(GeminiServiceImpl.class);
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    static final String PROMPTS_ROOT = "/content/ai-scanner/ai/prompts";
+
     @Reference
     private ResolverService serviceResolver;
 
@@ -52,6 +64,13 @@ public class GeminiServiceImpl implements GeminiService {
     private String promptFilePath;
     private String tradeSignalAnalysisPromptFilePath;
     private String portFolioAnalysisPromptFilePath;
+    private Duration requestTimeout;
+
+    /** One long-lived client: pooled HTTP/2 connections instead of a TLS handshake per request. */
+    private volatile HttpClient client;
+
+    /** Prompt templates by path; entries under {@link #PROMPTS_ROOT} are dropped when the repository changes. */
+    private final Map<String, String> promptCache = new ConcurrentHashMap<>();
 
     @ObjectClassDefinition(
             name = "BSK Gemini Service Config",
@@ -72,6 +91,12 @@ public class GeminiServiceImpl implements GeminiService {
 
         @AttributeDefinition(name = "Portfolio Analysis Prompt File Path", description = "Path to prompt.txt file in repository or file system")
         String gemini_portfolio_analysis_prompt_path() default "/content/ai-scanner/ai/prompts/portfolio_analysis_template.txt";
+
+        @AttributeDefinition(name = "Connect timeout ms")
+        int connect_timeout_ms() default 10000;
+
+        @AttributeDefinition(name = "Request timeout ms", description = "Upper bound for one Gemini call")
+        int request_timeout_ms() default 60000;
     }
 
     @Activate
@@ -82,7 +107,24 @@ public class GeminiServiceImpl implements GeminiService {
         this.promptFilePath = PropertiesUtil.toString(config.gemini_daily_news_updates_prompt_path(), "");
         this.tradeSignalAnalysisPromptFilePath = PropertiesUtil.toString(config.gemini_trade_signal_analysis_prompt_path(), "");
         this.portFolioAnalysisPromptFilePath = PropertiesUtil.toString(config.gemini_portfolio_analysis_prompt_path(), "");
-        log.info("GeminiService activated with endpoint: {}", this.endpoint);
+        this.requestTimeout = Duration.ofMillis(Math.max(1000, config.request_timeout_ms()));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(Math.max(1000, config.connect_timeout_ms())))
+                .build();
+        promptCache.clear();
+        log.info("GeminiService activated with endpoint: {} (HTTP/2, request timeout {} ms)",
+                this.endpoint, requestTimeout.toMillis());
+    }
+
+    @Override
+    public void onChange(@NotNull List<ResourceChange> changes) {
+        for (ResourceChange change : changes) {
+            String changed = change.getPath();
+            // a change may be reported on the file node or on its jcr:content child
+            promptCache.keySet().removeIf(path -> path.startsWith(changed) || changed.startsWith(path + "/"));
+        }
+        log.debug("Prompt cache invalidated by {} repository changes", changes.size());
     }
     @Override
     public String analyzePortfolio(String portfolioJson) throws Exception {
@@ -113,8 +155,58 @@ public class GeminiServiceImpl implements GeminiService {
         }
     }
 
+    @Override
+    public List<TradeAnalysis> tradeSignalAnalysis(List<String> signalMsgs) throws Exception {
+        if (signalMsgs.size() == 1) {
+            return Collections.singletonList(tradeSignalAnalysis(signalMsgs.get(0)));
+        }
+        log.info("Starting batched Gemini analysis for {} signals...", signalMsgs.size());
+
+        StringBuilder batch = new StringBuilder("\n\nAnalyse each of the following ")
+                .append(signalMsgs.size())
+                .append(" trade signals independently. Return ONLY a JSON array with exactly one analysis object per signal, in the same order.\n");
+        for (int i = 0; i < signalMsgs.size(); i++) {
+            batch.append("\n### Signal ").append(i + 1).append('\n').append(signalMsgs.get(i)).append('\n');
+        }
+
+        HttpResponse<String> resp = getHttpResponse(batch.toString(), tradeSignalAnalysisPromptFilePath);
+        if (resp.statusCode() == 200) {
+            JsonNode geminiResp = mapper.readTree(resp.body());
+            String jsonText = stripFences(geminiResp.at("/candidates/0/content/parts/0/text").asText("").trim());
+            try {
+                JsonNode arr = mapper.readTree(jsonText);
+                if (arr.isArray() && arr.size() == signalMsgs.size()) {
+                    List<TradeAnalysis> out = new ArrayList<>(arr.size());
+                    for (JsonNode node : arr) {
+                        TradeAnalysis analysis = mapper.treeToValue(node, TradeAnalysis.class);
+                        analysis.setResponseJson(node.toString());
+                        out.add(analysis);
+                    }
+                    log.info("Parsed {} TradeAnalysis objects from one Gemini call", out.size());
+                    return out;
+                }
+                log.warn("Batched Gemini response did not contain {} analyses, falling back to single calls", signalMsgs.size());
+            } catch (JsonProcessingException e) {
+                log.warn("Batched Gemini response is not a JSON array ({}), falling back to single calls", e.getOriginalMessage());
+            }
+        } else {
+            log.warn("Gemini API error on batch: {} {}, falling back to single calls", resp.statusCode(), resp.body());
+        }
+
+        List<TradeAnalysis> out = new ArrayList<>(signalMsgs.size());
+        for (String msg : signalMsgs) {
+            try {
+                out.add(tradeSignalAnalysis(msg));
+            } catch (Exception e) {
+                log.error("Gemini analysis failed for one signal: {}", e.getMessage());
+                out.add(null);
+            }
+        }
+        return out;
+    }
+
     private @NotNull HttpResponse<String> getHttpResponse(String signalMsg,String promptFilePath) throws IOException, InterruptedException {
-        String promptTemplate = loadPromptFromRepoOrFS(promptFilePath);
+        String promptTemplate = cachedPrompt(promptFilePath);
 
         if (promptTemplate == null) {
             throw new RuntimeException("Failed to load prompt from: " + promptFilePath);
@@ -138,9 +230,9 @@ public class GeminiServiceImpl implements GeminiService {
         log.debug("Payload: {}", payload);
 
         // Create HTTP request
-        HttpClient client = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(endpoint + "?key=" + apiKey))
+                .timeout(requestTimeout)
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(payload))
                 .build();
@@ -152,12 +244,17 @@ public class GeminiServiceImpl implements GeminiService {
         return resp;
     }
 
-    private static @NotNull TradeAnalysis getTradeAnalysis(String jsonText) throws JsonProcessingException {
+    private static String stripFences(String jsonText) {
         if (jsonText.startsWith("```")) {
             jsonText = jsonText.replaceAll("```json", "")
                     .replaceAll("```", "")
                     .trim();
         }
+        return jsonText;
+    }
+
+    private static @NotNull TradeAnalysis getTradeAnalysis(String jsonText) throws JsonProcessingException {
+        jsonText = stripFences(jsonText);
 
         TradeAnalysis analysis = mapper.readValue(jsonText, TradeAnalysis.class);
         analysis.setResponseJson(jsonText);
@@ -183,6 +280,17 @@ public class GeminiServiceImpl implements GeminiService {
         }
     }
 
+    private String cachedPrompt(String path) {
+        String prompt = promptCache.get(path);
+        if (prompt == null) {
+            prompt = loadPromptFromRepoOrFS(path);
+            if (prompt != null) {
+                promptCache.put(path, prompt);
+            }
+        }
+        return prompt;
+    }
+
     /**
      * Load prompt from CRX repo if available, else fallback to file system.
      */
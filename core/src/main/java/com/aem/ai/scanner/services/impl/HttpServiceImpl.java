@@ -1,7 +1,7 @@
 package com.aem.ai.scanner.services.impl;
 
 import com.aem.ai.scanner.services.HttpService;
-import com.aem.ai.scanner.utils.RetryUtils;
+import com.aem.ai.scanner.utils.HttpStatusException;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Modified;
@@ -17,7 +17,9 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
- * Lightweight wrapper around Java11 HttpClient with retries.
+ * Lightweight wrapper around Java11 HttpClient. Each call is a single attempt: a non-2xx answer
+ * is thrown as {@link HttpStatusException} (with its Retry-After), and retrying is left to the
+ * caller, e.g. the broker services' rate-limited retry, so permits and attempts are counted once.
  */
 @Component(immediate = true, service = HttpService.class)
 public class HttpServiceImpl implements HttpService {
@@ -42,7 +44,7 @@ public class HttpServiceImpl implements HttpService {
     }
 
     /**
-     * Perform a synchronous GET request with retry logic (no extra headers).
+     * Perform a synchronous GET request (no extra headers).
      */
     @Override
     public String get(String url) throws Exception {
@@ -50,7 +52,7 @@ public class HttpServiceImpl implements HttpService {
     }
 
     /**
-     * Perform a synchronous GET request with custom headers and retry logic.
+     * Perform a synchronous GET request with custom headers.
      */
     public String get(String url, Map<String, String> headers) throws Exception {
         String safeUrl = encodeUnsafePath(url);
@@ -67,20 +69,18 @@ public class HttpServiceImpl implements HttpService {
 
         HttpRequest req = builder.build();
 
-        return RetryUtils.executeWithExponentialBackoff(() -> {
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
-                log.info("HTTP GET successful for {}", url);
-                return resp.body();
-            } else {
-                log.error("HTTP GET failed: status={} body={}", resp.statusCode(), resp.body());
-                throw new RuntimeException("HTTP " + resp.statusCode() + " for " + url + " body:" + resp.body());
-            }
-        }, 3, 500);
+        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
+            log.info("HTTP GET successful for {}", url);
+            return resp.body();
+        }
+        log.error("HTTP GET failed: status={} body={}", resp.statusCode(), resp.body());
+        throw new HttpStatusException(resp.statusCode(), resp.headers().firstValue("Retry-After").orElse(null),
+                "HTTP " + resp.statusCode() + " for " + url + " body:" + resp.body());
     }
 
     /**
-     * Perform a synchronous POST request with JSON body and retry logic.
+     * Perform a synchronous POST request with JSON body.
      */
     public String postJson(String url, String jsonBody) throws Exception {
         return postJson(url, null, jsonBody);
@@ -103,14 +103,12 @@ public class HttpServiceImpl implements HttpService {
 
         HttpRequest req = builder.build();
 
-        return RetryUtils.executeWithExponentialBackoff(() -> {
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
-                return resp.body();
-            } else {
-                throw new RuntimeException("HTTP " + resp.statusCode() + " for " + url + " body:" + resp.body());
-            }
-        }, 3, 500);
+        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
+            return resp.body();
+        }
+        throw new HttpStatusException(resp.statusCode(), resp.headers().firstValue("Retry-After").orElse(null),
+                "HTTP " + resp.statusCode() + " for " + url + " body:" + resp.body());
     }
 
     /**
@@ -0,0 +1,539 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.dao.DAOFactory;
+import com.aem.ai.scanner.model.Signal;
+import com.aem.ai.scanner.model.TradeAnalysis;
+import com.aem.ai.scanner.model.TradeBookOp;
+import com.aem.ai.scanner.model.TradeModel;
+import com.aem.ai.scanner.services.OpenTradeBook;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open trades per table held as symbol → immutable list, replaced copy-on-write under the table's
+ * lock, so lookups never block. Deferred writes go to {@code journal_file} (one JSON op per line)
+ * before the call returns; the flusher applies them in one transaction per table and rewrites the
+ * journal with whatever is still pending. A batch that fails on one op is bisected so the other
+ * ops still land; an op that has failed {@code max_attempts} times moves to {@code dead_letter_file}.
+ * Each table is re-read from the DB every {@code reload_interval_seconds} to pick up trades changed
+ * elsewhere; trades with pending ops keep their in-memory state.
+ */
+@Component(service = OpenTradeBook.class, immediate = true)
+@Designate(ocd = OpenTradeBookImpl.Config.class)
+public class OpenTradeBookImpl implements OpenTradeBook {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenTradeBookImpl.class);
+
+    @ObjectClassDefinition(name = "BSK Open Trade Book",
+            description = "In-memory open trades with journaled write-behind of LTP, comments and closes")
+    public @interface Config {
+        @AttributeDefinition(name = "Trades tables", description = "Loaded at activation; other tables load on first use")
+        String[] tables() default {"stock_trades", "currency_trades"};
+
+        @AttributeDefinition(name = "Flush interval ms")
+        long flush_interval_ms() default 500;
+
+        @AttributeDefinition(name = "Journal file", description = "Relative paths resolve against the JVM working directory")
+        String journal_file() default "trade-book/pending-ops.jsonl";
+
+        @AttributeDefinition(name = "Reload interval seconds", description = "Re-read open trades from the DB; 0 disables")
+        int reload_interval_seconds() default 300;
+
+        @AttributeDefinition(name = "Max attempts", description = "Failed applies of one op before it is dead-lettered")
+        int max_attempts() default 5;
+
+        @AttributeDefinition(name = "Dead letter file", description = "Ops given up on, one JSON op per line")
+        String dead_letter_file() default "trade-book/dead-ops.jsonl";
+    }
+
+    @Reference
+    private DAOFactory daoFactory;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, Book> books = new ConcurrentHashMap<>();
+
+    /** Guards {@link #pending} and the journal writer. */
+    private final Object journalLock = new Object();
+    private final List<TradeBookOp> pending = new ArrayList<>();
+    private final Object flushLock = new Object();
+
+    private volatile Config cfg;
+    private Path journalPath;
+    private Path deadLetterPath;
+    private volatile long nextPruneNanos;
+    private BufferedWriter journal;
+    private ScheduledExecutorService flusher;
+
+    private static final class Book {
+        final String table;
+        volatile Map<String, List<TradeModel>> bySymbol = new ConcurrentHashMap<>();
+        volatile boolean loaded;
+        volatile long loadedAtNanos;
+
+        Book(String table) {
+            this.table = table;
+        }
+    }
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        stop();
+        this.cfg = cfg;
+        int replayed;
+        synchronized (journalLock) {
+            this.journalPath = Paths.get(cfg.journal_file()).toAbsolutePath();
+            this.deadLetterPath = Paths.get(cfg.dead_letter_file()).toAbsolutePath();
+            pending.clear();
+            pending.addAll(readJournal());
+            replayed = pending.size();
+            openJournal();
+        }
+        int left = flush();
+        if (replayed > 0) {
+            log.info("📒 Replayed {} journaled trade ops, {} still pending", replayed, left);
+        }
+
+        books.clear();
+        nextPruneNanos = System.nanoTime();
+        for (String table : cfg.tables()) {
+            book(table);
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "open-trade-book-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(50, cfg.flush_interval_ms());
+        flusher.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("OpenTradeBook activated: tables={}, flush={}ms, journal={}", books.keySet(), interval, journalPath);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        stop();
+        log.info("OpenTradeBook deactivated");
+    }
+
+    private void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+        if (cfg != null) {
+            int left = flush();
+            if (left > 0) {
+                log.warn("OpenTradeBook stopping with {} unflushed ops; they stay in {}", left, journalPath);
+            }
+        }
+        synchronized (journalLock) {
+            closeJournal();
+        }
+    }
+
+    // -------------------- READS --------------------
+
+    @Override
+    public List<TradeModel> openTrades(String tableName, String symbol, String timeframe, Signal.Side side) {
+        List<TradeModel> trades = openTrades(tableName, symbol);
+        if (trades.isEmpty()) return trades;
+        List<TradeModel> out = new ArrayList<>(1);
+        for (TradeModel t : trades) {
+            if (t.getSide() == side && timeframe.equals(t.getTimeFrame())) out.add(t);
+        }
+        return out;
+    }
+
+    @Override
+    public List<TradeModel> openTrades(String tableName, String symbol) {
+        return book(tableName).bySymbol.getOrDefault(symbol, Collections.emptyList());
+    }
+
+    @Override
+    public List<TradeModel> allOpenTrades(String tableName) {
+        List<TradeModel> out = new ArrayList<>();
+        for (List<TradeModel> trades : book(tableName).bySymbol.values()) {
+            out.addAll(trades);
+        }
+        return out;
+    }
+
+    // -------------------- WRITES --------------------
+
+    @Override
+    public void open(String tableName, TradeModel trade, TradeAnalysis analysis) throws SQLException {
+        Book book = book(tableName);
+        synchronized (book) {
+            daoFactory.insertTrade(trade, analysis, tableName);
+            book.bySymbol.compute(trade.getSymbol().getSymbol(), (k, list) -> {
+                List<TradeModel> next = list == null ? new ArrayList<>(1) : new ArrayList<>(list);
+                next.add(trade);
+                return Collections.unmodifiableList(next);
+            });
+        }
+    }
+
+    @Override
+    public void appendComment(String tableName, String symbol, Signal.Side side, String comment) {
+        enqueue(TradeBookOp.comment(tableName, symbol, side, comment));
+    }
+
+    @Override
+    public void updateLtp(String tableName, TradeModel trade) {
+        enqueue(TradeBookOp.ltp(tableName, trade));
+    }
+
+    @Override
+    public boolean close(String tableName, TradeModel trade, double exitPrice, LocalDateTime exitTime, double pnl) {
+        Book book = book(tableName);
+        synchronized (book) {
+            boolean[] removed = {false};
+            book.bySymbol.computeIfPresent(trade.getSymbol().getSymbol(), (k, list) -> {
+                List<TradeModel> next = new ArrayList<>(list.size());
+                for (TradeModel t : list) {
+                    if (t == trade || (t.getTradeId() != null && t.getTradeId().equals(trade.getTradeId()))) {
+                        removed[0] = true;
+                    } else {
+                        next.add(t);
+                    }
+                }
+                return next.isEmpty() ? null : Collections.unmodifiableList(next);
+            });
+            if (!removed[0]) return false;
+            // only the remover writes the exit; the op takes the arguments, not fields another thread may touch
+            trade.setExitPrice(exitPrice);
+            trade.setExitTime(exitTime);
+            trade.setPnl(pnl);
+            trade.setStatus(TradeModel.Status.CLOSED);
+            // queued under the book lock so a reload cannot bring the trade back before the op is pending
+            enqueue(TradeBookOp.close(tableName, trade, exitPrice, exitTime, pnl));
+            return true;
+        }
+    }
+
+    @Override
+    public int flush() {
+        synchronized (flushLock) {
+            List<TradeBookOp> batch;
+            synchronized (journalLock) {
+                batch = new ArrayList<>(pending);
+            }
+            if (batch.isEmpty()) return 0;
+
+            Map<String, List<TradeBookOp>> byTable = new LinkedHashMap<>();
+            for (TradeBookOp op : batch) {
+                byTable.computeIfAbsent(op.getTable(), k -> new ArrayList<>()).add(op);
+            }
+
+            Set<TradeBookOp> done = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<TradeBookOp> failed = new ArrayList<>();
+            List<TradeBookOp> dead = new ArrayList<>();
+            for (Map.Entry<String, List<TradeBookOp>> e : byTable.entrySet()) {
+                List<TradeBookOp> ops = coalesce(e.getValue());
+                Set<TradeBookOp> live = Collections.newSetFromMap(new IdentityHashMap<>());
+                live.addAll(ops);
+                for (TradeBookOp op : e.getValue()) {
+                    if (!live.contains(op)) done.add(op); // superseded by a later LTP op of the same trade
+                }
+                List<TradeBookOp> tableFailed = new ArrayList<>();
+                try {
+                    apply(e.getKey(), ops, done, tableFailed);
+                } catch (SQLException ex) {
+                    log.warn("Open trade book flush to {} failed, {} ops kept: {}", e.getKey(), ops.size(), ex.getMessage());
+                    continue;
+                }
+                for (TradeBookOp op : tableFailed) {
+                    op.setAttempts(op.getAttempts() + 1);
+                    if (op.getAttempts() >= Math.max(1, cfg.max_attempts())) {
+                        dead.add(op);
+                        done.add(op);
+                    }
+                }
+                failed.addAll(tableFailed);
+            }
+
+            synchronized (journalLock) {
+                if (!dead.isEmpty()) {
+                    // dead-lettered before the journal rewrite drops them, so a crash in between only duplicates
+                    writeDeadLetters(dead);
+                }
+                if (!done.isEmpty() || !failed.isEmpty()) {
+                    pending.removeIf(done::contains);
+                    rewriteJournal();
+                }
+                return pending.size();
+            }
+        }
+    }
+
+    /**
+     * Apply {@code ops} in one transaction; when that fails on something other than the connection,
+     * bisect so only the op that keeps failing is left out. Applied ops go to {@code done}, ops that
+     * failed on their own to {@code failed}. A connection-level failure is thrown so the whole table
+     * is retried on the next tick without counting attempts.
+     */
+    private void apply(String table, List<TradeBookOp> ops, Set<TradeBookOp> done, List<TradeBookOp> failed)
+            throws SQLException {
+        if (ops.isEmpty()) return;
+        try {
+            int rows = daoFactory.applyTradeBookOps(ops, table);
+            done.addAll(ops);
+            log.debug("💾 Flushed {} trade ops to {} ({} rows)", ops.size(), table, rows);
+            return;
+        } catch (SQLTransientException | SQLRecoverableException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            if (ex instanceof SQLException && isConnectionFailure((SQLException) ex)) throw (SQLException) ex;
+            if (ops.size() == 1) {
+                TradeBookOp op = ops.get(0);
+                log.warn("Trade op {} failed (attempt {}): {}", op, op.getAttempts() + 1, ex.getMessage());
+                failed.add(op);
+                return;
+            }
+        }
+        int mid = ops.size() / 2;
+        apply(table, ops.subList(0, mid), done, failed);
+        apply(table, ops.subList(mid, ops.size()), done, failed);
+    }
+
+    /** SQLState class 08 is a connection exception; retrying op by op would not help. */
+    private static boolean isConnectionFailure(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("08");
+    }
+
+    private void tick() {
+        try {
+            flush();
+            pruneAppliedOps();
+            int reloadSec = cfg.reload_interval_seconds();
+            for (Book book : books.values()) {
+                boolean due = reloadSec > 0
+                        && System.nanoTime() - book.loadedAtNanos > TimeUnit.SECONDS.toNanos(reloadSec);
+                if (!book.loaded || due) {
+                    reload(book);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Open trade book flush tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /** Once a day, forget the comment op ids the DAO recorded; replays are only a few days old at most. */
+    private void pruneAppliedOps() {
+        if (System.nanoTime() - nextPruneNanos < 0) return;
+        nextPruneNanos = System.nanoTime() + TimeUnit.DAYS.toNanos(1);
+        try {
+            int rows = daoFactory.pruneAppliedTradeBookOps(7);
+            if (rows > 0) log.debug("Pruned {} applied trade op ids", rows);
+        } catch (Exception e) {
+            log.warn("Could not prune applied trade op ids: {}", e.getMessage());
+        }
+    }
+
+    // -------------------- BOOKS --------------------
+
+    private Book book(String tableName) {
+        Book book = books.get(tableName);
+        if (book != null) return book;
+        // first use blocks until loaded: an empty book would let a duplicate trade be opened
+        return books.computeIfAbsent(tableName, t -> {
+            Book created = new Book(t);
+            reload(created);
+            return created;
+        });
+    }
+
+    /**
+     * Replace the table's book with the DB state. Trades with a pending CLOSE stay hidden and trades
+     * with a pending LTP keep their in-memory instance, whose values the DB has not caught up with.
+     */
+    private void reload(Book book) {
+        synchronized (book) {
+            Set<String> closing = new HashSet<>();
+            Set<String> updating = new HashSet<>();
+            synchronized (journalLock) {
+                for (TradeBookOp op : pending) {
+                    if (!book.table.equals(op.getTable()) || op.getTradeId() == null) continue;
+                    if (op.getType() == TradeBookOp.Type.CLOSE) closing.add(op.getTradeId());
+                    else if (op.getType() == TradeBookOp.Type.LTP) updating.add(op.getTradeId());
+                }
+            }
+            Map<String, TradeModel> current = new HashMap<>();
+            if (!updating.isEmpty()) {
+                for (List<TradeModel> trades : book.bySymbol.values()) {
+                    for (TradeModel t : trades) {
+                        if (updating.contains(t.getTradeId())) current.put(t.getTradeId(), t);
+                    }
+                }
+            }
+            try {
+                Map<String, List<TradeModel>> grouped = new HashMap<>();
+                for (TradeModel t : daoFactory.listAllOpenTrades(book.table)) {
+                    if (closing.contains(t.getTradeId())) continue;
+                    TradeModel kept = current.getOrDefault(t.getTradeId(), t);
+                    grouped.computeIfAbsent(kept.getSymbol().getSymbol(), k -> new ArrayList<>(1)).add(kept);
+                }
+                Map<String, List<TradeModel>> next = new ConcurrentHashMap<>();
+                grouped.forEach((symbol, trades) -> next.put(symbol, Collections.unmodifiableList(trades)));
+                book.bySymbol = next;
+                book.loaded = true;
+                book.loadedAtNanos = System.nanoTime();
+                log.debug("Open trade book {} loaded {} symbols ({} trades kept with pending ops)",
+                        book.table, next.size(), current.size());
+            } catch (Exception e) {
+                log.warn("Open trade book could not load {}: {}", book.table, e.getMessage());
+            }
+        }
+    }
+
+    /** Older LTP ops of a trade are superseded by its latest one. */
+    private static List<TradeBookOp> coalesce(List<TradeBookOp> ops) {
+        Set<String> seen = new HashSet<>();
+        List<TradeBookOp> out = new ArrayList<>(ops.size());
+        for (int i = ops.size() - 1; i >= 0; i--) {
+            TradeBookOp op = ops.get(i);
+            if (op.getType() == TradeBookOp.Type.LTP && !seen.add(op.getTradeId())) continue;
+            out.add(op);
+        }
+        Collections.reverse(out);
+        return out;
+    }
+
+    // -------------------- JOURNAL --------------------
+
+    private void enqueue(TradeBookOp op) {
+        synchronized (journalLock) {
+            if (journal != null) {
+                try {
+                    journal.write(mapper.writeValueAsString(op));
+                    journal.newLine();
+                    journal.flush();
+                } catch (IOException e) {
+                    log.error("Could not journal {}; it is only held in memory: {}", op, e.getMessage());
+                }
+            }
+            pending.add(op);
+        }
+    }
+
+    private List<TradeBookOp> readJournal() {
+        List<TradeBookOp> ops = new ArrayList<>();
+        if (!Files.exists(journalPath)) return ops;
+        try (BufferedReader r = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    ops.add(mapper.readValue(line, TradeBookOp.class));
+                } catch (IOException e) {
+                    // a torn last line from a crash mid-write
+                    log.warn("Skipping unreadable journal line in {}: {}", journalPath, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not read trade book journal {}: {}", journalPath, e.getMessage());
+        }
+        return ops;
+    }
+
+    private void writeDeadLetters(List<TradeBookOp> dead) {
+        try {
+            Files.createDirectories(deadLetterPath.getParent());
+            try (BufferedWriter w = Files.newBufferedWriter(deadLetterPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (TradeBookOp op : dead) {
+                    w.write(mapper.writeValueAsString(op));
+                    w.newLine();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not write {} dead trade ops to {}: {}", dead.size(), deadLetterPath, e.getMessage());
+        }
+        for (TradeBookOp op : dead) {
+            log.error("☠️ Gave up on trade op {} after {} attempts; moved to {}", op, op.getAttempts(), deadLetterPath);
+        }
+    }
+
+    private void openJournal() {
+        try {
+            Files.createDirectories(journalPath.getParent());
+            journal = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            journal = null;
+            log.error("Could not open trade book journal {}; write-behind ops are not crash safe: {}",
+                    journalPath, e.getMessage());
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Could not close trade book journal: {}", e.getMessage());
+        }
+        journal = null;
+    }
+
+    /** Replace the journal with the ops still pending (write temp file, then atomic move). */
+    private void rewriteJournal() {
+        if (journalPath == null) return;
+        closeJournal();
+        try {
+            Path tmp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+            try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (TradeBookOp op : pending) {
+                    w.write(mapper.writeValueAsString(op));
+                    w.newLine();
+                }
+            }
+            Files.move(tmp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Could not rewrite trade book journal {}: {}", journalPath, e.getMessage());
+        }
+        openJournal();
+    }
+}
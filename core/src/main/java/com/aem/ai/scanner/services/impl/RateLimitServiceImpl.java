@@ -0,0 +1,127 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.services.RateLimitService;
+import com.aem.ai.scanner.utils.RateLimiter;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets per broker/endpoint. Rules look like {@code UPSTOX:historical=10/20}
+ * (10 permits/sec, burst 20); {@code UPSTOX=25/50} applies to every Upstox endpoint without its
+ * own rule, and brokers without any rule get the default rate.
+ */
+@Component(service = RateLimitService.class, immediate = true)
+@Designate(ocd = RateLimitServiceImpl.Config.class)
+public class RateLimitServiceImpl implements RateLimitService {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitServiceImpl.class);
+
+    @ObjectClassDefinition(name = "BSK Broker Rate Limit Service",
+            description = "Per-broker/endpoint token buckets shared by all broker API calls")
+    public @interface Config {
+        @AttributeDefinition(name = "Rules",
+                description = "BROKER[:endpoint]=permitsPerSec/burst, e.g. UPSTOX:historical=10/20")
+        String[] rules() default {
+                "UPSTOX=25/50",
+                "UPSTOX:historical=10/20",
+                "DELTA=10/20",
+                "ZERODHA=3/6",
+                "DHAN=5/10"
+        };
+
+        @AttributeDefinition(name = "Default permits/sec", description = "For brokers without a rule")
+        double default_permits_per_sec() default 5.0;
+
+        @AttributeDefinition(name = "Default burst")
+        int default_burst() default 10;
+
+        @AttributeDefinition(name = "Throttle pause ms",
+                description = "Pause after HTTP 429/503 when the response has no Retry-After")
+        long default_throttle_pause_ms() default 1000;
+    }
+
+    private volatile Config cfg;
+    private volatile Map<String, double[]> rules = new HashMap<>();
+    private final Map<String, RateLimiter> buckets = new ConcurrentHashMap<>();
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        Map<String, double[]> parsed = new HashMap<>();
+        for (String rule : cfg.rules()) {
+            try {
+                String[] kv = rule.split("=", 2);
+                String[] rate = kv[1].trim().split("/", 2);
+                double pps = Double.parseDouble(rate[0].trim());
+                double burst = rate.length > 1 ? Double.parseDouble(rate[1].trim()) : 1;
+                parsed.put(kv[0].trim().toUpperCase(), new double[]{pps, burst});
+            } catch (Exception e) {
+                log.warn("Ignoring invalid rate limit rule '{}': {}", rule, e.getMessage());
+            }
+        }
+        this.cfg = cfg;
+        this.rules = parsed;
+        buckets.clear();
+        log.info("RateLimitService activated with {} rules, default {}/s burst {}",
+                parsed.size(), cfg.default_permits_per_sec(), cfg.default_burst());
+    }
+
+    @Override
+    public void acquire(String broker, String endpoint) throws InterruptedException {
+        bucket(broker, endpoint).acquire();
+    }
+
+    @Override
+    public void onThrottled(String broker, String endpoint, String retryAfter) {
+        long pauseMs = retryAfterMillis(retryAfter, cfg.default_throttle_pause_ms());
+        bucket(broker, endpoint).pauseFor(pauseMs);
+        log.warn("⏳ {}:{} throttled by remote, pausing {} ms (Retry-After={})", broker, endpoint, pauseMs, retryAfter);
+    }
+
+    private RateLimiter bucket(String broker, String endpoint) {
+        String b = broker == null ? "" : broker.toUpperCase();
+        String withEndpoint = endpoint == null ? b : b + ":" + endpoint.toLowerCase();
+        Map<String, double[]> r = rules;
+        // endpoints without their own rule share the broker-wide bucket
+        String key = r.containsKey(withEndpoint) ? withEndpoint : b;
+        return buckets.computeIfAbsent(key, k -> {
+            double[] rule = r.get(k);
+            double pps = rule != null ? rule[0] : cfg.default_permits_per_sec();
+            int burst = rule != null ? (int) rule[1] : cfg.default_burst();
+            return RateLimiter.create(pps, burst);
+        });
+    }
+
+    /** Retry-After is either delta-seconds or an HTTP-date. */
+    static long retryAfterMillis(String retryAfter, long fallbackMs) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return fallbackMs;
+        }
+        String v = retryAfter.trim();
+        try {
+            return Math.max(0, (long) (Double.parseDouble(v) * 1000));
+        } catch (NumberFormatException ignore) {
+            // not delta-seconds
+        }
+        try {
+            Instant at = ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return Math.max(0, Duration.between(Instant.now(), at).toMillis());
+        } catch (Exception e) {
+            return fallbackMs;
+        }
+    }
+}
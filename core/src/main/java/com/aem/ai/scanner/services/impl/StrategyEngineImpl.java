@@ -1,21 +1,38 @@
 package com.aem.ai.scanner.services.impl;
 
 import com.aem.ai.scanner.factory.StrategyFactoryService;
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
+import com.aem.ai.scanner.indicators.incremental.CompiledStrategy;
+import com.aem.ai.scanner.indicators.incremental.IncrementalRules;
+import com.aem.ai.scanner.indicators.incremental.IncrementalSeries;
 import com.aem.ai.scanner.model.*;
 import com.aem.ai.scanner.services.StrategyEngine;
+import com.aem.ai.scanner.services.StrategyRegistry;
 import com.aem.ai.scanner.services.Ta4jService;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Strategy;
 
 import java.time.ZonedDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component(service = StrategyEngine.class, immediate = true)
+@Designate(ocd = StrategyEngineImpl.Config.class)
 public class StrategyEngineImpl implements StrategyEngine {
 
     private static final Logger log = LoggerFactory.getLogger(StrategyEngineImpl.class);
@@ -33,6 +50,51 @@ public class StrategyEngineImpl implements StrategyEngine {
     @Reference
     private Ta4jService ta4jService;
 
+    /** Source of the evaluators compiled when the watchlist strategies were loaded. */
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile StrategyRegistry strategyRegistry;
+
+    @ObjectClassDefinition(name = "BSK Strategy Engine",
+            description = "Live strategy evaluation")
+    public @interface Config {
+        @AttributeDefinition(name = "Incremental indicators",
+                description = "Keep indicator state per symbol/timeframe and update it per new bar instead of rebuilding a ta4j series")
+        boolean incremental_enabled() default true;
+
+        @AttributeDefinition(name = "Incremental warm-up bars",
+                description = "Bars retained per symbol/timeframe to warm up indicators requested for the first time")
+        int incremental_max_bars() default 500;
+
+        @AttributeDefinition(name = "Compiled rules",
+                description = "Evaluate incremental rules through a per-strategy compiled evaluator instead of interpreting the rule config on every bar")
+        boolean compiled_rules_enabled() default true;
+
+        @AttributeDefinition(name = "Verify compiled rules",
+                description = "Also run the interpreted rules and log any decision that differs (diagnostics only)")
+        boolean compiled_rules_verify() default false;
+    }
+
+    private volatile Config config;
+    private final Map<String, IncrementalSeries> incrementalSeries = new ConcurrentHashMap<>();
+    /** Last built series per symbol/timeframe; reused while callers pass the same candle list. */
+    private final Map<String, SeriesEntry> seriesCache = new ConcurrentHashMap<>();
+    /** Compiled evaluators by rule signature, shared by equal strategies across symbols. */
+    private final Map<String, CompiledStrategy> compiledBySignature = new ConcurrentHashMap<>();
+    /** Identity fast path: the scanners reuse parsed StrategyConfig instances between runs. */
+    private final Map<StrategyConfig, CompiledStrategy> compiledByConfig = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Activate
+    @Modified
+    protected void activate(Config config) {
+        this.config = config;
+        incrementalSeries.clear();
+        seriesCache.clear();
+        compiledBySignature.clear();
+        compiledByConfig.clear();
+        log.info("StrategyEngine activated, incremental={} maxBars={} compiledRules={}",
+                config.incremental_enabled(), config.incremental_max_bars(), config.compiled_rules_enabled());
+    }
+
     @Override
     public Optional<Signal> evaluate(StrategyConfig cfg,
                                      List<Candle> candles,
@@ -44,19 +106,32 @@ public class StrategyEngineImpl implements StrategyEngine {
             return Optional.empty();
         }
 
+        Config c = this.config;
+        if (c != null && c.incremental_enabled()) {
+            return evaluateIncremental(cfg, candles, symbol, timeframe, start);
+        }
+
         try {
             long stepStart;
 
-            // Step 1: Build series
+            // Step 1: Build series (shared by every strategy evaluated on the same candles)
             stepStart = System.nanoTime();
             String seriesName = symbol.getSymbol() + "-" + timeframe;
-            BarSeries series = ta4jService.buildSeries(seriesName, candles, timeframe);
-            log.info(CYAN + "[{} {}] Step 1: BarSeries built in {} ms" + RESET,
+            String seriesKey = stateKey(symbol, timeframe);
+            SeriesEntry entryState = seriesCache.get(seriesKey);
+            if (entryState == null || entryState.candles != candles) {
+                BarSeries built = ta4jService.buildSeries(seriesName, candles, timeframe);
+                entryState = new SeriesEntry(candles, new IndicatorRegistry(built));
+                seriesCache.put(seriesKey, entryState);
+            }
+            IndicatorRegistry registry = entryState.registry;
+            BarSeries series = registry.series();
+            log.info(CYAN + "[{} {}] Step 1: BarSeries ready in {} ms" + RESET,
                     symbol, timeframe, (System.nanoTime() - stepStart) / 1_000_000);
 
             // Step 2: Build strategy
             stepStart = System.nanoTime();
-            Strategy taStrategy = strategyFactory.buildStrategy(cfg, series);
+            Strategy taStrategy = strategyFactory.buildStrategy(cfg, registry);
             if (taStrategy == null) {
                 log.warn(RED + "[{} {}] No strategy returned from factory" + RESET, symbol, cfg.getName());
                 return Optional.empty();
@@ -72,24 +147,13 @@ public class StrategyEngineImpl implements StrategyEngine {
             log.info(CYAN + "[{} {}] Step 3: Strategy evaluated in {} ms" + RESET,
                     symbol, cfg.getName(), (System.nanoTime() - stepStart) / 1_000_000);
 
-            // Primary rule
-            StrategyConfig.RuleConfig primaryRule = null;
-            if (cfg.getRules() != null && !cfg.getRules().isEmpty()) {
-                primaryRule = cfg.getRules().get(0);
-            }
-
             // Step 4: Build signal
             stepStart = System.nanoTime();
             if (entry) {
-                Signal.Side side = Signal.Side.BUY;
-                if (primaryRule != null && "SELL".equalsIgnoreCase(primaryRule.getAction())) {
-                    side = Signal.Side.SELL;
-                }
-
                 double entryPrice = candles.get(candles.size() - 1).getClose();
                 boolean isBuy = true; // or false for short
 
-                double[] sltp = StopLossTargetCalculator.computeSLTP(series,
+                double[] sltp = StopLossTargetCalculator.computeSLTP(registry,
                         14,   // ATR period
                         10,   // Swing lookback
                         1.0,  // ATR buffer
@@ -100,50 +164,90 @@ public class StrategyEngineImpl implements StrategyEngine {
                 double target   = sltp[1];
                /* double stopLoss = computeStopLoss(primaryRule, entryPrice, side, series);
                 double target   = computeTarget(primaryRule, entryPrice, side, series);*/
-                double confidence = computeConfidence(cfg, series, entryPrice, stopLoss, target);
-                double score = computeScore(entryPrice, stopLoss, target);
+                double confidence = computeConfidence(cfg, registry, entryPrice, stopLoss, target);
+                return Optional.of(entrySignal(cfg, symbol, timeframe, entryPrice, stopLoss, target, confidence, stepStart, start));
+
+            } else if (exit) {
+                double exitPrice = candles.get(candles.size() - 1).getClose();
+                double confidence = computeConfidence(cfg, registry, exitPrice, 0, 0);
+                return Optional.of(exitSignal(cfg, symbol, timeframe, exitPrice, confidence, stepStart, start));
+            }
+
+        } catch (Exception e) {
+            log.error(RED + "[{} {}] Strategy evaluation failed: {}" + RESET,
+                    symbol, cfg.getName(), e.getMessage(), e);
+        }
+
+        log.info(CYAN + "[{} {}] Total evaluation time: {} ms" + RESET,
+                symbol, cfg.getName(), (System.nanoTime() - start) / 1_000_000);
+        return Optional.empty();
+    }
 
-                Signal s = new Signal(symbol, side, entryPrice, stopLoss, target, timeframe, confidence);
-                s.setScore(score);
+    /**
+     * Key of the per-instrument state: the broker's instrument key tells apart listings that share
+     * a trading symbol (the NSE and Delta scanners both feed this engine).
+     */
+    private static String stateKey(InstrumentSymbol symbol, String timeframe) {
+        String instrument = symbol.getInstrumentKey();
+        return (instrument == null || instrument.isEmpty() ? symbol.getSymbol() : symbol.getSymbol() + "|" + instrument)
+                + "-" + timeframe;
+    }
 
-                // ✅ compute % distance from entry
-                if (!Double.isNaN(stopLoss) && entryPrice > 0) {
-                    double slPct = ((entryPrice - stopLoss) / entryPrice) * 100.0;
-                    if (side == Signal.Side.SELL) {
-                        slPct = ((stopLoss - entryPrice) / entryPrice) * 100.0;
+    /**
+     * Same decision as the ta4j path, but on indicator state that is kept per symbol/timeframe
+     * and only advanced by the bars that are new since the previous run.
+     */
+    private Optional<Signal> evaluateIncremental(StrategyConfig cfg,
+                                                 List<Candle> candles,
+                                                 InstrumentSymbol symbol,
+                                                 String timeframe,
+                                                 long start) {
+        IncrementalSeries state = incrementalSeries.computeIfAbsent(stateKey(symbol, timeframe),
+                k -> new IncrementalSeries(config.incremental_max_bars()));
+        try {
+            synchronized (state) {
+                long stepStart = System.nanoTime();
+                state.sync(candles);
+                boolean entry;
+                boolean exit;
+                Config c = this.config;
+                if (c.compiled_rules_enabled()) {
+                    CompiledStrategy compiled = compiled(cfg);
+                    entry = compiled.shouldEnter(state);
+                    exit = !entry && compiled.shouldExit(state);
+                    if (c.compiled_rules_verify()) {
+                        verifyCompiled(cfg, state, symbol, entry, exit);
                     }
-                    s.setStopLossPercent(slPct);
+                } else {
+                    entry = IncrementalRules.shouldEnter(cfg, state);
+                    exit = !entry && IncrementalRules.shouldExit(cfg, state);
                 }
-
-                if (!Double.isNaN(target) && entryPrice > 0) {
-                    double tpPct = ((target - entryPrice) / entryPrice) * 100.0;
-                    if (side == Signal.Side.SELL) {
-                        tpPct = ((entryPrice - target) / entryPrice) * 100.0;
+                log.debug(CYAN + "[{} {}] Incremental rules evaluated in {} µs" + RESET,
+                        symbol, cfg.getName(), (System.nanoTime() - stepStart) / 1_000);
+
+                stepStart = System.nanoTime();
+                Candle last = state.lastCandle();
+                double atr = state.atr(14).value();
+                double range = last.getHigh() - last.getLow();
+                if (entry) {
+                    double entryPrice = last.getClose();
+                    double stopLoss = Double.NaN;
+                    double target = Double.NaN;
+                    // StopLossTargetCalculator: swing low (10) - 1.0 x ATR(14), RR 1:2, needs > 10 bars
+                    if (state.lowestLow(10).barCount() > 10) {
+                        stopLoss = Math.min(entryPrice, state.lowestLow(10).value() - atr);
+                        target = entryPrice + Math.abs(entryPrice - stopLoss) * 2;
                     }
-                    s.setTargetPercent(tpPct);
+                    double confidence = confidence(entryPrice, stopLoss, target, atr, range);
+                    return Optional.of(entrySignal(cfg, symbol, timeframe, entryPrice, stopLoss, target, confidence, stepStart, start));
+                } else if (exit) {
+                    double exitPrice = last.getClose();
+                    double confidence = confidence(exitPrice, 0, 0, atr, range);
+                    return Optional.of(exitSignal(cfg, symbol, timeframe, exitPrice, confidence, stepStart, start));
                 }
-                log.info(GREEN + "[{} {}] Step 4: Entry signal generated in {} ms" + RESET,
-                        symbol, cfg.getName(), (System.nanoTime() - stepStart) / 1_000_000);
-                log.info(GREEN + "[{} {}] Signal: {}" + RESET, symbol, cfg.getName(), s);
-                log.info(CYAN + "[{} {}] Total evaluation time: {} ms" + RESET,
-                        symbol, cfg.getName(), (System.nanoTime() - start) / 1_000_000);
-                return Optional.of(s);
-
-            } else if (exit) {
-                double exitPrice = candles.get(candles.size() - 1).getClose();
-                double confidence = computeConfidence(cfg, series, exitPrice, 0, 0);
-                Signal s = new Signal(symbol, Signal.Side.SELL, exitPrice, Double.NaN, Double.NaN, timeframe, confidence);
-
-                log.info(YELLOW + "[{} {}] Step 4: Exit signal generated in {} ms" + RESET,
-                        symbol, cfg.getName(), (System.nanoTime() - stepStart) / 1_000_000);
-                log.info(YELLOW + "[{} {}] Signal: {}" + RESET, symbol, cfg.getName(), s);
-                log.info(CYAN + "[{} {}] Total evaluation time: {} ms" + RESET,
-                        symbol, cfg.getName(), (System.nanoTime() - start) / 1_000_000);
-                return Optional.of(s);
             }
-
         } catch (Exception e) {
-            log.error(RED + "[{} {}] Strategy evaluation failed: {}" + RESET,
+            log.error(RED + "[{} {}] Incremental strategy evaluation failed: {}" + RESET,
                     symbol, cfg.getName(), e.getMessage(), e);
         }
 
@@ -152,6 +256,89 @@ public class StrategyEngineImpl implements StrategyEngine {
         return Optional.empty();
     }
 
+    /**
+     * Compiled evaluator for {@code cfg}. Assumes a config's rules are not mutated after its
+     * first evaluation (parsed configs are replaced, not edited, when strategies change).
+     */
+    private CompiledStrategy compiled(StrategyConfig cfg) {
+        CompiledStrategy compiled = compiledByConfig.get(cfg);
+        if (compiled == null) {
+            StrategyRegistry registry = strategyRegistry;
+            CompiledStrategy loaded = registry != null ? registry.compiled(cfg) : null;
+            if (loaded != null) {
+                compiled = compiledBySignature.computeIfAbsent(loaded.signature(), k -> loaded);
+            } else {
+                String signature = CompiledStrategy.signature(cfg);
+                compiled = compiledBySignature.computeIfAbsent(signature, k -> CompiledStrategy.compile(cfg));
+            }
+            compiledByConfig.put(cfg, compiled);
+        }
+        return compiled;
+    }
+
+    private void verifyCompiled(StrategyConfig cfg, IncrementalSeries state, InstrumentSymbol symbol,
+                                boolean entry, boolean exit) {
+        boolean expectedEntry = IncrementalRules.shouldEnter(cfg, state);
+        boolean expectedExit = !expectedEntry && IncrementalRules.shouldExit(cfg, state);
+        if (entry != expectedEntry || exit != expectedExit) {
+            log.warn(YELLOW + "[{} {}] Compiled rules disagree: entry {} vs {}, exit {} vs {}" + RESET,
+                    symbol, cfg.getName(), entry, expectedEntry, exit, expectedExit);
+        }
+    }
+
+    private Signal entrySignal(StrategyConfig cfg, InstrumentSymbol symbol, String timeframe,
+                               double entryPrice, double stopLoss, double target, double confidence,
+                               long stepStart, long start) {
+        // Primary rule
+        StrategyConfig.RuleConfig primaryRule = null;
+        if (cfg.getRules() != null && !cfg.getRules().isEmpty()) {
+            primaryRule = cfg.getRules().get(0);
+        }
+        Signal.Side side = Signal.Side.BUY;
+        if (primaryRule != null && "SELL".equalsIgnoreCase(primaryRule.getAction())) {
+            side = Signal.Side.SELL;
+        }
+
+        double score = computeScore(entryPrice, stopLoss, target);
+        Signal s = new Signal(symbol, side, entryPrice, stopLoss, target, timeframe, confidence);
+        s.setScore(score);
+
+        // ✅ compute % distance from entry
+        if (!Double.isNaN(stopLoss) && entryPrice > 0) {
+            double slPct = ((entryPrice - stopLoss) / entryPrice) * 100.0;
+            if (side == Signal.Side.SELL) {
+                slPct = ((stopLoss - entryPrice) / entryPrice) * 100.0;
+            }
+            s.setStopLossPercent(slPct);
+        }
+
+        if (!Double.isNaN(target) && entryPrice > 0) {
+            double tpPct = ((target - entryPrice) / entryPrice) * 100.0;
+            if (side == Signal.Side.SELL) {
+                tpPct = ((entryPrice - target) / entryPrice) * 100.0;
+            }
+            s.setTargetPercent(tpPct);
+        }
+        log.info(GREEN + "[{} {}] Step 4: Entry signal generated in {} ms" + RESET,
+                symbol, cfg.getName(), (System.nanoTime() - stepStart) / 1_000_000);
+        log.info(GREEN + "[{} {}] Signal: {}" + RESET, symbol, cfg.getName(), s);
+        log.info(CYAN + "[{} {}] Total evaluation time: {} ms" + RESET,
+                symbol, cfg.getName(), (System.nanoTime() - start) / 1_000_000);
+        return s;
+    }
+
+    private Signal exitSignal(StrategyConfig cfg, InstrumentSymbol symbol, String timeframe,
+                              double exitPrice, double confidence, long stepStart, long start) {
+        Signal s = new Signal(symbol, Signal.Side.SELL, exitPrice, Double.NaN, Double.NaN, timeframe, confidence);
+
+        log.info(YELLOW + "[{} {}] Step 4: Exit signal generated in {} ms" + RESET,
+                symbol, cfg.getName(), (System.nanoTime() - stepStart) / 1_000_000);
+        log.info(YELLOW + "[{} {}] Signal: {}" + RESET, symbol, cfg.getName(), s);
+        log.info(CYAN + "[{} {}] Total evaluation time: {} ms" + RESET,
+                symbol, cfg.getName(), (System.nanoTime() - start) / 1_000_000);
+        return s;
+    }
+
     @Override
     public String format(Signal signal,
                          StrategyConfig cfg,
@@ -188,8 +375,25 @@ public class StrategyEngineImpl implements StrategyEngine {
         return Math.min(1.0, rr / 5.0);
     }
 
-    private double computeConfidence(StrategyConfig cfg, org.ta4j.core.BarSeries series,
+    private double computeConfidence(StrategyConfig cfg, IndicatorRegistry registry,
                                      double entryPrice, double stopLoss, double target) {
+        double atr = Double.NaN;
+        double candleRange = Double.NaN;
+        try {
+            BarSeries series = registry.series();
+            Ta4jService.IndicatorsSnapshot snap = ta4jService.computeIndicators(registry);
+            if (snap != null) {
+                atr = snap.atr;
+                candleRange = series.getLastBar().getHighPrice().doubleValue()
+                        - series.getLastBar().getLowPrice().doubleValue();
+            }
+        } catch (Exception e) {
+            log.debug("Confidence ATR calc failed: {}", e.getMessage());
+        }
+        return confidence(entryPrice, stopLoss, target, atr, candleRange);
+    }
+
+    private double confidence(double entryPrice, double stopLoss, double target, double atr, double candleRange) {
         double confidence = 0.5;
         double risk = Math.abs(entryPrice - stopLoss);
         double reward = Math.abs(target - entryPrice);
@@ -200,16 +404,8 @@ public class StrategyEngineImpl implements StrategyEngine {
             else if (rr < 1) confidence -= 0.2;
         }
 
-        try {
-            Ta4jService.IndicatorsSnapshot snap = ta4jService.computeIndicators(series);
-            if (snap != null && !Double.isNaN(snap.atr)) {
-                double atr = snap.atr;
-                double candleRange = series.getLastBar().getHighPrice().doubleValue()
-                        - series.getLastBar().getLowPrice().doubleValue();
-                confidence += (candleRange < atr * 1.2) ? 0.1 : -0.1;
-            }
-        } catch (Exception e) {
-            log.debug("Confidence ATR calc failed: {}", e.getMessage());
+        if (!Double.isNaN(atr) && !Double.isNaN(candleRange)) {
+            confidence += (candleRange < atr * 1.2) ? 0.1 : -0.1;
         }
 
         return Math.max(0.0, Math.min(1.0, confidence));
@@ -258,4 +454,14 @@ public class StrategyEngineImpl implements StrategyEngine {
         }
         return Double.NaN;
     }
+
+    private static final class SeriesEntry {
+        final List<Candle> candles;
+        final IndicatorRegistry registry;
+
+        SeriesEntry(List<Candle> candles, IndicatorRegistry registry) {
+            this.candles = candles;
+            this.registry = registry;
+        }
+    }
 }
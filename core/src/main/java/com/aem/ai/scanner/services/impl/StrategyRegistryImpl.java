@@ -0,0 +1,299 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.GenericeConstants;
+import com.aem.ai.pm.dao.DataSourcePoolProviderService;
+import com.aem.ai.scanner.dao.WatchlistDao;
+import com.aem.ai.scanner.indicators.incremental.CompiledStrategy;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.model.StrategyConfig;
+import com.aem.ai.scanner.services.StrategyRegistry;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps each broker's watchlist as an immutable snapshot: symbols plus their parsed BEST_STRATEGY
+ * lists (read-only copies) and the evaluator compiled from each. At most every
+ * {@code check_interval_seconds} one query returns the row count, {@code MAX(version)} and a sum of
+ * per-row CRC32s; the checksum catches rows rewritten within the version column's granularity,
+ * which MAX alone misses. On a change only rows at or after the last version are read (a changed
+ * row count, a delta that explains nothing or a missing version column falls back to a full read).
+ * Rows whose JSON did not change keep their parsed strategies, so the configs are the same
+ * instances across runs.
+ */
+@Component(service = StrategyRegistry.class, immediate = true)
+@Designate(ocd = StrategyRegistryImpl.Config.class)
+public class StrategyRegistryImpl implements StrategyRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(StrategyRegistryImpl.class);
+
+    @ObjectClassDefinition(name = "BSK Strategy Registry",
+            description = "Watchlist strategies loaded once and reloaded by version column")
+    public @interface Config {
+        @AttributeDefinition(name = "Version column",
+                description = "Watchlist column bumped on every row change (TIMESTAMP ... ON UPDATE CURRENT_TIMESTAMP)")
+        String version_column() default "UPDATED_AT";
+
+        @AttributeDefinition(name = "Check interval seconds",
+                description = "Minimum time between version checks of a watchlist")
+        int check_interval_seconds() default 30;
+    }
+
+    @Reference
+    private DataSourcePoolProviderService dataSourcePoolProviderService;
+
+    @Reference
+    private WatchlistDao watchlistDao;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, StrategyConfig.class);
+    private final Map<String, Watchlist> watchlists = new ConcurrentHashMap<>();
+    /** Evaluator per published config instance; entries go with the configs of replaced rows. */
+    private final Map<StrategyConfig, CompiledStrategy> compiledByConfig = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private volatile Config cfg;
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        this.cfg = cfg;
+        watchlists.clear();
+        compiledByConfig.clear();
+        log.info("StrategyRegistry activated: version column={} check every {}s",
+                cfg.version_column(), cfg.check_interval_seconds());
+    }
+
+    @Override
+    public List<InstrumentSymbol> symbols(String brokerCode) {
+        Watchlist w = watchlist(brokerCode);
+        if (w == null) return Collections.emptyList();
+        w.check(false);
+        return w.snapshot.symbols;
+    }
+
+    @Override
+    public List<StrategyConfig> strategies(String brokerCode, InstrumentSymbol symbol) {
+        Watchlist w = watchlist(brokerCode);
+        if (w == null || symbol == null) return Collections.emptyList();
+        if (!w.snapshot.loaded) w.check(false);
+        Entry e = w.snapshot.entries.get(symbol.getSymbol());
+        return e == null ? Collections.emptyList() : e.strategies;
+    }
+
+    @Override
+    public CompiledStrategy compiled(StrategyConfig cfg) {
+        return cfg == null ? null : compiledByConfig.get(cfg);
+    }
+
+    @Override
+    public int refresh() {
+        int reloaded = 0;
+        for (Watchlist w : watchlists.values()) {
+            reloaded += w.check(true);
+        }
+        return reloaded;
+    }
+
+    private Watchlist watchlist(String brokerCode) {
+        String table;
+        if (GenericeConstants.UPSTOX.equalsIgnoreCase(brokerCode)) {
+            table = watchlistDao.upstoxTable();
+        } else if (GenericeConstants.DELTA.equalsIgnoreCase(brokerCode)) {
+            table = watchlistDao.deltaTable();
+        } else {
+            return null;
+        }
+        String broker = brokerCode.toUpperCase();
+        Watchlist w = watchlists.compute(broker, (k, old) ->
+                old != null && old.table.equals(table) ? old : new Watchlist(broker, table));
+        return w;
+    }
+
+    private List<StrategyConfig> parse(String symbol, String json) {
+        if (StringUtils.isEmpty(json)) return Collections.emptyList();
+        try {
+            List<StrategyConfig> parsed = mapper.readValue(json, listType);
+            List<StrategyConfig> valid = new ArrayList<>(parsed.size());
+            for (StrategyConfig sc : parsed) {
+                try {
+                    StrategyConfig published = sc.readOnlyCopy();
+                    compiledByConfig.put(published, CompiledStrategy.compile(published));
+                    valid.add(published);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping strategy {} of {}: {}", sc.getName(), symbol, e.getMessage());
+                }
+            }
+            return Collections.unmodifiableList(valid);
+        } catch (Exception e) {
+            log.error("Failed to parse strategies for {}: {}", symbol, e.getMessage(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    /** One watchlist row as loaded. */
+    private static final class Entry {
+        final String json;
+        final InstrumentSymbol symbol;
+        final List<StrategyConfig> strategies;
+
+        Entry(String json, InstrumentSymbol symbol, List<StrategyConfig> strategies) {
+            this.json = json;
+            this.symbol = symbol;
+            this.strategies = strategies;
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(false, Collections.emptyMap(), -1, null, 0);
+
+        final boolean loaded;
+        final Map<String, Entry> entries;
+        final List<InstrumentSymbol> symbols;
+        final long count;
+        final Timestamp version;
+        final long checksum;
+
+        Snapshot(boolean loaded, Map<String, Entry> entries, long count, Timestamp version, long checksum) {
+            this.loaded = loaded;
+            this.entries = entries;
+            List<InstrumentSymbol> list = new ArrayList<>(entries.size());
+            entries.values().forEach(e -> list.add(e.symbol));
+            this.symbols = Collections.unmodifiableList(list);
+            this.count = count;
+            this.version = version;
+            this.checksum = checksum;
+        }
+    }
+
+    private final class Watchlist {
+        final String broker;
+        final String table;
+        volatile Snapshot snapshot = Snapshot.EMPTY;
+        private long checkedAt;
+        private boolean versioned = true;
+
+        Watchlist(String broker, String table) {
+            this.broker = broker;
+            this.table = table;
+        }
+
+        /** @return rows (re)parsed */
+        synchronized int check(boolean force) {
+            long now = System.currentTimeMillis();
+            if (!force && snapshot.loaded && now - checkedAt < cfg.check_interval_seconds() * 1000L) {
+                return 0;
+            }
+            checkedAt = now;
+
+            DataSource ds = dataSourcePoolProviderService.getDataSourceByName(GenericeConstants.DB_ALGO_DB);
+            if (ds == null) {
+                log.error("DataSource for {} is null, keeping {} cached symbols", table, snapshot.symbols.size());
+                return 0;
+            }
+            try (Connection c = ds.getConnection()) {
+                Snapshot s = snapshot;
+                if (!versioned) {
+                    return load(c, null, -1, null, 0);
+                }
+                long count;
+                Timestamp version;
+                long checksum;
+                try (PreparedStatement ps = c.prepareStatement(
+                        "SELECT COUNT(*), MAX(" + cfg.version_column() + "), COALESCE(SUM(CRC32(CONCAT_WS('|', SYMBOL, "
+                                + (GenericeConstants.UPSTOX.equals(broker) ? "INSTRUMENT_KEY, " : "")
+                                + "BEST_STRATEGY))), 0) FROM " + table);
+                     ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    count = rs.getLong(1);
+                    version = rs.getTimestamp(2);
+                    checksum = rs.getLong(3);
+                } catch (SQLException e) {
+                    versioned = false;
+                    log.warn("Watchlist {} has no usable {} column ({}); reloading it in full on every check",
+                            table, cfg.version_column(), e.getMessage());
+                    return load(c, null, -1, null, 0);
+                }
+                if (s.loaded && count == s.count && checksum == s.checksum && Objects.equals(version, s.version)) {
+                    return 0;
+                }
+                if (s.loaded && count == s.count && s.version != null) {
+                    return load(c, s.version, count, version, checksum);
+                }
+                return load(c, null, count, version, checksum);
+            } catch (SQLException e) {
+                log.error("Failed checking watchlist {}: {}", table, e.getMessage(), e);
+                return 0;
+            }
+        }
+
+        /**
+         * Read rows with version {@code >= since} (all rows if null) and merge them into the
+         * snapshot; unchanged rows keep their parsed strategies.
+         */
+        private int load(Connection c, Timestamp since, long count, Timestamp version, long checksum) throws SQLException {
+            Snapshot previous = snapshot;
+            Map<String, Entry> next = new LinkedHashMap<>();
+            if (since != null) next.putAll(previous.entries);
+
+            String sql = "SELECT * FROM " + table + (since != null ? " WHERE " + cfg.version_column() + " >= ?" : "");
+            int parsed = 0;
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                if (since != null) ps.setTimestamp(1, since);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String symbol = rs.getString("SYMBOL");
+                        String instrumentKey = GenericeConstants.UPSTOX.equals(broker)
+                                ? rs.getString("INSTRUMENT_KEY") : StringUtils.EMPTY;
+                        String json = rs.getString("BEST_STRATEGY");
+                        Entry old = previous.entries.get(symbol);
+                        String key = GenericeConstants.NSE_EQ + instrumentKey;
+                        if (old != null && Objects.equals(old.json, json)
+                                && Objects.equals(old.symbol.getInstrumentKey(), key)) {
+                            next.put(symbol, old);
+                        } else {
+                            next.put(symbol, new Entry(json, new InstrumentSymbol(symbol, json, key), parse(symbol, json)));
+                            parsed++;
+                        }
+                    }
+                }
+            }
+            if (since != null && (next.size() != count || (parsed == 0 && checksum != previous.checksum))) {
+                // rows were deleted and others inserted in between, or a row changed without its
+                // version moving past the last one: the delta cannot tell which
+                return load(c, null, count, version, checksum);
+            }
+            snapshot = new Snapshot(true, next, count, version, checksum);
+            if (parsed > 0 || !previous.loaded) {
+                log.info("📚 Watchlist {} ({}): {} symbols, {} reloaded{}", table, broker, next.size(), parsed,
+                        since != null ? " since " + since : "");
+            }
+            return parsed;
+        }
+    }
+}
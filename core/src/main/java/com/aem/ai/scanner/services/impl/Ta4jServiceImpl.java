@@ -1,9 +1,10 @@
 package com.aem.ai.scanner.services.impl;
 
 
-import com.aem.ai.scanner.indicators.MACDSignalIndicator;
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
 import com.aem.ai.scanner.model.Candle;
 import com.aem.ai.scanner.services.Ta4jService;
+import com.aem.ai.scanner.utils.PrimitiveBarSeries;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -12,19 +13,11 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.ta4j.core.BarSeries;
-import org.ta4j.core.BaseBar;
-import org.ta4j.core.BaseBarSeriesBuilder;
-import org.ta4j.core.indicators.ATRIndicator;
-import org.ta4j.core.indicators.EMAIndicator;
-import org.ta4j.core.indicators.MACDIndicator;
 import org.ta4j.core.indicators.RSIIndicator;
 import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.indicators.volume.VWAPIndicator;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.List;
 
 @Component(service = Ta4jService.class, immediate = true)
@@ -81,23 +74,8 @@ public class Ta4jServiceImpl implements Ta4jService {
 
     @Override
     public BarSeries buildSeries(String name, List<Candle> candles,String timeframe) {
-        BarSeries series = new BaseBarSeriesBuilder().withName(name).build();
         Duration duration = parseTimeframe(timeframe);
-        for (Candle c : candles) {
-            Instant time = c.getTime();
-            ZonedDateTime endTime = time.atZone(ZoneId.of("UTC"));
-            series.addBar(new BaseBar(
-                    duration,
-                    endTime,
-                    series.numOf(c.getOpen()),
-                    series.numOf(c.getHigh()),
-                    series.numOf(c.getLow()),
-                    series.numOf(c.getClose()),
-                    series.numOf(c.getVolume()),
-                    series.numOf(0),
-                    0
-            ));
-        }
+        BarSeries series = PrimitiveBarSeries.of(name, candles).toBarSeries(duration, ZoneId.of("UTC"));
         log.debug("Built bar series '{}' with {} bars", name, series.getBarCount());
         return series;
     }
@@ -110,25 +88,20 @@ public class Ta4jServiceImpl implements Ta4jService {
 
     @Override
     public IndicatorsSnapshot computeIndicators(BarSeries series) {
-        int last = series.getEndIndex();
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-
-        RSIIndicator rsi = new RSIIndicator(close, config.rsi_period());
-        EMAIndicator emaFast = new EMAIndicator(close, config.ema_fast_period());
-        EMAIndicator emaSlow = new EMAIndicator(close, config.ema_slow_period());
-        MACDIndicator macd = new MACDIndicator(close, config.macd_short(), config.macd_long());
-        MACDSignalIndicator macdSignal = new MACDSignalIndicator(macd, config.macd_signal());
-        ATRIndicator atr = new ATRIndicator(series, config.atr_period());
-        VWAPIndicator vwap = new VWAPIndicator(series, config.vwap_period());
+        return computeIndicators(new IndicatorRegistry(series));
+    }
 
-        return new IndicatorsSnapshot(
-                rsi.getValue(last).doubleValue(),
-                macd.getValue(last).doubleValue(),
-                macdSignal.getValue(last).doubleValue(),
-                emaFast.getValue(last).doubleValue(),
-                emaSlow.getValue(last).doubleValue(),
-                atr.getValue(last).doubleValue(),
-                vwap.getValue(last).doubleValue()
-        );
+    @Override
+    public IndicatorsSnapshot computeIndicators(IndicatorRegistry registry) {
+        int last = registry.series().getEndIndex();
+        return registry.get("SNAPSHOT:" + last, () -> new IndicatorsSnapshot(
+                registry.rsi(config.rsi_period()).getValue(last).doubleValue(),
+                registry.macd(config.macd_short(), config.macd_long()).getValue(last).doubleValue(),
+                registry.macdSignal(config.macd_short(), config.macd_long(), config.macd_signal()).getValue(last).doubleValue(),
+                registry.ema(config.ema_fast_period()).getValue(last).doubleValue(),
+                registry.ema(config.ema_slow_period()).getValue(last).doubleValue(),
+                registry.atr(config.atr_period()).getValue(last).doubleValue(),
+                registry.vwap(config.vwap_period()).getValue(last).doubleValue()
+        ));
     }
 }
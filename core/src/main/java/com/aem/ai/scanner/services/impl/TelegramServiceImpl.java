@@ -5,6 +5,8 @@ import com.aem.ai.scanner.dao.DAOFactory;
 import com.aem.ai.scanner.model.TelegramConfig;
 import com.aem.ai.scanner.services.HttpService;
 import com.aem.ai.scanner.services.TelegramService;
+import com.aem.ai.scanner.utils.HttpStatusException;
+import com.aem.ai.scanner.utils.RetryUtils;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
@@ -120,7 +122,10 @@ public class TelegramServiceImpl implements TelegramService {
                 log.info("Sending to {} ({}) [Chunk {}/{}]",
                         cfg.getChatTitle(), cfg.getPurpose(), (i + 1), totalChunks);
 
-                String res = http.get(url);
+                // HttpService makes one attempt; Telegram is not behind a broker limiter, so retry here
+                // (but not a 429, which would only be throttled again)
+                String res = RetryUtils.executeWithExponentialBackoff(() -> http.get(url), 3, 500,
+                        e -> !(e instanceof HttpStatusException && ((HttpStatusException) e).isThrottled()));
                 log.info("Sent chunk {}/{} to {} ({}) response={}",
                         (i + 1), totalChunks, cfg.getChatTitle(), cfg.getPurpose(), res);
 
@@ -0,0 +1,198 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.api.PriceFeed;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.model.Signal;
+import com.aem.ai.scanner.model.TradeModel;
+import com.aem.ai.scanner.services.OpenTradeBook;
+import com.aem.ai.scanner.services.TelegramService;
+import com.aem.ai.scanner.services.TickMonitorService;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds streamed LTPs into a {@link TriggerIndex} per trades table. A crossed trade is closed in
+ * the open-trade book on the feed thread (exit at the tick price, persisted write-behind); the
+ * Telegram notice goes out on a separate thread so a slow send never delays the next tick.
+ * The index and subscriptions are rebuilt from the book every {@code resync_interval_seconds},
+ * which picks up trades opened by the scanners in between.
+ */
+@Component(service = TickMonitorService.class, immediate = true)
+@Designate(ocd = TickMonitorServiceImpl.Config.class)
+public class TickMonitorServiceImpl implements TickMonitorService {
+
+    private static final Logger log = LoggerFactory.getLogger(TickMonitorServiceImpl.class);
+
+    @ObjectClassDefinition(name = "BSK Tick Trade Monitor",
+            description = "Closes open trades on streamed ticks that reach their stop loss or target")
+    public @interface Config {
+        @AttributeDefinition(name = "Enable")
+        boolean enable() default true;
+
+        @AttributeDefinition(name = "Broker → trades table", description = "BROKER=table, e.g. UPSTOX=stock_trades")
+        String[] broker_tables() default {"UPSTOX=stock_trades", "DELTA=currency_trades"};
+
+        @AttributeDefinition(name = "Resync interval seconds")
+        int resync_interval_seconds() default 15;
+    }
+
+    @Reference
+    private OpenTradeBook tradeBook;
+
+    @Reference
+    private TelegramService telegram;
+
+    private final Map<String, PriceFeed> feeds = new ConcurrentHashMap<>();
+    private final Map<String, TriggerIndex> indexes = new ConcurrentHashMap<>();
+
+    private volatile Config cfg;
+    private volatile Map<String, String> brokerTables = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+    /** Read on the feed threads, which keep delivering ticks while stop() shuts it down. */
+    private volatile ExecutorService notifier;
+
+    @Reference(
+            service = PriceFeed.class,
+            cardinality = ReferenceCardinality.MULTIPLE,
+            policy = ReferencePolicy.DYNAMIC
+    )
+    protected void bindPriceFeed(PriceFeed feed) {
+        if (feed != null) {
+            feeds.put(feed.brokerCode(), feed);
+            log.info("✅ Bound PriceFeed: {}", feed.brokerCode());
+        }
+    }
+
+    protected void unbindPriceFeed(PriceFeed feed) {
+        if (feed != null) {
+            feeds.remove(feed.brokerCode(), feed);
+            feed.unsubscribeAll();
+            log.info("❌ Unbound PriceFeed: {}", feed.brokerCode());
+        }
+    }
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        stop();
+        this.cfg = cfg;
+        Map<String, String> parsed = new HashMap<>();
+        for (String mapping : cfg.broker_tables()) {
+            String[] kv = mapping.split("=", 2);
+            if (kv.length == 2) {
+                parsed.put(kv[0].trim().toUpperCase(), kv[1].trim());
+            } else {
+                log.warn("Ignoring invalid broker table mapping '{}'", mapping);
+            }
+        }
+        this.brokerTables = parsed;
+        if (!cfg.enable()) {
+            log.info("TickMonitorService disabled");
+            return;
+        }
+        notifier = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "tick-monitor-notify");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tick-monitor-resync");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(1, cfg.resync_interval_seconds());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                resync();
+            } catch (Exception e) {
+                log.error("Tick monitor resync failed: {}", e.getMessage(), e);
+            }
+        }, 0, every, TimeUnit.SECONDS);
+        log.info("TickMonitorService activated: {} (resync every {}s)", parsed, every);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        stop();
+    }
+
+    private void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        if (notifier != null) notifier.shutdown();
+        scheduler = null;
+        notifier = null;
+        feeds.values().forEach(PriceFeed::unsubscribeAll);
+        indexes.clear();
+    }
+
+    @Override
+    public int resync() {
+        int watched = 0;
+        for (PriceFeed feed : feeds.values()) {
+            String table = brokerTables.get(feed.brokerCode().toUpperCase());
+            if (table == null || !feed.enabled()) {
+                continue;
+            }
+            List<TradeModel> open = tradeBook.allOpenTrades(table);
+            TriggerIndex index = indexes.computeIfAbsent(table, t -> new TriggerIndex());
+            index.reset(open);
+
+            Set<InstrumentSymbol> symbols = new LinkedHashSet<>();
+            open.forEach(t -> symbols.add(t.getSymbol()));
+            feed.subscribe(symbols, (symbol, ltp, epochMillis) -> onTick(table, index, symbol, ltp, epochMillis));
+            watched += open.size();
+            log.debug("Tick monitor {} → {}: {} trades on {} symbols", feed.brokerCode(), table, open.size(), symbols.size());
+        }
+        return watched;
+    }
+
+    private void onTick(String table, TriggerIndex index, String symbol, double ltp, long epochMillis) {
+        List<TradeModel> crossed = index.crossed(symbol, ltp);
+        for (TradeModel t : crossed) {
+            boolean buy = t.getSide() == Signal.Side.BUY;
+            boolean hitTarget = buy ? ltp >= t.getTarget() : ltp <= t.getTarget();
+            double pnl = (buy ? ltp - t.getEntryPrice() : t.getEntryPrice() - ltp) * t.getQuantity();
+            // the trade is shared with the scan-time monitor: nothing is set on it unless this close wins
+            if (!tradeBook.close(table, t, ltp, LocalDateTime.now(), pnl)) {
+                continue; // closed meanwhile by a scanner exit signal or the scan-time monitor
+            }
+            long lagMs = System.currentTimeMillis() - epochMillis;
+            String reason = hitTarget ? "target" : "stop loss";
+            log.info("⚡ Tick-closed {} {} at {} ({}) pnl={} tick lag={}ms",
+                    symbol, t.getSide(), ltp, reason, pnl, lagMs);
+            ExecutorService n = notifier;
+            if (n != null && !n.isShutdown()) {
+                try {
+                    n.execute(() -> telegram.sendMessageDailyStocksAlerts(
+                            "Closed trade (" + reason + "): " + t.getSymbol() + " @ " + ltp + " pnl=" + pnl));
+                } catch (RejectedExecutionException e) {
+                    // stopping between the check and execute; the close itself is already recorded
+                    log.debug("Tick monitor stopping, no alert for {} {}", symbol, t.getSide());
+                }
+            }
+        }
+    }
+}
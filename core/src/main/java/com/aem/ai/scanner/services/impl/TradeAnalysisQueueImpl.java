@@ -0,0 +1,305 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.dao.DAOFactory;
+import com.aem.ai.scanner.model.CachedAnalysis;
+import com.aem.ai.scanner.model.TradeAnalysis;
+import com.aem.ai.scanner.model.TradeModel;
+import com.aem.ai.scanner.services.GeminiService;
+import com.aem.ai.scanner.services.TradeAnalysisQueue;
+import com.aem.ai.scanner.utils.TtlLruCache;
+import com.aem.ai.scanner.utils.Utils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One dispatcher thread collects queued signals into batches (up to {@code max_batch_size}, or
+ * whatever arrived within {@code linger_ms} of the first one) and hands each batch to a small pool
+ * that calls Gemini once per batch and writes all analyses back in one JDBC batch per table.
+ *
+ * Analyses are cached by {@link Utils#signalHash} (TTL + LRU, optionally backed by the
+ * {@code gemini_analysis_cache} table), so the same signal firing again on the next tick, or twice
+ * in one batch, costs no Gemini call.
+ */
+@Component(service = TradeAnalysisQueue.class, immediate = true)
+@Designate(ocd = TradeAnalysisQueueImpl.Config.class)
+public class TradeAnalysisQueueImpl implements TradeAnalysisQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeAnalysisQueueImpl.class);
+
+    @ObjectClassDefinition(name = "BSK Trade Analysis Queue",
+            description = "Asynchronous, batched Gemini analysis of new trades")
+    public @interface Config {
+        @AttributeDefinition(name = "Async analysis",
+                description = "Off runs the analysis on the caller's thread right after the insert")
+        boolean enabled() default true;
+
+        @AttributeDefinition(name = "Max signals per Gemini request")
+        int max_batch_size() default 5;
+
+        @AttributeDefinition(name = "Linger ms", description = "How long the first queued signal waits for others to batch with")
+        long linger_ms() default 1500;
+
+        @AttributeDefinition(name = "Queue capacity", description = "Analyses beyond this are dropped (the trade stays unanalysed)")
+        int queue_capacity() default 500;
+
+        @AttributeDefinition(name = "Concurrent Gemini requests")
+        int max_concurrent_requests() default 2;
+
+        @AttributeDefinition(name = "Cache analyses", description = "Serve repeats of a signal from the analysis cache")
+        boolean cache_enabled() default true;
+
+        @AttributeDefinition(name = "Cache TTL minutes")
+        int cache_ttl_minutes() default 30;
+
+        @AttributeDefinition(name = "Cache max entries")
+        int cache_max_entries() default 1000;
+
+        @AttributeDefinition(name = "Persist cache", description = "Also keep analyses in algo_db.gemini_analysis_cache (survives restarts)")
+        boolean cache_persist_enabled() default false;
+
+        @AttributeDefinition(name = "Price significant digits", description = "Prices are rounded to this many digits before hashing a signal")
+        int price_significant_digits() default 4;
+    }
+
+    private static final class Pending {
+        final TradeModel trade;
+        final String signalHash;
+        final String signalMsg;
+        final String tableName;
+        final long queuedNanos = System.nanoTime();
+
+        Pending(TradeModel trade, String signalHash, String signalMsg, String tableName) {
+            this.trade = trade;
+            this.signalHash = signalHash;
+            this.signalMsg = signalMsg;
+            this.tableName = tableName;
+        }
+    }
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Reference
+    private GeminiService geminiService;
+
+    @Reference
+    private DAOFactory daoFactory;
+
+    private volatile Config cfg;
+    private volatile BlockingQueue<Pending> queue;
+    private volatile Thread dispatcher;
+    private volatile ExecutorService workers;
+    private volatile TtlLruCache<String, TradeAnalysis> cache;
+    private final AtomicLong dbHits = new AtomicLong();
+
+    @Activate
+    @Modified
+    protected void activate(Config cfg) {
+        stop();
+        this.cfg = cfg;
+        int concurrency = Math.max(1, cfg.max_concurrent_requests());
+        BlockingQueue<Pending> q = new ArrayBlockingQueue<>(Math.max(1, cfg.queue_capacity()));
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "TradeAnalysis-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Semaphore permits = new Semaphore(concurrency);
+        this.cache = new TtlLruCache<>(cfg.cache_max_entries(), Math.max(1, cfg.cache_ttl_minutes()), TimeUnit.MINUTES);
+
+        Thread d = new Thread(() -> dispatch(q, pool, permits), "TradeAnalysis-dispatcher");
+        d.setDaemon(true);
+        this.queue = q;
+        this.workers = pool;
+        this.dispatcher = d;
+        d.start();
+        log.info("✅ TradeAnalysisQueue activated: async={} batch={} linger={}ms concurrency={} cache={} ttl={}m persist={}",
+                cfg.enabled(), cfg.max_batch_size(), cfg.linger_ms(), concurrency,
+                cfg.cache_enabled(), cfg.cache_ttl_minutes(), cfg.cache_persist_enabled());
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        stop();
+        log.info("🛑 TradeAnalysisQueue deactivated.");
+    }
+
+    private void stop() {
+        Thread d = this.dispatcher;
+        ExecutorService pool = this.workers;
+        BlockingQueue<Pending> q = this.queue;
+        this.dispatcher = null;
+        if (d != null) d.interrupt();
+        if (pool != null) pool.shutdown();
+        if (q != null && !q.isEmpty()) {
+            log.warn("⚠️ {} trade analyses dropped on shutdown", q.size());
+            q.clear();
+        }
+    }
+
+    @Override
+    public boolean submit(TradeModel trade, String strategyName, String signalMsg, String tableName) {
+        if (trade.getTradeId() == null) {
+            log.warn("⚠️ Trade {} has no id, cannot attach analysis", trade.getSymbol().getSymbol());
+            return false;
+        }
+        String hash = Utils.signalHash(trade.getSymbol().getSymbol(), trade.getTimeFrame(), strategyName,
+                trade.getSide(), trade.getEntryPrice(), trade.getStopLoss(), trade.getTarget(),
+                cfg.price_significant_digits());
+        Pending p = new Pending(trade, hash, signalMsg, tableName);
+        if (!cfg.enabled()) {
+            process(Collections.singletonList(p));
+            return true;
+        }
+        if (!queue.offer(p)) {
+            log.warn("⚠️ Trade analysis queue full, {} {} stays unanalysed",
+                    trade.getSymbol().getSymbol(), trade.getTimeFrame());
+            return false;
+        }
+        return true;
+    }
+
+    private void dispatch(BlockingQueue<Pending> q, ExecutorService pool, Semaphore permits) {
+        int maxBatch = Math.max(1, cfg.max_batch_size());
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, cfg.linger_ms()));
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Pending> batch = new ArrayList<>(maxBatch);
+                Pending first = q.take();
+                batch.add(first);
+                long deadline = first.queuedNanos + lingerNanos;
+                while (batch.size() < maxBatch) {
+                    Pending next = q.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                // wait for a free request slot; meanwhile new signals pile up for the next batch
+                permits.acquire();
+                try {
+                    pool.execute(() -> {
+                        try {
+                            process(batch);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("❌ Trade analysis dispatcher stopped: {}", e.getMessage(), e);
+        }
+    }
+
+    private void process(List<Pending> batch) {
+        // cached analyses first; what is left goes to Gemini once per distinct signal
+        Map<String, TradeAnalysis> byHash = new HashMap<>();
+        Map<String, Pending> toAnalyse = new LinkedHashMap<>();
+        for (Pending p : batch) {
+            if (byHash.containsKey(p.signalHash) || toAnalyse.containsKey(p.signalHash)) continue;
+            TradeAnalysis cached = cached(p.signalHash);
+            if (cached != null) {
+                byHash.put(p.signalHash, cached);
+            } else {
+                toAnalyse.put(p.signalHash, p);
+            }
+        }
+
+        if (!toAnalyse.isEmpty()) {
+            List<Pending> asked = new ArrayList<>(toAnalyse.values());
+            List<String> msgs = new ArrayList<>(asked.size());
+            for (Pending p : asked) msgs.add(p.signalMsg);
+            try {
+                List<TradeAnalysis> analyses = geminiService.tradeSignalAnalysis(msgs);
+                for (int i = 0; i < asked.size() && i < analyses.size(); i++) {
+                    TradeAnalysis a = analyses.get(i);
+                    if (a == null) continue;
+                    byHash.put(asked.get(i).signalHash, a);
+                    remember(asked.get(i), a);
+                }
+            } catch (Exception e) {
+                log.error("❌ Gemini analysis failed for {} signals: {}", asked.size(), e.getMessage());
+            }
+        }
+
+        Map<String, Map<String, TradeAnalysis>> byTable = new LinkedHashMap<>();
+        for (Pending p : batch) {
+            TradeAnalysis a = byHash.get(p.signalHash);
+            if (a == null) continue;
+            byTable.computeIfAbsent(p.tableName, k -> new LinkedHashMap<>()).put(p.trade.getTradeId(), a);
+        }
+        for (Map.Entry<String, Map<String, TradeAnalysis>> e : byTable.entrySet()) {
+            try {
+                daoFactory.updateTradeAnalysis(e.getValue(), e.getKey());
+            } catch (Exception ex) {
+                log.error("❌ Failed to store {} analyses in {}: {}", e.getValue().size(), e.getKey(), ex.getMessage());
+            }
+        }
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batch.get(0).queuedNanos);
+        log.info("🧠 Analysed {} signals ({} Gemini, {} cached), {} ms after the first was queued; cache {} dbHits={}",
+                batch.size(), toAnalyse.size(), batch.size() - toAnalyse.size(), waitedMs, cache, dbHits.get());
+    }
+
+    private TradeAnalysis cached(String hash) {
+        if (!cfg.cache_enabled()) return null;
+        TradeAnalysis a = cache.get(hash);
+        if (a != null || !cfg.cache_persist_enabled()) return a;
+        try {
+            int ttlSeconds = Math.max(1, cfg.cache_ttl_minutes()) * 60;
+            Optional<CachedAnalysis> row = daoFactory.findCachedAnalysis(hash, ttlSeconds);
+            // the row keeps its original expiry; one that aged out between query and now is a miss
+            long remaining = row.isPresent() ? ttlSeconds - row.get().getAgeSeconds() : 0;
+            if (remaining > 0) {
+                String json = row.get().getResponseJson();
+                a = mapper.readValue(json, TradeAnalysis.class);
+                a.setResponseJson(json);
+                cache.put(hash, a, remaining, TimeUnit.SECONDS);
+                dbHits.incrementAndGet();
+            }
+        } catch (Exception e) {
+            log.warn("Analysis cache lookup failed: {}", e.getMessage());
+        }
+        return a;
+    }
+
+    private void remember(Pending p, TradeAnalysis a) {
+        if (!cfg.cache_enabled()) return;
+        cache.put(p.signalHash, a);
+        if (cfg.cache_persist_enabled() && a.getResponseJson() != null) {
+            try {
+                daoFactory.saveCachedAnalysis(p.signalHash, p.trade.getSymbol().getSymbol(), a.getResponseJson());
+            } catch (Exception e) {
+                log.warn("Failed to persist analysis cache entry: {}", e.getMessage());
+            }
+        }
+    }
+}
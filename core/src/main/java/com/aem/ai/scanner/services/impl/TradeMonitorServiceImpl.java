@@ -0,0 +1,148 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.model.Signal;
+import com.aem.ai.scanner.model.TradeModel;
+import com.aem.ai.scanner.services.OpenTradeBook;
+import com.aem.ai.scanner.services.TradeMonitorService;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component(service = TradeMonitorService.class, immediate = true)
+public class TradeMonitorServiceImpl implements TradeMonitorService {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeMonitorServiceImpl.class);
+
+    @Reference
+    private OpenTradeBook tradeBook;
+
+    @Override
+    public MonitorRun begin(String tableName) {
+        List<TradeModel> open = tradeBook.allOpenTrades(tableName);
+        log.debug("Trade monitor loaded {} open trades from {}", open.size(), tableName);
+        return new Run(tableName, open);
+    }
+
+    private final class Run implements MonitorRun {
+        private final String tableName;
+        /** Per-symbol trade lists; each list is also the lock for its symbol. */
+        private final Map<String, List<TradeModel>> bySymbol = new HashMap<>();
+        private final Map<String, Instant> priceTime = new ConcurrentHashMap<>();
+        private final Set<TradeModel> dirty = ConcurrentHashMap.newKeySet();
+        /** Which trades a price crossed, without scanning the symbol's trades. */
+        private final TriggerIndex triggers;
+        /** onPrice holds the read lock, close the write lock: no price lands after the final flush. */
+        private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+        private volatile boolean runClosed;
+
+        Run(String tableName, List<TradeModel> open) {
+            this.tableName = tableName;
+            this.triggers = new TriggerIndex(open);
+            for (TradeModel t : open) {
+                bySymbol.computeIfAbsent(t.getSymbol().getSymbol(), k -> new ArrayList<>()).add(t);
+            }
+        }
+
+        @Override
+        public List<TradeModel> onPrice(String symbol, double ltp, Instant asOf) {
+            List<TradeModel> trades = bySymbol.get(symbol);
+            if (trades == null) return Collections.emptyList();
+
+            lifecycle.readLock().lock();
+            try {
+                if (runClosed) return Collections.emptyList();
+                return apply(symbol, trades, ltp, asOf);
+            } finally {
+                lifecycle.readLock().unlock();
+            }
+        }
+
+        private List<TradeModel> apply(String symbol, List<TradeModel> trades, double ltp, Instant asOf) {
+            List<TradeModel> closed = new ArrayList<>(0);
+            synchronized (trades) {
+                Instant seen = priceTime.get(symbol);
+                if (seen != null && asOf != null && asOf.isBefore(seen)) {
+                    return closed;
+                }
+                if (asOf != null) priceTime.put(symbol, asOf);
+
+                for (TradeModel t : triggers.crossed(symbol, ltp)) {
+                    boolean buy = t.getSide() == Signal.Side.BUY;
+                    boolean hitTarget = buy ? ltp >= t.getTarget() : ltp <= t.getTarget();
+                    double exitPrice = hitTarget ? t.getTarget() : t.getStopLoss();
+                    double pnl = (buy ? exitPrice - t.getEntryPrice() : t.getEntryPrice() - exitPrice) * t.getQuantity();
+                    dirty.remove(t);
+                    // the book sets the exit only if this run wins against the tick monitor / exit signals
+                    if (tradeBook.close(tableName, t, exitPrice, LocalDateTime.now(), pnl)) {
+                        closed.add(t);
+                    }
+                }
+                // drops what this run closed and what another path closed since the run began
+                trades.removeIf(t -> t.getStatus() == TradeModel.Status.CLOSED);
+
+                // LTP/PnL still moves for every open trade of the symbol
+                for (TradeModel t : trades) {
+                    double perUnit = t.getSide() == Signal.Side.BUY ? ltp - t.getEntryPrice() : t.getEntryPrice() - ltp;
+                    t.setLtp(ltp);
+                    t.setPnl(perUnit * t.getQuantity());
+                    t.setPnlPercentage(t.getEntryPrice() != 0 ? (perUnit / t.getEntryPrice()) * 100.0 : 0.0);
+                    dirty.add(t);
+                }
+            }
+            return closed;
+        }
+
+        @Override
+        public int flush() {
+            List<TradeModel> batch = new ArrayList<>(dirty);
+            dirty.removeAll(batch);
+            for (TradeModel t : batch) {
+                tradeBook.updateLtp(tableName, t);
+            }
+            if (!batch.isEmpty()) {
+                log.info("💹 Trade monitor queued LTP/PnL for {} trades in {}", batch.size(), tableName);
+            }
+            return batch.size();
+        }
+
+        @Override
+        public int close() {
+            lifecycle.writeLock().lock();
+            try {
+                runClosed = true;
+                return flush();
+            } finally {
+                lifecycle.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            return runClosed;
+        }
+
+        @Override
+        public int openTrades() {
+            int n = 0;
+            for (List<TradeModel> trades : bySymbol.values()) {
+                synchronized (trades) {
+                    n += trades.size();
+                }
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.model.Signal;
+import com.aem.ai.scanner.model.TradeModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Open trades keyed by symbol, with four sorted price ladders per symbol: BUY targets and SELL
+ * stops fire at or above their level, BUY stops and SELL targets at or below it. A price move
+ * binary-searches each ladder for the cut point and returns exactly the trades crossed, so the
+ * cost is O(log n + crossed) instead of a scan over every open trade. Crossed trades are removed
+ * (each ladder only moves its head) and returned once, even if both their levels were crossed.
+ */
+final class TriggerIndex {
+
+    private volatile Map<String, SymbolTriggers> bySymbol = Collections.emptyMap();
+
+    TriggerIndex() {
+    }
+
+    TriggerIndex(Collection<TradeModel> open) {
+        reset(open);
+    }
+
+    /** Replace the whole index (e.g. after the open-trade book changed). */
+    void reset(Collection<TradeModel> open) {
+        Map<String, List<TradeModel>> grouped = new HashMap<>();
+        for (TradeModel t : open) {
+            grouped.computeIfAbsent(t.getSymbol().getSymbol(), k -> new ArrayList<>()).add(t);
+        }
+        Map<String, SymbolTriggers> next = new HashMap<>();
+        grouped.forEach((symbol, trades) -> next.put(symbol, new SymbolTriggers(trades)));
+        bySymbol = next;
+    }
+
+    /** Trades whose stop or target {@code price} reached; they are removed from the index. */
+    List<TradeModel> crossed(String symbol, double price) {
+        SymbolTriggers triggers = bySymbol.get(symbol);
+        return triggers == null ? Collections.emptyList() : triggers.crossed(price);
+    }
+
+    int size() {
+        int n = 0;
+        for (SymbolTriggers t : bySymbol.values()) {
+            n += t.size();
+        }
+        return n;
+    }
+
+    private static final class SymbolTriggers {
+        private final TradeModel[] trades;
+        private final boolean[] fired;
+        private int live;
+
+        private final Ladder buyTargets;
+        private final Ladder sellStops;
+        private final Ladder buyStops;
+        private final Ladder sellTargets;
+
+        /** Nearest untriggered levels; a price strictly between them crosses nothing. */
+        private volatile double lowestUpper;
+        private volatile double highestLower;
+
+        SymbolTriggers(List<TradeModel> open) {
+            trades = open.toArray(new TradeModel[0]);
+            fired = new boolean[trades.length];
+            live = trades.length;
+
+            List<Integer> buys = new ArrayList<>();
+            List<Integer> sells = new ArrayList<>();
+            for (int i = 0; i < trades.length; i++) {
+                (trades[i].getSide() == Signal.Side.BUY ? buys : sells).add(i);
+            }
+            buyTargets = new Ladder(trades, buys, true, true);
+            sellStops = new Ladder(trades, sells, false, true);
+            buyStops = new Ladder(trades, buys, false, false);
+            sellTargets = new Ladder(trades, sells, true, false);
+            bounds();
+        }
+
+        List<TradeModel> crossed(double price) {
+            // fast path, no lock: most ticks move inside the band
+            if (price < lowestUpper && price > highestLower) {
+                return Collections.emptyList();
+            }
+            synchronized (this) {
+                List<TradeModel> hit = new ArrayList<>(1);
+                buyTargets.take(price, this, hit);
+                sellStops.take(price, this, hit);
+                buyStops.take(price, this, hit);
+                sellTargets.take(price, this, hit);
+                if (!hit.isEmpty()) {
+                    bounds();
+                }
+                return hit;
+            }
+        }
+
+        /** Mark trade {@code i} fired; @return false if it already fired from another ladder */
+        private boolean fire(int i) {
+            if (fired[i]) return false;
+            fired[i] = true;
+            live--;
+            return true;
+        }
+
+        synchronized int size() {
+            return live;
+        }
+
+        private void bounds() {
+            lowestUpper = Math.min(buyTargets.next(fired), sellStops.next(fired));
+            highestLower = Math.max(buyStops.next(fired), sellTargets.next(fired));
+        }
+    }
+
+    /**
+     * Levels of one trigger kind in firing order: ascending for levels that fire at or above
+     * (upward ladder), descending for those that fire at or below. {@code head} is the first
+     * level not yet crossed.
+     */
+    private static final class Ladder {
+        private final boolean upward;
+        private final double[] levels;
+        private final int[] tradeIdx;
+        private int head;
+
+        Ladder(TradeModel[] trades, List<Integer> idx, boolean target, boolean upward) {
+            this.upward = upward;
+            int n = idx.size();
+            double[] raw = new double[n];
+            for (int k = 0; k < n; k++) {
+                TradeModel t = trades[idx.get(k)];
+                raw[k] = target ? t.getTarget() : t.getStopLoss();
+            }
+            // primitive sort of the levels, then each trade goes to the next free slot of its level's
+            // run (in input order, as a stable sort would); a boxed index sort dominated resync
+            levels = raw.clone();
+            Arrays.sort(levels);
+            if (!upward) {
+                for (int lo = 0, hi = n - 1; lo < hi; lo++, hi--) {
+                    double tmp = levels[lo];
+                    levels[lo] = levels[hi];
+                    levels[hi] = tmp;
+                }
+            }
+            tradeIdx = new int[n];
+            int[] used = new int[n];
+            for (int k = 0; k < n; k++) {
+                int run = runStart(raw[k]);
+                tradeIdx[run + used[run]++] = idx.get(k);
+            }
+        }
+
+        /** First index holding {@code level} (same order as Arrays.sort, so NaN and -0.0 resolve too). */
+        private int runStart(double level) {
+            int lo = 0;
+            int hi = levels.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int c = Double.compare(levels[mid], level);
+                if (upward ? c < 0 : c > 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /** Fire every level the price reached, from the head up to the binary-searched cut. */
+        void take(double price, SymbolTriggers owner, List<TradeModel> hit) {
+            int cut = cut(price);
+            for (int k = head; k < cut; k++) {
+                int i = tradeIdx[k];
+                if (owner.fire(i)) hit.add(owner.trades[i]);
+            }
+            if (cut > head) head = cut;
+        }
+
+        /** First index at or after head whose level the price has not reached. */
+        private int cut(double price) {
+            int lo = head;
+            int hi = levels.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                boolean reached = upward ? price >= levels[mid] : price <= levels[mid];
+                if (reached) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /** Nearest level still live (trades fired from another ladder are skipped). */
+        double next(boolean[] fired) {
+            while (head < levels.length && fired[tradeIdx[head]]) head++;
+            if (head < levels.length) return levels[head];
+            return upward ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.aem.ai.scanner.utils;
+
+
+/**
+ * Non-2xx HTTP answer, carrying the status and the Retry-After header (if any) so callers can
+ * tell throttling (429/503) apart from other failures.
+ */
+public class HttpStatusException extends RuntimeException {
+
+    private final int status;
+    private final String retryAfter;
+
+    public HttpStatusException(int status, String retryAfter, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /** Raw Retry-After header value (delta-seconds or HTTP-date), or {@code null}. */
+    public String getRetryAfter() {
+        return retryAfter;
+    }
+
+    public boolean isThrottled() {
+        return status == 429 || status == 503;
+    }
+}
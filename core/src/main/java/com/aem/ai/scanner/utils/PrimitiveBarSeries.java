@@ -0,0 +1,174 @@
+package com.aem.ai.scanner.utils;
+
+
+import com.aem.ai.scanner.model.Candle;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.num.DoubleNum;
+import org.ta4j.core.num.Num;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar OHLCV series backed by primitive arrays (epoch millis + five double columns).
+ *
+ * A 365-bar series is ~17 KB of arrays instead of a BaseBar, a ZonedDateTime and six
+ * DecimalNum/BigDecimal values per bar. Use {@link #toBarSeries(Duration, ZoneId)} where ta4j
+ * is still required (rules, BarSeriesManager); that adapter uses {@link DoubleNum}.
+ *
+ * Bars are kept in ascending time order. Not thread-safe while being appended to.
+ */
+public class PrimitiveBarSeries {
+
+    private final String name;
+    private long[] time;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private double[] volume;
+    private int size;
+
+    public PrimitiveBarSeries(String name, int capacity) {
+        int cap = Math.max(16, capacity);
+        this.name = name;
+        this.time = new long[cap];
+        this.open = new double[cap];
+        this.high = new double[cap];
+        this.low = new double[cap];
+        this.close = new double[cap];
+        this.volume = new double[cap];
+    }
+
+    public static PrimitiveBarSeries of(String name, List<Candle> candles) {
+        PrimitiveBarSeries s = new PrimitiveBarSeries(name, candles.size());
+        for (Candle c : candles) {
+            s.add(c);
+        }
+        return s;
+    }
+
+    public void add(Candle c) {
+        if (c == null || c.getTime() == null) return;
+        add(c.getTime().toEpochMilli(), c.getOpen(), c.getHigh(), c.getLow(), c.getClose(), c.getVolume());
+    }
+
+    /**
+     * Append a bar. A bar with the same time as the last one replaces it (forming bar re-sent);
+     * older bars are ignored.
+     */
+    public void add(long epochMillis, double o, double h, double l, double c, double v) {
+        int idx;
+        if (size > 0 && epochMillis == time[size - 1]) {
+            idx = size - 1;
+        } else if (size > 0 && epochMillis < time[size - 1]) {
+            return;
+        } else {
+            ensureCapacity(size + 1);
+            idx = size++;
+        }
+        time[idx] = epochMillis;
+        open[idx] = o;
+        high[idx] = h;
+        low[idx] = l;
+        close[idx] = c;
+        volume[idx] = v;
+    }
+
+    /** Copy of bars {@code [from, to)} as a new series. */
+    public PrimitiveBarSeries slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("slice [" + from + "," + to + ") of " + size);
+        }
+        PrimitiveBarSeries s = new PrimitiveBarSeries(name, to - from);
+        int n = to - from;
+        System.arraycopy(time, from, s.time, 0, n);
+        System.arraycopy(open, from, s.open, 0, n);
+        System.arraycopy(high, from, s.high, 0, n);
+        System.arraycopy(low, from, s.low, 0, n);
+        System.arraycopy(close, from, s.close, 0, n);
+        System.arraycopy(volume, from, s.volume, 0, n);
+        s.size = n;
+        return s;
+    }
+
+    /**
+     * Build a ta4j series over the same bars, with {@link DoubleNum} values.
+     *
+     * @param barDuration duration of one bar
+     * @param zone        zone used for the bar end times
+     */
+    public BarSeries toBarSeries(Duration barDuration, ZoneId zone) {
+        BarSeries series = new BaseBarSeriesBuilder()
+                .withName(name)
+                .withNumTypeOf(DoubleNum.class)
+                .build();
+        for (int i = 0; i < size; i++) {
+            Num c = DoubleNum.valueOf(close[i]);
+            Num v = DoubleNum.valueOf(volume[i]);
+            series.addBar(new BaseBar(
+                    barDuration,
+                    Instant.ofEpochMilli(time[i]).atZone(zone),
+                    DoubleNum.valueOf(open[i]),
+                    DoubleNum.valueOf(high[i]),
+                    DoubleNum.valueOf(low[i]),
+                    c,
+                    v,
+                    v.multipliedBy(c),
+                    0L
+            ));
+        }
+        return series;
+    }
+
+    public Candle candle(int i) {
+        checkIndex(i);
+        return new Candle(Instant.ofEpochMilli(time[i]), open[i], high[i], low[i], close[i], volume[i]);
+    }
+
+    public String name() { return name; }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public long time(int i) { checkIndex(i); return time[i]; }
+
+    public double open(int i) { checkIndex(i); return open[i]; }
+
+    public double high(int i) { checkIndex(i); return high[i]; }
+
+    public double low(int i) { checkIndex(i); return low[i]; }
+
+    public double close(int i) { checkIndex(i); return close[i]; }
+
+    public double volume(int i) { checkIndex(i); return volume[i]; }
+
+    /** Index of the first bar at or after {@code epochMillis}, or {@link #size()} if none. */
+    public int indexAtOrAfter(long epochMillis) {
+        int idx = Arrays.binarySearch(time, 0, size, epochMillis);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("bar " + i + " of " + size);
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= time.length) return;
+        int cap = Math.max(needed, time.length + (time.length >> 1));
+        time = Arrays.copyOf(time, cap);
+        open = Arrays.copyOf(open, cap);
+        high = Arrays.copyOf(high, cap);
+        low = Arrays.copyOf(low, cap);
+        close = Arrays.copyOf(close, cap);
+        volume = Arrays.copyOf(volume, cap);
+    }
+}
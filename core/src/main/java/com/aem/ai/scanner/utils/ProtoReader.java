@@ -0,0 +1,99 @@
+package com.aem.ai.scanner.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal protobuf wire-format reader, enough to pull a few fields out of broker feed messages
+ * (e.g. Upstox market-data-feed LTPC) without generated classes. Unknown fields are skipped.
+ */
+public final class ProtoReader {
+
+    public static final int VARINT = 0;
+    public static final int FIXED64 = 1;
+    public static final int LENGTH_DELIMITED = 2;
+    public static final int FIXED32 = 5;
+
+    private final ByteBuffer buf;
+
+    public ProtoReader(ByteBuffer buf) {
+        this.buf = buf.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public boolean hasRemaining() {
+        return buf.hasRemaining();
+    }
+
+    /** @return the next field tag; split it with {@link #field(int)} and {@link #wireType(int)} */
+    public int readTag() {
+        return (int) readVarint();
+    }
+
+    public static int field(int tag) {
+        return tag >>> 3;
+    }
+
+    public static int wireType(int tag) {
+        return tag & 7;
+    }
+
+    public long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public double readDouble() {
+        return buf.getDouble();
+    }
+
+    public String readString() {
+        byte[] bytes = new byte[readLength()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Reader over an embedded message; this reader moves past it. */
+    public ProtoReader readMessage() {
+        int len = readLength();
+        ByteBuffer slice = buf.slice();
+        slice.limit(len);
+        buf.position(buf.position() + len);
+        return new ProtoReader(slice);
+    }
+
+    public void skip(int wireType) {
+        switch (wireType) {
+            case VARINT:
+                readVarint();
+                break;
+            case FIXED64:
+                buf.position(buf.position() + 8);
+                break;
+            case LENGTH_DELIMITED:
+                int len = readLength();
+                buf.position(buf.position() + len);
+                break;
+            case FIXED32:
+                buf.position(buf.position() + 4);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported wire type " + wireType);
+        }
+    }
+
+    private int readLength() {
+        long len = readVarint();
+        if (len < 0 || len > buf.remaining()) {
+            throw new IllegalArgumentException("Truncated message");
+        }
+        return (int) len;
+    }
+}
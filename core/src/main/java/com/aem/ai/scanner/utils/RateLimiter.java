@@ -1,53 +1,91 @@
 package com.aem.ai.scanner.utils;
 
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Simple token-bucket style RateLimiter.
- * Limits requests to a maximum rate (permits per second).
+ * Token-bucket RateLimiter.
+ * Refills at {@code permitsPerSecond} (fractional rates allowed, e.g. 0.5 = one call per 2s) up to
+ * {@code burst} stored permits. {@link #pauseFor(long)} blocks all permits for a while, e.g. when
+ * the remote side answered HTTP 429 with a Retry-After.
  */
 public class RateLimiter {
 
-    private final long permitsPerSecond;
-    private final long intervalNanos;
-    private final AtomicLong nextFreeSlot = new AtomicLong(System.nanoTime());
+    private final double permitsPerSecond;
+    private final double burst;
+
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+    private long pausedUntilNanos = Long.MIN_VALUE;
 
     public static RateLimiter create(double permitsPerSecond) {
+        return create(permitsPerSecond, 1);
+    }
+
+    public static RateLimiter create(double permitsPerSecond, int burst) {
         if (permitsPerSecond <= 0) {
             throw new IllegalArgumentException("permitsPerSecond must be > 0");
         }
-        return new RateLimiter((long) permitsPerSecond);
+        return new RateLimiter(permitsPerSecond, Math.max(1, burst));
     }
 
-    private RateLimiter(long permitsPerSecond) {
+    private RateLimiter(double permitsPerSecond, int burst) {
         this.permitsPerSecond = permitsPerSecond;
-        this.intervalNanos = 1_000_000_000L / permitsPerSecond;
+        this.burst = burst;
+        this.tokens = burst;
+    }
+
+    public double permitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int burst() {
+        return (int) burst;
     }
 
     /**
      * Blocks until a permit is available.
+     * @throws InterruptedException if interrupted while waiting; no permit was taken, so the call must not go out
      */
-    public void acquire() {
+    public void acquire() throws InterruptedException {
         while (true) {
-            long now = System.nanoTime();
-            long availableAt = nextFreeSlot.get();
-
-            if (now >= availableAt) {
-                long next = now + intervalNanos;
-                if (nextFreeSlot.compareAndSet(availableAt, next)) {
-                    return; // acquired successfully
-                }
-            } else {
-                long sleepNanos = availableAt - now;
-                try {
-                    Thread.sleep(sleepNanos / 1_000_000L,
-                            (int) (sleepNanos % 1_000_000L));
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
+            long waitNanos = reserveOrWait();
+            if (waitNanos == 0) {
+                return;
             }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /** Take a permit if one is available right now. */
+    public boolean tryAcquire() {
+        return reserveOrWait() == 0;
+    }
+
+    /** Hand out no permits for the next {@code millis} and drop the stored burst. */
+    public synchronized void pauseFor(long millis) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        if (pausedUntilNanos == Long.MIN_VALUE || until - pausedUntilNanos > 0) {
+            pausedUntilNanos = until;
+            lastRefillNanos = until;
+        }
+        tokens = 0;
+    }
+
+    /** @return 0 if a permit was taken, otherwise nanos to wait before trying again */
+    private synchronized long reserveOrWait() {
+        long now = System.nanoTime();
+        if (pausedUntilNanos != Long.MIN_VALUE && now - pausedUntilNanos < 0) {
+            return pausedUntilNanos - now;
+        }
+        if (now - lastRefillNanos > 0) {
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerSecond / 1_000_000_000d);
+            lastRefillNanos = now;
+        }
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return 0;
         }
+        return Math.max(1L, (long) ((1.0 - tokens) * 1_000_000_000d / permitsPerSecond));
     }
 }
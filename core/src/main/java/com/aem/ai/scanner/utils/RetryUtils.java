@@ -2,6 +2,7 @@ package com.aem.ai.scanner.utils;
 
 
 import java.util.concurrent.Callable;
+import java.util.function.Predicate;
 
 /**
  * Retry with exponential backoff.
@@ -9,13 +10,21 @@ import java.util.concurrent.Callable;
 public class RetryUtils {
 
     public static <T> T executeWithExponentialBackoff(Callable<T> task, int maxAttempts, long baseMillis) throws Exception {
+        return executeWithExponentialBackoff(task, maxAttempts, baseMillis, e -> true);
+    }
+
+    /**
+     * Same as above, but exceptions for which {@code retryable} is false are rethrown immediately.
+     */
+    public static <T> T executeWithExponentialBackoff(Callable<T> task, int maxAttempts, long baseMillis,
+                                                      Predicate<Exception> retryable) throws Exception {
         int attempt = 0;
         while (true) {
             try {
                 return task.call();
             } catch (Exception e) {
                 attempt++;
-                if (attempt >= maxAttempts) throw e;
+                if (attempt >= maxAttempts || !retryable.test(e)) throw e;
                 long sleep = baseMillis * (1L << (attempt - 1));
                 Thread.sleep(sleep);
             }
@@ -0,0 +1,262 @@
+package com.aem.ai.scanner.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Staged work pipeline used by the live scanners (fetch → evaluate → signal → persist).
+ *
+ * Every stage owns a bounded queue and its own worker threads. Stages hand items downstream with
+ * {@link Stage#submit(Object)}, which blocks while the next queue is full, so a slow Gemini or
+ * Telegram stage backs up evaluation instead of letting work pile up in memory. Each stage records
+ * how long items waited in its queue and how long its handler took. After {@link #shutdown()}
+ * every submit returns {@code false} instead of waiting on a stage that has no workers left.
+ */
+public class ScanPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ScanPipeline.class);
+
+    @FunctionalInterface
+    public interface Handler<T> {
+        void handle(T item) throws Exception;
+    }
+
+    /** Unit of work for terminal stages that just run side effects (DB writes, notifications). */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    /** How often a waiting submit re-checks for shutdown. */
+    private static final long OFFER_POLL_MS = 100;
+
+    private final String name;
+    private volatile boolean closed;
+    private final List<Stage<?>> stages = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Object idleLock = new Object();
+
+    public ScanPipeline(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Add a stage. Stages are wired by the caller: build the last stage first and let upstream
+     * handlers submit into it.
+     */
+    public <T> Stage<T> stage(String stageName, int workers, int capacity, Handler<T> handler) {
+        Stage<T> stage = new Stage<>(stageName, Math.max(1, capacity), handler);
+        int n = Math.max(1, workers);
+        for (int i = 1; i <= n; i++) {
+            Thread t = new Thread(stage::work, name + "-" + stageName + "-" + i);
+            t.setDaemon(true);
+            stage.threads.add(t);
+            t.start();
+        }
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Block until every submitted item has left the pipeline (including items produced
+     * downstream), or the timeout passes.
+     *
+     * @return {@code true} if the pipeline drained in time
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMillis));
+        synchronized (idleLock) {
+            while (inFlight.get() > 0) {
+                long waitMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (waitMs <= 0) {
+                    return false;
+                }
+                idleLock.wait(waitMs);
+            }
+        }
+        return true;
+    }
+
+    /** Drop everything still queued (items already being handled finish). @return items dropped */
+    public int discardQueued() {
+        int dropped = 0;
+        for (Stage<?> s : stages) {
+            List<Object> drained = new ArrayList<>();
+            s.queue.drainTo(drained);
+            for (int i = 0; i < drained.size(); i++) {
+                done();
+            }
+            dropped += drained.size();
+        }
+        return dropped;
+    }
+
+    /** Per-stage metrics since the last reset; {@code reset} starts a new measurement window. */
+    public List<StageStats> stats(boolean reset) {
+        List<StageStats> out = new ArrayList<>(stages.size());
+        for (Stage<?> s : stages) {
+            out.add(s.stats(reset));
+        }
+        return out;
+    }
+
+    /** Set by {@link #shutdown()}; a run still feeding the pipeline should stop. */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void shutdown() {
+        closed = true;
+        for (Stage<?> s : stages) {
+            s.queue.clear();
+            s.threads.forEach(Thread::interrupt);
+        }
+        stages.clear();
+        inFlight.set(0);
+        synchronized (idleLock) {
+            idleLock.notifyAll();
+        }
+    }
+
+    private void done() {
+        if (inFlight.decrementAndGet() <= 0) {
+            synchronized (idleLock) {
+                idleLock.notifyAll();
+            }
+        }
+    }
+
+    public final class Stage<T> {
+        private final String stageName;
+        private final BlockingQueue<Queued<T>> queue;
+        private final Handler<T> handler;
+        private final List<Thread> threads = new ArrayList<>();
+
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong waitNanos = new AtomicLong();
+        private final AtomicLong serviceNanos = new AtomicLong();
+        private final AtomicLong maxServiceNanos = new AtomicLong();
+
+        private Stage(String stageName, int capacity, Handler<T> handler) {
+            this.stageName = stageName;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.handler = handler;
+        }
+
+        /**
+         * Enqueue an item, blocking while this stage is full (backpressure on the caller).
+         * @return {@code false} if the pipeline was shut down
+         */
+        public boolean submit(T item) throws InterruptedException {
+            return submit(item, Long.MAX_VALUE);
+        }
+
+        /**
+         * Enqueue an item, waiting for room until {@code deadlineMillis} (epoch millis).
+         * @return {@code false} if the deadline passed or the pipeline was shut down first
+         */
+        public boolean submit(T item, long deadlineMillis) throws InterruptedException {
+            if (closed) return false;
+            inFlight.incrementAndGet();
+            boolean queued = false;
+            try {
+                Queued<T> q = new Queued<>(item, System.nanoTime());
+                while (!closed) {
+                    long remaining = deadlineMillis - System.currentTimeMillis();
+                    if (remaining <= 0) break;
+                    if (queue.offer(q, Math.min(remaining, OFFER_POLL_MS), TimeUnit.MILLISECONDS)) {
+                        // shutdown() may have cleared the queue while we waited: nobody will take it
+                        queued = !closed || !queue.remove(q);
+                        break;
+                    }
+                }
+                return queued;
+            } finally {
+                if (!queued) done();
+            }
+        }
+
+        private void work() {
+            while (!Thread.currentThread().isInterrupted()) {
+                Queued<T> q;
+                try {
+                    q = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long start = System.nanoTime();
+                waitNanos.addAndGet(start - q.enqueuedNanos);
+                try {
+                    handler.handle(q.item);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.warn("{} stage '{}' failed: {}", name, stageName, e.getMessage());
+                } finally {
+                    long took = System.nanoTime() - start;
+                    serviceNanos.addAndGet(took);
+                    maxServiceNanos.accumulateAndGet(took, Math::max);
+                    processed.incrementAndGet();
+                    done();
+                }
+            }
+        }
+
+        private StageStats stats(boolean reset) {
+            if (!reset) {
+                return new StageStats(stageName, processed.get(), failed.get(), queue.size(),
+                        waitNanos.get(), serviceNanos.get(), maxServiceNanos.get());
+            }
+            return new StageStats(stageName, processed.getAndSet(0), failed.getAndSet(0), queue.size(),
+                    waitNanos.getAndSet(0), serviceNanos.getAndSet(0), maxServiceNanos.getAndSet(0));
+        }
+    }
+
+    private static final class Queued<T> {
+        final T item;
+        final long enqueuedNanos;
+
+        Queued(T item, long enqueuedNanos) {
+            this.item = item;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    public static class StageStats {
+        public final String stage;
+        public final long processed;
+        public final long failed;
+        public final int queued;
+        public final double avgWaitMs;
+        public final double avgServiceMs;
+        public final double maxServiceMs;
+
+        StageStats(String stage, long processed, long failed, int queued,
+                   long waitNanos, long serviceNanos, long maxServiceNanos) {
+            this.stage = stage;
+            this.processed = processed;
+            this.failed = failed;
+            this.queued = queued;
+            this.avgWaitMs = processed == 0 ? 0 : waitNanos / 1e6 / processed;
+            this.avgServiceMs = processed == 0 ? 0 : serviceNanos / 1e6 / processed;
+            this.maxServiceMs = maxServiceNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s{n=%d, failed=%d, queued=%d, wait=%.1fms, avg=%.1fms, max=%.1fms}",
+                    stage, processed, failed, queued, avgWaitMs, avgServiceMs, maxServiceMs);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.aem.ai.scanner.utils;
 
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -21,6 +22,23 @@ public class Timeframes {
         return out;
     }
 
+    /** Bar length for codes like 5m, 1h, 1d, 1w; defaults to 5 minutes when unparseable. */
+    public static Duration duration(String tf) {
+        if (tf == null || tf.length() < 2) return Duration.ofMinutes(5);
+        try {
+            long n = Long.parseLong(tf.substring(0, tf.length() - 1));
+            switch (tf.charAt(tf.length() - 1)) {
+                case 'm': return Duration.ofMinutes(n);
+                case 'h': return Duration.ofHours(n);
+                case 'd': return Duration.ofDays(n);
+                case 'w': return Duration.ofDays(7 * n);
+                default: return Duration.ofMinutes(5);
+            }
+        } catch (NumberFormatException e) {
+            return Duration.ofMinutes(5);
+        }
+    }
+
     public static boolean isHistoricalBucket(String tf) {
         // days/weeks/months => historical; intraday for m/h (except current day window logic can be handled by service)
         return tf.endsWith("d") || tf.endsWith("w");
@@ -0,0 +1,101 @@
+package com.aem.ai.scanner.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small thread-safe cache bounded by size (least recently used entries go first) and by age
+ * (entries expire {@code ttl} after they were written). Counts hits, misses and evictions.
+ */
+public class TtlLruCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAtNanos;
+
+        Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public TtlLruCache(int maxEntries, long ttl, TimeUnit unit) {
+        int max = Math.max(1, maxEntries);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > max) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** @return the live value or {@code null}; counts a hit or a miss */
+    public synchronized V get(K key) {
+        Entry<V> e = map.get(key);
+        if (e != null && e.expiresAtNanos - System.nanoTime() > 0) {
+            hits.incrementAndGet();
+            return e.value;
+        }
+        if (e != null) {
+            map.remove(key);
+            evictions.incrementAndGet();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    /** Put with its own, shorter lifetime (e.g. what is left of a reloaded entry's TTL); capped at the cache TTL. */
+    public synchronized void put(K key, V value, long ttl, TimeUnit unit) {
+        map.put(key, new Entry<>(value, System.nanoTime() + Math.min(ttlNanos, unit.toNanos(ttl))));
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public double hitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d hits=%d misses=%d hitRate=%.1f%% evictions=%d",
+                size(), hits(), misses(), hitRate() * 100, evictions());
+    }
+}
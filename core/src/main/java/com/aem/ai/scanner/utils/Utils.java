@@ -6,9 +6,15 @@ import com.aem.ai.scanner.model.Signal;
 import com.aem.ai.scanner.model.StrategyConfig;
 import org.ta4j.core.Bar;
 import org.ta4j.core.BaseBar;
-import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.DoubleNum;
 import org.ta4j.core.num.Num;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -32,8 +38,8 @@ public class Utils {
             default: throw new IllegalArgumentException("Unsupported timeframe: " + tf);
         }
     }
-    /** Safe Num creation */
-    private static Num num(double v) { return DecimalNum.valueOf(Double.toString(v)); }
+    /** Safe Num creation (DoubleNum: no BigDecimal/String round trip per field) */
+    private static Num num(double v) { return DoubleNum.valueOf(v); }
     private static Bar toBar(Candle c, String timeframe) {
         ZonedDateTime endTime = c.getTime()
                 .atZone(ZoneId.systemDefault()).withZoneSameInstant(IST_ZONE);
@@ -87,4 +93,40 @@ public class Utils {
         sb.append("📈📊 ==============================================\n");
         return sb.toString();
     }
+
+    /**
+     * Normalized identity of a trade signal: the inputs of {@link #formatTradeSignalMessage} that
+     * matter to an analysis (symbol, timeframe, strategy, side and prices rounded to
+     * {@code significantDigits}), hashed with SHA-256. Repeats of one signal on later ticks map to
+     * the same key even if prices moved within the rounding.
+     */
+    public static String signalHash(String symbol, String timeframe, String strategy, Signal.Side side,
+                                    double entry, double stopLoss, double target, int significantDigits) {
+        String key = String.join("|",
+                symbol == null ? "" : symbol.toUpperCase(),
+                timeframe == null ? "" : timeframe,
+                strategy == null ? "" : strategy,
+                String.valueOf(side),
+                roundSignificant(entry, significantDigits),
+                roundSignificant(stopLoss, significantDigits),
+                roundSignificant(target, significantDigits));
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : md.digest(key.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String roundSignificant(double v, int digits) {
+        if (Double.isNaN(v) || Double.isInfinite(v)) return "NaN";
+        if (v == 0) return "0";
+        return new BigDecimal(v).round(new MathContext(Math.max(1, digits), RoundingMode.HALF_UP))
+                .stripTrailingZeros().toPlainString();
+    }
 }
@@ -0,0 +1,16 @@
+--
+-- Database: algo_db
+--
+-- Table structure for table `gemini_analysis_cache`
+-- Gemini trade-signal analyses keyed by the normalized signal hash (Utils.signalHash);
+-- rows older than the analysis queue's cache TTL are ignored and may be purged at any time.
+--
+
+CREATE TABLE IF NOT EXISTS `gemini_analysis_cache` (
+  `signal_hash` char(64) NOT NULL,
+  `symbol` varchar(64) DEFAULT NULL,
+  `response_json` mediumtext NOT NULL,
+  `created_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`signal_hash`),
+  KEY `idx_gac_created` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,16 @@
+--
+-- Database: algo_db
+--
+-- Table structure for table `trade_book_applied_op`
+-- Ids of open-trade book COMMENT ops already appended to a trades table, written in the same
+-- transaction as the comment so a journal replay after a crash does not append it twice;
+-- rows are pruned by the open trade book after a few days.
+--
+
+CREATE TABLE IF NOT EXISTS `trade_book_applied_op` (
+  `op_id` char(36) NOT NULL,
+  `table_name` varchar(64) NOT NULL,
+  `applied_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`op_id`),
+  KEY `idx_tbao_applied` (`applied_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
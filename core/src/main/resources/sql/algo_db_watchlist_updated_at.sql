@@ -0,0 +1,15 @@
+--
+-- Database: algo_db
+--
+-- Version column for the watchlist tables read by StrategyRegistryImpl: bumped on every insert
+-- or BEST_STRATEGY update, so the registry only re-reads rows changed since its last load.
+-- Apply to every configured watchlist table (defaults: nifty500_watchlist, delta_watchlist).
+--
+
+ALTER TABLE `nifty500_watchlist`
+  ADD COLUMN `UPDATED_AT` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY `idx_nw_updated_at` (`UPDATED_AT`);
+
+ALTER TABLE `delta_watchlist`
+  ADD COLUMN `UPDATED_AT` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  ADD KEY `idx_dw_updated_at` (`UPDATED_AT`);
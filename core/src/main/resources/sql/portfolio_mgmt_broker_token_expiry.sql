@@ -0,0 +1,10 @@
+--
+-- Database: portfolio_mgmt
+--
+-- broker_token tables created by KiteAuthServiceImpl's CREATE TABLE IF NOT EXISTS before this
+-- change hold token_expiry as VARCHAR(128); it is written with setTimestamp and compared as a
+-- time by BrokerTokenCacheImpl, so store it as DATETIME like the dump's timestamp column.
+--
+
+ALTER TABLE `broker_token`
+  MODIFY COLUMN `token_expiry` datetime NULL DEFAULT NULL;
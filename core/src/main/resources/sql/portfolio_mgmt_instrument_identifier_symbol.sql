@@ -0,0 +1,12 @@
+--
+-- Database: portfolio_mgmt
+--
+-- Exchange + trading symbol per broker identifier, written by InstrumentMasterServiceImpl's
+-- bulk import and read by InstrumentResolverImpl, which resolves holdings and positions by
+-- (exchange_code, symbol).
+--
+
+ALTER TABLE `instrument_identifier`
+  ADD COLUMN `exchange_code` varchar(16) DEFAULT NULL,
+  ADD COLUMN `symbol` varchar(64) DEFAULT NULL,
+  ADD KEY `ix_identifier_exchange_symbol` (`exchange_code`,`symbol`);
@@ -0,0 +1,101 @@
+package com.aem.ai.scanner.backtest;
+
+import com.aem.ai.scanner.model.Condition;
+import com.aem.ai.scanner.model.StrategyConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link GridSearch} over the built-in EMA (6 values) x MACD fast/slow/signal (3 x 3 x 3) grid of
+ * 162 points.
+ */
+public class GridSearchTest {
+
+    @Test
+    public void evaluatesTheWholeGridWithinBudget() {
+        List<StrategyConfig> seen = search(1000);
+        assertEquals(162, seen.size());
+        assertEquals(6, distinct(seen, c -> c.period, 0).size());
+        assertEquals(3, distinct(seen, c -> c.signal, 1).size());
+    }
+
+    @Test
+    public void overBudgetEveryDimensionStillMoves() {
+        // a flat stride of 162 / 18 = 9 is a multiple of the slow and signal radices: both stayed put
+        List<StrategyConfig> seen = search(18);
+        assertTrue("budget exceeded: " + seen.size(), seen.size() <= 18);
+        assertTrue(distinct(seen, c -> c.period, 0).size() > 1);
+        assertTrue(distinct(seen, c -> c.fast, 1).size() > 1);
+        assertTrue(distinct(seen, c -> c.slow, 1).size() > 1);
+        assertTrue(distinct(seen, c -> c.signal, 1).size() > 1);
+        // first and last value of a sampled dimension are both covered
+        assertTrue(distinct(seen, c -> c.period, 0).containsAll(Arrays.asList(5, 50)));
+    }
+
+    @Test
+    public void spreadKeepsEndsAndStaysDistinct() {
+        assertEquals(Arrays.asList(0, 3, 5), box(GridSearch.spread(6, 3)));
+        assertEquals(Arrays.asList(0, 1, 2), box(GridSearch.spread(3, 3)));
+        assertEquals(Collections.singletonList(1), box(GridSearch.spread(3, 1)));
+    }
+
+    private static List<StrategyConfig> search(int budget) {
+        StrategyConfig template = new StrategyConfig();
+        template.setName("grid");
+        template.setRules(new ArrayList<>(Arrays.asList(
+                rule(cond("EMA", 21, null, null, null)),
+                rule(cond("MACD", null, 12, 26, 9)))));
+        List<StrategyConfig> seen = new ArrayList<>();
+        new GridSearch().search(template, ParameterSpace.of(template), budget, (candidates, fraction) -> {
+            seen.addAll(candidates);
+            return Collections.emptyList();
+        });
+        return seen;
+    }
+
+    private interface Param {
+        Integer of(Condition c);
+    }
+
+    private static Set<Integer> distinct(List<StrategyConfig> configs, Param param, int rule) {
+        Set<Integer> out = new HashSet<>();
+        for (StrategyConfig c : configs) {
+            out.add(param.of(c.getRules().get(rule).getConditions().get(0)));
+        }
+        return out;
+    }
+
+    private static List<Integer> box(int[] values) {
+        List<Integer> out = new ArrayList<>();
+        for (int v : values) out.add(v);
+        return out;
+    }
+
+    private static StrategyConfig.RuleConfig rule(Condition condition) {
+        StrategyConfig.RuleConfig rc = new StrategyConfig.RuleConfig();
+        rc.setAction("BUY");
+        rc.setConditions(new ArrayList<>(Collections.singletonList(condition)));
+        return rc;
+    }
+
+    private static Condition cond(String indicator, Integer period, Integer fast, Integer slow, Integer signal) {
+        Condition c = new Condition();
+        c.indicator = indicator;
+        c.operator = ">";
+        c.value = 0;
+        c.period = period;
+        c.fast = fast;
+        c.slow = slow;
+        c.signal = signal;
+        return c;
+    }
+}
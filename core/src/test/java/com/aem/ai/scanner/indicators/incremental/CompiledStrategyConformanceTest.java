@@ -0,0 +1,189 @@
+package com.aem.ai.scanner.indicators.incremental;
+
+import com.aem.ai.scanner.factory.impl.IndicatorFactoryImpl;
+import com.aem.ai.scanner.factory.impl.RuleFactoryImpl;
+import com.aem.ai.scanner.factory.impl.StrategyFactoryImpl;
+import com.aem.ai.scanner.indicators.IndicatorRegistry;
+import com.aem.ai.scanner.model.Candle;
+import com.aem.ai.scanner.model.Condition;
+import com.aem.ai.scanner.model.StrategyConfig;
+import com.aem.ai.scanner.utils.PrimitiveBarSeries;
+import org.junit.Test;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Strategy;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link CompiledStrategy} against the ta4j strategy built by {@link StrategyFactoryImpl} for the same
+ * config: at every bar of the fixtures both must agree on entry and exit.
+ */
+public class CompiledStrategyConformanceTest {
+
+    /** Bars before this are indicator warm-up, where ta4j and the incremental seeds may differ. */
+    private static final int WARMUP = 40;
+
+    private final StrategyFactoryImpl factory = strategyFactory();
+
+    @Test
+    public void thresholds() {
+        StrategyConfig cfg = strategy(
+                rule("BUY", cond("RSI", "<", 45, 14, null, null, null)),
+                rule("SELL", cond("RSI", ">", 55, 14, null, null, null)));
+        assertConforms(cfg, true);
+    }
+
+    @Test
+    public void emaCrossesClose() {
+        StrategyConfig cfg = strategy(
+                rule("BUY", cond("EMA", "cross_up", null, 10, null, null, null)),
+                rule("SELL", cond("EMA", "cross_down", null, 10, null, null, null)));
+        assertConforms(cfg, true);
+    }
+
+    @Test
+    public void macdSignalLine() {
+        StrategyConfig cfg = strategy(
+                rule("BUY", cond("MACD", "cross_up", "signal_line", null, 8, 17, 5)),
+                rule("SELL", cond("MACD", "cross_down", "signal_line", null, 8, 17, 5)));
+        assertConforms(cfg, true);
+    }
+
+    @Test
+    public void defaultedParameters() {
+        StrategyConfig cfg = strategy(
+                rule("BUY", cond("MACD", "cross_up", "signal_line", null, null, null, null)),
+                rule("BUY", cond("EMA_CROSS", "cross_up", null, null, null, null, null)),
+                rule("SELL", cond("RSI", ">", 60, null, null, null, null), cond("EMA", "cross_down", null, null, null, null, null)),
+                rule("SELL", cond("MACD", ">", 0.5, null, null, null, 9)));
+        assertConforms(cfg, true);
+    }
+
+    @Test
+    public void andedConditionsAndOredRules() {
+        StrategyConfig cfg = strategy(
+                rule("BUY", cond("RSI", "<", 50, 7, null, null, null), cond("MACD", "<", 0, null, 12, 26, null)),
+                rule("BUY", cond("EMA", "cross_up", null, 5, null, null, null)),
+                rule("SELL", cond("RSI", ">", 50, 7, null, null, null), cond("MACD", ">", 0, null, 12, 26, null)));
+        assertConforms(cfg, true);
+    }
+
+    @Test
+    public void emptyRulesNeverFire() {
+        assertConforms(strategy(), false);
+        assertConforms(strategy(rule("BUY")), false);
+        assertConforms(strategy(rule("SELL")), false);
+    }
+
+    private void assertConforms(StrategyConfig cfg, boolean expectSignals) {
+        for (List<Candle> candles : Arrays.asList(waves(), plateaus())) {
+            BarSeries bars = PrimitiveBarSeries.of("FIX", candles).toBarSeries(Duration.ofMinutes(5), ZoneOffset.UTC);
+            Strategy reference = factory.buildStrategy(cfg, new IndicatorRegistry(bars));
+            CompiledStrategy compiled = CompiledStrategy.compile(cfg);
+            IncrementalSeries series = new IncrementalSeries(candles.size());
+
+            int entries = 0;
+            int exits = 0;
+            for (int i = 0; i < candles.size(); i++) {
+                series.sync(candles.subList(0, i + 1));
+                if (i < WARMUP) continue;
+                boolean enter = reference.shouldEnter(i);
+                boolean exit = reference.shouldExit(i);
+                assertEquals("entry at bar " + i, enter, compiled.shouldEnter(series));
+                assertEquals("exit at bar " + i, exit, compiled.shouldExit(series));
+                if (enter) entries++;
+                if (exit) exits++;
+            }
+            if (expectSignals) {
+                assertTrue("fixture never triggers an entry", entries > 0);
+                assertTrue("fixture never triggers an exit", exits > 0);
+            } else {
+                assertEquals(0, entries + exits);
+            }
+        }
+    }
+
+    /** Two overlapping sine waves on a slow drift: frequent crosses and RSI swings. */
+    private static List<Candle> waves() {
+        List<Candle> out = new ArrayList<>();
+        double prev = 100;
+        for (int i = 0; i < 240; i++) {
+            double close = 100 + 0.02 * i + 8 * Math.sin(i / 6.0) + 3 * Math.sin(i / 2.3);
+            out.add(candle(i, prev, close));
+            prev = close;
+        }
+        return out;
+    }
+
+    /** Steps with runs of repeated closes, so crosses walk back over equal values. */
+    private static List<Candle> plateaus() {
+        List<Candle> out = new ArrayList<>();
+        double prev = 100;
+        for (int i = 0; i < 240; i++) {
+            double close = 100 + 6 * Math.round(Math.sin(i / 9.0) * 2) + (i % 7 == 0 ? 1.5 : 0);
+            out.add(candle(i, prev, close));
+            prev = close;
+        }
+        return out;
+    }
+
+    private static Candle candle(int i, double open, double close) {
+        return new Candle(Instant.ofEpochSecond(1_700_000_000L + i * 300L), open,
+                Math.max(open, close) + 0.5, Math.min(open, close) - 0.5, close, 1000 + i);
+    }
+
+    private static StrategyConfig strategy(StrategyConfig.RuleConfig... rules) {
+        StrategyConfig cfg = new StrategyConfig();
+        cfg.setName("fixture");
+        cfg.setRules(new ArrayList<>(Arrays.asList(rules)));
+        return cfg;
+    }
+
+    private static StrategyConfig.RuleConfig rule(String action, Condition... conditions) {
+        StrategyConfig.RuleConfig rc = new StrategyConfig.RuleConfig();
+        rc.setAction(action);
+        rc.setConditions(conditions.length == 0 ? Collections.emptyList() : Arrays.asList(conditions));
+        return rc;
+    }
+
+    private static Condition cond(String indicator, String operator, Object value,
+                                  Integer period, Integer fast, Integer slow, Integer signal) {
+        Condition c = new Condition();
+        c.indicator = indicator;
+        c.operator = operator;
+        c.value = value;
+        c.period = period;
+        c.fast = fast;
+        c.slow = slow;
+        c.signal = signal;
+        return c;
+    }
+
+    private static StrategyFactoryImpl strategyFactory() {
+        RuleFactoryImpl rules = new RuleFactoryImpl();
+        inject(rules, "indicatorFactoryService", new IndicatorFactoryImpl());
+        StrategyFactoryImpl strategies = new StrategyFactoryImpl();
+        inject(strategies, "ruleFactoryService", rules);
+        return strategies;
+    }
+
+    private static void inject(Object target, String field, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
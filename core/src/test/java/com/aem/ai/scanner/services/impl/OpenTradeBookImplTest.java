@@ -0,0 +1,162 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.dao.DAOFactory;
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.model.Signal;
+import com.aem.ai.scanner.model.TradeBookOp;
+import com.aem.ai.scanner.model.TradeModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OpenTradeBookImplTest {
+
+    private static final String TABLE = "stock_trades";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final List<TradeBookOp> applied = Collections.synchronizedList(new ArrayList<>());
+    private final List<TradeModel> dbOpen = new ArrayList<>();
+    private volatile String failState; // SQLState thrown for any batch holding a "poison" comment
+    private Path deadLetters;
+    private OpenTradeBookImpl book;
+
+    @Before
+    public void setUp() throws Exception {
+        deadLetters = tmp.getRoot().toPath().resolve("dead-ops.jsonl");
+        dbOpen.add(trade("T9", 100));
+        book = new OpenTradeBookImpl();
+        Field dao = OpenTradeBookImpl.class.getDeclaredField("daoFactory");
+        dao.setAccessible(true);
+        dao.set(book, fakeDao());
+        book.activate(config());
+    }
+
+    @After
+    public void tearDown() {
+        failState = null;
+        book.deactivate();
+    }
+
+    @Test
+    public void poisonOpIsDeadLetteredWithoutBlockingTheRestOfItsTable() throws Exception {
+        failState = "23000";
+        book.updateLtp(TABLE, trade("T1", 101));
+        book.appendComment(TABLE, "INFY", Signal.Side.BUY, "poison");
+        book.updateLtp(TABLE, trade("T2", 202));
+
+        assertEquals(1, book.flush());
+        assertEquals(2, applied.size());
+        assertEquals("T1", applied.get(0).getTradeId());
+        assertEquals("T2", applied.get(1).getTradeId());
+        assertFalse(Files.exists(deadLetters));
+
+        assertEquals(1, book.flush());
+        assertEquals(0, book.flush()); // third failure reaches max_attempts
+        List<String> dead = Files.readAllLines(deadLetters, StandardCharsets.UTF_8);
+        assertEquals(1, dead.size());
+        assertTrue(dead.get(0).contains("poison"));
+        assertTrue(dead.get(0).contains("\"attempts\":3"));
+        assertEquals(2, applied.size());
+    }
+
+    @Test
+    public void connectionFailureKeepsOpsWithoutCountingAttempts() throws Exception {
+        failState = "08S01";
+        book.appendComment(TABLE, "INFY", Signal.Side.BUY, "poison");
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, book.flush());
+        }
+        assertFalse(Files.exists(deadLetters));
+
+        failState = null;
+        assertEquals(0, book.flush());
+        assertEquals(1, applied.size());
+    }
+
+    @Test
+    public void onlyTheWinningCloseSetsTheExit() {
+        TradeModel t = book.openTrades(TABLE, "INFY").get(0);
+        LocalDateTime exit = LocalDateTime.of(2026, 1, 5, 10, 15);
+
+        assertTrue(book.close(TABLE, t, 110, exit, 10));
+        assertFalse(book.close(TABLE, t, 95, exit.plusMinutes(1), -5));
+
+        assertEquals(TradeModel.Status.CLOSED, t.getStatus());
+        assertEquals(110, t.getExitPrice(), 0);
+        assertEquals(10, t.getPnl(), 0);
+        assertTrue(book.openTrades(TABLE, "INFY").isEmpty());
+
+        assertEquals(0, book.flush());
+        assertEquals(1, applied.size());
+        assertEquals(TradeBookOp.Type.CLOSE, applied.get(0).getType());
+        assertEquals(10, applied.get(0).getPnl(), 0);
+        assertEquals(exit.toString(), applied.get(0).getExitTime());
+    }
+
+    private TradeModel trade(String id, double ltp) {
+        TradeModel t = new TradeModel(id, new InstrumentSymbol("INFY", "NSE_EQ|INE009A01021"), Signal.Side.BUY,
+                100, 95, 110, 1, null, 0, null, TradeModel.Status.OPEN, 0);
+        t.setLtp(ltp);
+        return t;
+    }
+
+    private DAOFactory fakeDao() {
+        return (DAOFactory) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DAOFactory.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "applyTradeBookOps":
+                            @SuppressWarnings("unchecked")
+                            List<TradeBookOp> ops = (List<TradeBookOp>) args[0];
+                            String state = failState;
+                            for (TradeBookOp op : ops) {
+                                if (state != null && "poison".equals(op.getComment())) {
+                                    throw new SQLException("rejected", state);
+                                }
+                            }
+                            applied.addAll(ops);
+                            return ops.size();
+                        case "listAllOpenTrades":
+                            return new ArrayList<>(dbOpen);
+                        case "pruneAppliedTradeBookOps":
+                            return 0;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private OpenTradeBookImpl.Config config() {
+        String journal = tmp.getRoot().toPath().resolve("pending-ops.jsonl").toString();
+        return (OpenTradeBookImpl.Config) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{OpenTradeBookImpl.Config.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "tables": return new String[]{TABLE};
+                        case "flush_interval_ms": return 3_600_000L; // flushes only when the test calls flush()
+                        case "journal_file": return journal;
+                        case "reload_interval_seconds": return 0;
+                        case "max_attempts": return 3;
+                        case "dead_letter_file": return deadLetters.toString();
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
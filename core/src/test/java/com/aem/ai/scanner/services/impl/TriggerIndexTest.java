@@ -0,0 +1,134 @@
+package com.aem.ai.scanner.services.impl;
+
+import com.aem.ai.scanner.model.InstrumentSymbol;
+import com.aem.ai.scanner.model.Signal;
+import com.aem.ai.scanner.model.TradeModel;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TriggerIndexTest {
+
+    private static final InstrumentSymbol INFY = new InstrumentSymbol("INFY", "NSE_EQ|INE009A01021");
+    private static final InstrumentSymbol TCS = new InstrumentSymbol("TCS", "NSE_EQ|INE467B01029");
+
+    @Test
+    public void matchesLinearScanOnRandomWalks() {
+        Random rnd = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            List<TradeModel> open = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                open.add(randomTrade(rnd, i % 3 == 0 ? TCS : INFY, i));
+            }
+            TriggerIndex index = new TriggerIndex(open);
+            List<TradeModel> live = new ArrayList<>(open);
+
+            double price = 100;
+            for (int tick = 0; tick < 400; tick++) {
+                // whole-number steps, so prices repeat and land exactly on levels
+                price += rnd.nextInt(5) - 2;
+                String symbol = rnd.nextBoolean() ? "INFY" : "TCS";
+                assertSameTrades("round " + round + " tick " + tick + " @" + price,
+                        linearCrossed(live, symbol, price), index.crossed(symbol, price));
+            }
+            assertEquals(live.size(), index.size());
+        }
+    }
+
+    @Test
+    public void levelReachedExactlyFires() {
+        TradeModel buy = trade(INFY, Signal.Side.BUY, 95, 110, "B");
+        TradeModel sell = trade(INFY, Signal.Side.SELL, 105, 90, "S");
+        TriggerIndex index = new TriggerIndex(Arrays.asList(buy, sell));
+
+        assertTrue(index.crossed("INFY", 100).isEmpty());
+        assertEquals(Collections.singletonList(sell), index.crossed("INFY", 105)); // SELL stop
+        assertEquals(Collections.singletonList(buy), index.crossed("INFY", 95));   // BUY stop
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void repeatedPriceReturnsATradeOnce() {
+        TradeModel a = trade(INFY, Signal.Side.BUY, 90, 110, "A");
+        TradeModel b = trade(INFY, Signal.Side.BUY, 90, 110, "B");
+        TriggerIndex index = new TriggerIndex(Arrays.asList(a, b));
+
+        assertSameTrades("first", Arrays.asList(a, b), index.crossed("INFY", 110));
+        assertTrue(index.crossed("INFY", 110).isEmpty());
+        assertTrue(index.crossed("INFY", 120).isEmpty());
+        assertTrue(index.crossed("INFY", 80).isEmpty());
+    }
+
+    @Test
+    public void tradeCrossingBothLaddersIsReturnedOnce() {
+        // inverted levels: one price is at or above the target and at or below the stop
+        TradeModel buy = trade(INFY, Signal.Side.BUY, 105, 100, "B");
+        TradeModel sell = trade(INFY, Signal.Side.SELL, 100, 105, "S");
+        TriggerIndex index = new TriggerIndex(Arrays.asList(buy, sell));
+
+        assertSameTrades("both", Arrays.asList(buy, sell), index.crossed("INFY", 102));
+        assertTrue(index.crossed("INFY", 102).isEmpty());
+        assertTrue(index.crossed("INFY", 50).isEmpty());
+        assertTrue(index.crossed("INFY", 150).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void unknownSymbolCrossesNothing() {
+        TriggerIndex index = new TriggerIndex(Collections.singletonList(trade(INFY, Signal.Side.BUY, 90, 110, "A")));
+        assertTrue(index.crossed("TCS", 1).isEmpty());
+    }
+
+    /** The hitTarget/hitStop scan TriggerIndex replaced; fired trades leave {@code live}. */
+    private static List<TradeModel> linearCrossed(List<TradeModel> live, String symbol, double ltp) {
+        List<TradeModel> hit = new ArrayList<>();
+        for (Iterator<TradeModel> it = live.iterator(); it.hasNext(); ) {
+            TradeModel t = it.next();
+            if (!symbol.equals(t.getSymbol().getSymbol())) continue;
+            boolean buy = t.getSide() == Signal.Side.BUY;
+            boolean hitTarget = buy ? ltp >= t.getTarget() : ltp <= t.getTarget();
+            boolean hitStop = buy ? ltp <= t.getStopLoss() : ltp >= t.getStopLoss();
+            if (hitTarget || hitStop) {
+                hit.add(t);
+                it.remove();
+            }
+        }
+        return hit;
+    }
+
+    private static void assertSameTrades(String msg, List<TradeModel> expected, List<TradeModel> actual) {
+        assertEquals(msg, ids(expected), ids(actual));
+    }
+
+    private static List<String> ids(List<TradeModel> trades) {
+        List<String> ids = new ArrayList<>();
+        for (TradeModel t : trades) ids.add(t.getTradeId());
+        ids.sort(Comparator.naturalOrder());
+        return ids;
+    }
+
+    private static TradeModel randomTrade(Random rnd, InstrumentSymbol symbol, int i) {
+        boolean buy = rnd.nextBoolean();
+        int entry = 100 + rnd.nextInt(11) - 5;
+        int stopGap = 1 + rnd.nextInt(8);
+        int targetGap = 1 + rnd.nextInt(10);
+        return buy
+                ? trade(symbol, Signal.Side.BUY, entry - stopGap, entry + targetGap, "T" + i)
+                : trade(symbol, Signal.Side.SELL, entry + stopGap, entry - targetGap, "T" + i);
+    }
+
+    private static TradeModel trade(InstrumentSymbol symbol, Signal.Side side, double stop, double target, String id) {
+        TradeModel t = new TradeModel(symbol, side, (stop + target) / 2, stop, target, 1);
+        t.setTradeId(id);
+        return t;
+    }
+}
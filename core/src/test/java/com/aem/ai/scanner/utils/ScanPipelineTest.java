@@ -0,0 +1,68 @@
+package com.aem.ai.scanner.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScanPipelineTest {
+
+    @Test(timeout = 5000)
+    public void submitAfterShutdownReturnsInsteadOfBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ScanPipeline p = new ScanPipeline("test");
+        ScanPipeline.Stage<Integer> stage = p.stage("slow", 1, 1, i -> release.await());
+        assertTrue(stage.submit(1)); // taken by the worker, which then blocks
+        p.shutdown();
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(stage.submit(i));
+        }
+        assertTrue(p.isClosed());
+        assertTrue(p.awaitIdle(100));
+    }
+
+    @Test(timeout = 5000)
+    public void shutdownWakesASubmitWaitingOnAFullQueue() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ScanPipeline p = new ScanPipeline("test");
+        ScanPipeline.Stage<Integer> stage = p.stage("slow", 1, 1, i -> release.await());
+        stage.submit(1);
+        Thread.sleep(50); // worker holds item 1
+        stage.submit(2);  // fills the queue
+
+        boolean[] result = {true};
+        Thread feeder = new Thread(() -> {
+            try {
+                result[0] = stage.submit(3);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        feeder.start();
+        Thread.sleep(200);
+        p.shutdown();
+        feeder.join(2000);
+        assertFalse(feeder.isAlive());
+        assertFalse(result[0]);
+    }
+
+    @Test(timeout = 5000)
+    public void submitGivesUpAtTheDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ScanPipeline p = new ScanPipeline("test");
+        ScanPipeline.Stage<Integer> stage = p.stage("slow", 1, 1, i -> release.await());
+        stage.submit(1);
+        Thread.sleep(50);
+        stage.submit(2);
+
+        long start = System.currentTimeMillis();
+        assertFalse(stage.submit(3, start + 300));
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        release.countDown();
+        assertTrue(p.awaitIdle(2000));
+        p.shutdown();
+    }
+}